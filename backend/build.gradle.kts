@@ -26,4 +26,9 @@ dependencies {
     implementation(libs.equinox.backend)
     implementation(libs.equinox.core)
     implementation(project(":core"))
+    testImplementation(libs.spring.boot.starter.test)
+}
+
+tasks.test {
+    useJUnitPlatform()
 }
@@ -0,0 +1,16 @@
+package com.tecknobit.brownie.helpers.metrics;
+
+import java.util.Map;
+
+/**
+ * The {@code CpuSample} record represents the usage of the {@code CPU} of a host computed by the
+ * {@link CpuUsageSampler} from the deltas of the {@code /proc/stat} counters between two consecutive probes
+ *
+ * @param usage The usage percent of the whole {@code CPU}
+ * @param coresUsage The usage percents of each core, indexed by the number of the core
+ * @param servicesUsage The usage percents of the whole {@code CPU} of each tracked service, keyed by its pid
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+public record CpuSample(double usage, double[] coresUsage, Map<Long, Double> servicesUsage) {
+}
@@ -0,0 +1,154 @@
+package com.tecknobit.brownie.helpers.metrics;
+
+import com.tecknobit.brownie.helpers.shell.HostProbeResult;
+import com.tecknobit.brownie.helpers.shell.HostProbeResult.CpuCounters;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.tecknobit.brownie.helpers.shell.HostProbeResult.AGGREGATE_CPU;
+
+/**
+ * The {@code CpuUsageSampler} class is used to compute the usage of the {@code CPU} of the hosts from the deltas of
+ * the {@code /proc/stat} and {@code /proc/<pid>/stat} counters between two consecutive probes of the same host, so
+ * the usage reflects the whole interval between the probes instead of the since-boot average or the noise of a single
+ * iteration. The counters of the latest probe of each host are kept to compute the next sample
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+@Component
+public class CpuUsageSampler {
+
+    /**
+     * {@code MIN_ELAPSED_TICKS} the min number of ticks which must be elapsed between two probes to compute a new
+     * sample, when two probes are closer the sample of the previous one is reused
+     */
+    private static final long MIN_ELAPSED_TICKS = 50;
+
+    /**
+     * {@code latestSnapshots} the counters of the latest probe of each host
+     */
+    private final ConcurrentHashMap<String, CpuSnapshot> latestSnapshots;
+
+    /**
+     * Constructor used to init the sampler
+     */
+    public CpuUsageSampler() {
+        latestSnapshots = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Method used to compute the usage of the {@code CPU} from the counters retrieved by a probe, the sample is
+     * attached to the probe
+     *
+     * @param hostId The identifier of the probed host
+     * @param probe The result of the probe
+     */
+    public void sample(String hostId, HostProbeResult probe) {
+        Map<String, CpuCounters> cpuTimes = probe.getCpuTimes();
+        CpuCounters aggregate = cpuTimes.get(AGGREGATE_CPU);
+        if (aggregate == null)
+            return;
+        Map<Long, Long> servicesCpuTimes = probe.getServicesCpuTimes();
+        CpuSnapshot previous = latestSnapshots.get(hostId);
+        if (previous != null) {
+            long elapsedTicks = aggregate.total() - previous.cpuTimes().get(AGGREGATE_CPU).total();
+            if (elapsedTicks >= 0 && elapsedTicks < MIN_ELAPSED_TICKS) {
+                probe.setCpuSample(previous.sample());
+                return;
+            }
+            if (elapsedTicks < 0)
+                previous = null;
+        }
+        CpuSample sample = computeSample(previous, cpuTimes, servicesCpuTimes);
+        latestSnapshots.put(hostId, new CpuSnapshot(cpuTimes, servicesCpuTimes, sample));
+        probe.setCpuSample(sample);
+    }
+
+    /**
+     * Method used to compute a sample from the counters of two consecutive probes, without the previous probe the
+     * usage is computed since the boot of the host and the usage of the services is not available
+     *
+     * @param previous The counters of the previous probe, {@code null} if not available
+     * @param cpuTimes The counters of the {@code CPU} retrieved by the current probe
+     * @param servicesCpuTimes The counters of the services retrieved by the current probe
+     *
+     * @return the computed sample as {@link CpuSample}
+     */
+    private CpuSample computeSample(CpuSnapshot previous, Map<String, CpuCounters> cpuTimes,
+                                    Map<Long, Long> servicesCpuTimes) {
+        Map<String, CpuCounters> previousTimes = previous != null ? previous.cpuTimes() : Map.of();
+        CpuCounters aggregate = cpuTimes.get(AGGREGATE_CPU);
+        double usage = computeUsage(previousTimes.get(AGGREGATE_CPU), aggregate);
+        int coresCount = cpuTimes.size() - 1;
+        double[] coresUsage = new double[coresCount];
+        for (int core = 0; core < coresCount; core++) {
+            String coreKey = AGGREGATE_CPU + core;
+            CpuCounters coreCounters = cpuTimes.get(coreKey);
+            if (coreCounters != null)
+                coresUsage[core] = computeUsage(previousTimes.get(coreKey), coreCounters);
+        }
+        Map<Long, Double> servicesUsage = new HashMap<>();
+        if (previous != null) {
+            long elapsedTicks = aggregate.total() - previousTimes.get(AGGREGATE_CPU).total();
+            servicesCpuTimes.forEach((pid, serviceTicks) -> {
+                Long previousTicks = previous.servicesCpuTimes().get(pid);
+                if (previousTicks != null && serviceTicks >= previousTicks)
+                    servicesUsage.put(pid, toPercent(serviceTicks - previousTicks, elapsedTicks));
+            });
+        }
+        return new CpuSample(usage, coresUsage, servicesUsage);
+    }
+
+    /**
+     * Method used to compute the usage percent of a {@code CPU} between two readings of its counters
+     *
+     * @param previous The previous reading, {@code null} to compute the usage since the boot
+     * @param current The current reading
+     *
+     * @return the usage percent as {@code double}
+     */
+    private double computeUsage(CpuCounters previous, CpuCounters current) {
+        if (previous == null)
+            return toPercent(current.busy(), current.total());
+        return toPercent(current.busy() - previous.busy(), current.total() - previous.total());
+    }
+
+    /**
+     * Method used to compute a percent rounded to the hundredths
+     *
+     * @param ticks The ticks to compare
+     * @param totalTicks The total ticks
+     *
+     * @return the percent as {@code double}
+     */
+    private double toPercent(long ticks, long totalTicks) {
+        if (totalTicks <= 0)
+            return 0;
+        return Math.round(Math.max(0, ticks) * 10000.0 / totalTicks) / 100.0;
+    }
+
+    /**
+     * Method used to evict the counters of a host, it must be invoked when the host is edited or unregistered
+     *
+     * @param hostId The identifier of the host
+     */
+    public void evictHost(String hostId) {
+        latestSnapshots.remove(hostId);
+    }
+
+    /**
+     * The {@code CpuSnapshot} record represents the counters retrieved by the latest probe of a host
+     *
+     * @param cpuTimes The counters of the {@code CPU}
+     * @param servicesCpuTimes The counters of the services
+     * @param sample The sample computed from the counters
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private record CpuSnapshot(Map<String, CpuCounters> cpuTimes, Map<Long, Long> servicesCpuTimes, CpuSample sample) {
+    }
+
+}
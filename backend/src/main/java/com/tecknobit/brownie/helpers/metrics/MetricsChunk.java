@@ -0,0 +1,315 @@
+package com.tecknobit.brownie.helpers.metrics;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code MetricsChunk} class is used to store the samples of a time span in a compact columnar format: the
+ * timestamps are stored as delta-of-delta and each metric, scaled to the hundredths, as delta from the previous sample,
+ * all encoded as zigzag variable-length integers. Samples collected with a regular interval and stable values take
+ * about a byte per column
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+public class MetricsChunk {
+
+    /**
+     * {@code VALUE_SCALE} the scale applied to the values to store them as integers
+     */
+    private static final int VALUE_SCALE = 100;
+
+    /**
+     * {@code chunkStart} the start of the time span covered by the chunk
+     */
+    private final long chunkStart;
+
+    /**
+     * {@code metricsCount} the number of the metrics stored for each sample
+     */
+    private final int metricsCount;
+
+    /**
+     * {@code timestamps} the column of the timestamps of the samples
+     */
+    private final ByteArrayOutputStream timestamps;
+
+    /**
+     * {@code values} the columns of the values of the metrics of the samples
+     */
+    private final ByteArrayOutputStream[] values;
+
+    /**
+     * {@code lastValues} the scaled values of the metrics of the last sample appended
+     */
+    private final long[] lastValues;
+
+    /**
+     * {@code samplesCount} the number of the samples stored in the chunk
+     */
+    private int samplesCount;
+
+    /**
+     * {@code lastTimestamp} the timestamp of the last sample appended
+     */
+    private long lastTimestamp;
+
+    /**
+     * {@code lastTimestampDelta} the delta between the timestamps of the last two samples appended
+     */
+    private long lastTimestampDelta;
+
+    /**
+     * Constructor to instantiate the object
+     *
+     * @param chunkStart The start of the time span covered by the chunk
+     * @param metricsCount The number of the metrics stored for each sample
+     */
+    public MetricsChunk(long chunkStart, int metricsCount) {
+        this.chunkStart = chunkStart;
+        this.metricsCount = metricsCount;
+        timestamps = new ByteArrayOutputStream();
+        values = new ByteArrayOutputStream[metricsCount];
+        for (int j = 0; j < metricsCount; j++)
+            values[j] = new ByteArrayOutputStream();
+        lastValues = new long[metricsCount];
+    }
+
+    /**
+     * Method used to append a sample to the chunk, the samples must be appended in chronological order and must have
+     * the same number of metrics of the chunk
+     *
+     * @param sample The sample to append
+     */
+    public void append(MetricsSample sample) {
+        long timestamp = sample.timestamp();
+        long[] scaledValues = new long[metricsCount];
+        for (int j = 0; j < metricsCount; j++)
+            scaledValues[j] = scale(sample.values()[j]);
+        if (samplesCount == 0) {
+            writeVarLong(timestamps, timestamp - chunkStart);
+            for (int j = 0; j < metricsCount; j++)
+                writeVarLong(values[j], scaledValues[j]);
+        } else {
+            long timestampDelta = timestamp - lastTimestamp;
+            writeVarLong(timestamps, timestampDelta - lastTimestampDelta);
+            lastTimestampDelta = timestampDelta;
+            for (int j = 0; j < metricsCount; j++)
+                writeVarLong(values[j], scaledValues[j] - lastValues[j]);
+        }
+        lastTimestamp = timestamp;
+        System.arraycopy(scaledValues, 0, lastValues, 0, metricsCount);
+        samplesCount++;
+    }
+
+    /**
+     * Method to get the {@link #chunkStart} instance
+     *
+     * @return the {@link #chunkStart} instance as {@code long}
+     */
+    public long getChunkStart() {
+        return chunkStart;
+    }
+
+    /**
+     * Method used to get the timestamp of the last sample of the chunk
+     *
+     * @return the timestamp of the last sample of the chunk as {@code long}
+     */
+    public long getChunkEnd() {
+        return lastTimestamp;
+    }
+
+    /**
+     * Method used to check whether the chunk does not contain samples
+     *
+     * @return whether the chunk does not contain samples as {@code boolean}
+     */
+    public boolean isEmpty() {
+        return samplesCount == 0;
+    }
+
+    /**
+     * Method used to encode the chunk, the payload is made up of the number of the samples and of the metrics followed
+     * by the length and the content of each column
+     *
+     * @return the encoded chunk as array of {@code byte}
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        writeVarLong(payload, samplesCount);
+        writeVarLong(payload, metricsCount);
+        writeColumn(payload, timestamps);
+        for (ByteArrayOutputStream column : values)
+            writeColumn(payload, column);
+        return payload.toByteArray();
+    }
+
+    /**
+     * Method used to write a column in the payload of the chunk
+     *
+     * @param payload The payload where write the column
+     * @param column The column to write
+     */
+    private void writeColumn(ByteArrayOutputStream payload, ByteArrayOutputStream column) {
+        writeVarLong(payload, column.size());
+        payload.writeBytes(column.toByteArray());
+    }
+
+    /**
+     * Method used to get the samples stored in the chunk
+     *
+     * @return the samples as {@link List} of {@link MetricsSample}
+     */
+    public List<MetricsSample> getSamples() {
+        return decode(chunkStart, encode());
+    }
+
+    /**
+     * Method used to decode the samples of an encoded chunk
+     *
+     * @param chunkStart The start of the time span covered by the chunk
+     * @param payload The encoded chunk
+     * @return the samples as {@link List} of {@link MetricsSample}
+     */
+    public static List<MetricsSample> decode(long chunkStart, byte[] payload) {
+        PayloadReader reader = new PayloadReader(payload);
+        int samplesCount = (int) reader.readVarLong();
+        int metricsCount = (int) reader.readVarLong();
+        PayloadReader[] columns = new PayloadReader[metricsCount + 1];
+        for (int j = 0; j < columns.length; j++)
+            columns[j] = reader.sliceColumn();
+        List<MetricsSample> samples = new ArrayList<>(samplesCount);
+        long timestamp = chunkStart;
+        long timestampDelta = 0;
+        long[] scaledValues = new long[metricsCount];
+        for (int i = 0; i < samplesCount; i++) {
+            if (i == 0)
+                timestamp += columns[0].readVarLong();
+            else {
+                timestampDelta += columns[0].readVarLong();
+                timestamp += timestampDelta;
+            }
+            double[] sampleValues = new double[metricsCount];
+            for (int j = 0; j < metricsCount; j++) {
+                scaledValues[j] += columns[j + 1].readVarLong();
+                sampleValues[j] = unscale(scaledValues[j]);
+            }
+            samples.add(new MetricsSample(timestamp, sampleValues));
+        }
+        return samples;
+    }
+
+    /**
+     * Method used to scale a value to an integer
+     *
+     * @param value The value to scale
+     * @return the scaled value as {@code long}
+     */
+    private static long scale(double value) {
+        return Math.round(value * VALUE_SCALE);
+    }
+
+    /**
+     * Method used to restore a scaled value
+     *
+     * @param value The scaled value
+     * @return the value as {@code double}
+     */
+    private static double unscale(long value) {
+        return (double) value / VALUE_SCALE;
+    }
+
+    /**
+     * Method used to write a value as zigzag variable-length integer
+     *
+     * @param stream The stream where write the value
+     * @param value The value to write
+     */
+    private static void writeVarLong(ByteArrayOutputStream stream, long value) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            stream.write((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        stream.write((int) zigzag);
+    }
+
+    /**
+     * The {@code PayloadReader} class is used to read the zigzag variable-length integers of an encoded chunk
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private static final class PayloadReader {
+
+        /**
+         * {@code payload} the payload to read
+         */
+        private final byte[] payload;
+
+        /**
+         * {@code limit} the index where the readable portion of the payload ends
+         */
+        private final int limit;
+
+        /**
+         * {@code position} the index of the next byte to read
+         */
+        private int position;
+
+        /**
+         * Constructor to instantiate the reader
+         *
+         * @param payload The payload to read
+         */
+        private PayloadReader(byte[] payload) {
+            this(payload, 0, payload.length);
+        }
+
+        /**
+         * Constructor to instantiate the reader
+         *
+         * @param payload The payload to read
+         * @param position The index of the first byte to read
+         * @param limit The index where the readable portion of the payload ends
+         */
+        private PayloadReader(byte[] payload, int position, int limit) {
+            this.payload = payload;
+            this.position = position;
+            this.limit = limit;
+        }
+
+        /**
+         * Method used to read a column prefixed by its length, moving the reader after it
+         *
+         * @return the reader of the column as {@link PayloadReader}
+         */
+        private PayloadReader sliceColumn() {
+            int length = (int) readVarLong();
+            PayloadReader column = new PayloadReader(payload, position, position + length);
+            position += length;
+            return column;
+        }
+
+        /**
+         * Method used to read a zigzag variable-length integer
+         *
+         * @return the value read as {@code long}
+         */
+        private long readVarLong() {
+            long zigzag = 0;
+            int shift = 0;
+            byte current;
+            do {
+                if (position >= limit)
+                    throw new IllegalStateException("Truncated metrics chunk");
+                current = payload[position++];
+                zigzag |= (long) (current & 0x7F) << shift;
+                shift += 7;
+            } while ((current & 0x80) != 0);
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+
+    }
+
+}
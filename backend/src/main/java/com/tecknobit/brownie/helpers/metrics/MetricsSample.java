@@ -0,0 +1,13 @@
+package com.tecknobit.brownie.helpers.metrics;
+
+/**
+ * The {@code MetricsSample} record represents a sample of the metrics of a host or of a service, the meaning of each
+ * value depends on the series the sample belongs to
+ *
+ * @param timestamp The date when the sample has been collected, or the start of its bucket if it is an average
+ * @param values The values of the metrics of the sample
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+public record MetricsSample(long timestamp, double... values) {
+}
@@ -0,0 +1,141 @@
+package com.tecknobit.brownie.helpers.metrics;
+
+import static java.util.concurrent.TimeUnit.*;
+
+/**
+ * The {@code MetricsTier} enum lists the tiers where the samples of the metrics of the hosts are stored, each tier
+ * downsamples the samples of the previous one to its resolution and keeps them for its retention:
+ *
+ * <ul>
+ *     <li>
+ *         {@link #RAW} keeps the samples collected by the monitor for one hour
+ *     </li>
+ *     <li>
+ *         {@link #MINUTE} keeps the one-minute averages for seven days
+ *     </li>
+ *     <li>
+ *         {@link #HOUR} keeps the one-hour averages for one year
+ *     </li>
+ * </ul>
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+public enum MetricsTier {
+
+    /**
+     * {@code RAW} the tier of the samples collected by the monitor
+     */
+    RAW(0, HOURS.toMillis(1), MINUTES.toMillis(10)),
+
+    /**
+     * {@code MINUTE} the tier of the one-minute averages
+     */
+    MINUTE(MINUTES.toMillis(1), DAYS.toMillis(7), DAYS.toMillis(1)),
+
+    /**
+     * {@code HOUR} the tier of the one-hour averages
+     */
+    HOUR(HOURS.toMillis(1), DAYS.toMillis(365), DAYS.toMillis(30));
+
+    /**
+     * {@code resolution} the width, in milliseconds, of the buckets averaged in a single sample, {@code 0} if the
+     * samples are not downsampled
+     */
+    private final long resolution;
+
+    /**
+     * {@code retention} the time, in milliseconds, the samples are kept
+     */
+    private final long retention;
+
+    /**
+     * {@code chunkSpan} the time span, in milliseconds, covered by a single chunk of samples
+     */
+    private final long chunkSpan;
+
+    /**
+     * Constructor to init the {@link MetricsTier}
+     *
+     * @param resolution The width, in milliseconds, of the buckets averaged in a single sample
+     * @param retention The time, in milliseconds, the samples are kept
+     * @param chunkSpan The time span, in milliseconds, covered by a single chunk of samples
+     */
+    MetricsTier(long resolution, long retention, long chunkSpan) {
+        this.resolution = resolution;
+        this.retention = retention;
+        this.chunkSpan = chunkSpan;
+    }
+
+    /**
+     * Method to get the {@link #resolution} instance
+     *
+     * @return the {@link #resolution} instance as {@code long}
+     */
+    public long getResolution() {
+        return resolution;
+    }
+
+    /**
+     * Method to get the {@link #retention} instance
+     *
+     * @return the {@link #retention} instance as {@code long}
+     */
+    public long getRetention() {
+        return retention;
+    }
+
+    /**
+     * Method to get the {@link #chunkSpan} instance
+     *
+     * @return the {@link #chunkSpan} instance as {@code long}
+     */
+    public long getChunkSpan() {
+        return chunkSpan;
+    }
+
+    /**
+     * Method used to get the tier which downsamples the samples of this tier
+     *
+     * @return the next tier as {@link MetricsTier}, {@code null} if this is the coarsest tier
+     */
+    public MetricsTier nextTier() {
+        MetricsTier[] tiers = values();
+        int nextOrdinal = ordinal() + 1;
+        return nextOrdinal < tiers.length ? tiers[nextOrdinal] : null;
+    }
+
+    /**
+     * Method used to align a timestamp to the start of its bucket
+     *
+     * @param timestamp The timestamp to align
+     * @return the start of the bucket of the timestamp as {@code long}
+     */
+    public long alignToBucket(long timestamp) {
+        return timestamp - Math.floorMod(timestamp, resolution);
+    }
+
+    /**
+     * Method used to align a timestamp to the start of its chunk
+     *
+     * @param timestamp The timestamp to align
+     * @return the start of the chunk of the timestamp as {@code long}
+     */
+    public long alignToChunk(long timestamp) {
+        return timestamp - Math.floorMod(timestamp, chunkSpan);
+    }
+
+    /**
+     * Method used to select the finest tier which still keeps the samples since the specified date
+     *
+     * @param fromDate The date from which the samples are requested
+     * @return the finest tier as {@link MetricsTier}
+     */
+    public static MetricsTier selectTier(long fromDate) {
+        long requestedWindow = System.currentTimeMillis() - fromDate;
+        for (MetricsTier tier : values())
+            if (requestedWindow <= tier.retention)
+                return tier;
+        return HOUR;
+    }
+
+}
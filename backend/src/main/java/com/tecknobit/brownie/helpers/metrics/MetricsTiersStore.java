@@ -0,0 +1,286 @@
+package com.tecknobit.brownie.helpers.metrics;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.tecknobit.brownie.helpers.metrics.MetricsTier.RAW;
+
+/**
+ * The {@code MetricsTiersStore} class is used to keep in memory the open {@link MetricsChunk} of each
+ * {@link MetricsTier} of the series of a kind of owner, the hosts or the services. The samples are appended to the
+ * {@link MetricsTier#RAW} tier and downsampled to the coarser tiers as their buckets are completed, while each chunk is
+ * handed to the {@link ChunksStorer} once its time span is over
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+public class MetricsTiersStore {
+
+    /**
+     * {@code metricsCount} the number of the metrics of each sample of the series
+     */
+    private final int metricsCount;
+
+    /**
+     * {@code chunksStorer} the storer of the sealed chunks
+     */
+    private final ChunksStorer chunksStorer;
+
+    /**
+     * {@code ownersMetrics} the in-memory state of the series of each owner
+     */
+    private final ConcurrentHashMap<String, OwnerMetrics> ownersMetrics;
+
+    /**
+     * Constructor to instantiate the store
+     *
+     * @param metricsCount The number of the metrics of each sample of the series
+     * @param chunksStorer The storer of the sealed chunks
+     */
+    public MetricsTiersStore(int metricsCount, ChunksStorer chunksStorer) {
+        this.metricsCount = metricsCount;
+        this.chunksStorer = chunksStorer;
+        ownersMetrics = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Method used to record a sample of the series of an owner
+     *
+     * @param ownerId The identifier of the owner of the series
+     * @param sample The sample to record
+     */
+    public void record(String ownerId, MetricsSample sample) {
+        OwnerMetrics metrics = ownersMetrics.computeIfAbsent(ownerId, id -> new OwnerMetrics());
+        synchronized (metrics) {
+            append(ownerId, metrics, RAW, sample);
+        }
+    }
+
+    /**
+     * Method used to append a sample to a tier, when the sample completes a bucket of the next tier the average of the
+     * bucket is appended to the next tier
+     *
+     * @param ownerId The identifier of the owner of the series
+     * @param metrics The in-memory state of the series of the owner
+     * @param tier The tier where append the sample
+     * @param sample The sample to append
+     */
+    private void append(String ownerId, OwnerMetrics metrics, MetricsTier tier, MetricsSample sample) {
+        long timestamp = sample.timestamp();
+        MetricsChunk chunk = metrics.openChunks.get(tier);
+        if (chunk != null) {
+            if (timestamp <= chunk.getChunkEnd())
+                return;
+            if (timestamp >= chunk.getChunkStart() + tier.getChunkSpan()) {
+                sealChunk(ownerId, metrics, tier);
+                chunk = null;
+            }
+        }
+        if (chunk == null) {
+            chunk = new MetricsChunk(tier.alignToChunk(timestamp), metricsCount);
+            metrics.openChunks.put(tier, chunk);
+        }
+        chunk.append(sample);
+        MetricsTier nextTier = tier.nextTier();
+        if (nextTier == null)
+            return;
+        BucketAccumulator accumulator = metrics.accumulators.computeIfAbsent(nextTier, BucketAccumulator::new);
+        MetricsSample bucketAverage = accumulator.accumulate(sample);
+        if (bucketAverage != null)
+            append(ownerId, metrics, nextTier, bucketAverage);
+    }
+
+    /**
+     * Method used to hand the open chunk of a tier to the {@link #chunksStorer}
+     *
+     * @param ownerId The identifier of the owner of the series
+     * @param metrics The in-memory state of the series of the owner
+     * @param tier The tier of the chunk
+     */
+    private void sealChunk(String ownerId, OwnerMetrics metrics, MetricsTier tier) {
+        MetricsChunk chunk = metrics.openChunks.remove(tier);
+        if (chunk != null && !chunk.isEmpty())
+            chunksStorer.storeChunk(ownerId, tier, chunk);
+    }
+
+    /**
+     * Method used to get the samples of the open chunk of a tier which fall in the specified range
+     *
+     * @param ownerId The identifier of the owner of the series
+     * @param tier The tier of the samples
+     * @param fromDate The start of the range
+     * @param toDate The end of the range
+     *
+     * @return the samples as {@link List} of {@link MetricsSample}
+     */
+    public List<MetricsSample> getOpenSamples(String ownerId, MetricsTier tier, long fromDate, long toDate) {
+        List<MetricsSample> samples = new ArrayList<>();
+        OwnerMetrics metrics = ownersMetrics.get(ownerId);
+        if (metrics == null)
+            return samples;
+        synchronized (metrics) {
+            MetricsChunk openChunk = metrics.openChunks.get(tier);
+            if (openChunk != null)
+                collectSamples(openChunk.getSamples(), fromDate, toDate, samples);
+        }
+        return samples;
+    }
+
+    /**
+     * Method used to collect the samples which fall in the specified range
+     *
+     * @param chunkSamples The samples of a chunk
+     * @param fromDate The start of the range
+     * @param toDate The end of the range
+     * @param samples The collected samples
+     */
+    public static void collectSamples(List<MetricsSample> chunkSamples, long fromDate, long toDate,
+                                      List<MetricsSample> samples) {
+        for (MetricsSample sample : chunkSamples)
+            if (sample.timestamp() >= fromDate && sample.timestamp() <= toDate)
+                samples.add(sample);
+    }
+
+    /**
+     * Method used to seal the chunks whose time span is over, also when their owner is not sampled anymore
+     */
+    public void sealElapsedChunks() {
+        long currentTime = System.currentTimeMillis();
+        ownersMetrics.forEach((ownerId, metrics) -> {
+            synchronized (metrics) {
+                for (MetricsTier tier : MetricsTier.values()) {
+                    MetricsChunk chunk = metrics.openChunks.get(tier);
+                    if (chunk != null && currentTime >= chunk.getChunkStart() + tier.getChunkSpan())
+                        sealChunk(ownerId, metrics, tier);
+                }
+            }
+        });
+    }
+
+    /**
+     * Method used to seal all the open chunks, it must be invoked before the termination
+     */
+    public void sealAllChunks() {
+        ownersMetrics.forEach((ownerId, metrics) -> {
+            synchronized (metrics) {
+                for (MetricsTier tier : MetricsTier.values())
+                    sealChunk(ownerId, metrics, tier);
+            }
+        });
+    }
+
+    /**
+     * Method used to evict the in-memory state of the series of an owner
+     *
+     * @param ownerId The identifier of the owner of the series
+     */
+    public void evictOwner(String ownerId) {
+        ownersMetrics.remove(ownerId);
+    }
+
+    /**
+     * The {@code ChunksStorer} interface is used to store the chunks sealed by the store
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    @FunctionalInterface
+    public interface ChunksStorer {
+
+        /**
+         * Method used to store a sealed chunk
+         *
+         * @param ownerId The identifier of the owner of the series
+         * @param tier The tier of the chunk
+         * @param chunk The sealed chunk
+         */
+        void storeChunk(String ownerId, MetricsTier tier, MetricsChunk chunk);
+
+    }
+
+    /**
+     * The {@code OwnerMetrics} class represents the in-memory state of the series of an owner
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private static final class OwnerMetrics {
+
+        /**
+         * {@code openChunks} the chunk currently open of each tier
+         */
+        private final EnumMap<MetricsTier, MetricsChunk> openChunks = new EnumMap<>(MetricsTier.class);
+
+        /**
+         * {@code accumulators} the accumulator of the current bucket of each downsampled tier
+         */
+        private final EnumMap<MetricsTier, BucketAccumulator> accumulators = new EnumMap<>(MetricsTier.class);
+
+    }
+
+    /**
+     * The {@code BucketAccumulator} class is used to average the samples which fall in the same bucket of a
+     * downsampled tier
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private final class BucketAccumulator {
+
+        /**
+         * {@code tier} the downsampled tier
+         */
+        private final MetricsTier tier;
+
+        /**
+         * {@code sums} the sums of the values of the samples of the current bucket
+         */
+        private final double[] sums;
+
+        /**
+         * {@code bucketStart} the start of the current bucket
+         */
+        private long bucketStart;
+
+        /**
+         * {@code samplesCount} the number of the samples accumulated in the current bucket
+         */
+        private int samplesCount;
+
+        /**
+         * Constructor to instantiate the accumulator
+         *
+         * @param tier The downsampled tier
+         */
+        private BucketAccumulator(MetricsTier tier) {
+            this.tier = tier;
+            sums = new double[metricsCount];
+        }
+
+        /**
+         * Method used to accumulate a sample
+         *
+         * @param sample The sample to accumulate
+         * @return the average of the previous bucket as {@link MetricsSample} if the sample starts a new bucket,
+         * {@code null} otherwise
+         */
+        private MetricsSample accumulate(MetricsSample sample) {
+            long sampleBucket = tier.alignToBucket(sample.timestamp());
+            MetricsSample bucketAverage = null;
+            if (samplesCount > 0 && sampleBucket != bucketStart) {
+                double[] averages = new double[metricsCount];
+                for (int j = 0; j < metricsCount; j++) {
+                    averages[j] = sums[j] / samplesCount;
+                    sums[j] = 0;
+                }
+                bucketAverage = new MetricsSample(bucketStart, averages);
+                samplesCount = 0;
+            }
+            bucketStart = sampleBucket;
+            samplesCount++;
+            for (int j = 0; j < metricsCount; j++)
+                sums[j] += sample.values()[j];
+            return bucketAverage;
+        }
+
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.tecknobit.brownie.helpers.monitor;
+
+import com.tecknobit.brownie.services.hosts.entities.BrownieHost;
+import com.tecknobit.browniecore.enums.HostStatus;
+
+/**
+ * The {@code HostPollingSchedule} class is used to compute when a host has to be probed again by the
+ * {@link HostsMonitorEngine}, adapting the interval between the probes to the current state of the host:
+ *
+ * <ul>
+ *     <li>
+ *         the {@link HostStatus#OFFLINE} and {@link HostStatus#REBOOTING} hosts, or the hosts whose probe failed, are
+ *         probed with an exponential backoff
+ *     </li>
+ *     <li>
+ *         the hosts without running services are probed with the {@link #IDLE_POLLING_INTERVAL}
+ *     </li>
+ *     <li>
+ *         the hosts where a service or the host itself has been just started are probed with the
+ *         {@link #BOOSTED_POLLING_INTERVAL} for the {@link #BOOST_WINDOW}
+ *     </li>
+ * </ul>
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+public class HostPollingSchedule {
+
+    /**
+     * {@code BASE_POLLING_INTERVAL} the interval, in milliseconds, between the probes of a host with running services
+     */
+    private static final long BASE_POLLING_INTERVAL = 5000;
+
+    /**
+     * {@code BOOSTED_POLLING_INTERVAL} the interval, in milliseconds, between the probes of a host during the
+     * {@link #BOOST_WINDOW}
+     */
+    private static final long BOOSTED_POLLING_INTERVAL = 2000;
+
+    /**
+     * {@code BOOST_WINDOW} the time window, in milliseconds, after a start or a reboot where the host is probed with
+     * the {@link #BOOSTED_POLLING_INTERVAL}
+     */
+    private static final long BOOST_WINDOW = 60000;
+
+    /**
+     * {@code IDLE_POLLING_INTERVAL} the interval, in milliseconds, between the probes of a host without running services
+     */
+    private static final long IDLE_POLLING_INTERVAL = 30000;
+
+    /**
+     * {@code MAX_BACKOFF_INTERVAL} the max interval, in milliseconds, reachable by the exponential backoff
+     */
+    private static final long MAX_BACKOFF_INTERVAL = 300000;
+
+    /**
+     * {@code MAX_BACKOFF_LEVEL} the max level of the exponential backoff
+     */
+    private static final int MAX_BACKOFF_LEVEL = 6;
+
+    /**
+     * {@code nextProbeTime} the timestamp when the host has to be probed again
+     */
+    private long nextProbeTime;
+
+    /**
+     * {@code backoffLevel} the current level of the exponential backoff
+     */
+    private int backoffLevel;
+
+    /**
+     * {@code boostedUntil} the timestamp until the host has to be probed with the {@link #BOOSTED_POLLING_INTERVAL}
+     */
+    private long boostedUntil;
+
+    /**
+     * Method used to check whether the host has to be probed
+     *
+     * @param now The current timestamp
+     * @return whether the host has to be probed as {@code boolean}
+     */
+    public synchronized boolean isDue(long now) {
+        return now >= nextProbeTime;
+    }
+
+    /**
+     * Method used to schedule the next probe of the host after the current one has been completed
+     *
+     * @param host The host just probed
+     * @param probeFailed Whether the probe failed
+     * @param now The current timestamp
+     */
+    public synchronized void scheduleNextProbe(BrownieHost host, boolean probeFailed, long now) {
+        long interval;
+        if (probeFailed || host.isOffline() || host.isRebooting()) {
+            interval = Math.min(BASE_POLLING_INTERVAL << backoffLevel, MAX_BACKOFF_INTERVAL);
+            backoffLevel = Math.min(backoffLevel + 1, MAX_BACKOFF_LEVEL);
+        } else {
+            backoffLevel = 0;
+            if (now < boostedUntil)
+                interval = BOOSTED_POLLING_INTERVAL;
+            else if (host.listRunningServicePids().isEmpty())
+                interval = IDLE_POLLING_INTERVAL;
+            else
+                interval = BASE_POLLING_INTERVAL;
+        }
+        nextProbeTime = now + interval;
+    }
+
+    /**
+     * Method used to boost the polling of the host after a start or a reboot, resetting the backoff
+     *
+     * @param now The current timestamp
+     */
+    public synchronized void boost(long now) {
+        backoffLevel = 0;
+        boostedUntil = now + BOOST_WINDOW;
+        nextProbeTime = Math.min(nextProbeTime, now + BOOSTED_POLLING_INTERVAL);
+    }
+
+}
@@ -0,0 +1,250 @@
+package com.tecknobit.brownie.helpers.monitor;
+
+import com.tecknobit.brownie.services.hosts.entities.BrownieHost;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * The {@code HostsMonitorEngine} component class is used to execute the monitor-and-sync cycles of the hosts. Each
+ * cycle fans out the probes of the hosts to a bounded pool, so a slow or unreachable host does not delay the others,
+ * and each probe is interrupted when exceeds the {@link #PROBE_DEADLINE}. Each host is probed only when its own
+ * {@link HostPollingSchedule} reports that the host is due
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+@Component
+public class HostsMonitorEngine {
+
+    /**
+     * {@code LOGGER} is the instance used to log about the cycles executed by the engine
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(HostsMonitorEngine.class);
+
+    /**
+     * {@code MAX_PARALLEL_PROBES} the max number of hosts which can be probed at the same time
+     */
+    private static final int MAX_PARALLEL_PROBES = 16;
+
+    /**
+     * {@code PROBE_DEADLINE} the max time, in seconds, a single host probe can take before being interrupted
+     */
+    private static final int PROBE_DEADLINE = 10;
+
+    /**
+     * {@code MONITOR_TICK} the delay, in seconds, between each check of the hosts due to be probed
+     */
+    private static final int MONITOR_TICK = 1;
+
+    /**
+     * {@code FLEET_REFRESH_INTERVAL} the max time, in milliseconds, between two consecutive loads of the hosts to
+     * monitor, used to discover the new registered hosts also when no known host is due
+     */
+    private static final long FLEET_REFRESH_INTERVAL = 5000;
+
+    /**
+     * {@code cyclesScheduler} the scheduler used to launch the cycles and to watch the deadlines of the probes
+     */
+    private final ScheduledExecutorService cyclesScheduler;
+
+    /**
+     * {@code probesExecutor} the bounded pool used to execute the probes of the hosts
+     */
+    private final ExecutorService probesExecutor;
+
+    /**
+     * {@code inFlightProbes} the identifiers of the hosts whose probe is currently running
+     */
+    private final Set<String> inFlightProbes;
+
+    /**
+     * {@code pollingSchedules} the polling schedules of the monitored hosts
+     */
+    private final Map<String, HostPollingSchedule> pollingSchedules;
+
+    /**
+     * {@code lastFleetRefresh} the timestamp of the last load of the hosts to monitor
+     */
+    private volatile long lastFleetRefresh;
+
+    /**
+     * Constructor to init the engine
+     */
+    public HostsMonitorEngine() {
+        cyclesScheduler = Executors.newSingleThreadScheduledExecutor(namedThreadFactory("hosts-monitor-scheduler"));
+        probesExecutor = Executors.newFixedThreadPool(MAX_PARALLEL_PROBES, namedThreadFactory("hosts-monitor-probe"));
+        inFlightProbes = ConcurrentHashMap.newKeySet();
+        pollingSchedules = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Method used to start the execution of the monitor-and-sync cycles
+     *
+     * @param hostsSupplier The supplier of the hosts to monitor
+     * @param hostProbe The probe to execute on each host
+     */
+    public void start(Supplier<List<BrownieHost>> hostsSupplier, HostProbe hostProbe) {
+        cyclesScheduler.scheduleWithFixedDelay(() -> executeCycle(hostsSupplier, hostProbe), 0, MONITOR_TICK, SECONDS);
+    }
+
+    /**
+     * Method used to boost the polling of a host, for example after a service or the host itself has been started, so
+     * its status changes are detected as soon as possible
+     *
+     * @param hostId The identifier of the host to boost
+     */
+    public void boostPolling(String hostId) {
+        pollingSchedules.computeIfAbsent(hostId, id -> new HostPollingSchedule()).boost(System.currentTimeMillis());
+    }
+
+    /**
+     * Method used to execute a single monitor-and-sync cycle probing only the hosts currently due. The hosts whose
+     * previous probe is still running are skipped and the duration of the cycle is logged when all its probes have
+     * been completed
+     *
+     * @param hostsSupplier The supplier of the hosts to monitor
+     * @param hostProbe The probe to execute on each host
+     */
+    private void executeCycle(Supplier<List<BrownieHost>> hostsSupplier, HostProbe hostProbe) {
+        long cycleStart = System.currentTimeMillis();
+        if (!hasDueHosts(cycleStart) && cycleStart - lastFleetRefresh < FLEET_REFRESH_INTERVAL)
+            return;
+        List<BrownieHost> hosts;
+        try {
+            hosts = hostsSupplier.get();
+        } catch (Exception e) {
+            LOGGER.error("Unable to load the hosts to monitor", e);
+            return;
+        }
+        lastFleetRefresh = cycleStart;
+        Set<String> monitoredHosts = new HashSet<>();
+        List<CompletableFuture<Void>> probes = new ArrayList<>();
+        AtomicInteger timedOutProbes = new AtomicInteger();
+        int skippedHosts = 0;
+        for (BrownieHost host : hosts) {
+            String hostId = host.getId();
+            monitoredHosts.add(hostId);
+            HostPollingSchedule schedule = pollingSchedules.computeIfAbsent(hostId, id -> new HostPollingSchedule());
+            if (!schedule.isDue(cycleStart))
+                continue;
+            if (!inFlightProbes.add(hostId)) {
+                skippedHosts++;
+                continue;
+            }
+            try {
+                probes.add(CompletableFuture.runAsync(() -> probeHost(host, hostProbe, schedule, timedOutProbes),
+                        probesExecutor));
+            } catch (RejectedExecutionException e) {
+                inFlightProbes.remove(hostId);
+            }
+        }
+        pollingSchedules.keySet().retainAll(monitoredHosts);
+        if (probes.isEmpty())
+            return;
+        int skipped = skippedHosts;
+        CompletableFuture.allOf(probes.toArray(CompletableFuture<?>[]::new)).whenComplete((ignored, throwable) ->
+                LOGGER.info("Monitor-and-sync cycle completed in {} ms: {} hosts probed, {} skipped, {} timed out",
+                        System.currentTimeMillis() - cycleStart, probes.size(), skipped, timedOutProbes.get())
+        );
+    }
+
+    /**
+     * Method used to check whether at least one of the known hosts is due to be probed
+     *
+     * @param now The current timestamp
+     * @return whether at least one of the known hosts is due to be probed as {@code boolean}
+     */
+    private boolean hasDueHosts(long now) {
+        for (Map.Entry<String, HostPollingSchedule> schedule : pollingSchedules.entrySet())
+            if (schedule.getValue().isDue(now) && !inFlightProbes.contains(schedule.getKey()))
+                return true;
+        return false;
+    }
+
+    /**
+     * Method used to execute the probe of a host, the probe is interrupted if exceeds the {@link #PROBE_DEADLINE}.
+     * When the probe has been completed the next probe of the host is scheduled
+     *
+     * @param host The host to probe
+     * @param hostProbe The probe to execute
+     * @param schedule The polling schedule of the host
+     * @param timedOutProbes The counter of the probes timed out in the current cycle
+     */
+    private void probeHost(BrownieHost host, HostProbe hostProbe, HostPollingSchedule schedule,
+                           AtomicInteger timedOutProbes) {
+        Thread worker = Thread.currentThread();
+        AtomicBoolean completed = new AtomicBoolean(false);
+        ScheduledFuture<?> watchdog = cyclesScheduler.schedule(() -> {
+            if (completed.get())
+                return;
+            timedOutProbes.incrementAndGet();
+            LOGGER.warn("The probe of the {} host exceeded the deadline of {} seconds", host.getName(), PROBE_DEADLINE);
+            worker.interrupt();
+        }, PROBE_DEADLINE, SECONDS);
+        boolean probeFailed = false;
+        try {
+            hostProbe.probe(host);
+        } catch (Exception e) {
+            probeFailed = true;
+            LOGGER.error("Executing the monitor-and-sync routine for the {} host occurred an error", host.getName(), e);
+        } finally {
+            completed.set(true);
+            watchdog.cancel(false);
+            Thread.interrupted();
+            schedule.scheduleNextProbe(host, probeFailed, System.currentTimeMillis());
+            inFlightProbes.remove(host.getId());
+        }
+    }
+
+    /**
+     * Method automatically invoked by Spring before termination used to stop the cycles and the running probes
+     */
+    @PreDestroy
+    public void shutdown() {
+        cyclesScheduler.shutdownNow();
+        probesExecutor.shutdownNow();
+    }
+
+    /**
+     * Method used to create a factory of daemon threads with a recognizable name
+     *
+     * @param name The base name of the threads
+     * @return the factory as {@link ThreadFactory}
+     */
+    private static ThreadFactory namedThreadFactory(String name) {
+        AtomicInteger threadsCounter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadsCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * The {@code HostProbe} interface is used to define the probe to execute on each host during a cycle
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    @FunctionalInterface
+    public interface HostProbe {
+
+        /**
+         * Method used to probe a host
+         *
+         * @param host The host to probe
+         * @throws Exception when an error occurred during the probe
+         */
+        void probe(BrownieHost host) throws Exception;
+
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.tecknobit.brownie.helpers.shell;
+
+import com.tecknobit.brownie.helpers.shell.ShellCommandsExecutor.OnOutputLine;
+
+import java.io.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The {@code CommandOutputDrainer} class is used to drain the output and the error streams of a bash command
+ * concurrently: the error stream is drained by a dedicated thread while the output is streamed line by line to an
+ * {@link OnOutputLine} callback, so a command which fills one of the streams never stalls the process or the SSH
+ * channel and its output is never buffered as a whole in memory
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+public class CommandOutputDrainer {
+
+    /**
+     * {@code MAX_BUFFERED_OUTPUT} the max number of the characters of the output of a command kept in memory
+     */
+    public static final int MAX_BUFFERED_OUTPUT = 1024 * 1024;
+
+    /**
+     * {@code MAX_BUFFERED_ERROR} the max number of the characters of the error of a command kept in memory
+     */
+    private static final int MAX_BUFFERED_ERROR = 64 * 1024;
+
+    /**
+     * {@code ERROR_DRAINERS} the pool of the threads used to drain the error streams
+     */
+    private static final ExecutorService ERROR_DRAINERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "shell-error-drainer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructor to instantiate the object
+     */
+    private CommandOutputDrainer() {
+    }
+
+    /**
+     * Method used to drain the streams of a command, when the callback stops the streaming the error is not waited
+     * and the caller must release the process or the channel of the command, which closes the streams and terminates
+     * the draining
+     *
+     * @param output The output stream of the command
+     * @param error The error stream of the command
+     * @param onOutputLine The callback invoked for each line of the output
+     *
+     * @return the result of the draining as {@link DrainResult}
+     * @throws IOException when an error occurred during the reading of the output
+     */
+    public static DrainResult drain(InputStream output, InputStream error, OnOutputLine onOutputLine) throws IOException {
+        Future<String> errorDrain = ERROR_DRAINERS.submit(() -> readBounded(error, MAX_BUFFERED_ERROR));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(output, UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null)
+                if (!onOutputLine.onOutputLine(line))
+                    return new DrainResult("", true);
+        }
+        try {
+            return new DrainResult(errorDrain.get(), false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while draining the error of the command");
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Method used to read a stream until its end keeping in memory at most the specified number of characters
+     *
+     * @param stream The stream to read
+     * @param limit The max number of the characters to keep
+     *
+     * @return the characters read as {@link String}
+     * @throws IOException when an error occurred during the reading
+     */
+    private static String readBounded(InputStream stream, int limit) throws IOException {
+        StringBuilder content = new StringBuilder();
+        char[] buffer = new char[8192];
+        try (Reader reader = new InputStreamReader(stream, UTF_8)) {
+            int read;
+            while ((read = reader.read(buffer)) != -1)
+                content.append(buffer, 0, Math.min(read, limit - content.length()));
+        }
+        return content.toString();
+    }
+
+    /**
+     * The {@code DrainResult} record represents the result of the draining of the streams of a command
+     *
+     * @param error The error of the command, truncated to {@link #MAX_BUFFERED_ERROR} characters
+     * @param stopped Whether the streaming has been stopped by the callback before the end of the output
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    public record DrainResult(String error, boolean stopped) {
+    }
+
+    /**
+     * The {@code BoundedOutput} class is used to collect the output of a command joining its lines, the characters
+     * beyond the {@link #MAX_BUFFERED_OUTPUT} limit are discarded while the output keeps being drained
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    public static class BoundedOutput implements OnOutputLine {
+
+        /**
+         * {@code content} the collected output
+         */
+        private final StringBuilder content = new StringBuilder();
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean onOutputLine(String line) {
+            int available = MAX_BUFFERED_OUTPUT - content.length();
+            if (available > 0)
+                content.append(line, 0, Math.min(line.length(), available));
+            return true;
+        }
+
+        /**
+         * Method used to get the collected output
+         *
+         * @return the collected output, trimmed, as {@link String}
+         */
+        @Override
+        public String toString() {
+            return content.toString().trim();
+        }
+
+    }
+
+}
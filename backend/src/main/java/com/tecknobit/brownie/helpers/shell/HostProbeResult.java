@@ -0,0 +1,451 @@
+package com.tecknobit.brownie.helpers.shell;
+
+import com.tecknobit.brownie.helpers.metrics.CpuSample;
+import com.tecknobit.brownie.helpers.metrics.CpuUsageSampler;
+import com.tecknobit.brownie.services.hosts.entities.BrownieHost;
+import com.tecknobit.brownie.services.hostservices.dtos.ServiceResources;
+import com.tecknobit.brownie.services.hostservices.entities.BrownieHostService;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+import static com.tecknobit.browniecore.ConstantsKt.*;
+
+/**
+ * The {@code HostProbeResult} class is used to parse the payload of the composite probe executed on a host, which
+ * returns with a single remote execution both the current stats of the host and the pids of its running services. The
+ * payload is made up of {@code key=value} records terminated by {@link #RECORDS_TERMINATOR}, so it can be parsed also
+ * when the executor joins the lines of the output. The usage of the cpu is not part of the payload, it is computed by
+ * the {@link CpuUsageSampler} from the counters of consecutive probes and attached to the result
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see ShellCommandsExecutor#probeHost(BrownieHost)
+ */
+public class HostProbeResult {
+
+    /**
+     * {@code RECORDS_TERMINATOR} the character which terminates each record of the payload
+     */
+    public static final String RECORDS_TERMINATOR = ";";
+
+    /**
+     * {@code KEY_VALUE_SEPARATOR} the character which separates the key and the value of a record
+     */
+    public static final String KEY_VALUE_SEPARATOR = "=";
+
+    /**
+     * {@code CPU_CLOCK_RECORD} the key of the record of the current clock of the cpu
+     */
+    public static final String CPU_CLOCK_RECORD = "cpu_clock";
+
+    /**
+     * {@code CPU_TIMES_RECORD} the key of the record of the counters of the {@code /proc/stat} cpu lines
+     */
+    public static final String CPU_TIMES_RECORD = "cpu_times";
+
+    /**
+     * {@code SERVICES_RESOURCES_RECORD} the key of the record of the resources used by the tracked services
+     */
+    public static final String SERVICES_RESOURCES_RECORD = "services_resources";
+
+    /**
+     * {@code CLOCK_TICKS_RECORD} the key of the record of the number of the clock ticks per second of the host
+     */
+    public static final String CLOCK_TICKS_RECORD = "clock_ticks";
+
+    /**
+     * {@code PAGE_SIZE_RECORD} the key of the record of the size, in bytes, of the memory pages of the host
+     */
+    public static final String PAGE_SIZE_RECORD = "page_size";
+
+    /**
+     * {@code BOOT_TIME_RECORD} the key of the record of the boot time, in seconds since the epoch, of the host
+     */
+    public static final String BOOT_TIME_RECORD = "boot_time";
+
+    /**
+     * {@code AGGREGATE_CPU} the label of the {@code /proc/stat} line of the whole cpu, the lines of the cores are
+     * labeled with this prefix followed by the number of the core
+     */
+    public static final String AGGREGATE_CPU = "cpu";
+
+    /**
+     * {@code CPU_LINES_SEPARATOR} the character which separates the cpu lines in the {@link #CPU_TIMES_RECORD}
+     */
+    public static final String CPU_LINES_SEPARATOR = "|";
+
+    /**
+     * {@code VALUES_SEPARATOR} the character which separates the values of a record, like the counters of a cpu line
+     * or the resources of the services
+     */
+    public static final String VALUES_SEPARATOR = ",";
+
+    /**
+     * {@code RESOURCES_SEPARATOR} the character which separates the resources of a service in the
+     * {@link #SERVICES_RESOURCES_RECORD}
+     */
+    public static final String RESOURCES_SEPARATOR = ":";
+
+    /**
+     * {@code DEFAULT_CLOCK_TICKS} the number of the clock ticks per second used when the host does not report it
+     */
+    private static final long DEFAULT_CLOCK_TICKS = 100;
+
+    /**
+     * {@code CPU_COUNTERS_COUNT} the number of the counters of a cpu line which contribute to its total time, from
+     * {@code user} to {@code steal}, the {@code guest} counters are already included in the {@code user} ones
+     */
+    private static final int CPU_COUNTERS_COUNT = 8;
+
+    /**
+     * {@code records} the records of the payload
+     */
+    private final Map<String, String> records;
+
+    /**
+     * {@code probeDate} the date when the probe has been executed
+     */
+    private final long probeDate;
+
+    /**
+     * {@code probedPids} the pids of the services whose liveness and resources have been probed
+     */
+    private final Set<Long> probedPids;
+
+    /**
+     * {@code cpuSample} the usage of the cpu computed from the counters of the probe
+     */
+    private volatile CpuSample cpuSample;
+
+    /**
+     * Constructor to instantiate the object
+     *
+     * @param records The records of the payload
+     * @param probeDate The date when the probe has been executed
+     * @param probedPids The pids of the services whose liveness and resources have been probed
+     */
+    private HostProbeResult(Map<String, String> records, long probeDate, Set<Long> probedPids) {
+        this.records = records;
+        this.probeDate = probeDate;
+        this.probedPids = probedPids;
+    }
+
+    /**
+     * Method used to parse the payload of a probe
+     *
+     * @param payload The payload to parse
+     * @param probedPids The pids of the services whose liveness and resources have been probed
+     * @return the result of the probe as {@link HostProbeResult}
+     */
+    public static HostProbeResult parse(String payload, Collection<Long> probedPids) {
+        Map<String, String> records = new HashMap<>();
+        for (String record : payload.split(RECORDS_TERMINATOR)) {
+            int separatorIndex = record.indexOf(KEY_VALUE_SEPARATOR);
+            if (separatorIndex <= 0)
+                continue;
+            String key = record.substring(0, separatorIndex).trim();
+            String value = record.substring(separatorIndex + 1).replaceAll("\\s", "");
+            records.put(key, value);
+        }
+        return new HostProbeResult(records, System.currentTimeMillis(), Set.copyOf(probedPids));
+    }
+
+    /**
+     * Method to get the {@link #probeDate} instance
+     *
+     * @return the {@link #probeDate} instance as {@code long}
+     */
+    public long getProbeDate() {
+        return probeDate;
+    }
+
+    /**
+     * Method used to check whether the probe has been executed in the specified window
+     *
+     * @param window The window, in milliseconds, to check
+     * @return whether the probe has been executed in the specified window as {@code boolean}
+     */
+    public boolean isFresh(long window) {
+        return System.currentTimeMillis() - probeDate <= window;
+    }
+
+    /**
+     * Method used to check whether the payload contains all the stats of the host
+     *
+     * @return whether the payload contains all the stats of the host as {@code boolean}
+     */
+    public boolean hasStats() {
+        if (cpuSample == null)
+            return false;
+        for (String key : List.of(CPU_CLOCK_RECORD, MEMORY_USAGE_KEY, STORAGE_USAGE_KEY, STORAGE_TYPE_KEY))
+            if (records.getOrDefault(key, "").isEmpty())
+                return false;
+        return true;
+    }
+
+    /**
+     * Method used to get the counters of the cpu lines of {@code /proc/stat}
+     *
+     * @return the counters keyed by the label of the line as {@link Map} of {@link CpuCounters}, empty if they are not
+     * available or malformed
+     */
+    public Map<String, CpuCounters> getCpuTimes() {
+        Map<String, CpuCounters> cpuTimes = new HashMap<>();
+        String cpuTimesRecord = records.getOrDefault(CPU_TIMES_RECORD, "");
+        try {
+            for (String cpuLine : cpuTimesRecord.split(Pattern.quote(CPU_LINES_SEPARATOR))) {
+                String[] counters = cpuLine.split(VALUES_SEPARATOR);
+                if (counters.length <= CPU_COUNTERS_COUNT)
+                    continue;
+                long total = 0;
+                for (int j = 1; j <= CPU_COUNTERS_COUNT; j++)
+                    total += Long.parseLong(counters[j]);
+                long idle = Long.parseLong(counters[4]) + Long.parseLong(counters[5]);
+                cpuTimes.put(counters[0], new CpuCounters(total - idle, total));
+            }
+        } catch (NumberFormatException e) {
+            return Map.of();
+        }
+        return cpuTimes;
+    }
+
+    /**
+     * Method used to get the raw resources used by the processes of the tracked services, read with a single pass over
+     * their {@code /proc/<pid>} entries
+     *
+     * @return the raw resources keyed by the pid of the service as {@link Map} of {@link ProcessResources}
+     */
+    public Map<Long, ProcessResources> getServicesProcesses() {
+        Map<Long, ProcessResources> servicesProcesses = new HashMap<>();
+        String servicesResourcesRecord = records.getOrDefault(SERVICES_RESOURCES_RECORD, "");
+        for (String serviceResources : servicesResourcesRecord.split(VALUES_SEPARATOR)) {
+            String[] resources = serviceResources.split(RESOURCES_SEPARATOR);
+            if (resources.length != 6)
+                continue;
+            try {
+                long pid = Long.parseLong(resources[0]);
+                servicesProcesses.put(pid, new ProcessResources(pid, Long.parseLong(resources[1]),
+                        Long.parseLong(resources[2]), Integer.parseInt(resources[3]), Long.parseLong(resources[4]),
+                        Integer.parseInt(resources[5])));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return servicesProcesses;
+    }
+
+    /**
+     * Method used to get the cpu ticks consumed by the tracked services
+     *
+     * @return the ticks keyed by the pid of the service as {@link Map} of {@link Long}
+     */
+    public Map<Long, Long> getServicesCpuTimes() {
+        Map<Long, Long> servicesCpuTimes = new HashMap<>();
+        getServicesProcesses().forEach((pid, process) -> servicesCpuTimes.put(pid, process.cpuTicks()));
+        return servicesCpuTimes;
+    }
+
+    /**
+     * Method used to get the resources used by the running services of the probed host
+     *
+     * @param host The probed host
+     * @return the resources keyed by the identifier of the service as {@link Map} of {@link ServiceResources}
+     */
+    public Map<String, ServiceResources> getServicesResources(BrownieHost host) {
+        Map<String, ServiceResources> servicesResources = new HashMap<>();
+        Map<Long, ProcessResources> servicesProcesses = getServicesProcesses();
+        if (servicesProcesses.isEmpty())
+            return servicesResources;
+        long clockTicks = getLongRecord(CLOCK_TICKS_RECORD, DEFAULT_CLOCK_TICKS);
+        long pageSize = getLongRecord(PAGE_SIZE_RECORD, 0);
+        long bootTime = getLongRecord(BOOT_TIME_RECORD, 0);
+        Map<Long, Double> pidsUsage = cpuSample != null ? cpuSample.servicesUsage() : Map.of();
+        for (BrownieHostService service : host.getServices()) {
+            ProcessResources process = servicesProcesses.get(service.getPid());
+            if (!service.isRunning() || process == null)
+                continue;
+            servicesResources.put(service.getId(), new ServiceResources(
+                    process.pid(),
+                    pidsUsage.getOrDefault(process.pid(), 0.0),
+                    process.cpuTicks() * 1000 / clockTicks,
+                    process.rssPages() * pageSize,
+                    process.threads(),
+                    process.openFileDescriptors(),
+                    (bootTime * clockTicks + process.startTicks()) * 1000 / clockTicks,
+                    probeDate
+            ));
+        }
+        return servicesResources;
+    }
+
+    /**
+     * Method used to get the value of a numeric record
+     *
+     * @param key The key of the record
+     * @param defaultValue The value to use when the record is not available
+     *
+     * @return the value of the record as {@code long}
+     */
+    private long getLongRecord(String key, long defaultValue) {
+        try {
+            long value = Long.parseLong(records.getOrDefault(key, ""));
+            return value > 0 ? value : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Method used to attach the usage of the cpu computed from the counters of the probe
+     *
+     * @param cpuSample The usage of the cpu computed by the {@link CpuUsageSampler}
+     */
+    public void setCpuSample(CpuSample cpuSample) {
+        this.cpuSample = cpuSample;
+    }
+
+    /**
+     * Method used to get the current usage percent of the cpu
+     *
+     * @return the current usage percent of the cpu as {@code double}
+     */
+    public double getCpuUsage() {
+        return cpuSample.usage();
+    }
+
+    /**
+     * Method used to get the current usage percents of each core of the cpu
+     *
+     * @return the current usage percents of the cores as array of {@code double}
+     */
+    public double[] getCoresUsage() {
+        return cpuSample.coresUsage();
+    }
+
+    /**
+     * Method used to get the current usage percents of the cpu of the running services of the probed host
+     *
+     * @param host The probed host
+     * @return the usage percents keyed by the identifier of the service as {@link Map} of {@link Double}
+     */
+    public Map<String, Double> getServicesCpuUsage(BrownieHost host) {
+        Map<String, Double> servicesCpuUsage = new HashMap<>();
+        Map<Long, Double> pidsUsage = cpuSample.servicesUsage();
+        for (BrownieHostService service : host.getServices()) {
+            Double serviceUsage = pidsUsage.get(service.getPid());
+            if (service.isRunning() && serviceUsage != null)
+                servicesCpuUsage.put(service.getId(), serviceUsage);
+        }
+        return servicesCpuUsage;
+    }
+
+    /**
+     * Method used to get the current clock of the cpu
+     *
+     * @return the current clock of the cpu as {@link String}
+     */
+    public String getCpuClock() {
+        return records.get(CPU_CLOCK_RECORD);
+    }
+
+    /**
+     * Method used to get the current usage of the memory formatted as {@code usage/total}
+     *
+     * @return the current usage of the memory as {@link String}
+     */
+    public String getMemoryUsage() {
+        return records.get(MEMORY_USAGE_KEY);
+    }
+
+    /**
+     * Method used to get the current usage of the storage formatted as {@code usage/total}
+     *
+     * @return the current usage of the storage as {@link String}
+     */
+    public String getStorageUsage() {
+        return records.get(STORAGE_USAGE_KEY);
+    }
+
+    /**
+     * Method used to get the type of the storage
+     *
+     * @return the type of the storage as {@link String}
+     */
+    public String getStorageType() {
+        return records.get(STORAGE_TYPE_KEY);
+    }
+
+    /**
+     * Method used to detect the stopped services checking the pids of the running services of the host: a service is
+     * stopped when its {@code /proc/<pid>} entry does not exist anymore or when the start time of the process does not
+     * match the pinned one, because the pid has been reused by another process. Only the pids probed by this probe are
+     * checked, so the services started after the probe, or tracked by another snapshot of the host, are never detected
+     * as stopped
+     *
+     * @param host The probed host
+     * @return the pids of the stopped services as {@link Collection} of {@link Long}
+     */
+    public Collection<Long> detectStoppedServices(BrownieHost host) {
+        if (!records.containsKey(SERVICES_RESOURCES_RECORD))
+            return Collections.emptyList();
+        Map<Long, ProcessResources> servicesProcesses = getServicesProcesses();
+        List<Long> stoppedPids = new ArrayList<>();
+        for (BrownieHostService service : host.getServices()) {
+            if (!service.isRunning() || !probedPids.contains(service.getPid()))
+                continue;
+            ProcessResources process = servicesProcesses.get(service.getPid());
+            if (process == null || (service.isProcessStartPinned() &&
+                    service.getProcessStartTicks() != process.startTicks()))
+                stoppedPids.add(service.getPid());
+        }
+        return stoppedPids;
+    }
+
+    /**
+     * Method used to detect the running services whose start time of the process has not been pinned yet
+     *
+     * @param host The probed host
+     * @return the start times, in clock ticks since the boot of the host, keyed by the identifier of the service as
+     * {@link Map} of {@link Long}
+     */
+    public Map<String, Long> detectUnpinnedServices(BrownieHost host) {
+        Map<String, Long> unpinnedServices = new HashMap<>();
+        Map<Long, ProcessResources> servicesProcesses = getServicesProcesses();
+        for (BrownieHostService service : host.getServices()) {
+            if (!service.isRunning() || service.isProcessStartPinned())
+                continue;
+            ProcessResources process = servicesProcesses.get(service.getPid());
+            if (process != null)
+                unpinnedServices.put(service.getId(), process.startTicks());
+        }
+        return unpinnedServices;
+    }
+
+    /**
+     * The {@code CpuCounters} record represents the counters of a cpu line of {@code /proc/stat}
+     *
+     * @param busy The ticks spent by the cpu not idling
+     * @param total The total ticks of the cpu
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    public record CpuCounters(long busy, long total) {
+    }
+
+    /**
+     * The {@code ProcessResources} record represents the raw resources used by the process of a service as read from
+     * {@code /proc/<pid>}
+     *
+     * @param pid The pid of the process
+     * @param cpuTicks The ticks consumed by the process, {@code utime} plus {@code stime}
+     * @param rssPages The resident set size, in pages, of the process
+     * @param threads The number of the threads of the process
+     * @param startTicks The ticks elapsed from the boot of the host when the process has been started
+     * @param openFileDescriptors The number of the file descriptors opened by the process
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    public record ProcessResources(long pid, long cpuTicks, long rssPages, int threads, long startTicks,
+                                   int openFileDescriptors) {
+    }
+
+}
@@ -0,0 +1,367 @@
+package com.tecknobit.brownie.helpers.shell;
+
+import com.tecknobit.brownie.helpers.shell.agent.BrownieAgent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.*;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static com.tecknobit.brownie.helpers.shell.HostProbeResult.*;
+import static com.tecknobit.browniecore.ConstantsKt.*;
+
+/**
+ * The {@code LocalHostProbe} class is used to probe the host where the backend instance is running without forking any
+ * process: the stats are read directly from {@code /proc} and {@code /sys}, the liveness of the processes is checked
+ * with {@link ProcessHandle} and the usage of the storage with the {@link FileStore} of the default filesystem. The
+ * probe builds the same payload produced by the bash probe of the {@link ShellCommandsExecutor}, so it is parsed by
+ * {@link HostProbeResult} as well. The probe is also shipped with the {@link BrownieAgent} to probe the remote hosts, so at
+ * runtime it must depend on the JDK only: the constants it uses are inlined at compile time
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see LocalShellCommandsExecutor
+ */
+public final class LocalHostProbe {
+
+    /**
+     * {@code PROC_DIRECTORY} the path of the procfs of the host
+     */
+    private static final Path PROC_DIRECTORY = Path.of("/proc");
+
+    /**
+     * {@code PROC_STAT} the path of the file which contains the counters of the cpu and the boot time of the host
+     */
+    private static final Path PROC_STAT = PROC_DIRECTORY.resolve("stat");
+
+    /**
+     * {@code PROC_MEMINFO} the path of the file which contains the stats of the memory of the host
+     */
+    private static final Path PROC_MEMINFO = PROC_DIRECTORY.resolve("meminfo");
+
+    /**
+     * {@code PROC_CPUINFO} the path of the file which contains the info of the cpus of the host
+     */
+    private static final Path PROC_CPUINFO = PROC_DIRECTORY.resolve("cpuinfo");
+
+    /**
+     * {@code PROC_SELF_AUXV} the path of the auxiliary vector of the current process, which contains the clock ticks
+     * and the page size of the host
+     */
+    private static final Path PROC_SELF_AUXV = PROC_DIRECTORY.resolve("self/auxv");
+
+    /**
+     * {@code CPUS_DIRECTORY} the path of the directory of the cpus of the host
+     */
+    private static final Path CPUS_DIRECTORY = Path.of("/sys/devices/system/cpu");
+
+    /**
+     * {@code BLOCK_DEVICES_DIRECTORY} the path of the directory of the block devices of the host
+     */
+    private static final Path BLOCK_DEVICES_DIRECTORY = Path.of("/sys/block");
+
+    /**
+     * {@code AT_PAGESZ} the type of the entry of the auxiliary vector which contains the page size
+     */
+    private static final long AT_PAGESZ = 6;
+
+    /**
+     * {@code AT_CLKTCK} the type of the entry of the auxiliary vector which contains the clock ticks per second
+     */
+    private static final long AT_CLKTCK = 17;
+
+    /**
+     * {@code BYTES_PER_GIGABYTE} the number of the bytes of a gigabyte
+     */
+    private static final double BYTES_PER_GIGABYTE = 1073741824;
+
+    /**
+     * {@code KILOBYTES_PER_GIGABYTE} the number of the kilobytes of a gigabyte
+     */
+    private static final double KILOBYTES_PER_GIGABYTE = 1048576;
+
+    /**
+     * {@code WHITESPACES} the pattern used to split the fields of the procfs files
+     */
+    private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+
+    /**
+     * {@code auxiliaryVector} the entries of the auxiliary vector of the current process, they do not change during the
+     * lifetime of the process so they are read once
+     */
+    private static volatile Map<Long, Long> auxiliaryVector;
+
+    /**
+     * Constructor to instantiate the probe
+     */
+    public LocalHostProbe() {
+    }
+
+    /**
+     * Method used to check whether the host exposes the procfs required by the probe
+     *
+     * @return whether the host exposes the procfs required by the probe as {@code boolean}
+     */
+    public static boolean isSupported() {
+        return Files.isReadable(PROC_STAT) && Files.isReadable(PROC_MEMINFO);
+    }
+
+    /**
+     * Method used to probe the host retrieving both its current stats and the liveness and the resources of the
+     * specified processes
+     *
+     * @param servicePids The pids of the running services
+     * @return the payload of the probe as {@link String}
+     * @throws IOException when the procfs of the host cannot be read
+     */
+    public String probe(Collection<Long> servicePids) throws IOException {
+        List<String> procStat = Files.readAllLines(PROC_STAT);
+        StringBuilder payload = new StringBuilder();
+        appendRecord(payload, CPU_TIMES_RECORD, readCpuTimes(procStat));
+        appendRecord(payload, CPU_CLOCK_RECORD, readCpuClock());
+        Map<Long, Long> auxiliaryVector = getAuxiliaryVector();
+        appendRecord(payload, CLOCK_TICKS_RECORD, auxiliaryVector.get(AT_CLKTCK));
+        appendRecord(payload, PAGE_SIZE_RECORD, auxiliaryVector.get(AT_PAGESZ));
+        appendRecord(payload, BOOT_TIME_RECORD, readBootTime(procStat));
+        appendRecord(payload, MEMORY_USAGE_KEY, readMemoryUsage());
+        appendRecord(payload, STORAGE_USAGE_KEY, readStorageUsage());
+        appendRecord(payload, STORAGE_TYPE_KEY, readStorageType());
+        if (!servicePids.isEmpty())
+            appendRecord(payload, SERVICES_RESOURCES_RECORD, readServicesResources(servicePids));
+        return payload.toString();
+    }
+
+    /**
+     * Method used to append a record to the payload of the probe, the records without value are skipped
+     *
+     * @param payload The payload of the probe
+     * @param key The key of the record
+     * @param value The value of the record
+     */
+    private void appendRecord(StringBuilder payload, String key, Object value) {
+        if (value == null)
+            return;
+        payload.append(key).append(KEY_VALUE_SEPARATOR).append(value).append(RECORDS_TERMINATOR);
+    }
+
+    /**
+     * Method used to read the counters of the cpu lines of {@code /proc/stat}
+     *
+     * @param procStat The lines of {@code /proc/stat}
+     * @return the value of the {@link HostProbeResult#CPU_TIMES_RECORD} as {@link String}
+     */
+    private String readCpuTimes(List<String> procStat) {
+        StringBuilder cpuTimes = new StringBuilder();
+        for (String line : procStat) {
+            if (!line.startsWith(AGGREGATE_CPU))
+                continue;
+            cpuTimes.append(String.join(VALUES_SEPARATOR, WHITESPACES.split(line.trim())))
+                    .append(CPU_LINES_SEPARATOR);
+        }
+        return cpuTimes.toString();
+    }
+
+    /**
+     * Method used to read the boot time of the host from {@code /proc/stat}
+     *
+     * @param procStat The lines of {@code /proc/stat}
+     * @return the boot time, in seconds since the epoch, as {@link String}, {@code null} if not available
+     */
+    private String readBootTime(List<String> procStat) {
+        for (String line : procStat)
+            if (line.startsWith("btime"))
+                return WHITESPACES.split(line.trim())[1];
+        return null;
+    }
+
+    /**
+     * Method used to read the average current clock of the cpus, in GHz, from the {@code cpufreq} of the cores or, when
+     * not available, from {@code /proc/cpuinfo}
+     *
+     * @return the clock of the cpu as {@link String}, {@code null} if not available
+     */
+    private String readCpuClock() {
+        double frequenciesSum = 0;
+        int cores = 0;
+        try (DirectoryStream<Path> cpus = Files.newDirectoryStream(CPUS_DIRECTORY, "cpu[0-9]*")) {
+            for (Path cpu : cpus) {
+                Path currentFrequency = cpu.resolve("cpufreq/scaling_cur_freq");
+                if (!Files.isReadable(currentFrequency))
+                    continue;
+                frequenciesSum += Double.parseDouble(Files.readString(currentFrequency).trim()) / 1000000;
+                cores++;
+            }
+        } catch (IOException | NumberFormatException ignored) {
+            cores = 0;
+        }
+        if (cores == 0) {
+            frequenciesSum = 0;
+            try {
+                for (String line : Files.readAllLines(PROC_CPUINFO)) {
+                    if (!line.startsWith("cpu MHz"))
+                        continue;
+                    frequenciesSum += Double.parseDouble(line.substring(line.indexOf(':') + 1).trim()) / 1000;
+                    cores++;
+                }
+            } catch (IOException | NumberFormatException e) {
+                return null;
+            }
+        }
+        if (cores == 0)
+            return null;
+        return String.format(Locale.US, "%.2f", frequenciesSum / cores);
+    }
+
+    /**
+     * Method used to read the usage of the memory of the host, in GB, from {@code /proc/meminfo}, the used memory is
+     * computed as the total memory minus the available one as done by the bash probe
+     *
+     * @return the usage of the memory as {@link String}, {@code null} if not available
+     * @throws IOException when {@code /proc/meminfo} cannot be read
+     */
+    private String readMemoryUsage() throws IOException {
+        long totalMemory = -1;
+        long availableMemory = -1;
+        for (String line : Files.readAllLines(PROC_MEMINFO)) {
+            if (line.startsWith("MemTotal:"))
+                totalMemory = Long.parseLong(WHITESPACES.split(line)[1]);
+            else if (line.startsWith("MemAvailable:"))
+                availableMemory = Long.parseLong(WHITESPACES.split(line)[1]);
+        }
+        if (totalMemory < 0 || availableMemory < 0)
+            return null;
+        return String.format(Locale.US, "%.2f/%.2f", (totalMemory - availableMemory) / KILOBYTES_PER_GIGABYTE,
+                totalMemory / KILOBYTES_PER_GIGABYTE);
+    }
+
+    /**
+     * Method used to read the usage of the storage of the host, in GB, summing the usages of all the file stores of the
+     * default filesystem as done by {@code df --total}
+     *
+     * @return the usage of the storage as {@link String}, {@code null} if not available
+     */
+    private String readStorageUsage() {
+        long totalSpace = 0;
+        long usedSpace = 0;
+        for (FileStore fileStore : FileSystems.getDefault().getFileStores()) {
+            try {
+                long storeSpace = fileStore.getTotalSpace();
+                if (storeSpace <= 0)
+                    continue;
+                totalSpace += storeSpace;
+                usedSpace += storeSpace - fileStore.getUnallocatedSpace();
+            } catch (IOException ignored) {
+                // the store is not accessible, like the mount points of the other users
+            }
+        }
+        if (totalSpace == 0)
+            return null;
+        return (long) Math.ceil(usedSpace / BYTES_PER_GIGABYTE) + "/" + (long) Math.ceil(totalSpace / BYTES_PER_GIGABYTE);
+    }
+
+    /**
+     * Method used to detect the type of the storage of the host from its block devices
+     *
+     * @return the type of the storage as {@link String}
+     * @throws IOException when the block devices cannot be listed
+     */
+    private String readStorageType() throws IOException {
+        List<Path> blockDevices;
+        try (Stream<Path> devices = Files.list(BLOCK_DEVICES_DIRECTORY)) {
+            blockDevices = devices.toList();
+        }
+        if (anyDeviceNamed(blockDevices, "mmcblk"))
+            return "SD_CARD";
+        if (anyDeviceNamed(blockDevices, "nvme"))
+            return "SSD_NVMe";
+        if (anyDeviceNamed(blockDevices, "vda"))
+            return "VIRTUAL_DISK";
+        for (Path blockDevice : blockDevices) {
+            Path rotational = blockDevice.resolve("queue/rotational");
+            if (Files.isReadable(rotational) && Files.readString(rotational).trim().equals("0"))
+                return "SSD";
+        }
+        return "HARD_DISK";
+    }
+
+    /**
+     * Method used to check whether any block device contains the specified value in its name
+     *
+     * @param blockDevices The block devices of the host
+     * @param name The value to search
+     * @return whether any block device contains the specified value in its name as {@code boolean}
+     */
+    private boolean anyDeviceNamed(List<Path> blockDevices, String name) {
+        for (Path blockDevice : blockDevices)
+            if (blockDevice.getFileName().toString().contains(name))
+                return true;
+        return false;
+    }
+
+    /**
+     * Method used to read the resources used by the processes of the services from their {@code /proc/<pid>} entries
+     *
+     * @param servicePids The pids of the services
+     * @return the value of the {@link HostProbeResult#SERVICES_RESOURCES_RECORD} as {@link String}
+     */
+    private String readServicesResources(Collection<Long> servicePids) {
+        StringBuilder servicesResources = new StringBuilder();
+        for (long pid : servicePids) {
+            if (!ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false))
+                continue;
+            Path processDirectory = PROC_DIRECTORY.resolve(String.valueOf(pid));
+            try {
+                String stat = Files.readString(processDirectory.resolve("stat"));
+                String[] fields = WHITESPACES.split(stat.substring(stat.lastIndexOf(") ") + 2).trim());
+                long openFds;
+                try (Stream<Path> fds = Files.list(processDirectory.resolve("fd"))) {
+                    openFds = fds.count();
+                } catch (IOException e) {
+                    openFds = 0;
+                }
+                servicesResources.append(String.join(RESOURCES_SEPARATOR,
+                        String.valueOf(pid),
+                        String.valueOf(Long.parseLong(fields[11]) + Long.parseLong(fields[12])),
+                        fields[21],
+                        fields[17],
+                        fields[19],
+                        String.valueOf(openFds)
+                )).append(VALUES_SEPARATOR);
+            } catch (IOException | RuntimeException ignored) {
+                // the process has been terminated in the meantime
+            }
+        }
+        return servicesResources.toString();
+    }
+
+    /**
+     * Method used to get the entries of the auxiliary vector of the current process
+     *
+     * @return the entries keyed by their type as {@link Map} of {@link Long}, empty if not available
+     */
+    private static Map<Long, Long> getAuxiliaryVector() {
+        Map<Long, Long> entries = auxiliaryVector;
+        if (entries != null)
+            return entries;
+        entries = new HashMap<>();
+        if ("64".equals(System.getProperty("sun.arch.data.model"))) {
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(PROC_SELF_AUXV)).order(ByteOrder.nativeOrder());
+                while (buffer.remaining() >= Long.BYTES * 2) {
+                    long type = buffer.getLong();
+                    long value = buffer.getLong();
+                    if (type == 0)
+                        break;
+                    entries.put(type, value);
+                }
+            } catch (IOException ignored) {
+                // the defaults of the HostProbeResult are used
+            }
+        }
+        auxiliaryVector = entries;
+        return entries;
+    }
+
+}
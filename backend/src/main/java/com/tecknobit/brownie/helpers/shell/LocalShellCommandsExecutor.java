@@ -3,10 +3,12 @@ package com.tecknobit.brownie.helpers.shell;
 import com.tecknobit.brownie.helpers.LocalEventsHandler;
 import com.tecknobit.brownie.services.hosts.entities.BrownieHost;
 import com.tecknobit.brownie.services.hosts.services.HostsService;
-import com.tecknobit.brownie.services.hostservices.entities.BrownieHostService;
+
+import com.tecknobit.brownie.helpers.shell.CommandOutputDrainer.BoundedOutput;
+import com.tecknobit.brownie.helpers.shell.CommandOutputDrainer.DrainResult;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.Set;
 
 /**
  * The {@code LocalShellCommandsExecutor} class is used to execute the bash commands on the same physical machine
@@ -28,25 +30,61 @@ public class LocalShellCommandsExecutor extends ShellCommandsExecutor {
     private static final String BASH_COMMAND_OPTION = "-c";
 
     /**
-     * Method used to start a service
+     * {@code LOCAL_HOST_KEY} the key which identifies the local host
+     */
+    private static final String LOCAL_HOST_KEY = "localhost";
+
+    /**
+     * Method used to probe the local host, the probe is natively performed by the {@link LocalHostProbe} without
+     * forking any process, falling back to the bash probe when the procfs of the host is not available
      *
-     * @param service The service to start
-     * @return the pid of the started process
+     * @param host The host to probe
+     * @return the result of the probe as {@link HostProbeResult}
      * @throws Exception when an exception occurred during the process
      */
     @Override
-    public long startService(BrownieHostService service) throws Exception {
-        purgeNohupOutIfRequired(service);
+    public HostProbeResult probeHost(BrownieHost host) throws Exception {
+        if (!LocalHostProbe.isSupported())
+            return super.probeHost(host);
+        Set<Long> servicePids = host.listRunningServicePids();
+        try {
+            return HostProbeResult.parse(new LocalHostProbe().probe(servicePids), servicePids);
+        } catch (IOException | RuntimeException e) {
+            return super.probeHost(host);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String getHostKey() {
+        return LOCAL_HOST_KEY;
+    }
+
+    /**
+     * Method used to execute a bash script streaming its output line by line
+     * @param script The bash script to execute
+     * @param onOutputLine The callback invoked for each line of the output, it can stop the streaming
+     * @param closeSession Whether close the current bash session, ignored because each script runs in its own
+     *                     process
+     *
+     * @throws Exception when an exception occurred during the process
+     */
+    @Override
+    protected void streamBashScript(String script, OnOutputLine onOutputLine, boolean closeSession) throws Exception {
         ProcessBuilder processBuilder = new ProcessBuilder();
         processBuilder.command(BASH, BASH_SCRIPT_OPTION);
         Process process = processBuilder.start();
-        execServiceStarter(service, process.getOutputStream());
-        String commandResult = formatCommandResult(process.getInputStream());
-        String error = new String(process.getErrorStream().readAllBytes());
-        int exitStatus = process.waitFor();
-        if (exitStatus != 0 || commandResult.isEmpty() || !error.isEmpty())
-            return -1;
-        return extractServicePid(commandResult);
+        try {
+            writeBashScript(script, process.getOutputStream());
+            DrainResult drainResult = CommandOutputDrainer.drain(process.getInputStream(), process.getErrorStream(),
+                    onOutputLine);
+            if (!drainResult.stopped())
+                process.waitFor();
+        } finally {
+            process.destroy();
+        }
     }
 
     /**
@@ -92,38 +130,34 @@ public class LocalShellCommandsExecutor extends ShellCommandsExecutor {
     }
 
     /**
-     * Method used to execute a bash command
+     * Method used to execute a bash command streaming its output line by line
      * @param command The bash command to execute
+     * @param onOutputLine The callback invoked for each line of the output, it can stop the streaming
      * @param onCommandExecuted The callback to execute when the command has been executed
      * @param closeSession Whether close the current bash session (like {@link Runtime} or SSH if remote host)
      *
-     * @return the result of the command
      * @throws Exception when an exception occurred during the process
      */
     @Override
-    protected String execBashCommand(String command, OnCommandExecuted onCommandExecuted, boolean closeSession) throws Exception {
+    protected void streamBashCommand(String command, OnOutputLine onOutputLine, OnCommandExecuted onCommandExecuted,
+                                     boolean closeSession) throws Exception {
         ProcessBuilder processBuilder = new ProcessBuilder();
         processBuilder.command(BASH, BASH_COMMAND_OPTION, command);
         Process process = processBuilder.start();
-        String commandResult = formatCommandResult(process.getInputStream());
-        String error = new String(process.getErrorStream().readAllBytes());
-        int exitStatus = process.waitFor();
-        if (exitStatus != 0 && exitStatus != 137 && exitStatus != 143)
-            throw new RuntimeException(appendExitStatus(error, exitStatus));
-        return commandResult;
-    }
-
-    /**
-     * Method used to format a raw result of command execution
-     *
-     * @param rawResult The raw command execution result
-     * @return the formatted command execution as {@link String}
-     * @throws IOException when an error occurred during the reading of the bytes made up the result
-     */
-    private String formatCommandResult(InputStream rawResult) throws IOException {
-        return new String(rawResult.readAllBytes())
-                .replaceAll("\n", "")
-                .trim();
+        try {
+            process.getOutputStream().close();
+            DrainResult drainResult = CommandOutputDrainer.drain(process.getInputStream(), process.getErrorStream(),
+                    onOutputLine);
+            if (drainResult.stopped())
+                return;
+            int exitStatus = process.waitFor();
+            if (exitStatus != 0 && exitStatus != 137 && exitStatus != 143)
+                throw new RuntimeException(appendExitStatus(drainResult.error(), exitStatus));
+            if (onCommandExecuted != null)
+                onCommandExecuted.afterExecution();
+        } finally {
+            process.destroy();
+        }
     }
 
 }
@@ -1,36 +1,36 @@
 package com.tecknobit.brownie.helpers.shell;
 
 import com.jcraft.jsch.ChannelExec;
-import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
+import com.tecknobit.brownie.helpers.shell.CommandOutputDrainer.BoundedOutput;
+import com.tecknobit.brownie.helpers.shell.CommandOutputDrainer.DrainResult;
+import com.tecknobit.brownie.helpers.shell.SSHSessionsPool.PooledSession;
+import com.tecknobit.brownie.helpers.shell.agent.BrownieAgentChannel;
+import com.tecknobit.brownie.helpers.shell.agent.BrownieAgentChannel.RequestNotExecutedException;
+import com.tecknobit.brownie.helpers.shell.agent.BrownieAgentsSupervisor;
 import com.tecknobit.brownie.services.hosts.entities.BrownieHost;
 import com.tecknobit.brownie.services.hosts.services.HostsService;
 import com.tecknobit.brownie.services.hostservices.entities.BrownieHostService;
 import kotlin.Pair;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.tecknobit.brownie.helpers.RemoteHostWaiter.waitForHostRestart;
 
 /**
  * The {@code RemoteShellCommandsExecutor} class is used to execute the bash commands on a remote host using the SSH
- * as way to communicate
+ * as way to communicate. When the {@link BrownieAgentsSupervisor} has an agent ready on the host the probes, the starts
+ * and the stops of the services are served by the agent, falling back to the bash commands when it is not available
  *
  * @author N7ghtm4r3 - Tecknobit
  * @see ShellCommandsExecutor
  */
 public class RemoteShellCommandsExecutor extends ShellCommandsExecutor {
 
-    /**
-     * {@code STRICT_HOST_KEY_CHECKING_OPTION} strict host key checking option
-     */
-    private static final String STRICT_HOST_KEY_CHECKING_OPTION = "StrictHostKeyChecking";
-
     /**
      * {@code EXEC_CHANNEL_TYPE} exec type of the channel used to execute the commands
      */
@@ -57,17 +57,47 @@ public class RemoteShellCommandsExecutor extends ShellCommandsExecutor {
     private static final String EXECUTE_BASH_SCRIPT = "bash " + BASH_SCRIPT_OPTION;
 
     /**
-     * {@code session} current SSH session
+     * {@code sshUser} the user used for the SSH connection
+     */
+    private final String sshUser;
+
+    /**
+     * {@code hostAddress} the address of the host
+     */
+    private final String hostAddress;
+
+    /**
+     * {@code sshPassword} the password of the SSH user
+     */
+    private final String sshPassword;
+
+    /**
+     * {@code hostKey} the key which identifies the host and the SSH user
      */
-    private final Session session;
+    private final String hostKey;
+
+    /**
+     * {@code agentsSupervisor} the supervisor of the agents launched on the hosts
+     */
+    private final BrownieAgentsSupervisor agentsSupervisor;
+
+    /**
+     * {@code sessionsPool} the pool from which the SSH sessions are borrowed
+     */
+    private final SSHSessionsPool sessionsPool;
+
+    /**
+     * {@code pooledSession} the SSH session borrowed from the {@link #sessionsPool}, borrowed only when a command has to
+     * be executed through the shell, null when no session is currently borrowed
+     */
+    private PooledSession pooledSession;
 
     /**
      * Constructor to instantiate the object
      *
      * @param host The host where open the remote communication and where execute the bash commands
-     * @throws JSchException when an error occurred during the creation of the SSH session
      */
-    public RemoteShellCommandsExecutor(BrownieHost host) throws JSchException {
+    public RemoteShellCommandsExecutor(BrownieHost host) {
         this(host.getSshUser(), host.getHostAddress(), host.getSshPassword());
     }
 
@@ -77,16 +107,14 @@ public class RemoteShellCommandsExecutor extends ShellCommandsExecutor {
      * @param sshUser The user to use for the SSH connection
      * @param hostAddress The address of the host to reach
      * @param sshPassword The password of the SSH user
-     *
-     * @throws JSchException when an error occurred during the creation of the SSH session
      */
-    public RemoteShellCommandsExecutor(String sshUser, String hostAddress, String sshPassword) throws JSchException {
-        JSch jSch = new JSch();
-        session = jSch.getSession(sshUser, hostAddress);
-        session.setPassword(sshPassword);
-        session.setConfig(STRICT_HOST_KEY_CHECKING_OPTION, "no");
-        session.setTimeout(2000);
-        session.connect();
+    public RemoteShellCommandsExecutor(String sshUser, String hostAddress, String sshPassword) {
+        this.sshUser = sshUser;
+        this.hostAddress = hostAddress;
+        this.sshPassword = sshPassword;
+        hostKey = sshUser + "@" + hostAddress;
+        agentsSupervisor = BrownieAgentsSupervisor.getInstance();
+        sessionsPool = SSHSessionsPool.getInstance();
     }
 
     /**
@@ -102,30 +130,133 @@ public class RemoteShellCommandsExecutor extends ShellCommandsExecutor {
     }
 
     /**
-     * Method used to start a service
+     * Method used to probe a host, the probe is served by the agent of the host when ready, falling back to the bash
+     * probe otherwise
      *
-     * @param service The service to start
+     * @param host The host to probe
+     * @return the result of the probe as {@link HostProbeResult}
+     * @throws Exception when an exception occurred during the process
+     */
+    @Override
+    public HostProbeResult probeHost(BrownieHost host) throws Exception {
+        BrownieAgentChannel agent = getAgent();
+        if (agent != null) {
+            Set<Long> servicePids = host.listRunningServicePids();
+            try {
+                return HostProbeResult.parse(agent.probe(servicePids), servicePids);
+            } catch (IOException ignored) {
+                // the probe is executed through the shell
+            }
+        }
+        return super.probeHost(host);
+    }
+
+    /**
+     * Method used to start more services of the host, the starts are served by the agent of the host when ready,
+     * falling back to the bash script otherwise. The starts are executed through the shell only when the agent has not
+     * executed them, so a service is never started twice
+     *
+     * @param services The services to start
+     * @param closeSession Whether close the current SSH session
+     *
+     * @return the pids of the started processes keyed by the identifier of the service, -1 if not started
+     * @throws Exception when an exception occurred during the process
+     */
+    @Override
+    public Map<String, Long> startServices(List<BrownieHostService> services, boolean closeSession) throws Exception {
+        BrownieAgentChannel agent = getAgent();
+        if (agent != null && !services.isEmpty()) {
+            try {
+                Map<String, Long> servicePids = agent.startServices(services);
+                if (closeSession)
+                    releaseSession();
+                return servicePids;
+            } catch (RequestNotExecutedException ignored) {
+                // the services are started through the shell
+            } catch (IOException e) {
+                if (closeSession)
+                    releaseSession();
+                throw e;
+            }
+        }
+        return super.startServices(services, closeSession);
+    }
+
+    /**
+     * Method used to stop more services of the host, the stops are served by the agent of the host when ready, falling
+     * back to the bash command otherwise. The stops are executed through the shell only when the agent has not
+     * executed them, so the pids are never signaled twice
      *
-     * @return the pid of the started process
+     * @param services The services to stop
+     * @param closeSession Whether close the current SSH session
      *
+     * @return the pids of the services which have been stopped as {@link Set} of {@link Long}
      * @throws Exception when an exception occurred during the process
      */
     @Override
-    public long startService(BrownieHostService service) throws Exception {
-        purgeNohupOutIfRequired(service);
-        ChannelExec channel = (ChannelExec) session.openChannel(EXEC_CHANNEL_TYPE);
-        channel.setInputStream(null);
-        channel.setCommand(EXECUTE_BASH_SCRIPT);
-        InputStream commandResultStream = channel.getInputStream();
-        channel.connect();
-        execServiceStarter(service, channel.getOutputStream());
-        String commandResult = new String(commandResultStream.readAllBytes());
-        if (commandResult.isEmpty())
-            return -1;
-        long pid = extractServicePid(commandResult);
-        channel.disconnect();
-        session.disconnect();
-        return pid;
+    public Set<Long> stopServices(Collection<BrownieHostService> services, boolean closeSession) throws Exception {
+        BrownieAgentChannel agent = getAgent();
+        if (agent != null && !services.isEmpty()) {
+            List<Long> servicePids = new ArrayList<>();
+            for (BrownieHostService service : services)
+                servicePids.add(service.getPid());
+            try {
+                Set<Long> stoppedPids = agent.stopServices(servicePids);
+                if (closeSession)
+                    releaseSession();
+                return stoppedPids;
+            } catch (RequestNotExecutedException ignored) {
+                // the services are stopped through the shell
+            } catch (IOException e) {
+                if (closeSession)
+                    releaseSession();
+                throw e;
+            }
+        }
+        return super.stopServices(services, closeSession);
+    }
+
+    /**
+     * Method used to get the agent ready on the host
+     *
+     * @return the agent as {@link BrownieAgentChannel}, null if not ready
+     */
+    private BrownieAgentChannel getAgent() {
+        return agentsSupervisor.getAgent(sshUser, hostAddress, sshPassword);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String getHostKey() {
+        return hostKey;
+    }
+
+    /**
+     * Method used to execute a bash script streaming its output line by line
+     * @param script The bash script to execute
+     * @param onOutputLine The callback invoked for each line of the output, it can stop the streaming
+     * @param closeSession Whether close the current SSH session
+     *
+     * @throws Exception when an exception occurred during the process
+     */
+    @Override
+    protected void streamBashScript(String script, OnOutputLine onOutputLine, boolean closeSession) throws Exception {
+        ChannelExec channel = openExecChannel();
+        try {
+            channel.setInputStream(null);
+            channel.setCommand(EXECUTE_BASH_SCRIPT);
+            InputStream outputStream = channel.getInputStream();
+            InputStream errorStream = channel.getErrStream();
+            channel.connect();
+            writeBashScript(script, channel.getOutputStream());
+            CommandOutputDrainer.drain(outputStream, errorStream, onOutputLine);
+        } finally {
+            channel.disconnect();
+            if (closeSession)
+                releaseSession();
+        }
     }
 
     /**
@@ -137,10 +268,15 @@ public class RemoteShellCommandsExecutor extends ShellCommandsExecutor {
      */
     @Override
     public void rebootHost(HostsService service, BrownieHost host) throws Exception {
-        execBashCommand(SUDO_REBOOT, extra -> {
-            service.setRebootingStatus(host);
-            waitForHostRestart(host, new AtomicInteger(0), () -> service.restartHost(host));
-        });
+        try {
+            execBashCommand(SUDO_REBOOT, extra -> {
+                service.setRebootingStatus(host);
+                waitForHostRestart(host, new AtomicInteger(0), () -> service.restartHost(host));
+            }, false);
+        } finally {
+            agentsSupervisor.discardAgent(hostKey);
+            invalidateSession();
+        }
     }
 
     /**
@@ -152,44 +288,104 @@ public class RemoteShellCommandsExecutor extends ShellCommandsExecutor {
      */
     @Override
     public void stopHost(HostsService service, BrownieHost host) throws Exception {
-        execBashCommand(SUDO_SHUTDOWN_NOW, extra -> service.setOfflineStatus(host));
+        try {
+            execBashCommand(SUDO_SHUTDOWN_NOW, extra -> service.setOfflineStatus(host), false);
+        } finally {
+            agentsSupervisor.discardAgent(hostKey);
+            invalidateSession();
+        }
     }
 
     /**
-     * Method used to execute a bash command
+     * Method used to execute a bash command streaming its output line by line
      * @param command The bash command to execute
+     * @param onOutputLine The callback invoked for each line of the output, it can stop the streaming
      * @param onCommandExecuted The callback to execute when the command has been executed
      * @param closeSession Whether close the current bash session (like {@link Runtime} or SSH if remote host)
      *
-     * @return the result of the command
      * @throws Exception when an exception occurred during the process
      */
     @Override
-    protected String execBashCommand(String command, OnCommandExecuted onCommandExecuted, boolean closeSession) throws Exception {
-        ChannelExec channel = (ChannelExec) session.openChannel(EXEC_CHANNEL_TYPE);
-        channel.setInputStream(null);
-        channel.setCommand(command);
-        BufferedReader reader = new BufferedReader(new InputStreamReader(channel.getInputStream()));
-        channel.connect();
+    protected void streamBashCommand(String command, OnOutputLine onOutputLine, OnCommandExecuted onCommandExecuted,
+                                     boolean closeSession) throws Exception {
+        ChannelExec channel = openExecChannel();
         try {
-            String errorMessage = new String(channel.getErrStream().readAllBytes());
-            if (errorMessage.isEmpty()) {
-                StringBuilder commandOutput = new StringBuilder();
-                String resultLine;
-                while ((resultLine = reader.readLine()) != null)
-                    commandOutput.append(resultLine).append("\n");
-                if (onCommandExecuted != null)
-                    onCommandExecuted.afterExecution();
-                return commandOutput.toString().replaceAll("\n", "");
-            } else
-                throw new RuntimeException(appendExitStatus(errorMessage, channel.getExitStatus()));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+            channel.setInputStream(null);
+            channel.setCommand(command);
+            InputStream outputStream = channel.getInputStream();
+            InputStream errorStream = channel.getErrStream();
+            channel.connect();
+            DrainResult drainResult = CommandOutputDrainer.drain(outputStream, errorStream, onOutputLine);
+            if (drainResult.stopped())
+                return;
+            if (!drainResult.error().isEmpty())
+                throw new RuntimeException(appendExitStatus(drainResult.error(), channel.getExitStatus()));
+            if (onCommandExecuted != null)
+                onCommandExecuted.afterExecution();
         } finally {
             channel.disconnect();
             if (closeSession)
-                session.disconnect();
+                releaseSession();
         }
     }
 
+    /**
+     * Method used to give back the borrowed session to the {@link #sessionsPool} when the executor is not required
+     * anymore
+     */
+    @Override
+    public void close() {
+        releaseSession();
+    }
+
+    /**
+     * Method used to open a new exec channel on the borrowed session, borrowing it when required. If the session has
+     * been dropped in the meantime it is discarded from the {@link #sessionsPool}
+     *
+     * @return the exec channel opened as {@link ChannelExec}
+     * @throws JSchException when the session cannot be borrowed or the channel cannot be opened
+     */
+    private ChannelExec openExecChannel() throws JSchException {
+        Session session = borrowSession();
+        try {
+            return (ChannelExec) session.openChannel(EXEC_CHANNEL_TYPE);
+        } catch (JSchException e) {
+            invalidateSession();
+            throw e;
+        }
+    }
+
+    /**
+     * Method used to borrow a session from the {@link #sessionsPool} when no session is currently borrowed
+     *
+     * @return the borrowed session as {@link Session}
+     * @throws JSchException when an error occurred during the creation of the SSH session
+     */
+    private synchronized Session borrowSession() throws JSchException {
+        if (pooledSession == null)
+            pooledSession = sessionsPool.borrowSession(sshUser, hostAddress, sshPassword);
+        return pooledSession.getSession();
+    }
+
+    /**
+     * Method used to give back the borrowed session to the {@link #sessionsPool}, so it can be reused by the other
+     * executors
+     */
+    private synchronized void releaseSession() {
+        if (pooledSession == null)
+            return;
+        sessionsPool.releaseSession(pooledSession);
+        pooledSession = null;
+    }
+
+    /**
+     * Method used to discard the borrowed session because it cannot be reused anymore
+     */
+    private synchronized void invalidateSession() {
+        if (pooledSession == null)
+            return;
+        sessionsPool.invalidateSession(pooledSession);
+        pooledSession = null;
+    }
+
 }
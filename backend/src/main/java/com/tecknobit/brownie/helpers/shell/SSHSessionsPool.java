@@ -0,0 +1,379 @@
+package com.tecknobit.brownie.helpers.shell;
+
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import com.tecknobit.equinoxcore.annotations.Returner;
+import com.tecknobit.equinoxcore.annotations.Wrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * The {@code SSHSessionsPool} class is used to share the SSH sessions opened towards the remote hosts, so the
+ * {@link RemoteShellCommandsExecutor} can borrow an already authenticated session instead of performing a new handshake
+ * for each command to execute. Each session can serve more than one exec channel at the same time and the sessions
+ * unused for a while are automatically evicted from the pool
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see RemoteShellCommandsExecutor
+ */
+public class SSHSessionsPool {
+
+    /**
+     * {@code STRICT_HOST_KEY_CHECKING_OPTION} strict host key checking option
+     */
+    private static final String STRICT_HOST_KEY_CHECKING_OPTION = "StrictHostKeyChecking";
+
+    /**
+     * {@code SSH_CONNECTION_TIMEOUT} the timeout, in milliseconds, of the SSH connections
+     */
+    private static final int SSH_CONNECTION_TIMEOUT = 2000;
+
+    /**
+     * {@code MAX_SESSIONS_PER_HOST} the max number of SSH sessions which can be opened towards the same host
+     */
+    private static final int MAX_SESSIONS_PER_HOST = 2;
+
+    /**
+     * {@code MAX_CHANNELS_PER_SESSION} the max number of exec channels which can be opened on the same session, kept
+     * under the default {@code MaxSessions} value of the {@code OpenSSH} server
+     */
+    private static final int MAX_CHANNELS_PER_SESSION = 8;
+
+    /**
+     * {@code BORROW_TIMEOUT} the max time, in milliseconds, to wait for a free session when the limits have been reached
+     */
+    private static final long BORROW_TIMEOUT = 10000;
+
+    /**
+     * {@code HEALTH_CHECK_THRESHOLD} the idle time, in milliseconds, after that a session is checked before being lent
+     */
+    private static final long HEALTH_CHECK_THRESHOLD = 15000;
+
+    /**
+     * {@code IDLE_SESSION_TIMEOUT} the idle time, in milliseconds, after that an unused session is evicted
+     */
+    private static final long IDLE_SESSION_TIMEOUT = 60000;
+
+    /**
+     * {@code EVICTION_DELAY} the delay, in seconds, between each eviction routine
+     */
+    private static final int EVICTION_DELAY = 30;
+
+    /**
+     * {@code SSH_SESSIONS_POOL} the singleton instance of the pool
+     */
+    private static final SSHSessionsPool SSH_SESSIONS_POOL = new SSHSessionsPool();
+
+    /**
+     * {@code hostsSessions} the sessions currently opened grouped by host and credentials
+     */
+    private final Map<SessionKey, HostSessions> hostsSessions;
+
+    /**
+     * {@code sessionsEvictor} the scheduler used to evict the idle sessions
+     */
+    private final ScheduledExecutorService sessionsEvictor;
+
+    /**
+     * Constructor to instantiate the pool
+     */
+    private SSHSessionsPool() {
+        hostsSessions = new ConcurrentHashMap<>();
+        sessionsEvictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread evictor = new Thread(runnable, "ssh-sessions-evictor");
+            evictor.setDaemon(true);
+            return evictor;
+        });
+        sessionsEvictor.scheduleWithFixedDelay(this::evictIdleSessions, EVICTION_DELAY, EVICTION_DELAY, SECONDS);
+    }
+
+    /**
+     * Method used to borrow a live session towards a host, if no session can be reused a new one will be opened
+     *
+     * @param sshUser The user to use for the SSH connection
+     * @param hostAddress The address of the host to reach
+     * @param sshPassword The password of the SSH user
+     *
+     * @return the borrowed session as {@link PooledSession}
+     * @throws JSchException when an error occurred during the creation of the SSH session or no session has been
+     * released in time
+     */
+    public PooledSession borrowSession(String sshUser, String hostAddress, String sshPassword) throws JSchException {
+        SessionKey key = new SessionKey(hostAddress, sshUser, sshPassword);
+        HostSessions sessions = hostsSessions.computeIfAbsent(key, k -> new HostSessions());
+        long deadline = System.currentTimeMillis() + BORROW_TIMEOUT;
+        while (true) {
+            PooledSession pooledSession = sessions.lease(deadline);
+            if (pooledSession == null)
+                return sessions.openSession(key);
+            if (isHealthy(pooledSession))
+                return pooledSession;
+            invalidateSession(pooledSession);
+        }
+    }
+
+    /**
+     * Method used to check whether a session lent by the pool is still alive. The sessions idle since more than the
+     * {@link #HEALTH_CHECK_THRESHOLD} are probed sending a keepalive message
+     *
+     * @param pooledSession The session to check
+     * @return whether the session is still alive as {@code boolean}
+     */
+    @Returner
+    private boolean isHealthy(PooledSession pooledSession) {
+        Session session = pooledSession.session;
+        if (!session.isConnected())
+            return false;
+        if (System.currentTimeMillis() - pooledSession.lastUse < HEALTH_CHECK_THRESHOLD)
+            return true;
+        try {
+            session.sendKeepAliveMsg();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Method used to give back to the pool a borrowed session
+     *
+     * @param pooledSession The session to release
+     */
+    public void releaseSession(PooledSession pooledSession) {
+        pooledSession.owner.release(pooledSession, false);
+    }
+
+    /**
+     * Method used to discard a borrowed session which cannot be reused anymore, for example because the host is
+     * going to be rebooted or stopped
+     *
+     * @param pooledSession The session to invalidate
+     */
+    public void invalidateSession(PooledSession pooledSession) {
+        pooledSession.owner.release(pooledSession, true);
+    }
+
+    /**
+     * Method used to evict the sessions which have been unused for more than the {@link #IDLE_SESSION_TIMEOUT}
+     */
+    private void evictIdleSessions() {
+        long now = System.currentTimeMillis();
+        for (HostSessions sessions : hostsSessions.values())
+            sessions.evictIdleSessions(now);
+    }
+
+    /**
+     * Method used to close all the sessions currently opened
+     */
+    public void closeAllSessions() {
+        sessionsEvictor.shutdownNow();
+        for (HostSessions sessions : hostsSessions.values())
+            sessions.evictIdleSessions(Long.MAX_VALUE);
+    }
+
+    /**
+     * Method used to get the singleton instance of the pool
+     *
+     * @return the singleton instance of the pool as {@link SSHSessionsPool}
+     */
+    @Wrapper
+    public static SSHSessionsPool getInstance() {
+        return SSH_SESSIONS_POOL;
+    }
+
+    /**
+     * The {@code SessionKey} record is used to group the sessions opened towards the same host with the same credentials
+     *
+     * @param hostAddress The address of the host
+     * @param sshUser The user used for the SSH connection
+     * @param sshPassword The password of the SSH user
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private record SessionKey(String hostAddress, String sshUser, String sshPassword) {
+    }
+
+    /**
+     * The {@code HostSessions} class is used to handle the sessions opened towards the same host respecting the
+     * {@link #MAX_SESSIONS_PER_HOST} and {@link #MAX_CHANNELS_PER_SESSION} limits
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private static final class HostSessions {
+
+        /**
+         * {@code sessions} the sessions currently opened towards the host
+         */
+        private final List<PooledSession> sessions = new ArrayList<>();
+
+        /**
+         * {@code pendingConnections} the number of sessions currently connecting towards the host
+         */
+        private int pendingConnections;
+
+        /**
+         * Method used to lease the least busy session available. When there is room for a new session a slot is
+         * reserved and {@code null} is returned to let the caller open it
+         *
+         * @param deadline The deadline, in milliseconds, to wait for a free session
+         * @return the leased session as {@link PooledSession}, null if a new session has to be opened
+         * @throws JSchException when no session has been released before the deadline
+         */
+        private synchronized PooledSession lease(long deadline) throws JSchException {
+            while (true) {
+                sessions.removeIf(pooledSession -> !pooledSession.session.isConnected()
+                        && pooledSession.leases == 0);
+                PooledSession leastBusy = null;
+                for (PooledSession pooledSession : sessions) {
+                    if (pooledSession.invalidated || pooledSession.leases >= MAX_CHANNELS_PER_SESSION)
+                        continue;
+                    if (leastBusy == null || pooledSession.leases < leastBusy.leases)
+                        leastBusy = pooledSession;
+                }
+                if (leastBusy != null) {
+                    leastBusy.leases++;
+                    return leastBusy;
+                }
+                if (sessions.size() + pendingConnections < MAX_SESSIONS_PER_HOST) {
+                    pendingConnections++;
+                    return null;
+                }
+                long remainingTime = deadline - System.currentTimeMillis();
+                if (remainingTime <= 0)
+                    throw new JSchException("timeout: no SSH session released in time");
+                try {
+                    wait(remainingTime);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new JSchException("interrupted while waiting for an SSH session", e);
+                }
+            }
+        }
+
+        /**
+         * Method used to open a new session in the slot previously reserved by {@link #lease(long)}
+         *
+         * @param key The key of the host to reach
+         * @return the new session already leased as {@link PooledSession}
+         * @throws JSchException when an error occurred during the creation of the SSH session
+         */
+        private PooledSession openSession(SessionKey key) throws JSchException {
+            try {
+                JSch jSch = new JSch();
+                Session session = jSch.getSession(key.sshUser(), key.hostAddress());
+                session.setPassword(key.sshPassword());
+                session.setConfig(STRICT_HOST_KEY_CHECKING_OPTION, "no");
+                session.setTimeout(SSH_CONNECTION_TIMEOUT);
+                session.connect();
+                PooledSession pooledSession = new PooledSession(this, session);
+                synchronized (this) {
+                    sessions.add(pooledSession);
+                }
+                return pooledSession;
+            } finally {
+                synchronized (this) {
+                    pendingConnections--;
+                    notifyAll();
+                }
+            }
+        }
+
+        /**
+         * Method used to release a leased session
+         *
+         * @param pooledSession The session to release
+         * @param invalidate Whether the session must be discarded
+         */
+        private synchronized void release(PooledSession pooledSession, boolean invalidate) {
+            pooledSession.leases--;
+            pooledSession.lastUse = System.currentTimeMillis();
+            if (invalidate)
+                pooledSession.invalidated = true;
+            if (pooledSession.invalidated && pooledSession.leases == 0) {
+                sessions.remove(pooledSession);
+                pooledSession.session.disconnect();
+            }
+            notifyAll();
+        }
+
+        /**
+         * Method used to evict the unused sessions idle since more than the {@link #IDLE_SESSION_TIMEOUT}
+         *
+         * @param now The current timestamp used as reference
+         */
+        private synchronized void evictIdleSessions(long now) {
+            sessions.removeIf(pooledSession -> {
+                boolean evict = pooledSession.leases == 0 && now - pooledSession.lastUse > IDLE_SESSION_TIMEOUT;
+                if (evict)
+                    pooledSession.session.disconnect();
+                return evict;
+            });
+        }
+
+    }
+
+    /**
+     * The {@code PooledSession} class is used to wrap a {@link Session} handled by the pool
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    public static final class PooledSession {
+
+        /**
+         * {@code owner} the group of sessions which owns this session
+         */
+        private final HostSessions owner;
+
+        /**
+         * {@code session} the wrapped SSH session
+         */
+        private final Session session;
+
+        /**
+         * {@code leases} the number of leases currently active on the session, guarded by the {@link #owner}
+         */
+        private int leases;
+
+        /**
+         * {@code lastUse} the timestamp of the last release of the session
+         */
+        private volatile long lastUse;
+
+        /**
+         * {@code invalidated} whether the session must be discarded as soon as all its leases are released
+         */
+        private boolean invalidated;
+
+        /**
+         * Constructor to instantiate the object
+         *
+         * @param owner The group of sessions which owns this session
+         * @param session The wrapped SSH session
+         */
+        private PooledSession(HostSessions owner, Session session) {
+            this.owner = owner;
+            this.session = session;
+            leases = 1;
+            lastUse = System.currentTimeMillis();
+        }
+
+        /**
+         * Method used to get the wrapped SSH session
+         *
+         * @return the wrapped SSH session as {@link Session}
+         */
+        public Session getSession() {
+            return session;
+        }
+
+    }
+
+}
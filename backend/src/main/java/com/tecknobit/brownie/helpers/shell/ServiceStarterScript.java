@@ -0,0 +1,225 @@
+package com.tecknobit.brownie.helpers.shell;
+
+import com.tecknobit.brownie.services.hostservices.entities.BrownieHostService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.tecknobit.apimanager.apis.ResourcesUtils.getResourceStream;
+
+/**
+ * The {@code ServiceStarterScript} class is used to handle the {@code service-starter.sh} script used to start the
+ * services. The script is loaded once and staged on each host in the {@code ~/.brownie} directory, under a name
+ * versioned by its content, so the starts of the services send only a short invocation with the escaped arguments of
+ * the service instead of the whole script
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+public final class ServiceStarterScript {
+
+    /**
+     * {@code SERVICE_STARTER_SCRIPT} the pathname of the script used to start the services
+     */
+    private static final String SERVICE_STARTER_SCRIPT = "service-starter.sh";
+
+    /**
+     * {@code STAGED_SCRIPT_PATH} the path where the script is staged on the hosts
+     */
+    private static final String STAGED_SCRIPT_PATH = "\"$HOME/.brownie/service-starter-%s.sh\"";
+
+    /**
+     * {@code STARTER_VARIABLE} the declaration of the variable which refers to the staged script
+     */
+    private static final String STARTER_VARIABLE = "starter=%s\n";
+
+    /**
+     * {@code STAGE_SCRIPT} the commands used to stage the script on the host, the script is written to a temporary
+     * file moved at the end so the concurrent starts never execute a partially written script
+     */
+    private static final String STAGE_SCRIPT = """
+            mkdir -p "$(dirname "$starter")"
+            cat > "$starter.$$" <<'BROWNIE_SERVICE_STARTER'
+            %s
+            BROWNIE_SERVICE_STARTER
+            mv -f "$starter.$$" "$starter"
+            """;
+
+    /**
+     * {@code STAGING_REQUIRED} the marker reported when the script is not staged on the host
+     */
+    public static final String STAGING_REQUIRED = "staging_required";
+
+    /**
+     * {@code CHECK_STAGED_SCRIPT} the command used to check whether the script is staged on the host before invoking
+     * it
+     */
+    private static final String CHECK_STAGED_SCRIPT = "[ -r \"$starter\" ] || { echo \"" + STAGING_REQUIRED
+            + "\"; exit; }\n";
+
+    /**
+     * {@code INVOCATION} the invocation of the staged script for a service, which reports the pid of the started
+     * service, empty if not started, prefixed by the index of the service
+     */
+    private static final String INVOCATION = "echo \"%d:$(bash \"$starter\" %s %s)\"\n";
+
+    /**
+     * {@code SINGLE_QUOTE} the single quote used to escape the arguments
+     */
+    private static final String SINGLE_QUOTE = "'";
+
+    /**
+     * {@code ESCAPED_SINGLE_QUOTE} the single quote escaped inside a single-quoted argument
+     */
+    private static final String ESCAPED_SINGLE_QUOTE = "'\\''";
+
+    /**
+     * {@code serviceStarter} the instance of the script, loaded once
+     */
+    private static volatile ServiceStarterScript serviceStarter;
+
+    /**
+     * {@code starterVariable} the declaration of the variable which refers to the staged script
+     */
+    private final String starterVariable;
+
+    /**
+     * {@code stagingCommands} the commands used to stage the script on a host
+     */
+    private final String stagingCommands;
+
+    /**
+     * {@code stagedHosts} the keys of the hosts where the script has been already staged
+     */
+    private final Set<String> stagedHosts;
+
+    /**
+     * Constructor to instantiate the object
+     *
+     * @param script The content of the script
+     */
+    private ServiceStarterScript(String script) {
+        starterVariable = String.format(STARTER_VARIABLE, String.format(STAGED_SCRIPT_PATH, hash(script)));
+        stagingCommands = String.format(STAGE_SCRIPT, script.stripTrailing());
+        stagedHosts = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Method used to render the script which starts more services of a host, when the starter is not staged on the
+     * host the script reports the {@link #STAGING_REQUIRED} marker without starting the services
+     *
+     * @param preamble The commands to execute before the starts of the services
+     * @param services The services to start, each one is reported by its index in the output
+     * @param stage Whether the script must stage the starter before the starts of the services
+     *
+     * @return the script rendered as {@link String}
+     */
+    public String render(String preamble, Iterable<BrownieHostService> services, boolean stage) {
+        StringBuilder script = new StringBuilder(preamble).append(starterVariable);
+        if (stage)
+            script.append(stagingCommands);
+        script.append(CHECK_STAGED_SCRIPT);
+        int serviceIndex = 0;
+        for (BrownieHostService service : services) {
+            String programArguments = service.getConfiguration().getProgramArguments();
+            script.append(String.format(INVOCATION, serviceIndex++, escape(service.getServicePath()),
+                    escape(programArguments != null ? programArguments : "")));
+        }
+        return script.toString();
+    }
+
+    /**
+     * Method used to render the commands which stage the starter on the host, leaving its path in the {@code starter}
+     * variable of the script
+     *
+     * @return the commands rendered as {@link String}
+     */
+    public String renderStaging() {
+        return starterVariable + stagingCommands;
+    }
+
+    /**
+     * Method used to check whether the script has been already staged on a host
+     *
+     * @param hostKey The key of the host
+     *
+     * @return whether the script has been already staged as {@code boolean}
+     */
+    public boolean isStaged(String hostKey) {
+        return stagedHosts.contains(hostKey);
+    }
+
+    /**
+     * Method used to mark the script as staged on a host
+     *
+     * @param hostKey The key of the host
+     */
+    public void markStaged(String hostKey) {
+        stagedHosts.add(hostKey);
+    }
+
+    /**
+     * Method used to mark the script as not staged on a host, so it is staged again by the next start
+     *
+     * @param hostKey The key of the host
+     */
+    public void markNotStaged(String hostKey) {
+        stagedHosts.remove(hostKey);
+    }
+
+    /**
+     * Method used to escape an argument wrapping it between single quotes, so it is passed as is to the script
+     *
+     * @param argument The argument to escape
+     *
+     * @return the argument escaped as {@link String}
+     */
+    public static String escape(String argument) {
+        return SINGLE_QUOTE + argument.replace(SINGLE_QUOTE, ESCAPED_SINGLE_QUOTE) + SINGLE_QUOTE;
+    }
+
+    /**
+     * Method used to compute the short hash of the content of the script used to version its staged copies
+     *
+     * @param script The content of the script
+     *
+     * @return the hash as {@link String}
+     */
+    private static String hash(String script) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(script.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Method used to get the instance of the script, loading it the first time
+     *
+     * @return the instance of the script as {@link ServiceStarterScript}
+     */
+    public static ServiceStarterScript getInstance() {
+        ServiceStarterScript instance = serviceStarter;
+        if (instance != null)
+            return instance;
+        synchronized (ServiceStarterScript.class) {
+            if (serviceStarter == null) {
+                try (InputStream script = getResourceStream(SERVICE_STARTER_SCRIPT, ServiceStarterScript.class)) {
+                    serviceStarter = new ServiceStarterScript(new String(script.readAllBytes(), StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return serviceStarter;
+        }
+    }
+
+}
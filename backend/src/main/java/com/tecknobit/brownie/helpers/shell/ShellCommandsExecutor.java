@@ -1,6 +1,7 @@
 package com.tecknobit.brownie.helpers.shell;
 
 import com.jcraft.jsch.JSchException;
+import com.tecknobit.brownie.helpers.shell.CommandOutputDrainer.BoundedOutput;
 import com.tecknobit.brownie.services.hosts.entities.BrownieHost;
 import com.tecknobit.brownie.services.hosts.services.HostsService;
 import com.tecknobit.brownie.services.hostservices.entities.BrownieHostService;
@@ -9,14 +10,14 @@ import com.tecknobit.equinoxcore.annotations.Structure;
 import com.tecknobit.equinoxcore.annotations.Wrapper;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
-import static com.tecknobit.apimanager.apis.ResourcesUtils.getResourceStream;
-import static com.tecknobit.equinoxbackend.environment.services.builtin.service.EquinoxItemsHelper.COMMA;
-import static com.tecknobit.equinoxbackend.environment.services.builtin.service.EquinoxItemsHelper.SINGLE_QUOTE;
+import static com.tecknobit.brownie.helpers.shell.ServiceStarterScript.STAGING_REQUIRED;
+import static com.tecknobit.brownie.helpers.shell.ServiceStarterScript.escape;
 
 /**
  * The {@code ShellCommandsExecutor} class is used to execute the bash commands on the shells of the hosts physical machines
@@ -24,12 +25,13 @@ import static com.tecknobit.equinoxbackend.environment.services.builtin.service.
  * @author N7ghtm4r3 - Tecknobit
  */
 @Structure
-public abstract class ShellCommandsExecutor {
+public abstract class ShellCommandsExecutor implements AutoCloseable {
 
     /**
-     * {@code SERVICE_STARTER_SCRIPT} the pathname of the script used to start the services
+     * {@code SERVICE_PID_SEPARATOR} the separator between the index of a service and its pid in the output of the
+     * script used to start more services at once
      */
-    private static final String SERVICE_STARTER_SCRIPT = "service-starter.sh";
+    private static final char SERVICE_PID_SEPARATOR = ':';
 
     /**
      * {@code BASH_SCRIPT_OPTION} the bash option used to launch a script
@@ -47,26 +49,43 @@ public abstract class ShellCommandsExecutor {
     protected static final String SUDO_REBOOT = "sudo reboot";
 
     /**
-     * {@code GET_CURRENT_HOST_STATS} the bash command used to retrieve the current stats of the physical machine of the
-     * host
+     * {@code PROBE_HOST_STATS} the bash command used to retrieve the current stats of the physical machine of the host
+     * as records of the {@link HostProbeResult} payload, the errors of the single stats are discarded so they leave
+     * their records empty without failing the liveness checks executed by the same probe. The used memory is the total
+     * memory minus the available one, as computed by the {@link LocalHostProbe}
      */
-    protected static final String GET_CURRENT_HOST_STATS = """
-            echo -e "$(top -bn1 | grep 'Cpu(s)' | awk '{print 100 - $8}'),
-            $(if ls /sys/devices/system/cpu/cpu*/cpufreq/scaling_cur_freq &>/dev/null; then
-                freq=$(awk '{s+=$1} END {print s/NR/1000000}' /sys/devices/system/cpu/cpu*/cpufreq/scaling_cur_freq);
-                printf "%.2f" $freq;
+    protected static final String PROBE_HOST_STATS = """
+            echo "cpu_times=$(grep '^cpu' /proc/stat 2>/dev/null | awk '{l=$1; for(i=2;i<=NF;i++) l=l","$i; printf "%s|", l}');"
+            echo "cpu_clock=$(if ls /sys/devices/system/cpu/cpu*/cpufreq/scaling_cur_freq &>/dev/null; then
+                freq=$(awk '{s+=$1} END {print s/NR/1000000}' /sys/devices/system/cpu/cpu*/cpufreq/scaling_cur_freq 2>/dev/null);
+                printf "%.2f" $freq 2>/dev/null;
               else
-                freq=$(lscpu | grep 'CPU MHz' | awk '{print $3/1000}');
-                printf "%.2f" $freq;
-              fi),
-            $(free -b | awk '/Mem:/ {printf "%.2f/%.2f\\n", $3/1073741824, $2/1073741824}'),
-            $(df --block-size=1G --total | awk '/total/ {printf "%d/%d\\n", $3, $2}'),
-            $(if lsblk -d -o NAME | grep -q mmcblk; then echo "SD_CARD";
-              elif lsblk -d -o NAME | grep -q nvme; then echo "SSD_NVMe";
-              elif lsblk -d -o NAME | grep -q vda; then echo "VIRTUAL_DISK";
-              elif lsblk -d -o ROTA | awk 'NR>1' | grep -q 0; then echo "SSD";
-              else echo "HARD_DISK"; fi)"
-            \s""";
+                freq=$(lscpu 2>/dev/null | grep 'CPU MHz' | awk '{print $3/1000}');
+                printf "%.2f" $freq 2>/dev/null;
+              fi);"
+            echo "clock_ticks=$(getconf CLK_TCK 2>/dev/null);page_size=$(getconf PAGESIZE 2>/dev/null);boot_time=$(awk '/^btime/ {print $2}' /proc/stat 2>/dev/null);"
+            echo "memory_usage=$(awk '/^MemTotal:/ {t=$2} /^MemAvailable:/ {a=$2} END {if (t) printf "%.2f/%.2f", (t-a)/1048576, t/1048576}' /proc/meminfo 2>/dev/null);"
+            echo "storage_usage=$(df --block-size=1G --total 2>/dev/null | awk '/total/ {printf "%d/%d", $3, $2}');"
+            echo "storage_type=$(if lsblk -d -o NAME 2>/dev/null | grep -q mmcblk; then echo "SD_CARD";
+              elif lsblk -d -o NAME 2>/dev/null | grep -q nvme; then echo "SSD_NVMe";
+              elif lsblk -d -o NAME 2>/dev/null | grep -q vda; then echo "VIRTUAL_DISK";
+              elif lsblk -d -o ROTA 2>/dev/null | awk 'NR>1' | grep -q 0; then echo "SSD";
+              else echo "HARD_DISK"; fi);"
+            """;
+
+    /**
+     * {@code PROBE_SERVICES_RESOURCES} the bash command used to retrieve with a single pass over {@code /proc} the
+     * resources used by the tracked services as record of the {@link HostProbeResult} payload, each service is reported
+     * as {@code pid:cpu_ticks:rss_pages:threads:start_ticks:open_fds}. Only the pids whose {@code /proc/<pid>} entry
+     * exists are reported, so the record is also used to check the liveness of the services with a cost which scales
+     * with the tracked services only. The fields of {@code /proc/<pid>/stat} are read after the command name so the
+     * names containing spaces do not shift them
+     */
+    protected static final String PROBE_SERVICES_RESOURCES = """
+            echo "services_resources=$(for pid in %s; do
+                [ -r /proc/$pid/stat ] && sed 's/.*) //' /proc/$pid/stat 2>/dev/null | awk -v pid=$pid -v fds=$(ls /proc/$pid/fd 2>/dev/null | wc -l) '{printf "%%s:%%d:%%d:%%d:%%d:%%d,", pid, $12+$13, $22, $18, $20, fds}';
+              done);"
+            """;
 
     /**
      * {@code FIND_SERVICE_PATH} the bash command used to find the path of a service inside the filesystem of the host
@@ -90,80 +109,46 @@ public abstract class ShellCommandsExecutor {
      */
     protected static final String REMOVE_NOHUP_OUT_FILE_COMMAND = "rm -f %s";
 
-    /**
-     * {@code GREP_RUNNING_SERVICES_COMMAND} the bash command used to retrieve all the running services on a host and
-     * format their pids as list comma separated
-     */
-    protected static final String GREP_RUNNING_SERVICES_COMMAND = """
-                ps -ef | grep -E %s | grep -v grep | awk '{print $2}' | paste -sd ','
-            """;
-
     /**
      * {@code KILL_SERVICE} the bash command used to kill a service currently running on the host
      */
     protected static final String KILL_SERVICE = "kill %s";
 
     /**
-     * {@code PIPE_CHARACTER} constant value for the pipe character
+     * {@code KILL_SERVICES} the bash command used to kill more services with a single execution, the pid of each
+     * killed service is reported on a dedicated line
      */
-    protected static final String PIPE_CHARACTER = "|";
+    protected static final String KILL_SERVICES = "for pid in %s; do kill $pid 2>/dev/null && echo $pid; done; true";
 
     /**
-     * Method used to detect the stopped services
+     * Method used to probe a host retrieving with a single execution both its current stats and the liveness and the
+     * resources of its running services
      *
-     * @param host The host from detect the stopped services
-     * @return the stopped services as {@link Collection} of {@link Long}
+     * @param host The host to probe
+     * @return the result of the probe as {@link HostProbeResult}
      * @throws Exception when an exception occurred during the process
      */
-    public Collection<Long> detectStoppedServices(BrownieHost host) throws Exception {
-        List<String> serviceNames = host.listRunningServiceNames();
-        String command = formatServicesMonitoringCommand(serviceNames);
-        return retrieveStoppedServices(command, host);
+    public HostProbeResult probeHost(BrownieHost host) throws Exception {
+        Set<Long> servicePids = host.listRunningServicePids();
+        String command = PROBE_HOST_STATS + formatServicesResourcesProbe(servicePids);
+        return HostProbeResult.parse(execBashCommand(command), servicePids);
     }
 
     /**
-     * Method used to format the {@link #GREP_RUNNING_SERVICES_COMMAND} with the names of the services
+     * Method used to format the {@link #PROBE_SERVICES_RESOURCES} with the pids of the services
      *
-     * @param serviceNames The names of the services
+     * @param servicePids The pids of the services
      *
-     * @return the command formatted as {@link String}
+     * @return the command formatted as {@link String}, empty if there are no services to probe
      */
     @Returner
-    private String formatServicesMonitoringCommand(List<String> serviceNames) {
-        if (serviceNames.isEmpty())
-            return null;
-        StringBuilder builder = new StringBuilder();
-        builder.append(SINGLE_QUOTE);
-        for (String serviceName : serviceNames)
-            builder.append(serviceName).append(PIPE_CHARACTER);
-        builder.deleteCharAt(builder.length() - 1);
-        builder.append(SINGLE_QUOTE);
-        return String.format(GREP_RUNNING_SERVICES_COMMAND, builder);
-    }
-
-    /**
-     * Method used to retrieve the pids of current stopped services comparing with the pids of the running services of
-     * the host
-     *
-     * @param command The {@link #GREP_RUNNING_SERVICES_COMMAND} formatted
-     * @param host The host currently checked
-     *
-     * @return the pids of current stopped services as {@link Collection} of {@link Long}
-     * @throws Exception when an exception occurred during the process
-     */
-    private Collection<Long> retrieveStoppedServices(String command, BrownieHost host) throws Exception {
-        if (command == null)
-            return Collections.EMPTY_LIST;
-        String result = execBashCommand(command);
-        HashSet<Long> servicePids = host.listRunningServicePids();
-        if (result.isEmpty())
-            return servicePids;
-        List<Long> stoppedPids = new ArrayList<>();
-        HashSet<String> runningPids = new HashSet<>(Arrays.stream(result.split(COMMA)).toList());
+    private String formatServicesResourcesProbe(Collection<Long> servicePids) {
+        if (servicePids.isEmpty())
+            return "";
+        StringJoiner pids = new StringJoiner(" ");
         for (long servicePid : servicePids)
-            if (!runningPids.contains(String.valueOf(servicePid)))
-                stoppedPids.add(servicePid);
-        return stoppedPids;
+            pids.add(String.valueOf(servicePid));
+        return String.format(PROBE_SERVICES_RESOURCES, pids);
     }
 
     /**
@@ -187,91 +172,165 @@ public abstract class ShellCommandsExecutor {
     public abstract void stopHost(HostsService service, BrownieHost host) throws Exception;
 
     /**
-     * Method used to get the current stats of the host with the {@link #GET_CURRENT_HOST_STATS} command
+     * Method to find the path of the service using the {@link #FIND_SERVICE_PATH} command, the search is stopped at
+     * the first path found
      *
-     * @return the current stats of the host as array of {@link String}
+     * @param name The name of the service to find
+     *
+     * @return the path name of the service as {@link String}, empty if not found
      * @throws Exception when an exception occurred during the process
      */
-    @Wrapper
-    public String[] getCurrentHostStats() throws Exception {
-        return execBashCommand(GET_CURRENT_HOST_STATS).replaceAll(" ", "").split(COMMA);
+    public String findServicePath(String name) throws Exception {
+        AtomicReference<String> servicePath = new AtomicReference<>("");
+        streamBashCommand(String.format(FIND_SERVICE_PATH, name), line -> {
+            if (line.isBlank())
+                return true;
+            servicePath.set(line.trim());
+            return false;
+        }, null, true);
+        return servicePath.get();
     }
 
     /**
-     * Method to find the path of the service using the {@link #FIND_SERVICE_PATH} command
+     * Method used to start a service
      *
-     * @param name The name of the service to find
+     * @param service The service to start
+     *
+     * @return the pid of the started process
      *
-     * @return the path name of the service as {@link String}
      * @throws Exception when an exception occurred during the process
      */
     @Wrapper
-    public String findServicePath(String name) throws Exception {
-        return execBashCommand(String.format(FIND_SERVICE_PATH, name));
+    public long startService(BrownieHostService service) throws Exception {
+        return startService(service, true);
     }
 
     /**
      * Method used to start a service
      *
      * @param service The service to start
+     * @param closeSession Whether close the current bash session (like {@link Runtime} or SSH if remote host)
      *
-     * @return the pid of the started process
+     * @return the pid of the started process, -1 if not started
      *
      * @throws Exception when an exception occurred during the process
      */
-    public abstract long startService(BrownieHostService service) throws Exception;
+    public long startService(BrownieHostService service, boolean closeSession) throws Exception {
+        return startServices(List.of(service), closeSession).get(service.getId());
+    }
 
     /**
-     * Method used to purge the {@link #NOHUP_OUT_FILE} when required
+     * Method used to start more services of the host with a single script, which purges their {@link #NOHUP_OUT_FILE}
+     * when required and then starts each service invoking the {@link ServiceStarterScript} staged on the host. The
+     * starter is staged by the first start on the host, or again when its staged copy is not found anymore
      *
-     * @param service The service to delete its related {@link #NOHUP_OUT_FILE}
+     * @param services The services to start
+     * @param closeSession Whether close the current bash session (like {@link Runtime} or SSH if remote host)
+     *
+     * @return the pids of the started processes keyed by the identifier of the service, -1 if the service has not been
+     * started, as {@link Map} of {@link String} and {@link Long}
+     *
+     * @throws Exception when an exception occurred during the process
      */
-    protected void purgeNohupOutIfRequired(BrownieHostService service) {
-        String servicePath = service.getServicePath();
-        if (service.getConfiguration().purgeNohupOutAfterReboot())
-            removeNohupOut(service.getName(), servicePath);
+    public Map<String, Long> startServices(List<BrownieHostService> services, boolean closeSession) throws Exception {
+        Map<String, Long> servicePids = new HashMap<>();
+        if (services.isEmpty())
+            return servicePids;
+        for (BrownieHostService service : services)
+            servicePids.put(service.getId(), -1L);
+        StringBuilder purges = new StringBuilder();
+        for (BrownieHostService service : services) {
+            if (service.getConfiguration().purgeNohupOutAfterReboot())
+                purges.append(formatNohupOutRemoval(service)).append('\n');
+        }
+        ServiceStarterScript serviceStarter = ServiceStarterScript.getInstance();
+        String hostKey = getHostKey();
+        try {
+            boolean stage = !serviceStarter.isStaged(hostKey);
+            boolean started = execServicesStarter(serviceStarter.render(purges.toString(), services, stage), services,
+                    servicePids);
+            if (!started && !stage)
+                started = execServicesStarter(serviceStarter.render(purges.toString(), services, true), services,
+                        servicePids);
+            if (started)
+                serviceStarter.markStaged(hostKey);
+            else
+                serviceStarter.markNotStaged(hostKey);
+        } finally {
+            if (closeSession)
+                close();
+        }
+        return servicePids;
     }
 
     /**
-     * Method used to execute the {@link #SERVICE_STARTER_SCRIPT} script
+     * Method used to execute the script which starts more services collecting their pids
      *
-     * @param service The service to start
-     * @param out The output stream used to write the script to execute
+     * @param servicesStarter The script to execute
+     * @param services The services to start
+     * @param servicePids The pids of the started processes keyed by the identifier of the service
      *
-     * @throws IOException when an exception occurred during the process
+     * @return whether the services have been started, false if the starter was not staged on the host
+     * @throws Exception when an exception occurred during the process
      */
-    protected void execServiceStarter(BrownieHostService service, OutputStream out) throws IOException {
-        InputStream serviceStarterScript = getResourceStream(SERVICE_STARTER_SCRIPT, ShellCommandsExecutor.class);
-        String serviceStarter = String.format(new String(serviceStarterScript.readAllBytes()), service.getServicePath(),
-                service.getConfiguration().getProgramArguments());
-        out.write(serviceStarter.getBytes(StandardCharsets.UTF_8));
-        out.flush();
-        out.close();
+    private boolean execServicesStarter(String servicesStarter, List<BrownieHostService> services,
+                                        Map<String, Long> servicePids) throws Exception {
+        AtomicBoolean stagingRequired = new AtomicBoolean();
+        streamBashScript(servicesStarter, line -> {
+            if (line.trim().equals(STAGING_REQUIRED)) {
+                stagingRequired.set(true);
+                return false;
+            }
+            int separatorIndex = line.indexOf(SERVICE_PID_SEPARATOR);
+            if (separatorIndex == -1)
+                return true;
+            try {
+                int serviceIndex = Integer.parseInt(line.substring(0, separatorIndex).trim());
+                String pid = line.substring(separatorIndex + 1).trim();
+                if (serviceIndex >= 0 && serviceIndex < services.size() && !pid.isEmpty())
+                    servicePids.put(services.get(serviceIndex).getId(), Long.parseLong(pid));
+            } catch (NumberFormatException ignored) {
+            }
+            return true;
+        }, false);
+        return !stagingRequired.get();
     }
 
     /**
-     * Method used to extract from the shell result the pid of the started process
+     * Method used to get the key which identifies the host, and the user, where the commands are executed, used to
+     * track where the {@link ServiceStarterScript} has been staged
+     *
+     * @return the key of the host as {@link String}
+     */
+    protected abstract String getHostKey();
+
+    /**
+     * Method used to write a bash script to the standard input of the shell which executes it
      *
-     * @param commandResult The result of the command
+     * @param script The script to write
+     * @param out The output stream used to write the script to execute
      *
-     * @return the value of the pid as {@code long}
+     * @throws IOException when an exception occurred during the process
      */
-    protected long extractServicePid(String commandResult) {
-        return Long.parseLong(commandResult.trim());
+    protected void writeBashScript(String script, OutputStream out) throws IOException {
+        out.write(script.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        out.close();
     }
 
+
     /**
-     * Method used to remove the {@link #NOHUP_OUT_FILE}
+     * Method used to format the {@link #REMOVE_NOHUP_OUT_FILE_COMMAND} for a service
+     *
+     * @param service The service to delete its related {@link #NOHUP_OUT_FILE}
      *
-     * @param serviceName The name of the service
-     * @param servicePath The path of the service
+     * @return the command formatted as {@link String}
      */
-    private void removeNohupOut(String serviceName, String servicePath) {
-        String nohupOutPath = String.format(REMOVE_NOHUP_OUT_FILE_COMMAND, servicePath.replace(serviceName, NOHUP_OUT_FILE));
-        try {
-            execBashCommand(nohupOutPath, false);
-        } catch (Exception ignored) {
-        }
+    @Returner
+    private String formatNohupOutRemoval(BrownieHostService service) {
+        String servicePath = service.getServicePath();
+        return String.format(REMOVE_NOHUP_OUT_FILE_COMMAND, escape(servicePath.replace(service.getName(),
+                NOHUP_OUT_FILE)));
     }
 
     /**
@@ -312,6 +371,30 @@ public abstract class ShellCommandsExecutor {
         return execBashCommand(String.format(KILL_SERVICE, service.getPid()), closeSession);
     }
 
+    /**
+     * Method used to stop more services of the host with a single execution of the {@link #KILL_SERVICES} command
+     *
+     * @param services The services to stop
+     * @param closeSession Whether close the current bash session (like {@link Runtime} or SSH if remote host)
+     *
+     * @return the pids of the services which have been stopped as {@link Set} of {@link Long}
+     * @throws Exception when an exception occurred during the process
+     */
+    public Set<Long> stopServices(Collection<BrownieHostService> services, boolean closeSession) throws Exception {
+        Set<Long> stoppedPids = new HashSet<>();
+        if (services.isEmpty())
+            return stoppedPids;
+        StringJoiner pids = new StringJoiner(" ");
+        for (BrownieHostService service : services)
+            pids.add(String.valueOf(service.getPid()));
+        streamBashCommand(String.format(KILL_SERVICES, pids), line -> {
+            if (!line.isBlank())
+                stoppedPids.add(Long.parseLong(line.trim()));
+            return true;
+        }, null, closeSession);
+        return stoppedPids;
+    }
+
     /**
      * Method to simply remove a service from a host
      *
@@ -365,7 +448,8 @@ public abstract class ShellCommandsExecutor {
     }
 
     /**
-     * Method used to execute a bash command
+     * Method used to execute a bash command, the lines of its output are joined and kept in memory up to the
+     * {@link CommandOutputDrainer#MAX_BUFFERED_OUTPUT} limit
      * @param command The bash command to execute
      * @param onCommandExecuted The callback to execute when the command has been executed
      * @param closeSession Whether close the current bash session (like {@link Runtime} or SSH if remote host)
@@ -373,8 +457,38 @@ public abstract class ShellCommandsExecutor {
      * @return the result of the command
      * @throws Exception when an exception occurred during the process
      */
-    protected abstract String execBashCommand(String command, OnCommandExecuted onCommandExecuted,
-                                              boolean closeSession) throws Exception;
+    protected String execBashCommand(String command, OnCommandExecuted onCommandExecuted,
+                                     boolean closeSession) throws Exception {
+        BoundedOutput commandOutput = new BoundedOutput();
+        streamBashCommand(command, commandOutput, onCommandExecuted, closeSession);
+        return commandOutput.toString();
+    }
+
+    /**
+     * Method used to execute a bash command streaming its output line by line, the output and the error of the
+     * command are drained concurrently by the {@link CommandOutputDrainer}
+     * @param command The bash command to execute
+     * @param onOutputLine The callback invoked for each line of the output, it can stop the streaming
+     * @param onCommandExecuted The callback to execute when the command has been executed
+     * @param closeSession Whether close the current bash session (like {@link Runtime} or SSH if remote host)
+     *
+     * @throws Exception when an exception occurred during the process
+     */
+    protected abstract void streamBashCommand(String command, OnOutputLine onOutputLine,
+                                              OnCommandExecuted onCommandExecuted, boolean closeSession) throws Exception;
+
+    /**
+     * Method used to execute a bash script streaming its output line by line, the script is written to the standard
+     * input of the shell and its error is drained without failing the execution, so the script must report the
+     * results of its steps in the output
+     * @param script The bash script to execute
+     * @param onOutputLine The callback invoked for each line of the output, it can stop the streaming
+     * @param closeSession Whether close the current bash session (like {@link Runtime} or SSH if remote host)
+     *
+     * @throws Exception when an exception occurred during the process
+     */
+    protected abstract void streamBashScript(String script, OnOutputLine onOutputLine,
+                                             boolean closeSession) throws Exception;
 
     /**
      * Method used to append the exit status of the command to the error result of the same command
@@ -388,6 +502,14 @@ public abstract class ShellCommandsExecutor {
         return errorMessage + "Exit status:" + exitStatus;
     }
 
+    /**
+     * Method used to release the resources held by the executor, like the bash session, when it is not required
+     * anymore. The method can be safely invoked also when the session has been already closed by a command
+     */
+    @Override
+    public void close() {
+    }
+
     /**
      * The {@code OnCommandExecuted} interface used as callback to execute extra actions after a bash command executed
      *
@@ -404,6 +526,24 @@ public abstract class ShellCommandsExecutor {
 
     }
 
+    /**
+     * The {@code OnOutputLine} interface used as callback to consume the output of a bash command line by line
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    @FunctionalInterface
+    public interface OnOutputLine {
+
+        /**
+         * Callback method invoked for each line of the output of a bash command
+         *
+         * @param line The line of the output, without the line terminator
+         * @return whether the streaming of the output must continue
+         */
+        boolean onOutputLine(String line);
+
+    }
+
     /**
      * Method used to obtain a specific instance to correctly execute bash commands on hosts shells
      *
@@ -0,0 +1,322 @@
+package com.tecknobit.brownie.helpers.shell.agent;
+
+import com.tecknobit.brownie.helpers.shell.LocalHostProbe;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The {@code BrownieAgent} class is the lightweight process launched by the {@link BrownieAgentsSupervisor} on the
+ * remote hosts. The agent serves the requests of the backend on the standard streams of the SSH channel which launched
+ * it, so the operations on the services do not open a new channel and do not fork a new shell each time. The requests
+ * and the responses are binary frames made up of:
+ * <ul>
+ *     <li>the identifier of the request as {@code int}, used to multiplex more requests on the same channel</li>
+ *     <li>the operation of the request or the status of the response as {@code byte}</li>
+ *     <li>the length of the payload as {@code int} followed by the payload itself</li>
+ * </ul>
+ * The agent is shipped as plain classes together with the {@link LocalHostProbe}, so it must depend on the JDK only and
+ * it must not declare nested classes. When the standard input is closed, because the backend has closed the channel,
+ * the agent terminates while the services it started keep running
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see BrownieAgentChannel
+ */
+public final class BrownieAgent {
+
+    /**
+     * {@code HANDSHAKE} the value written by the agent when it is ready to serve the requests
+     */
+    public static final int HANDSHAKE = 0x42524E57;
+
+    /**
+     * {@code PROTOCOL_VERSION} the version of the protocol served by the agent, written after the {@link #HANDSHAKE}
+     */
+    public static final byte PROTOCOL_VERSION = 1;
+
+    /**
+     * {@code PING} the operation used to check whether the agent is still alive
+     */
+    public static final byte PING = 0;
+
+    /**
+     * {@code PROBE} the operation used to probe the host and the resources of the specified pids
+     */
+    public static final byte PROBE = 1;
+
+    /**
+     * {@code START} the operation used to start more services reporting their pids
+     */
+    public static final byte START = 2;
+
+    /**
+     * {@code STOP} the operation used to stop more processes reporting the pids which have been stopped
+     */
+    public static final byte STOP = 3;
+
+    /**
+     * {@code STATUS_OK} the status of a response of a request executed successfully
+     */
+    public static final byte STATUS_OK = 0;
+
+    /**
+     * {@code STATUS_FAILED} the status of a response of a request whose execution failed, the payload contains the
+     * reason of the failure
+     */
+    public static final byte STATUS_FAILED = 1;
+
+    /**
+     * {@code STATUS_NOT_EXECUTED} the status of a response of a request rejected before its execution, so it can be
+     * safely executed again in another way
+     */
+    public static final byte STATUS_NOT_EXECUTED = 2;
+
+    /**
+     * {@code MAX_PAYLOAD_LENGTH} the max length, in bytes, of the payload of a frame
+     */
+    public static final int MAX_PAYLOAD_LENGTH = 4 * 1024 * 1024;
+
+    /**
+     * {@code WORKERS} the number of the threads used to execute the requests
+     */
+    private static final int WORKERS = 4;
+
+    /**
+     * {@code NOHUP_OUT_FILE} the name of the file where the output of the services is redirected
+     */
+    private static final String NOHUP_OUT_FILE = "nohup.out";
+
+    /**
+     * {@code BASH} the shell used to run the starter script
+     */
+    private static final String BASH = "bash";
+
+    /**
+     * {@code starter} the path of the starter script staged on the host
+     */
+    private final Path starter;
+
+    /**
+     * {@code responses} the stream where the responses are written
+     */
+    private final DataOutputStream responses;
+
+    /**
+     * {@code workers} the pool of the threads used to execute the requests
+     */
+    private final ExecutorService workers;
+
+    /**
+     * Constructor to instantiate the agent
+     *
+     * @param starter The path of the starter script staged on the host
+     * @param responses The stream where the responses are written
+     */
+    private BrownieAgent(Path starter, DataOutputStream responses) {
+        this.starter = starter;
+        this.responses = responses;
+        workers = Executors.newFixedThreadPool(WORKERS, runnable -> {
+            Thread worker = new Thread(runnable, "brownie-agent-worker");
+            worker.setDaemon(true);
+            return worker;
+        });
+    }
+
+    /**
+     * Main method to launch the agent
+     *
+     * @param args The arguments of the agent, the first one is the path of the starter script staged on the host
+     */
+    public static void main(String[] args) throws IOException {
+        DataOutputStream responses = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(FileDescriptor.out)));
+        System.setOut(System.err);
+        BrownieAgent agent = new BrownieAgent(Path.of(args[0]), responses);
+        agent.serve(new DataInputStream(new BufferedInputStream(new FileInputStream(FileDescriptor.in))));
+        System.exit(0);
+    }
+
+    /**
+     * Method used to serve the requests until the standard input is closed
+     *
+     * @param requests The stream where the requests are read
+     * @throws IOException when the requests cannot be read or a malformed frame is received
+     */
+    private void serve(DataInputStream requests) throws IOException {
+        synchronized (responses) {
+            responses.writeInt(HANDSHAKE);
+            responses.writeByte(PROTOCOL_VERSION);
+            responses.flush();
+        }
+        while (true) {
+            int requestId;
+            try {
+                requestId = requests.readInt();
+            } catch (EOFException e) {
+                return;
+            }
+            byte operation = requests.readByte();
+            int length = requests.readInt();
+            if (length < 0 || length > MAX_PAYLOAD_LENGTH)
+                throw new IOException("Malformed frame received");
+            byte[] payload = new byte[length];
+            requests.readFully(payload);
+            workers.execute(() -> execute(requestId, operation, payload));
+        }
+    }
+
+    /**
+     * Method used to execute a request and write its response
+     *
+     * @param requestId The identifier of the request
+     * @param operation The operation to execute
+     * @param payload The payload of the request
+     */
+    private void execute(int requestId, byte operation, byte[] payload) {
+        byte status = STATUS_OK;
+        byte[] response;
+        try {
+            DataInputStream request = new DataInputStream(new ByteArrayInputStream(payload));
+            switch (operation) {
+                case PING -> response = new byte[0];
+                case PROBE -> response = probe(request);
+                case START -> {
+                    if (Files.isReadable(starter))
+                        response = startServices(request);
+                    else {
+                        status = STATUS_NOT_EXECUTED;
+                        response = ("Starter not staged: " + starter).getBytes(StandardCharsets.UTF_8);
+                    }
+                }
+                case STOP -> response = stopServices(request);
+                default -> {
+                    status = STATUS_NOT_EXECUTED;
+                    response = ("Unknown operation: " + operation).getBytes(StandardCharsets.UTF_8);
+                }
+            }
+        } catch (Exception e) {
+            status = STATUS_FAILED;
+            response = String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            synchronized (responses) {
+                responses.writeInt(requestId);
+                responses.writeByte(status);
+                responses.writeInt(response.length);
+                responses.write(response);
+                responses.flush();
+            }
+        } catch (IOException e) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Method used to probe the host with the {@link LocalHostProbe}
+     *
+     * @param request The payload of the request, made up of the number of the pids followed by the pids
+     * @return the payload of the probe as array of {@code byte}
+     * @throws IOException when the host cannot be probed
+     */
+    private byte[] probe(DataInputStream request) throws IOException {
+        return new LocalHostProbe().probe(readPids(request)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Method used to start more services with the starter script staged on the host
+     *
+     * @param request The payload of the request, made up of the number of the services followed by the path, the
+     * program arguments and whether purge the {@link #NOHUP_OUT_FILE} of each service
+     * @return the pids of the started services in the same order of the request, -1 if not started
+     * @throws IOException when the payload cannot be read
+     */
+    private byte[] startServices(DataInputStream request) throws IOException {
+        int services = request.readInt();
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        DataOutputStream pids = new DataOutputStream(response);
+        pids.writeInt(services);
+        for (int j = 0; j < services; j++) {
+            String servicePath = request.readUTF();
+            String programArguments = request.readUTF();
+            boolean purgeNohupOut = request.readBoolean();
+            pids.writeLong(startService(servicePath, programArguments, purgeNohupOut));
+        }
+        return response.toByteArray();
+    }
+
+    /**
+     * Method used to start a service with the starter script staged on the host
+     *
+     * @param servicePath The path of the service
+     * @param programArguments The arguments of the service
+     * @param purgeNohupOut Whether purge the {@link #NOHUP_OUT_FILE} of the service before the start
+     * @return the pid of the started service, -1 if not started
+     */
+    private long startService(String servicePath, String programArguments, boolean purgeNohupOut) {
+        try {
+            if (purgeNohupOut) {
+                Path parent = Path.of(servicePath).getParent();
+                if (parent != null)
+                    Files.deleteIfExists(parent.resolve(NOHUP_OUT_FILE));
+            }
+            Process starterProcess = new ProcessBuilder(BASH, starter.toString(), servicePath, programArguments)
+                    .redirectInput(ProcessBuilder.Redirect.from(new File("/dev/null")))
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            String pid;
+            try (BufferedReader output = new BufferedReader(new InputStreamReader(starterProcess.getInputStream(),
+                    StandardCharsets.UTF_8))) {
+                pid = output.readLine();
+            }
+            starterProcess.waitFor();
+            return pid != null && !pid.isBlank() ? Long.parseLong(pid.trim()) : -1;
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    /**
+     * Method used to stop more processes sending them the {@code SIGTERM} signal
+     *
+     * @param request The payload of the request, made up of the number of the pids followed by the pids
+     * @return the pids of the processes which have been stopped
+     * @throws IOException when the payload cannot be read
+     */
+    private byte[] stopServices(DataInputStream request) throws IOException {
+        List<Long> stoppedPids = new ArrayList<>();
+        for (long pid : readPids(request))
+            if (ProcessHandle.of(pid).map(ProcessHandle::destroy).orElse(false))
+                stoppedPids.add(pid);
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        DataOutputStream pids = new DataOutputStream(response);
+        pids.writeInt(stoppedPids.size());
+        for (long pid : stoppedPids)
+            pids.writeLong(pid);
+        return response.toByteArray();
+    }
+
+    /**
+     * Method used to read a list of pids from the payload of a request
+     *
+     * @param request The payload of the request, made up of the number of the pids followed by the pids
+     * @return the pids as {@link List} of {@link Long}
+     * @throws IOException when the payload cannot be read
+     */
+    private List<Long> readPids(DataInputStream request) throws IOException {
+        int count = request.readInt();
+        List<Long> pids = new ArrayList<>(count);
+        for (int j = 0; j < count; j++)
+            pids.add(request.readLong());
+        return pids;
+    }
+
+}
@@ -0,0 +1,492 @@
+package com.tecknobit.brownie.helpers.shell.agent;
+
+import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.JSchException;
+import com.tecknobit.brownie.helpers.shell.LocalHostProbe;
+import com.tecknobit.brownie.helpers.shell.SSHSessionsPool;
+import com.tecknobit.brownie.helpers.shell.SSHSessionsPool.PooledSession;
+import com.tecknobit.brownie.helpers.shell.ServiceStarterScript;
+import com.tecknobit.brownie.services.hostservices.entities.BrownieHostService;
+import com.tecknobit.equinoxcore.annotations.Returner;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.tecknobit.brownie.helpers.shell.agent.BrownieAgent.*;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * The {@code BrownieAgentChannel} class is used to launch the {@link BrownieAgent} on a remote host and to send it the
+ * requests. The agent is staged, when not already available, and launched by a single script executed on a long-lived
+ * exec channel whose standard streams are then used to exchange the binary frames of the protocol, so each request
+ * costs a round trip on an already opened channel. More requests can be in flight at the same time, each response is
+ * dispatched by a dedicated reader thread to the request with the same identifier
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see BrownieAgentsSupervisor
+ */
+public class BrownieAgentChannel implements AutoCloseable {
+
+    /**
+     * {@code EXEC_CHANNEL_TYPE} exec type of the channel used to launch the agent
+     */
+    private static final String EXEC_CHANNEL_TYPE = "exec";
+
+    /**
+     * {@code LAUNCH_COMMAND} the command which executes the launch script written on the channel
+     */
+    private static final String LAUNCH_COMMAND = "bash -s";
+
+    /**
+     * {@code AGENT_DIRECTORY} the declaration of the variable which refers to the directory where the agent is staged,
+     * versioned by the content of its classes
+     */
+    private static final String AGENT_DIRECTORY = "agent=\"$HOME/.brownie/agent-%s\"\n";
+
+    /**
+     * {@code STAGE_AGENT} the commands used to stage the agent when not already available, the classes are written in
+     * a temporary directory moved at the end so the concurrent launches never execute a partially written agent
+     */
+    private static final String STAGE_AGENT = """
+            if [ ! -d "$agent" ]; then
+            %s
+            mv -T "$agent.$$" "$agent" 2>/dev/null || rm -rf "$agent.$$"
+            fi
+            """;
+
+    /**
+     * {@code STAGE_AGENT_CLASS} the commands used to stage a class of the agent
+     */
+    private static final String STAGE_AGENT_CLASS = """
+            mkdir -p "$(dirname "$agent.$$/%1$s")"
+            base64 -d > "$agent.$$/%1$s" <<'BROWNIE_AGENT_CLASS'
+            %2$s
+            BROWNIE_AGENT_CLASS
+            """;
+
+    /**
+     * {@code EXEC_AGENT} the commands used to replace the launch script with the agent, which keeps serving the
+     * standard streams of the channel
+     */
+    private static final String EXEC_AGENT = """
+            command -v java >/dev/null 2>&1 || exit 1
+            exec java -Xmx32m -XX:+UseSerialGC -XX:TieredStopAtLevel=1 -cp "$agent" %s "$starter"
+            """;
+
+    /**
+     * {@code AGENT_CLASSES} the classes shipped to the hosts to run the agent
+     */
+    private static final List<Class<?>> AGENT_CLASSES = List.of(BrownieAgent.class, LocalHostProbe.class);
+
+    /**
+     * {@code LAUNCH_TIMEOUT} the max time, in milliseconds, to wait for the agent to be ready, the start of the JVM can
+     * be slow on the small boards
+     */
+    private static final long LAUNCH_TIMEOUT = 20000;
+
+    /**
+     * {@code REQUEST_TIMEOUT} the max time, in milliseconds, to wait for the response of a request
+     */
+    private static final long REQUEST_TIMEOUT = 10000;
+
+    /**
+     * {@code agentStaging} the commands used to stage the agent, rendered once
+     */
+    private static volatile String agentStaging;
+
+    /**
+     * {@code hostKey} the key which identifies the host and the SSH user where the agent runs
+     */
+    private final String hostKey;
+
+    /**
+     * {@code sessionsPool} the pool from which the SSH session of the channel has been borrowed
+     */
+    private final SSHSessionsPool sessionsPool;
+
+    /**
+     * {@code pooledSession} the SSH session borrowed from the {@link #sessionsPool} for the whole life of the agent
+     */
+    private final PooledSession pooledSession;
+
+    /**
+     * {@code channel} the exec channel where the agent runs
+     */
+    private final ChannelExec channel;
+
+    /**
+     * {@code requests} the stream where the requests are written
+     */
+    private final DataOutputStream requests;
+
+    /**
+     * {@code responses} the stream where the responses are read
+     */
+    private final DataInputStream responses;
+
+    /**
+     * {@code pendingRequests} the requests waiting for their response keyed by their identifier
+     */
+    private final Map<Integer, CompletableFuture<byte[]>> pendingRequests;
+
+    /**
+     * {@code requestIds} the generator of the identifiers of the requests
+     */
+    private final AtomicInteger requestIds;
+
+    /**
+     * {@code handshake} completed when the agent is ready to serve the requests
+     */
+    private final CompletableFuture<Void> handshake;
+
+    /**
+     * {@code closed} whether the channel has been closed
+     */
+    private volatile boolean closed;
+
+    /**
+     * Constructor to instantiate the object launching the agent on the host
+     *
+     * @param hostKey The key which identifies the host and the SSH user
+     * @param sessionsPool The pool from which the SSH session has been borrowed
+     * @param pooledSession The SSH session borrowed for the whole life of the agent
+     *
+     * @throws JSchException when the exec channel cannot be opened
+     * @throws IOException when the agent cannot be launched or it is not ready in time
+     */
+    public BrownieAgentChannel(String hostKey, SSHSessionsPool sessionsPool,
+                               PooledSession pooledSession) throws JSchException, IOException {
+        this.hostKey = hostKey;
+        this.sessionsPool = sessionsPool;
+        this.pooledSession = pooledSession;
+        pendingRequests = new ConcurrentHashMap<>();
+        requestIds = new AtomicInteger();
+        handshake = new CompletableFuture<>();
+        try {
+            channel = (ChannelExec) pooledSession.getSession().openChannel(EXEC_CHANNEL_TYPE);
+        } catch (JSchException e) {
+            sessionsPool.invalidateSession(pooledSession);
+            throw e;
+        }
+        try {
+            channel.setCommand(LAUNCH_COMMAND);
+            channel.setErrStream(OutputStream.nullOutputStream());
+            responses = new DataInputStream(new BufferedInputStream(channel.getInputStream()));
+            requests = new DataOutputStream(new BufferedOutputStream(channel.getOutputStream()));
+            channel.connect();
+            requests.write(renderLaunchScript().getBytes(StandardCharsets.UTF_8));
+            requests.flush();
+        } catch (JSchException | IOException e) {
+            close();
+            throw e;
+        }
+        Thread reader = new Thread(this::readResponses, "brownie-agent-reader-" + hostKey);
+        reader.setDaemon(true);
+        reader.start();
+        awaitHandshake();
+    }
+
+    /**
+     * Method used to render the script which stages and launches the agent
+     *
+     * @return the script rendered as {@link String}
+     * @throws IOException when the classes of the agent cannot be read
+     */
+    @Returner
+    private static String renderLaunchScript() throws IOException {
+        return getAgentStaging() + ServiceStarterScript.getInstance().renderStaging() +
+                String.format(EXEC_AGENT, BrownieAgent.class.getName());
+    }
+
+    /**
+     * Method used to get the commands which stage the agent, the classes are read and encoded the first time
+     *
+     * @return the commands as {@link String}
+     * @throws IOException when the classes of the agent cannot be read
+     */
+    private static String getAgentStaging() throws IOException {
+        String staging = agentStaging;
+        if (staging != null)
+            return staging;
+        synchronized (BrownieAgentChannel.class) {
+            if (agentStaging == null) {
+                StringBuilder classesStaging = new StringBuilder();
+                MessageDigest digest;
+                try {
+                    digest = MessageDigest.getInstance("SHA-256");
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException(e);
+                }
+                Base64.Encoder encoder = Base64.getMimeEncoder(76, new byte[]{'\n'});
+                for (Class<?> agentClass : AGENT_CLASSES) {
+                    String classFile = agentClass.getName().replace('.', '/') + ".class";
+                    byte[] classBytes;
+                    try (InputStream classStream = agentClass.getResourceAsStream(agentClass.getSimpleName() + ".class")) {
+                        if (classStream == null)
+                            throw new FileNotFoundException(classFile);
+                        classBytes = classStream.readAllBytes();
+                    }
+                    digest.update(classBytes);
+                    classesStaging.append(String.format(STAGE_AGENT_CLASS, classFile, encoder.encodeToString(classBytes)));
+                }
+                String version = HexFormat.of().formatHex(digest.digest(), 0, 6);
+                agentStaging = String.format(AGENT_DIRECTORY, version) +
+                        String.format(STAGE_AGENT, classesStaging.toString().stripTrailing());
+            }
+            return agentStaging;
+        }
+    }
+
+    /**
+     * Method used to wait for the agent to be ready to serve the requests
+     *
+     * @throws IOException when the agent has not been launched or it is not ready in time
+     */
+    private void awaitHandshake() throws IOException {
+        try {
+            handshake.get(LAUNCH_TIMEOUT, MILLISECONDS);
+        } catch (InterruptedException e) {
+            close();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while launching the agent");
+        } catch (ExecutionException | TimeoutException e) {
+            close();
+            throw new IOException("The agent has not been launched on " + hostKey, e);
+        }
+    }
+
+    /**
+     * Method used to read the responses of the agent dispatching them to the pending requests, when the channel is
+     * dropped or the agent terminates the channel is closed
+     */
+    private void readResponses() {
+        try {
+            if (responses.readInt() != HANDSHAKE || responses.readByte() != PROTOCOL_VERSION)
+                throw new IOException("Unsupported agent");
+            handshake.complete(null);
+            while (true) {
+                int requestId = responses.readInt();
+                byte status = responses.readByte();
+                int length = responses.readInt();
+                if (length < 0 || length > MAX_PAYLOAD_LENGTH)
+                    throw new IOException("Malformed frame received");
+                byte[] payload = new byte[length];
+                responses.readFully(payload);
+                CompletableFuture<byte[]> pendingRequest = pendingRequests.remove(requestId);
+                if (pendingRequest == null)
+                    continue;
+                switch (status) {
+                    case STATUS_OK -> pendingRequest.complete(payload);
+                    case STATUS_NOT_EXECUTED -> pendingRequest.completeExceptionally(
+                            new RequestNotExecutedException(new String(payload, StandardCharsets.UTF_8)));
+                    default -> pendingRequest.completeExceptionally(
+                            new IOException(new String(payload, StandardCharsets.UTF_8)));
+                }
+            }
+        } catch (IOException e) {
+            handshake.completeExceptionally(e);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Method used to check whether the agent is still alive
+     *
+     * @throws IOException when the agent did not respond
+     */
+    public void ping() throws IOException {
+        request(PING, new byte[0]);
+    }
+
+    /**
+     * Method used to probe the host with the agent
+     *
+     * @param servicePids The pids of the running services
+     *
+     * @return the payload of the probe as {@link String}
+     * @throws IOException when the probe failed
+     */
+    public String probe(Collection<Long> servicePids) throws IOException {
+        DataInputStream response = request(PROBE, writePids(servicePids));
+        return new String(response.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Method used to start more services with the agent
+     *
+     * @param services The services to start
+     *
+     * @return the pids of the started processes keyed by the identifier of the service, -1 if not started
+     * @throws RequestNotExecutedException when no service has been started, so the services can be started in
+     * another way
+     * @throws IOException when the outcome of the starts is unknown
+     */
+    public Map<String, Long> startServices(List<BrownieHostService> services) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream request = new DataOutputStream(payload);
+        request.writeInt(services.size());
+        for (BrownieHostService service : services) {
+            String programArguments = service.getConfiguration().getProgramArguments();
+            request.writeUTF(service.getServicePath());
+            request.writeUTF(programArguments != null ? programArguments : "");
+            request.writeBoolean(service.getConfiguration().purgeNohupOutAfterReboot());
+        }
+        DataInputStream response = request(START, payload.toByteArray());
+        Map<String, Long> servicePids = new HashMap<>();
+        int startedServices = response.readInt();
+        for (int j = 0; j < services.size(); j++)
+            servicePids.put(services.get(j).getId(), j < startedServices ? response.readLong() : -1L);
+        return servicePids;
+    }
+
+    /**
+     * Method used to stop more processes with the agent
+     *
+     * @param servicePids The pids of the processes to stop
+     *
+     * @return the pids of the processes which have been stopped as {@link Set} of {@link Long}
+     * @throws IOException when the stop failed
+     */
+    public Set<Long> stopServices(Collection<Long> servicePids) throws IOException {
+        DataInputStream response = request(STOP, writePids(servicePids));
+        Set<Long> stoppedPids = new HashSet<>();
+        int count = response.readInt();
+        for (int j = 0; j < count; j++)
+            stoppedPids.add(response.readLong());
+        return stoppedPids;
+    }
+
+    /**
+     * Method used to write a list of pids as payload of a request
+     *
+     * @param pids The pids to write
+     *
+     * @return the payload as array of {@code byte}
+     * @throws IOException when the payload cannot be written
+     */
+    @Returner
+    private byte[] writePids(Collection<Long> pids) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream request = new DataOutputStream(payload);
+        request.writeInt(pids.size());
+        for (long pid : pids)
+            request.writeLong(pid);
+        return payload.toByteArray();
+    }
+
+    /**
+     * Method used to send a request to the agent waiting for its response, when the agent does not respond in time the
+     * channel is closed
+     *
+     * @param operation The operation to execute
+     * @param payload The payload of the request
+     *
+     * @return the payload of the response as {@link DataInputStream}
+     * @throws RequestNotExecutedException when the request has not been executed by the agent
+     * @throws IOException when the request failed or its outcome is unknown
+     */
+    private DataInputStream request(byte operation, byte[] payload) throws IOException {
+        if (closed)
+            throw new RequestNotExecutedException("The agent channel of " + hostKey + " is closed");
+        int requestId = requestIds.incrementAndGet();
+        CompletableFuture<byte[]> pendingRequest = new CompletableFuture<>();
+        pendingRequests.put(requestId, pendingRequest);
+        try {
+            synchronized (requests) {
+                requests.writeInt(requestId);
+                requests.writeByte(operation);
+                requests.writeInt(payload.length);
+                requests.write(payload);
+                requests.flush();
+            }
+            return new DataInputStream(new ByteArrayInputStream(pendingRequest.get(REQUEST_TIMEOUT, MILLISECONDS)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the agent");
+        } catch (TimeoutException e) {
+            close();
+            throw new IOException("The agent of " + hostKey + " did not respond in time");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException)
+                throw ioException;
+            throw new IOException(e.getCause());
+        } catch (IOException e) {
+            close();
+            throw e;
+        } finally {
+            pendingRequests.remove(requestId);
+        }
+    }
+
+    /**
+     * Method used to check whether the channel is still open
+     *
+     * @return whether the channel is still open as {@code boolean}
+     */
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    /**
+     * Method to get the {@link #hostKey} instance
+     *
+     * @return the {@link #hostKey} instance as {@link String}
+     */
+    public String getHostKey() {
+        return hostKey;
+    }
+
+    /**
+     * Method used to close the channel, which terminates the agent, and to give back the SSH session to the
+     * {@link #sessionsPool}. The pending requests are failed
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed)
+                return;
+            closed = true;
+        }
+        if (channel != null)
+            channel.disconnect();
+        if (pooledSession.getSession().isConnected())
+            sessionsPool.releaseSession(pooledSession);
+        else
+            sessionsPool.invalidateSession(pooledSession);
+        IOException channelClosed = new IOException("The agent channel of " + hostKey + " has been closed");
+        for (CompletableFuture<byte[]> pendingRequest : pendingRequests.values())
+            pendingRequest.completeExceptionally(channelClosed);
+        handshake.completeExceptionally(channelClosed);
+    }
+
+    /**
+     * The {@code RequestNotExecutedException} class is thrown when a request has not been executed by the agent, so
+     * the operation can be safely executed again through the shell
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    public static class RequestNotExecutedException extends IOException {
+
+        /**
+         * {@code serialVersionUID} the version of the serialized form of the exception
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructor to instantiate the exception
+         *
+         * @param message The message of the exception
+         */
+        public RequestNotExecutedException(String message) {
+            super(message);
+        }
+
+    }
+
+}
@@ -0,0 +1,204 @@
+package com.tecknobit.brownie.helpers.shell.agent;
+
+import com.tecknobit.brownie.helpers.shell.SSHSessionsPool;
+import com.tecknobit.brownie.helpers.shell.SSHSessionsPool.PooledSession;
+import com.tecknobit.brownie.helpers.shell.ServiceStarterScript;
+import com.tecknobit.equinoxcore.annotations.Wrapper;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * The {@code BrownieAgentsSupervisor} class is used to handle the {@link BrownieAgent} launched on the remote hosts.
+ * The agents are optional: when enabled an agent is launched in background the first time a host is reached, while the
+ * operations keep being executed through the shell until the agent is ready. The agents are checked periodically and
+ * the ones which do not respond anymore are discarded, so they are launched again by the next operation. When the
+ * launch on a host fails, for example because {@code java} is not installed, the launch is retried only after the
+ * {@link #LAUNCH_RETRY_DELAY}
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see BrownieAgentChannel
+ */
+public class BrownieAgentsSupervisor {
+
+    /**
+     * {@code LAUNCH_RETRY_DELAY} the delay, in milliseconds, before retrying to launch an agent on a host where the
+     * launch failed
+     */
+    private static final long LAUNCH_RETRY_DELAY = 300000;
+
+    /**
+     * {@code HEARTBEAT_DELAY} the delay, in seconds, between each check of the agents
+     */
+    private static final int HEARTBEAT_DELAY = 30;
+
+    /**
+     * {@code BROWNIE_AGENTS_SUPERVISOR} the singleton instance of the supervisor
+     */
+    private static final BrownieAgentsSupervisor BROWNIE_AGENTS_SUPERVISOR = new BrownieAgentsSupervisor();
+
+    /**
+     * {@code agents} the agents ready to serve the requests keyed by host and SSH user
+     */
+    private final Map<String, BrownieAgentChannel> agents;
+
+    /**
+     * {@code launchingAgents} the keys of the hosts where an agent is currently being launched
+     */
+    private final Set<String> launchingAgents;
+
+    /**
+     * {@code failedLaunches} the dates of the last failed launches keyed by host and SSH user
+     */
+    private final Map<String, Long> failedLaunches;
+
+    /**
+     * {@code agentsLauncher} the pool of the threads used to launch the agents
+     */
+    private final ExecutorService agentsLauncher;
+
+    /**
+     * {@code heartbeatScheduler} the scheduler used to check the agents
+     */
+    private final ScheduledExecutorService heartbeatScheduler;
+
+    /**
+     * {@code enabled} whether the agents are enabled
+     */
+    private volatile boolean enabled;
+
+    /**
+     * Constructor to instantiate the supervisor
+     */
+    private BrownieAgentsSupervisor() {
+        agents = new ConcurrentHashMap<>();
+        launchingAgents = ConcurrentHashMap.newKeySet();
+        failedLaunches = new ConcurrentHashMap<>();
+        agentsLauncher = Executors.newCachedThreadPool(runnable -> {
+            Thread launcher = new Thread(runnable, "brownie-agents-launcher");
+            launcher.setDaemon(true);
+            return launcher;
+        });
+        heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread heartbeat = new Thread(runnable, "brownie-agents-heartbeat");
+            heartbeat.setDaemon(true);
+            return heartbeat;
+        });
+        heartbeatScheduler.scheduleWithFixedDelay(this::checkAgents, HEARTBEAT_DELAY, HEARTBEAT_DELAY, SECONDS);
+    }
+
+    /**
+     * Method used to get the agent ready on a host, when the agent is not ready its launch is scheduled in background
+     *
+     * @param sshUser The user to use for the SSH connection
+     * @param hostAddress The address of the host to reach
+     * @param sshPassword The password of the SSH user
+     *
+     * @return the agent as {@link BrownieAgentChannel}, null if the agents are disabled or the agent is not ready yet
+     */
+    public BrownieAgentChannel getAgent(String sshUser, String hostAddress, String sshPassword) {
+        if (!enabled)
+            return null;
+        String hostKey = sshUser + "@" + hostAddress;
+        BrownieAgentChannel agent = agents.get(hostKey);
+        if (agent != null) {
+            if (agent.isOpen())
+                return agent;
+            agents.remove(hostKey, agent);
+        }
+        Long failedLaunch = failedLaunches.get(hostKey);
+        if (failedLaunch != null && System.currentTimeMillis() - failedLaunch < LAUNCH_RETRY_DELAY)
+            return null;
+        if (launchingAgents.add(hostKey))
+            agentsLauncher.execute(() -> launchAgent(hostKey, sshUser, hostAddress, sshPassword));
+        return null;
+    }
+
+    /**
+     * Method used to launch an agent on a host
+     *
+     * @param hostKey The key which identifies the host and the SSH user
+     * @param sshUser The user to use for the SSH connection
+     * @param hostAddress The address of the host to reach
+     * @param sshPassword The password of the SSH user
+     */
+    private void launchAgent(String hostKey, String sshUser, String hostAddress, String sshPassword) {
+        try {
+            SSHSessionsPool sessionsPool = SSHSessionsPool.getInstance();
+            PooledSession pooledSession = sessionsPool.borrowSession(sshUser, hostAddress, sshPassword);
+            BrownieAgentChannel agent = new BrownieAgentChannel(hostKey, sessionsPool, pooledSession);
+            ServiceStarterScript.getInstance().markStaged(hostKey);
+            failedLaunches.remove(hostKey);
+            agents.put(hostKey, agent);
+            if (!enabled)
+                discardAgent(hostKey);
+        } catch (Exception e) {
+            failedLaunches.put(hostKey, System.currentTimeMillis());
+        } finally {
+            launchingAgents.remove(hostKey);
+        }
+    }
+
+    /**
+     * Method used to discard the agent of a host, for example because the host is going to be rebooted or stopped
+     *
+     * @param hostKey The key which identifies the host and the SSH user
+     */
+    public void discardAgent(String hostKey) {
+        BrownieAgentChannel agent = agents.remove(hostKey);
+        if (agent != null)
+            agent.close();
+    }
+
+    /**
+     * Method used to check whether the agents are still alive, discarding the ones which do not respond
+     */
+    private void checkAgents() {
+        for (BrownieAgentChannel agent : agents.values()) {
+            try {
+                agent.ping();
+            } catch (Exception e) {
+                agents.remove(agent.getHostKey(), agent);
+                agent.close();
+            }
+        }
+    }
+
+    /**
+     * Method used to enable or disable the agents, when disabled the agents already launched are discarded
+     *
+     * @param enabled Whether the agents are enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled)
+            agents.keySet().forEach(this::discardAgent);
+    }
+
+    /**
+     * Method used to close all the agents currently launched
+     */
+    public void closeAllAgents() {
+        enabled = false;
+        heartbeatScheduler.shutdownNow();
+        agentsLauncher.shutdownNow();
+        agents.keySet().forEach(this::discardAgent);
+    }
+
+    /**
+     * Method used to get the singleton instance of the supervisor
+     *
+     * @return the singleton instance of the supervisor as {@link BrownieAgentsSupervisor}
+     */
+    @Wrapper
+    public static BrownieAgentsSupervisor getInstance() {
+        return BROWNIE_AGENTS_SUPERVISOR;
+    }
+
+}
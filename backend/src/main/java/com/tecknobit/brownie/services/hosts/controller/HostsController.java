@@ -1,19 +1,27 @@
 package com.tecknobit.brownie.services.hosts.controller;
 
 import com.jcraft.jsch.JSchException;
+import com.tecknobit.brownie.helpers.metrics.MetricsTier;
 import com.tecknobit.brownie.services.hosts.entities.BrownieHost;
 import com.tecknobit.brownie.services.hosts.services.HostsService;
+import com.tecknobit.brownie.services.hostservices.entities.BrownieHostService;
+import com.tecknobit.brownie.services.hostservices.services.ServiceJobsService;
 import com.tecknobit.brownie.services.session.service.BrownieSessionsService;
 import com.tecknobit.brownie.services.shared.controllers.DefaultBrownieController;
+import com.tecknobit.browniecore.enums.BulkOperationMode;
+import com.tecknobit.browniecore.enums.ServiceOperation;
 import com.tecknobit.equinoxbackend.environment.services.DefaultEquinoxController;
 import com.tecknobit.equinoxbackend.environment.services.builtin.controller.EquinoxController;
 import com.tecknobit.equinoxcore.annotations.RequestPath;
+import org.json.JSONArray;
+import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 import static com.tecknobit.browniecore.ConstantsKt.*;
 import static com.tecknobit.browniecore.helpers.BrownieEndpoints.*;
@@ -49,15 +57,29 @@ public class HostsController extends DefaultBrownieController {
      */
     public static final String WRONG_SSH_CREDENTIALS_MESSAGE = "ssh_credentials_are_not_valid";
 
+    /**
+     * {@code DEFAULT_BULK_CONCURRENCY} the default max number of the hosts handled at the same time by a bulk
+     * operation
+     */
+    private static final int DEFAULT_BULK_CONCURRENCY = 4;
+
+    /**
+     * {@code jobsService} the support service used to execute the lifecycle operations of the services as jobs
+     */
+    private final ServiceJobsService jobsService;
+
     /**
      * Constructor used to init the controller
      *
      * @param sessionsService The support service used to manage the sessions data
      * @param hostsService    The support service used to manage the hosts data
+     * @param jobsService     The support service used to execute the lifecycle operations of the services as jobs
      */
     @Autowired
-    public HostsController(BrownieSessionsService sessionsService, HostsService hostsService) {
+    public HostsController(BrownieSessionsService sessionsService, HostsService hostsService,
+                           ServiceJobsService jobsService) {
         super(sessionsService, hostsService);
+        this.jobsService = jobsService;
     }
 
     /**
@@ -98,6 +120,8 @@ public class HostsController extends DefaultBrownieController {
      * @param sessionId The identifier of the session
      * @param hosts The hosts to retrieve their current status
      * @param language The language of the user who sent the request
+     * @param version The version after which retrieve only the changed statuses, if not specified all the statuses are
+     *                retrieved
      *
      * @return the response as {@link T}
      *
@@ -110,11 +134,14 @@ public class HostsController extends DefaultBrownieController {
     public <T> T getHostsStatus(
             @PathVariable(IDENTIFIER_KEY) String sessionId,
             @RequestParam(name = HOSTS_KEY, defaultValue = "") List<String> hosts,
-            @RequestParam(value = LANGUAGE_KEY, required = false, defaultValue = DEFAULT_LANGUAGE) String language
+            @RequestParam(value = LANGUAGE_KEY, required = false, defaultValue = DEFAULT_LANGUAGE) String language,
+            @RequestParam(name = VERSION_KEY, required = false) Long version
     ) {
         setSessionLocale(language);
         if (!sessionExists(sessionId))
             return (T) failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
+        if (version != null)
+            return (T) successResponse(hostsService.getHostsStatusChanges(hosts, version));
         return (T) successResponse(hostsService.getHostsStatus(hosts));
     }
 
@@ -192,9 +219,81 @@ public class HostsController extends DefaultBrownieController {
         BrownieHost brownieHost = hostsService.getBrownieHost(sessionId, hostId);
         if (brownieHost == null)
             return (T) failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
+        hostsService.loadLatestEvents(List.of(brownieHost));
         return (T) successResponse(brownieHost);
     }
 
+    /**
+     * Endpoint used to retrieve a page of the history of the events of a host
+     *
+     * @param sessionId The identifier of the session
+     * @param hostId The identifier of the host
+     * @param language The language of the user who sent the request
+     * @param cursor The cursor received with the previous page, empty to get the first page
+     * @param pageSize The max number of events to retrieve
+     * @param eventTypes The types of the events used to filter the results
+     * @param fromDate The date from which retrieve the events
+     * @param toDate The date until which retrieve the events
+     *
+     * @return the response as {@link T}
+     *
+     * @param <T> the type of the response
+     */
+    @GetMapping(
+            path = "/{" + HOST_IDENTIFIER_KEY + "}" + EVENTS_ENDPOINT
+    )
+    @RequestPath(path = "/api/v1/sessions/{session_id}/hosts/{host_id}/events", method = GET)
+    public <T> T getHostEvents(
+            @PathVariable(IDENTIFIER_KEY) String sessionId,
+            @PathVariable(HOST_IDENTIFIER_KEY) String hostId,
+            @RequestParam(value = LANGUAGE_KEY, required = false, defaultValue = DEFAULT_LANGUAGE) String language,
+            @RequestParam(name = CURSOR_KEY, defaultValue = "", required = false) String cursor,
+            @RequestParam(name = PAGE_SIZE_KEY, defaultValue = DEFAULT_PAGE_SIZE_HEADER_VALUE, required = false) int pageSize,
+            @RequestParam(name = EVENT_TYPES_KEY, defaultValue = "", required = false) List<String> eventTypes,
+            @RequestParam(name = FROM_DATE_KEY, required = false) Long fromDate,
+            @RequestParam(name = TO_DATE_KEY, required = false) Long toDate
+    ) {
+        setSessionLocale(language);
+        if (!hostsService.hostBelongsToSession(sessionId, hostId))
+            return (T) failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
+        try {
+            return (T) successResponse(hostsService.getEventsPage(hostId, cursor, pageSize, eventTypes, fromDate,
+                    toDate));
+        } catch (IllegalArgumentException e) {
+            return (T) failedResponse(WRONG_PROCEDURE_MESSAGE);
+        }
+    }
+
+    /**
+     * Endpoint used to get the daily aggregates of the events of a host compacted by the retention routine
+     *
+     * @param sessionId The identifier of the session
+     * @param hostId The identifier of the host
+     * @param language The language of the user who sent the request
+     * @param fromDate The date from which retrieve the aggregates
+     * @param toDate The date until which retrieve the aggregates
+     *
+     * @return the response as {@link T}
+     *
+     * @param <T> the type of the response
+     */
+    @GetMapping(
+            path = "/{" + HOST_IDENTIFIER_KEY + "}" + EVENTS_AGGREGATES_ENDPOINT
+    )
+    @RequestPath(path = "/api/v1/sessions/{session_id}/hosts/{host_id}/events/aggregates", method = GET)
+    public <T> T getHostEventsAggregates(
+            @PathVariable(IDENTIFIER_KEY) String sessionId,
+            @PathVariable(HOST_IDENTIFIER_KEY) String hostId,
+            @RequestParam(value = LANGUAGE_KEY, required = false, defaultValue = DEFAULT_LANGUAGE) String language,
+            @RequestParam(name = FROM_DATE_KEY, required = false) Long fromDate,
+            @RequestParam(name = TO_DATE_KEY, required = false) Long toDate
+    ) {
+        setSessionLocale(language);
+        if (!hostsService.hostBelongsToSession(sessionId, hostId))
+            return (T) failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
+        return (T) successResponse(hostsService.getEventsAggregates(hostId, fromDate, toDate));
+    }
+
     /**
      * Endpoint used to edit an existing host
      *
@@ -384,6 +483,81 @@ public class HostsController extends DefaultBrownieController {
         }
     }
 
+    /**
+     * Endpoint used to execute a lifecycle operation on the services of more hosts at once, the result of each service
+     * is pushed as server-sent event as soon as it is available
+     *
+     * @param sessionId The identifier of the session
+     * @param language The language of the user who sent the request
+     * @param payload The payload of the request
+     *                 <pre>
+     *                      {@code
+     *                              {
+     *                                  "operation" : "the operation to execute" -> [START, REBOOT, STOP],
+     *                                  "targets" : {
+     *                                      "the identifier of the host" : [
+     *                                          "the identifiers of its services, empty for all the services" -> [String]
+     *                                      ]
+     *                                  },
+     *                                  -- OPTIONAL --
+     *                                  "mode" : "the mode used to handle the hosts" -> [ROLLING, PARALLEL],
+     *                                  "concurrency" : "the max number of the hosts handled at the same time" -> [int]
+     *                              }
+     *                      }
+     *                 </pre>
+     *
+     * @return the stream of the jobs as {@link ResponseEntity} of {@link SseEmitter}, declared with this type so the
+     * emitter is handled by Spring as a stream, the request is rejected with {@link HttpStatus#UNAUTHORIZED} when the
+     * session or the targets are not allowed and with {@link HttpStatus#BAD_REQUEST} when the payload is not valid
+     */
+    @PostMapping(
+            path = BULK_OPERATIONS_ENDPOINT
+    )
+    @RequestPath(path = "/api/v1/sessions/{session_id}/hosts/bulk", method = POST)
+    public ResponseEntity<SseEmitter> executeBulkOperation(
+            @PathVariable(IDENTIFIER_KEY) String sessionId,
+            @RequestParam(value = LANGUAGE_KEY, required = false, defaultValue = DEFAULT_LANGUAGE) String language,
+            @RequestBody Map<String, Object> payload
+    ) {
+        setSessionLocale(language);
+        if (!sessionExists(sessionId))
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        loadJsonHelper(payload);
+        ServiceOperation operation;
+        BulkOperationMode mode;
+        try {
+            operation = ServiceOperation.valueOf(jsonHelper.getString(OPERATION_KEY, "").toUpperCase());
+            mode = BulkOperationMode.valueOf(jsonHelper.getString(BULK_OPERATION_MODE_KEY,
+                    BulkOperationMode.PARALLEL.name()).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int concurrency = jsonHelper.getInt(CONCURRENCY_KEY, DEFAULT_BULK_CONCURRENCY);
+        JSONObject targetsPayload = jsonHelper.getJSONObject(TARGETS_KEY);
+        if (concurrency < 1 || targetsPayload == null || targetsPayload.isEmpty())
+            return ResponseEntity.badRequest().build();
+        Map<BrownieHost, List<BrownieHostService>> targets = new LinkedHashMap<>();
+        for (String hostId : targetsPayload.keySet()) {
+            BrownieHost host = getBrownieHostIfAllowed(sessionId, hostId);
+            JSONArray serviceIds = targetsPayload.optJSONArray(hostId);
+            if (host == null || serviceIds == null)
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            if (serviceIds.isEmpty()) {
+                targets.put(host, host.getServices());
+                continue;
+            }
+            List<BrownieHostService> services = new ArrayList<>();
+            for (int j = 0; j < serviceIds.length(); j++) {
+                BrownieHostService service = host.getService(serviceIds.optString(j));
+                if (service == null)
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+                services.add(service);
+            }
+            targets.put(host, services);
+        }
+        return ResponseEntity.ok(jobsService.submitBulkOperation(targets, operation, mode, concurrency));
+    }
+
     /**
      * Endpoint used to retrieve an overview of a host
      *
@@ -415,6 +589,49 @@ public class HostsController extends DefaultBrownieController {
         }
     }
 
+    /**
+     * Endpoint used to retrieve the historical series of the metrics of a host
+     *
+     * @param sessionId The identifier of the session
+     * @param hostId The identifier of the host
+     * @param language The language of the user who sent the request
+     * @param fromDate The date from which retrieve the samples, the last hour if not specified
+     * @param toDate The date until which retrieve the samples, the current date if not specified
+     * @param tier The tier of the samples to retrieve, selected from the requested range if not specified
+     *
+     * @return the response as {@link T}
+     *
+     * @param <T> the type of the response
+     */
+    @GetMapping(
+            path = "/{" + HOST_IDENTIFIER_KEY + "}" + METRICS_ENDPOINT
+    )
+    @RequestPath(path = "/api/v1/sessions/{session_id}/hosts/{host_id}/metrics", method = GET)
+    public <T> T getHostMetrics(
+            @PathVariable(IDENTIFIER_KEY) String sessionId,
+            @PathVariable(HOST_IDENTIFIER_KEY) String hostId,
+            @RequestParam(value = LANGUAGE_KEY, required = false, defaultValue = DEFAULT_LANGUAGE) String language,
+            @RequestParam(name = FROM_DATE_KEY, required = false) Long fromDate,
+            @RequestParam(name = TO_DATE_KEY, required = false) Long toDate,
+            @RequestParam(name = METRICS_TIER_KEY, required = false) String tier
+    ) {
+        setSessionLocale(language);
+        if (!hostsService.hostBelongsToSession(sessionId, hostId))
+            return (T) failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
+        if (toDate == null)
+            toDate = System.currentTimeMillis();
+        if (fromDate == null)
+            fromDate = toDate - MetricsTier.RAW.getRetention();
+        if (fromDate > toDate)
+            return (T) failedResponse(WRONG_PROCEDURE_MESSAGE);
+        try {
+            MetricsTier metricsTier = tier != null ? MetricsTier.valueOf(tier.toUpperCase()) : null;
+            return (T) successResponse(hostsService.getMetricsSeries(hostId, metricsTier, fromDate, toDate));
+        } catch (IllegalArgumentException e) {
+            return (T) failedResponse(WRONG_PROCEDURE_MESSAGE);
+        }
+    }
+
     /**
      * Endpoint used to unregister a host from the session
      *
@@ -437,7 +654,7 @@ public class HostsController extends DefaultBrownieController {
         BrownieHost host = getBrownieHostIfAllowed(sessionId, hostId);
         if (host == null)
             return failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
-        hostsService.unregisterHost(hostId);
+        hostsService.unregisterHost(host);
         return successResponse();
     }
 
@@ -43,7 +43,7 @@ public class BrownieHostOverview {
     private final HostStatus status;
 
     /**
-     * {@code events} the events related to the lifecycle of the host
+     * {@code events} the latest events related to the lifecycle of the host
      */
     private final List<HostHistoryEvent> events;
 
@@ -84,7 +84,7 @@ public class BrownieHostOverview {
         name = host.getName();
         hostAddress = host.getHostAddress();
         status = host.getStatus();
-        events = host.getEvents();
+        events = host.getLatestEvents();
         this.cpuUsage = cpuUsage;
         this.memoryUsage = memoryUsage;
         this.storageUsage = storageUsage;
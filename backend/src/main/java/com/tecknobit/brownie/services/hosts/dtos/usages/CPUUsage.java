@@ -1,8 +1,14 @@
 package com.tecknobit.brownie.services.hosts.dtos.usages;
 
+import com.fasterxml.jackson.annotation.JsonGetter;
 import com.tecknobit.brownie.services.hosts.dtos.BrownieHostStat;
 import com.tecknobit.equinoxcore.annotations.DTO;
 
+import java.util.Map;
+
+import static com.tecknobit.browniecore.ConstantsKt.CORES_USAGE_KEY;
+import static com.tecknobit.browniecore.ConstantsKt.SERVICES_USAGE_KEY;
+
 /**
  * The {@code CPUUsage} class represents the statistic related to the current usage of the {@code CPU} of the host
  *
@@ -17,12 +23,25 @@ public class CPUUsage extends BrownieHostStat {
      */
     private final double clock;
 
+    /**
+     * {@code coresUsage} the current usage percents of each core of the {@code CPU}
+     */
+    private final double[] coresUsage;
+
+    /**
+     * {@code servicesUsage} the current usage percents of the {@code CPU} of each running service, keyed by the
+     * identifier of the service
+     */
+    private final Map<String, Double> servicesUsage;
+
     /**
      * Constructor to instantiate the object with default values when the host is not reachable
      */
     public CPUUsage() {
         super();
         clock = 0;
+        coresUsage = new double[0];
+        servicesUsage = Map.of();
     }
 
     /**
@@ -30,10 +49,14 @@ public class CPUUsage extends BrownieHostStat {
      *
      * @param usageValue The current usage of a resource of the host
      * @param clock      The current clock of the {@code CPU}
+     * @param coresUsage The current usage percents of each core of the {@code CPU}
+     * @param servicesUsage The current usage percents of the {@code CPU} of each running service
      */
-    public CPUUsage(String usageValue, String clock) {
-        super(usageValue, 100);
+    public CPUUsage(double usageValue, String clock, double[] coresUsage, Map<String, Double> servicesUsage) {
+        super(String.valueOf(usageValue), 100);
         this.clock = Double.parseDouble(clock);
+        this.coresUsage = coresUsage;
+        this.servicesUsage = servicesUsage;
     }
 
     /**
@@ -45,4 +68,24 @@ public class CPUUsage extends BrownieHostStat {
         return clock;
     }
 
+    /**
+     * Method to get the {@link #coresUsage} instance
+     *
+     * @return the {@link #coresUsage} instance as array of {@code double}
+     */
+    @JsonGetter(CORES_USAGE_KEY)
+    public double[] getCoresUsage() {
+        return coresUsage;
+    }
+
+    /**
+     * Method to get the {@link #servicesUsage} instance
+     *
+     * @return the {@link #servicesUsage} instance as {@link Map} of {@link Double}
+     */
+    @JsonGetter(SERVICES_USAGE_KEY)
+    public Map<String, Double> getServicesUsage() {
+        return servicesUsage;
+    }
+
 }
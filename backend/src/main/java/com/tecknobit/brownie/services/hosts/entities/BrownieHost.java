@@ -9,6 +9,7 @@ import com.tecknobit.browniecore.enums.HostStatus;
 import com.tecknobit.equinoxbackend.annotations.EmptyConstructor;
 import com.tecknobit.equinoxbackend.environment.services.builtin.entity.EquinoxItem;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
@@ -29,6 +30,12 @@ import static com.tecknobit.equinoxcore.helpers.CommonKeysKt.HOST_ADDRESS_KEY;
 @Table(name = HOSTS_KEY)
 public class BrownieHost extends EquinoxItem {
 
+    /**
+     * {@code SERVICES_BATCH_SIZE} the number of hosts whose services are loaded with a single query when they are
+     * lazily accessed
+     */
+    private static final int SERVICES_BATCH_SIZE = 50;
+
     /**
      * {@code name} the name of the host
      */
@@ -90,14 +97,21 @@ public class BrownieHost extends EquinoxItem {
     @JsonIgnoreProperties(HOST_KEY)
     private final List<HostHistoryEvent> events;
 
+    /**
+     * {@code latestEvents} the latest events related to the lifecycle of the host embedded in its payload, the complete
+     * history is retrieved with the dedicated paginated endpoint
+     */
+    @Transient
+    private List<HostHistoryEvent> latestEvents;
+
     /**
      * {@code services} the services attached to the host
      */
     @OneToMany(
             mappedBy = HOST_KEY,
-            fetch = FetchType.EAGER,
             cascade = CascadeType.ALL
     )
+    @BatchSize(size = SERVICES_BATCH_SIZE)
     @OrderBy(INSERTION_DATE_KEY + " DESC")
     @JsonIgnoreProperties(HOST_KEY)
     private final List<BrownieHostService> services;
@@ -234,11 +248,32 @@ public class BrownieHost extends EquinoxItem {
      *
      * @return the {@link #events} instance as {@link List} of {@link HostHistoryEvent}
      */
-    @JsonGetter(HOST_EVENTS_KEY)
+    @JsonIgnore
     public List<HostHistoryEvent> getEvents() {
         return events;
     }
 
+    /**
+     * Method to get the {@link #latestEvents} instance
+     *
+     * @return the {@link #latestEvents} instance as {@link List} of {@link HostHistoryEvent}
+     */
+    @JsonGetter(HOST_EVENTS_KEY)
+    public List<HostHistoryEvent> getLatestEvents() {
+        if (latestEvents == null)
+            return List.of();
+        return latestEvents;
+    }
+
+    /**
+     * Method to set the {@link #latestEvents} instance
+     *
+     * @param latestEvents The latest events related to the lifecycle of the host
+     */
+    public void setLatestEvents(List<HostHistoryEvent> latestEvents) {
+        this.latestEvents = latestEvents;
+    }
+
     /**
      * Method to get the {@link #services} instance
      *
@@ -305,6 +340,16 @@ public class BrownieHost extends EquinoxItem {
         return status.isOffline();
     }
 
+    /**
+     * Method to check whether the host is currently {@link HostStatus#REBOOTING}
+     *
+     * @return whether the host is currently {@link HostStatus#REBOOTING} as {@code boolean}
+     */
+    @JsonIgnore
+    public boolean isRebooting() {
+        return status.isRebooting();
+    }
+
     /**
      * Method to check whether the host is remotely connected
      *
@@ -315,6 +360,19 @@ public class BrownieHost extends EquinoxItem {
         return sshUser != null;
     }
 
+    /**
+     * Method used to list the identifiers of the services of this host
+     *
+     * @return the identifiers of the services of this host as {@link List} of {@link String}
+     */
+    @JsonIgnore
+    public List<String> listServiceIds() {
+        List<String> serviceIds = new ArrayList<>();
+        for (BrownieHostService service : services)
+            serviceIds.add(service.getId());
+        return serviceIds;
+    }
+
     /**
      * Method used to list the names of the running services of this host
      *
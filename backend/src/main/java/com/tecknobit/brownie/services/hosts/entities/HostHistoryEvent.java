@@ -9,7 +9,7 @@ import jakarta.persistence.*;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
-import static com.tecknobit.browniecore.ConstantsKt.HOST_EVENTS_KEY;
+import static com.tecknobit.browniecore.ConstantsKt.*;
 
 /**
  * The {@code HostHistoryEvent} class is useful to represent an event related to a {@link BrownieHost}'s lifecycle
@@ -19,7 +19,13 @@ import static com.tecknobit.browniecore.ConstantsKt.HOST_EVENTS_KEY;
  * @see BrownieEvent
  */
 @Entity
-@Table(name = HOST_EVENTS_KEY)
+@Table(
+        name = HOST_EVENTS_KEY,
+        indexes = {
+                @Index(name = "host_events_up_idx", columnList = HOST_IDENTIFIER_KEY + "," + TYPE_KEY + "," + EVENT_DATE_KEY),
+                @Index(name = "host_events_date_idx", columnList = HOST_IDENTIFIER_KEY + "," + EVENT_DATE_KEY)
+        }
+)
 public class HostHistoryEvent extends BrownieEvent {
 
     /**
@@ -0,0 +1,62 @@
+package com.tecknobit.brownie.services.hosts.entities;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.tecknobit.brownie.helpers.metrics.MetricsTier;
+import com.tecknobit.brownie.services.shared.entities.BrownieMetricsChunk;
+import com.tecknobit.equinoxbackend.annotations.EmptyConstructor;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import static com.tecknobit.browniecore.ConstantsKt.*;
+
+/**
+ * The {@code HostMetricsChunk} class is useful to represent a sealed chunk of the samples of the metrics of a
+ * {@link BrownieHost}
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see BrownieMetricsChunk
+ */
+@Entity
+@Table(
+        name = HOST_METRICS_CHUNKS_KEY,
+        indexes = @Index(name = "host_metrics_chunks_range_idx",
+                columnList = HOST_IDENTIFIER_KEY + "," + METRICS_TIER_KEY + "," + CHUNK_START_KEY)
+)
+public class HostMetricsChunk extends BrownieMetricsChunk {
+
+    /**
+     * {@code host} the host owner of the chunk
+     */
+    @ManyToOne
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JsonIgnoreProperties(HOST_METRICS_CHUNKS_KEY)
+    private BrownieHost host;
+
+    /**
+     * Constructor to instantiate the object
+     *
+     * @apiNote empty constructor required
+     */
+    @EmptyConstructor
+    public HostMetricsChunk() {
+        this(null, null, 0, 0, null);
+    }
+
+    /**
+     * Constructor to instantiate the object
+     *
+     * @param id The identifier of the chunk
+     * @param tier The tier of the samples of the chunk
+     * @param chunkStart The start of the time span covered by the chunk
+     * @param chunkEnd The timestamp of the last sample of the chunk
+     * @param samples The encoded samples of the chunk
+     */
+    public HostMetricsChunk(String id, MetricsTier tier, long chunkStart, long chunkEnd, byte[] samples) {
+        super(id, tier, chunkStart, chunkEnd, samples);
+    }
+
+}
@@ -10,6 +10,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import static com.tecknobit.browniecore.ConstantsKt.*;
 import static com.tecknobit.equinoxbackend.environment.services.builtin.service.EquinoxItemsHelper._WHERE_;
 import static com.tecknobit.equinoxcore.helpers.CommonKeysKt.IDENTIFIER_KEY;
@@ -42,6 +45,24 @@ public interface HostEventsRepository extends BrownieEventsRepository<HostHistor
             @Param(HOST_IDENTIFIER_KEY) String hostId
     );
 
+    /**
+     * Query used to get the last {@link HostStatus#ONLINE} event of more hosts at once
+     *
+     * @param hostIds The identifiers of the hosts
+     * @return the pairs made up of the identifier of the owner and the timestamp of its last {@link HostStatus#ONLINE} event
+     * as {@link List} of array of {@link Object}
+     */
+    @Query(
+            value = "SELECT " + HOST_IDENTIFIER_KEY + ", MAX(" + EVENT_DATE_KEY + ") FROM " + HOST_EVENTS_KEY +
+                    _WHERE_ + TYPE_KEY + " IN ('ONLINE', 'RESTARTED') AND " +
+                    HOST_IDENTIFIER_KEY + " IN (:" + HOSTS_KEY + ") GROUP BY " + HOST_IDENTIFIER_KEY,
+            nativeQuery = true
+    )
+    @Override
+    List<Object[]> getLastUpEvents(
+            @Param(HOSTS_KEY) Collection<String> hostIds
+    );
+
     /**
      * Query used to register a new event
      *
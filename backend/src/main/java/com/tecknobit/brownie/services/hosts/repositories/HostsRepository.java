@@ -203,7 +203,8 @@ public interface HostsRepository extends JpaRepository<BrownieHost, String> {
     );
 
     /**
-     * Query used to check whether a host belongs to the specified session
+     * Query used to get a host of the specified session with its services and their configurations fetched with the
+     * same query
      *
      * @param hostId The identifier of the host
      * @param sessionId The identifier of the session
@@ -211,16 +212,67 @@ public interface HostsRepository extends JpaRepository<BrownieHost, String> {
      * @return the host as {@link BrownieHost} if belongs, null otherwise
      */
     @Query(
-            value = "SELECT * FROM " + HOSTS_KEY + _WHERE_ +
-                    IDENTIFIER_KEY + "=:" + IDENTIFIER_KEY +
-                    " AND " + SESSION_IDENTIFIER_KEY + "=:" + SESSION_IDENTIFIER_KEY,
-            nativeQuery = true
+            value = "SELECT DISTINCT h FROM BrownieHost h" +
+                    " LEFT JOIN FETCH h." + SERVICES_KEY + " s" +
+                    " LEFT JOIN FETCH s." + CONFIGURATION_KEY + _WHERE_ +
+                    "h." + IDENTIFIER_KEY + "=:" + IDENTIFIER_KEY +
+                    " AND h." + SESSION_KEY + "." + IDENTIFIER_KEY + "=:" + SESSION_IDENTIFIER_KEY
     )
-    BrownieHost hostBelongsToSession(
+    BrownieHost getSessionHost(
             @Param(IDENTIFIER_KEY) String hostId,
             @Param(SESSION_IDENTIFIER_KEY) String sessionId
     );
 
+    /**
+     * Query used to get all the hosts of a session with their services fetched with the same query
+     *
+     * @param sessionId The identifier of the session
+     *
+     * @return the hosts of the session as {@link List} of {@link BrownieHost}
+     */
+    @Query(
+            value = "SELECT DISTINCT h FROM BrownieHost h" +
+                    " LEFT JOIN FETCH h." + SERVICES_KEY + _WHERE_ +
+                    "h." + SESSION_KEY + "." + IDENTIFIER_KEY + "=:" + SESSION_IDENTIFIER_KEY
+    )
+    List<BrownieHost> getSessionHosts(
+            @Param(SESSION_IDENTIFIER_KEY) String sessionId
+    );
+
+    /**
+     * Query used to get the data required to monitor the hosts, each row is made up of the data of the host and the
+     * data of one of its running services, or {@code null} values if the host has no running services
+     *
+     * @return the data required to monitor the hosts as {@link List} of array of {@link Object}
+     */
+    @Query(
+            value = "SELECT h." + IDENTIFIER_KEY + ", h." + NAME_KEY + ", h." + HOST_ADDRESS_KEY + ", h." +
+                    STATUS_KEY + ", h." + SSH_USER_KEY + ", h." + SSH_PASSWORD_KEY + ", h." + SESSION_IDENTIFIER_KEY +
+                    ", s." + IDENTIFIER_KEY + ", s." + NAME_KEY + ", s." + PID_KEY + ", s." + PROCESS_START_TICKS_KEY + " FROM " + HOSTS_KEY + " h" +
+                    " LEFT JOIN " + SERVICES_KEY + " s ON s." + HOST_IDENTIFIER_KEY + "=h." + IDENTIFIER_KEY +
+                    " AND s." + STATUS_KEY + "='RUNNING'",
+            nativeQuery = true
+    )
+    List<Object[]> getMonitoredHosts();
+
+    /**
+     * Query used to get the identifiers of the hosts of a session and of their services, each row is made up of the
+     * identifier of the host and the identifier of one of its services, or {@code null} if the host has no services
+     *
+     * @param sessionId The identifier of the session
+     *
+     * @return the identifiers of the hosts and of their services as {@link List} of array of {@link Object}
+     */
+    @Query(
+            value = "SELECT h." + IDENTIFIER_KEY + ", s." + IDENTIFIER_KEY + " FROM " + HOSTS_KEY + " h" +
+                    " LEFT JOIN " + SERVICES_KEY + " s ON s." + HOST_IDENTIFIER_KEY + "=h." + IDENTIFIER_KEY +
+                    _WHERE_ + "h." + SESSION_IDENTIFIER_KEY + "=:" + SESSION_IDENTIFIER_KEY,
+            nativeQuery = true
+    )
+    List<Object[]> getSessionTopology(
+            @Param(SESSION_IDENTIFIER_KEY) String sessionId
+    );
+
     /**
      * Query used to handle the current status of the host
      *
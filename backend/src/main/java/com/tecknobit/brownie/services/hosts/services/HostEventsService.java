@@ -2,6 +2,10 @@ package com.tecknobit.brownie.services.hosts.services;
 
 import com.tecknobit.brownie.services.hosts.entities.HostHistoryEvent;
 import com.tecknobit.brownie.services.hosts.repositories.HostEventsRepository;
+import com.tecknobit.brownie.services.shared.dtos.BrownieEventEntry;
+import com.tecknobit.brownie.services.shared.repositories.BrownieEventsBatchRepository;
+import com.tecknobit.brownie.services.shared.repositories.BrownieEventsHistoryRepository;
+import com.tecknobit.brownie.services.shared.repositories.EventsDailyAggregatesRepository;
 import com.tecknobit.brownie.services.shared.services.BrownieEventsRecorder;
 import com.tecknobit.browniecore.ConstantsKt;
 import com.tecknobit.browniecore.enums.HostEventType;
@@ -10,6 +14,8 @@ import com.tecknobit.equinoxcore.annotations.Wrapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import static com.tecknobit.browniecore.ConstantsKt.HOST_EVENTS_KEY;
+import static com.tecknobit.browniecore.ConstantsKt.HOST_IDENTIFIER_KEY;
 import static com.tecknobit.browniecore.enums.HostEventType.*;
 
 /**
@@ -26,10 +32,48 @@ public class HostEventsService extends BrownieEventsRecorder<HostEventType, Host
      * Constructor to instantiate the service
      *
      * @param hostEventsRepository The instance used to register the events in the {@link ConstantsKt#HOST_EVENTS_KEY} table
+     * @param batchRepository The instance used to register more events with a single statement
+     * @param historyRepository The instance used to read the history of the events
+     * @param aggregatesRepository The instance used to read the daily aggregates of the compacted events
      */
     @Autowired
-    protected HostEventsService(HostEventsRepository hostEventsRepository) {
-        super(hostEventsRepository);
+    protected HostEventsService(HostEventsRepository hostEventsRepository, BrownieEventsBatchRepository batchRepository,
+                                BrownieEventsHistoryRepository historyRepository,
+                                EventsDailyAggregatesRepository aggregatesRepository) {
+        super(hostEventsRepository, batchRepository, historyRepository, aggregatesRepository, HOST_EVENTS_KEY,
+                HOST_IDENTIFIER_KEY);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isUpEvent(HostEventType type) {
+        return type == ONLINE || type == RESTARTED;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isDownEvent(HostEventType type) {
+        return type == OFFLINE || type == REBOOTING;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected HostEventType getEventType(String type) {
+        return HostEventType.valueOf(type);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected HostHistoryEvent buildEvent(BrownieEventEntry event) {
+        return new HostHistoryEvent(event.eventId(), getEventType(event.type()), event.eventDate(), event.extra());
     }
 
     /**
@@ -0,0 +1,337 @@
+package com.tecknobit.brownie.services.hosts.services;
+
+import com.tecknobit.brownie.helpers.metrics.MetricsChunk;
+import com.tecknobit.brownie.helpers.metrics.MetricsSample;
+import com.tecknobit.brownie.helpers.metrics.MetricsTier;
+import com.tecknobit.brownie.helpers.metrics.MetricsTiersStore;
+import com.tecknobit.brownie.helpers.shell.HostProbeResult;
+import com.tecknobit.brownie.services.hosts.dtos.BrownieHostStat;
+import com.tecknobit.brownie.services.hosts.dtos.HostMetricsSeries;
+import com.tecknobit.brownie.services.hosts.entities.BrownieHost;
+import com.tecknobit.brownie.services.hosts.repositories.HostMetricsRepository;
+import com.tecknobit.brownie.services.hostservices.dtos.ServiceMetricsSeries;
+import com.tecknobit.brownie.services.hostservices.dtos.ServiceResources;
+import com.tecknobit.brownie.services.hostservices.repositories.ServiceMetricsRepository;
+import com.tecknobit.brownie.services.shared.entities.BrownieMetricsChunk;
+import com.tecknobit.brownie.services.shared.repositories.BrownieMetricsRepository;
+import com.tecknobit.browniecore.ConstantsKt;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.tecknobit.brownie.helpers.metrics.MetricsTier.RAW;
+import static com.tecknobit.equinoxbackend.environment.services.builtin.controller.EquinoxController.generateIdentifier;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * The {@code HostMetricsService} class is useful to store the historical series of the metrics of the hosts and of
+ * their services collected by the monitor. The samples are kept by a {@link MetricsTiersStore} for each kind of owner
+ * and each sealed {@link MetricsChunk} is stored in the {@link ConstantsKt#HOST_METRICS_CHUNKS_KEY} or in the
+ * {@link ConstantsKt#SERVICE_METRICS_CHUNKS_KEY} table, where it is kept for the retention of its tier
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+@Service
+public class HostMetricsService {
+
+    /**
+     * {@code LOGGER} is the instance used to log about the maintenance of the metrics
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(HostMetricsService.class);
+
+    /**
+     * {@code HOST_METRICS_COUNT} the number of the metrics of the samples of the hosts: the usage percents of the
+     * {@code CPU}, of the {@code RAM memory} and of the {@code storage}
+     */
+    private static final int HOST_METRICS_COUNT = 3;
+
+    /**
+     * {@code SERVICE_METRICS_COUNT} the number of the metrics of the samples of the services: the usage percent of the
+     * {@code CPU}, the resident set size in megabytes, the threads and the open file descriptors
+     */
+    private static final int SERVICE_METRICS_COUNT = 4;
+
+    /**
+     * {@code BYTES_PER_MEGABYTE} the number of the bytes of a megabyte
+     */
+    private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    /**
+     * {@code metricsRepository} instance used to access to the {@link ConstantsKt#HOST_METRICS_CHUNKS_KEY} table
+     */
+    private final HostMetricsRepository metricsRepository;
+
+    /**
+     * {@code serviceMetricsRepository} instance used to access to the {@link ConstantsKt#SERVICE_METRICS_CHUNKS_KEY}
+     * table
+     */
+    private final ServiceMetricsRepository serviceMetricsRepository;
+
+    /**
+     * {@code hostsMetrics} the store of the series of the metrics of the hosts
+     */
+    private final MetricsTiersStore hostsMetrics;
+
+    /**
+     * {@code servicesMetrics} the store of the series of the metrics of the services
+     */
+    private final MetricsTiersStore servicesMetrics;
+
+    /**
+     * {@code latestServicesResources} the resources used by each running service as retrieved by the latest probe
+     */
+    private final ConcurrentHashMap<String, ServiceResources> latestServicesResources;
+
+    /**
+     * {@code maintenanceScheduler} the scheduler used to seal the chunks of the idle owners and to delete the expired
+     * chunks
+     */
+    private final ScheduledExecutorService maintenanceScheduler;
+
+    /**
+     * Constructor used to init the service
+     *
+     * @param metricsRepository The instance used to access to the {@link ConstantsKt#HOST_METRICS_CHUNKS_KEY} table
+     * @param serviceMetricsRepository The instance used to access to the
+     * {@link ConstantsKt#SERVICE_METRICS_CHUNKS_KEY} table
+     */
+    @Autowired
+    public HostMetricsService(HostMetricsRepository metricsRepository,
+                              ServiceMetricsRepository serviceMetricsRepository) {
+        this.metricsRepository = metricsRepository;
+        this.serviceMetricsRepository = serviceMetricsRepository;
+        this.hostsMetrics = new MetricsTiersStore(HOST_METRICS_COUNT,
+                (hostId, tier, chunk) -> storeChunk(metricsRepository, hostId, tier, chunk));
+        this.servicesMetrics = new MetricsTiersStore(SERVICE_METRICS_COUNT,
+                (serviceId, tier, chunk) -> storeChunk(serviceMetricsRepository, serviceId, tier, chunk));
+        this.latestServicesResources = new ConcurrentHashMap<>();
+        this.maintenanceScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "host-metrics-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Method automatically invoked after dependency injection by Spring used to schedule the maintenance of the stored
+     * chunks
+     */
+    @PostConstruct
+    private void scheduleMaintenance() {
+        long maintenanceInterval = RAW.getChunkSpan();
+        maintenanceScheduler.scheduleWithFixedDelay(this::performMaintenance, maintenanceInterval, maintenanceInterval,
+                MILLISECONDS);
+    }
+
+    /**
+     * Method used to record the stats retrieved by a probe as samples of the metrics of a host and of its running
+     * services
+     *
+     * @param host The probed host
+     * @param probe The result of the probe
+     */
+    public void recordSample(BrownieHost host, HostProbeResult probe) {
+        if (!probe.hasStats())
+            return;
+        MetricsSample sample;
+        try {
+            sample = new MetricsSample(
+                    probe.getProbeDate(),
+                    probe.getCpuUsage(),
+                    new BrownieHostStat(probe.getMemoryUsage()).getPercentValue(),
+                    new BrownieHostStat(probe.getStorageUsage()).getPercentValue()
+            );
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            return;
+        }
+        hostsMetrics.record(host.getId(), sample);
+        recordServicesSamples(host, probe);
+    }
+
+    /**
+     * Method used to record the resources used by the running services of a host as samples of their metrics
+     *
+     * @param host The probed host
+     * @param probe The result of the probe
+     */
+    private void recordServicesSamples(BrownieHost host, HostProbeResult probe) {
+        Map<String, ServiceResources> servicesResources = probe.getServicesResources(host);
+        for (String serviceId : host.listServiceIds())
+            if (!servicesResources.containsKey(serviceId))
+                latestServicesResources.remove(serviceId);
+        servicesResources.forEach((serviceId, resources) -> {
+            latestServicesResources.put(serviceId, resources);
+            servicesMetrics.record(serviceId, new MetricsSample(
+                    resources.getSampleDate(),
+                    resources.getCpuUsage(),
+                    resources.getMemoryUsage() / BYTES_PER_MEGABYTE,
+                    resources.getThreads(),
+                    resources.getOpenFileDescriptors()
+            ));
+        });
+    }
+
+    /**
+     * Method used to store a sealed chunk, if the chunk cannot be stored its samples are dropped
+     *
+     * @param repository The repository of the table where store the chunk
+     * @param ownerId The identifier of the owner of the chunk
+     * @param tier The tier of the chunk
+     * @param chunk The sealed chunk
+     */
+    private void storeChunk(BrownieMetricsRepository<?> repository, String ownerId, MetricsTier tier,
+                            MetricsChunk chunk) {
+        try {
+            repository.storeChunk(generateIdentifier(), tier.name(), chunk.getChunkStart(), chunk.getChunkEnd(),
+                    chunk.encode(), ownerId);
+        } catch (DataAccessException ignored) {
+            // the owner has been removed in the meantime
+        }
+    }
+
+    /**
+     * Method used to get the historical series of the metrics of a host
+     *
+     * @param hostId The identifier of the host
+     * @param tier The tier of the samples to retrieve, {@code null} to use the finest tier which still keeps the
+     * samples since the {@code fromDate}
+     * @param fromDate The start of the range
+     * @param toDate The end of the range
+     *
+     * @return the series of the metrics as {@link HostMetricsSeries}
+     */
+    public HostMetricsSeries getMetricsSeries(String hostId, MetricsTier tier, long fromDate, long toDate) {
+        if (tier == null)
+            tier = MetricsTier.selectTier(fromDate);
+        return new HostMetricsSeries(tier, getSamples(metricsRepository, hostsMetrics, hostId, tier, fromDate,
+                toDate));
+    }
+
+    /**
+     * Method used to get the historical series of the metrics of a service
+     *
+     * @param serviceId The identifier of the service
+     * @param tier The tier of the samples to retrieve, {@code null} to use the finest tier which still keeps the
+     * samples since the {@code fromDate}
+     * @param fromDate The start of the range
+     * @param toDate The end of the range
+     *
+     * @return the series of the metrics as {@link ServiceMetricsSeries}
+     */
+    public ServiceMetricsSeries getServiceMetricsSeries(String serviceId, MetricsTier tier, long fromDate,
+                                                        long toDate) {
+        if (tier == null)
+            tier = MetricsTier.selectTier(fromDate);
+        return new ServiceMetricsSeries(tier, getSamples(serviceMetricsRepository, servicesMetrics, serviceId, tier,
+                fromDate, toDate));
+    }
+
+    /**
+     * Method used to get the samples of a series, both the stored and the still open ones, which fall in the
+     * specified range
+     *
+     * @param repository The repository of the table where the chunks of the series are stored
+     * @param store The store which keeps the open chunks of the series
+     * @param ownerId The identifier of the owner of the series
+     * @param tier The tier of the samples to retrieve
+     * @param fromDate The start of the range
+     * @param toDate The end of the range
+     *
+     * @return the samples ordered by their timestamp as {@link List} of {@link MetricsSample}
+     */
+    private List<MetricsSample> getSamples(BrownieMetricsRepository<? extends BrownieMetricsChunk> repository,
+                                           MetricsTiersStore store, String ownerId, MetricsTier tier, long fromDate,
+                                           long toDate) {
+        List<MetricsSample> samples = new ArrayList<>();
+        for (BrownieMetricsChunk chunk : repository.getChunks(ownerId, tier.name(), fromDate, toDate))
+            MetricsTiersStore.collectSamples(chunk.decodeSamples(), fromDate, toDate, samples);
+        samples.addAll(store.getOpenSamples(ownerId, tier, fromDate, toDate));
+        samples.sort(Comparator.comparingLong(MetricsSample::timestamp));
+        return samples;
+    }
+
+    /**
+     * Method used to get the resources used by a service as retrieved by the latest probe of its host
+     *
+     * @param serviceId The identifier of the service
+     * @return the resources as {@link ServiceResources} if the service was running during the latest probe,
+     * {@code null} otherwise
+     */
+    public ServiceResources getLatestResources(String serviceId) {
+        return latestServicesResources.get(serviceId);
+    }
+
+    /**
+     * Method used to seal the chunks whose time span is over also when their owner is not sampled anymore and to
+     * delete the chunks expired
+     */
+    private void performMaintenance() {
+        try {
+            hostsMetrics.sealElapsedChunks();
+            servicesMetrics.sealElapsedChunks();
+            long currentTime = System.currentTimeMillis();
+            for (MetricsTier tier : MetricsTier.values()) {
+                long retentionDate = currentTime - tier.getRetention();
+                metricsRepository.deleteExpiredChunks(tier.name(), retentionDate);
+                serviceMetricsRepository.deleteExpiredChunks(tier.name(), retentionDate);
+            }
+        } catch (Exception e) {
+            LOGGER.error("Unable to perform the maintenance of the metrics", e);
+        }
+    }
+
+    /**
+     * Method used to evict the latest resources used by more services, it must be invoked when the services are
+     * stopped, so they do not report the resources of their terminated processes anymore
+     *
+     * @param serviceIds The identifiers of the services
+     */
+    public void evictLatestResources(Collection<String> serviceIds) {
+        for (String serviceId : serviceIds)
+            latestServicesResources.remove(serviceId);
+    }
+
+    /**
+     * Method used to evict the in-memory state of the metrics of a service, it must be invoked when the service is
+     * removed, the stored chunks are deleted in cascade
+     *
+     * @param serviceId The identifier of the service
+     */
+    public void evictService(String serviceId) {
+        servicesMetrics.evictOwner(serviceId);
+        latestServicesResources.remove(serviceId);
+    }
+
+    /**
+     * Method used to evict the in-memory state of the metrics of a host and of its services, it must be invoked when
+     * the host is unregistered, the stored chunks are deleted in cascade
+     *
+     * @param hostId The identifier of the host
+     * @param serviceIds The identifiers of the services of the host
+     */
+    public void evictHost(String hostId, Collection<String> serviceIds) {
+        hostsMetrics.evictOwner(hostId);
+        for (String serviceId : serviceIds)
+            evictService(serviceId);
+    }
+
+    /**
+     * Method automatically invoked by Spring before termination used to store the open chunks
+     */
+    @PreDestroy
+    private void storeOpenChunks() {
+        maintenanceScheduler.shutdownNow();
+        hostsMetrics.sealAllChunks();
+        servicesMetrics.sealAllChunks();
+    }
+
+}
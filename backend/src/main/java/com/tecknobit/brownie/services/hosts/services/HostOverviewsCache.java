@@ -0,0 +1,238 @@
+package com.tecknobit.brownie.services.hosts.services;
+
+import com.tecknobit.brownie.helpers.metrics.CpuUsageSampler;
+import com.tecknobit.brownie.helpers.shell.HostProbeResult;
+import com.tecknobit.brownie.helpers.shell.ShellCommandsExecutor;
+import com.tecknobit.brownie.services.hosts.entities.BrownieHost;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * The {@code HostOverviewsCache} class is used to cache the latest snapshot of the stats of each host, so the overview
+ * requests of the same host share the same probe instead of executing a new one each time. The concurrent requests of a
+ * host whose snapshot is stale wait for the same in-flight probe and the hosts actively viewed are refreshed in
+ * background, so their overviews are served without waiting for the probe
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+@Service
+public class HostOverviewsCache {
+
+    /**
+     * {@code maxAge} the time, in milliseconds, after which a snapshot is stale and the host must be probed again
+     */
+    private final long maxAge;
+
+    /**
+     * {@code viewingWindow} the time, in milliseconds, after its latest overview request in which a host is considered
+     * actively viewed and is refreshed in background
+     */
+    private final long viewingWindow;
+
+    /**
+     * {@code cpuUsageSampler} the sampler used to compute the usage of the cpu from the counters of the probes
+     */
+    private final CpuUsageSampler cpuUsageSampler;
+
+    /**
+     * {@code snapshots} the latest snapshot of each host
+     */
+    private final ConcurrentHashMap<String, HostProbeResult> snapshots;
+
+    /**
+     * {@code inFlightProbes} the probes currently executing for each host
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<HostProbeResult>> inFlightProbes;
+
+    /**
+     * {@code viewedHosts} the hosts actively viewed
+     */
+    private final ConcurrentHashMap<String, ViewedHost> viewedHosts;
+
+    /**
+     * {@code scheduledRefreshes} the identifiers of the hosts whose background refresh is scheduled and not completed
+     * yet
+     */
+    private final Set<String> scheduledRefreshes;
+
+    /**
+     * {@code refreshScheduler} the scheduler used to schedule the refreshes of the viewed hosts
+     */
+    private final ScheduledExecutorService refreshScheduler;
+
+    /**
+     * {@code refreshExecutor} the executor used to probe the viewed hosts in background
+     */
+    private final ExecutorService refreshExecutor;
+
+    /**
+     * Constructor used to init the cache
+     *
+     * @param maxAge The time, in seconds, after which a snapshot is stale and the host must be probed again
+     * @param viewingWindow The time, in seconds, after its latest overview request in which a host is considered
+     * actively viewed
+     * @param refreshThreads The number of the threads used to probe the viewed hosts in background
+     * @param cpuUsageSampler The sampler used to compute the usage of the cpu from the counters of the probes
+     */
+    @Autowired
+    public HostOverviewsCache(@Value("${brownie.hosts.overview.max-age-seconds:5}") long maxAge,
+                              @Value("${brownie.hosts.overview.viewing-window-seconds:60}") long viewingWindow,
+                              @Value("${brownie.hosts.overview.refresh-threads:4}") int refreshThreads,
+                              CpuUsageSampler cpuUsageSampler) {
+        this.maxAge = TimeUnit.SECONDS.toMillis(maxAge);
+        this.viewingWindow = TimeUnit.SECONDS.toMillis(viewingWindow);
+        this.cpuUsageSampler = cpuUsageSampler;
+        this.snapshots = new ConcurrentHashMap<>();
+        this.inFlightProbes = new ConcurrentHashMap<>();
+        this.viewedHosts = new ConcurrentHashMap<>();
+        this.scheduledRefreshes = ConcurrentHashMap.newKeySet();
+        this.refreshScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "host-overviews-refresh-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.refreshExecutor = Executors.newFixedThreadPool(refreshThreads, runnable -> {
+            Thread thread = new Thread(runnable, "host-overviews-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Method automatically invoked after dependency injection by Spring used to schedule the refreshes of the viewed
+     * hosts
+     */
+    @PostConstruct
+    private void scheduleRefreshes() {
+        refreshScheduler.scheduleWithFixedDelay(this::refreshViewedHosts, maxAge, maxAge, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Method used to get the snapshot of a host to build its overview, the host is marked as viewed and, if its
+     * snapshot is stale, it is probed again or the in-flight probe is awaited
+     *
+     * @param host The host to get its snapshot
+     * @return the snapshot of the host as {@link HostProbeResult}
+     * @throws Exception when an error occurred during the execution
+     */
+    public HostProbeResult getSnapshot(BrownieHost host) throws Exception {
+        String hostId = host.getId();
+        viewedHosts.put(hostId, new ViewedHost(host, System.currentTimeMillis()));
+        HostProbeResult snapshot = snapshots.get(hostId);
+        if (snapshot != null && snapshot.isFresh(maxAge))
+            return snapshot;
+        return probe(host);
+    }
+
+    /**
+     * Method used to probe a host storing the result as its latest snapshot, if a probe of the host is already
+     * in-flight its result is awaited instead of executing a new one
+     *
+     * @param host The host to probe
+     * @return the result of the probe as {@link HostProbeResult}
+     * @throws Exception when an error occurred during the execution
+     */
+    public HostProbeResult probe(BrownieHost host) throws Exception {
+        String hostId = host.getId();
+        CompletableFuture<HostProbeResult> pendingProbe = new CompletableFuture<>();
+        CompletableFuture<HostProbeResult> inFlightProbe = inFlightProbes.putIfAbsent(hostId, pendingProbe);
+        if (inFlightProbe != null)
+            return awaitProbe(inFlightProbe);
+        try (ShellCommandsExecutor commandsExecutor = ShellCommandsExecutor.getInstance(host)) {
+            HostProbeResult probe = commandsExecutor.probeHost(host);
+            cpuUsageSampler.sample(hostId, probe);
+            snapshots.put(hostId, probe);
+            pendingProbe.complete(probe);
+            return probe;
+        } catch (Exception e) {
+            pendingProbe.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightProbes.remove(hostId, pendingProbe);
+        }
+    }
+
+    /**
+     * Method used to await the result of an in-flight probe
+     *
+     * @param inFlightProbe The in-flight probe to await
+     * @return the result of the probe as {@link HostProbeResult}
+     * @throws Exception when the probe failed
+     */
+    private HostProbeResult awaitProbe(CompletableFuture<HostProbeResult> inFlightProbe) throws Exception {
+        try {
+            return inFlightProbe.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Method used to refresh in background the snapshots of the viewed hosts, the hosts no longer viewed are removed
+     * and a host is scheduled again only when its previous refresh is completed
+     */
+    private void refreshViewedHosts() {
+        long currentTime = System.currentTimeMillis();
+        viewedHosts.forEach((hostId, viewedHost) -> {
+            if (currentTime - viewedHost.lastViewDate() > viewingWindow) {
+                viewedHosts.remove(hostId, viewedHost);
+                return;
+            }
+            if (inFlightProbes.containsKey(hostId) || !scheduledRefreshes.add(hostId))
+                return;
+            try {
+                refreshExecutor.execute(() -> {
+                    try {
+                        probe(viewedHost.host());
+                    } catch (Exception ignored) {
+                        // the next overview request will probe the host again
+                    } finally {
+                        scheduledRefreshes.remove(hostId);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                scheduledRefreshes.remove(hostId);
+            }
+        });
+    }
+
+    /**
+     * Method used to evict a host from the cache, it must be invoked when the host is edited or unregistered
+     *
+     * @param hostId The identifier of the host
+     */
+    public void evictHost(String hostId) {
+        snapshots.remove(hostId);
+        viewedHosts.remove(hostId);
+        cpuUsageSampler.evictHost(hostId);
+    }
+
+    /**
+     * Method automatically invoked by Spring before termination used to stop the refreshes
+     */
+    @PreDestroy
+    private void stopRefreshes() {
+        refreshScheduler.shutdownNow();
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * The {@code ViewedHost} record represents a host actively viewed
+     *
+     * @param host The viewed host
+     * @param lastViewDate The date of the latest overview request of the host
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private record ViewedHost(BrownieHost host, long lastViewDate) {
+    }
+
+}
@@ -2,29 +2,41 @@ package com.tecknobit.brownie.services.hosts.services;
 
 import com.jcraft.jsch.JSchException;
 import com.tecknobit.apimanager.formatters.JsonHelper;
+import com.tecknobit.brownie.helpers.metrics.MetricsTier;
+import com.tecknobit.brownie.helpers.monitor.HostsMonitorEngine;
+import com.tecknobit.brownie.helpers.shell.HostProbeResult;
 import com.tecknobit.brownie.helpers.shell.RemoteShellCommandsExecutor;
 import com.tecknobit.brownie.helpers.shell.ShellCommandsExecutor;
 import com.tecknobit.brownie.services.hosts.commands.WakeOnLanExecutor;
 import com.tecknobit.brownie.services.hosts.dtos.BrownieHostOverview;
 import com.tecknobit.brownie.services.hosts.dtos.BrownieHostStat;
 import com.tecknobit.brownie.services.hosts.dtos.CurrentHostStatus;
+import com.tecknobit.brownie.services.hosts.dtos.HostMetricsSeries;
 import com.tecknobit.brownie.services.hosts.dtos.usages.CPUUsage;
 import com.tecknobit.brownie.services.hosts.dtos.usages.StorageUsage;
 import com.tecknobit.brownie.services.hosts.entities.BrownieHost;
+import com.tecknobit.brownie.services.hosts.entities.HostHistoryEvent;
 import com.tecknobit.brownie.services.hosts.repositories.HostsRepository;
 import com.tecknobit.brownie.services.hostservices.entities.BrownieHostService;
 import com.tecknobit.brownie.services.hostservices.services.HostServicesService;
+import com.tecknobit.brownie.services.session.entity.BrownieSession;
+import com.tecknobit.brownie.services.session.service.SessionStatusStreamBroker;
+import com.tecknobit.brownie.services.session.service.SessionsAuthorizationCache;
+import com.tecknobit.brownie.services.shared.dtos.BrownieEventsPage;
+import com.tecknobit.brownie.services.shared.entities.EventsDailyAggregate;
+import com.tecknobit.brownie.services.shared.dtos.StatusChanges;
+import com.tecknobit.brownie.services.shared.services.BrownieStatusRegistry;
 import com.tecknobit.browniecore.enums.HostStatus;
+import com.tecknobit.browniecore.enums.ServiceStatus;
 import com.tecknobit.equinoxcore.annotations.Wrapper;
 import com.tecknobit.equinoxcore.pagination.PaginatedResponse;
 import kotlin.Pair;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Collections;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.tecknobit.brownie.helpers.RemoteHostWaiter.waitForHostRestart;
@@ -55,18 +67,71 @@ public class HostsService {
      */
     private final HostServicesService servicesService;
 
+    /**
+     * {@code monitorEngine} the engine used to perform the monitor-and-sync routine
+     */
+    private final HostsMonitorEngine monitorEngine;
+
+    /**
+     * {@code transactionTemplate} the template used to execute each host status transition in a single transaction
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * {@code authorizationCache} the cache used to authorize the hosts and the services of the sessions
+     */
+    private final SessionsAuthorizationCache authorizationCache;
+
+    /**
+     * {@code statusStreamBroker} the broker used to push the changes of the statuses of the hosts to the clients
+     */
+    private final SessionStatusStreamBroker statusStreamBroker;
+
+    /**
+     * {@code statusRegistry} the registry used to store the statuses of the hosts
+     */
+    private final BrownieStatusRegistry statusRegistry;
+
+    /**
+     * {@code overviewsCache} the cache used to share the snapshots of the stats of the hosts between their overviews
+     */
+    private final HostOverviewsCache overviewsCache;
+
+    /**
+     * {@code metricsService} the support service used to store the historical series of the metrics of the hosts
+     */
+    private final HostMetricsService metricsService;
+
     /**
      * Constructor used to init the service
      *
      * @param hostsRepository The instance used to access to the {@link HOSTS_KEY} table
      * @param eventsService   The support service used to manage the host events data
      * @param servicesService The support service used to manage the services data
+     * @param monitorEngine   The engine used to perform the monitor-and-sync routine
+     * @param transactionTemplate The template used to execute each host status transition in a single transaction
+     * @param authorizationCache The cache used to authorize the hosts and the services of the sessions
+     * @param statusStreamBroker The broker used to push the changes of the statuses of the hosts to the clients
+     * @param statusRegistry The registry used to store the statuses of the hosts
+     * @param overviewsCache The cache used to share the snapshots of the stats of the hosts between their overviews
+     * @param metricsService The support service used to store the historical series of the metrics of the hosts
      */
     @Autowired
-    public HostsService(HostsRepository hostsRepository, HostEventsService eventsService, HostServicesService servicesService) {
+    public HostsService(HostsRepository hostsRepository, HostEventsService eventsService, HostServicesService servicesService,
+                        HostsMonitorEngine monitorEngine, TransactionTemplate transactionTemplate,
+                        SessionsAuthorizationCache authorizationCache, SessionStatusStreamBroker statusStreamBroker,
+                        BrownieStatusRegistry statusRegistry, HostOverviewsCache overviewsCache,
+                        HostMetricsService metricsService) {
         this.hostsRepository = hostsRepository;
         this.eventsService = eventsService;
         this.servicesService = servicesService;
+        this.monitorEngine = monitorEngine;
+        this.transactionTemplate = transactionTemplate;
+        this.authorizationCache = authorizationCache;
+        this.statusStreamBroker = statusStreamBroker;
+        this.statusRegistry = statusRegistry;
+        this.overviewsCache = overviewsCache;
+        this.metricsService = metricsService;
     }
 
     /**
@@ -85,9 +150,69 @@ public class HostsService {
         long totalHosts = hostsRepository.countHosts(sessionId, fullTextKeywords, statuses);
         List<BrownieHost> hosts = hostsRepository.getHosts(sessionId, fullTextKeywords, statuses,
                 PageRequest.of(page, pageSize));
+        loadLatestEvents(hosts);
         return new PaginatedResponse<>(hosts, page, pageSize, totalHosts);
     }
 
+    /**
+     * Method used to load the latest events of the hosts and of their services to embed in their payloads
+     *
+     * @param hosts The hosts whose latest events have to be loaded
+     */
+    public void loadLatestEvents(Collection<BrownieHost> hosts) {
+        loadHostsLatestEvents(hosts);
+        List<BrownieHostService> services = new ArrayList<>();
+        for (BrownieHost host : hosts)
+            services.addAll(host.getServices());
+        servicesService.loadLatestEvents(services);
+    }
+
+    /**
+     * Method used to load the latest events of the hosts to embed in their payloads
+     *
+     * @param hosts The hosts whose latest events have to be loaded
+     */
+    private void loadHostsLatestEvents(Collection<BrownieHost> hosts) {
+        List<String> hostIds = new ArrayList<>(hosts.size());
+        for (BrownieHost host : hosts)
+            hostIds.add(host.getId());
+        Map<String, List<HostHistoryEvent>> latestEvents = eventsService.getLatestEvents(hostIds);
+        for (BrownieHost host : hosts)
+            host.setLatestEvents(latestEvents.getOrDefault(host.getId(), List.of()));
+    }
+
+    /**
+     * Method used to get a page of the history of the events of a host
+     *
+     * @param hostId The identifier of the host
+     * @param cursor The cursor received with the previous page, null to get the first page
+     * @param pageSize The max number of events to retrieve
+     * @param types The types of the events to retrieve, if empty all the types are retrieved
+     * @param fromDate The date from which retrieve the events, can be null
+     * @param toDate The date until which retrieve the events, can be null
+     *
+     * @return the page of the events as {@link BrownieEventsPage} of {@link HostHistoryEvent}
+     */
+    @Wrapper
+    public BrownieEventsPage<HostHistoryEvent> getEventsPage(String hostId, String cursor, int pageSize,
+                                                             List<String> types, Long fromDate, Long toDate) {
+        return eventsService.getEventsPage(hostId, cursor, pageSize, types, fromDate, toDate);
+    }
+
+    /**
+     * Method used to get the daily aggregates of the events of a host compacted by the retention routine
+     *
+     * @param hostId The identifier of the host
+     * @param fromDate The date from which retrieve the aggregates, can be null
+     * @param toDate The date until which retrieve the aggregates, can be null
+     *
+     * @return the daily aggregates as {@link List} of {@link EventsDailyAggregate}
+     */
+    @Wrapper
+    public List<EventsDailyAggregate> getEventsAggregates(String hostId, Long fromDate, Long toDate) {
+        return eventsService.getDailyAggregates(hostId, fromDate, toDate);
+    }
+
     /**
      * Method used to get the current status of the specified hosts
      *
@@ -97,7 +222,19 @@ public class HostsService {
     public List<CurrentHostStatus> getHostsStatus(List<String> hosts) {
         if (hosts.isEmpty())
             return Collections.EMPTY_LIST;
-        return hostsRepository.getHostsStatus(hosts);
+        return statusRegistry.getHostsStatus(hosts);
+    }
+
+    /**
+     * Method used to get the statuses of the specified hosts changed after a version
+     *
+     * @param hosts The hosts used to retrieve the changed statuses
+     * @param version The version after which retrieve the changes
+     * @return the changed statuses as {@link StatusChanges} of {@link CurrentHostStatus}
+     */
+    @Wrapper
+    public StatusChanges<CurrentHostStatus> getHostsStatusChanges(List<String> hosts, long version) {
+        return statusRegistry.getHostsStatusChanges(hosts, version);
     }
 
     /**
@@ -121,6 +258,7 @@ public class HostsService {
         }
         hostsRepository.registerHost(hostId, hostName, hostAddress, sshUser, sshPassword, ONLINE.name(), sessionId,
                 System.currentTimeMillis(), broadcastIp, macAddress);
+        authorizationCache.invalidateSession(sessionId);
     }
 
     /**
@@ -141,6 +279,7 @@ public class HostsService {
             String broadcastIp = details.getSecond();
             hostsRepository.editHost(hostId, hostName, hostAddress, sshUser, sshPassword, broadcastIp, macAddress);
         }
+        overviewsCache.evictHost(hostId);
     }
 
     /**
@@ -153,9 +292,10 @@ public class HostsService {
      * @return the network interface details as {@link Pair} of {@link String}
      */
     private Pair<String, String> getNetworkInterfaceDetails(String sshUser, String sshPassword, String hostAddress) throws Exception {
-        RemoteShellCommandsExecutor commandsExecutor = new RemoteShellCommandsExecutor(sshUser, hostAddress,
-                sshPassword);
-        return commandsExecutor.getNetworkInterfaceDetails();
+        try (RemoteShellCommandsExecutor commandsExecutor = new RemoteShellCommandsExecutor(sshUser, hostAddress,
+                sshPassword)) {
+            return commandsExecutor.getNetworkInterfaceDetails();
+        }
     }
 
     /**
@@ -166,18 +306,59 @@ public class HostsService {
      * @return whether a host belongs to the specified session as {@code boolean}
      */
     public boolean hostBelongsToSession(String sessionId, String hostId) {
-        return getBrownieHost(sessionId, hostId) != null;
+        return authorizationCache.hostBelongsToSession(sessionId, hostId);
     }
 
     /**
-     * Method used to check whether a host belongs to the specified session
+     * Method used to check whether a service belongs to the specified host of the session
+     * @param sessionId The identifier of the session
+     * @param hostId The identifier of the host
+     * @param serviceId The identifier of the service
+     *
+     * @return whether the service belongs to the host as {@code boolean}
+     */
+    public boolean serviceBelongsToHost(String sessionId, String hostId, String serviceId) {
+        return authorizationCache.serviceBelongsToHost(sessionId, hostId, serviceId);
+    }
+
+    /**
+     * Method used to get a host of the specified session with its services already loaded, so it can be safely
+     * handled also by the background threads
      * @param sessionId The identifier of the session
      * @param hostId The identifier of the host
      *
      * @return the host as {@link BrownieHost} if belongs, null otherwise
      */
     public BrownieHost getBrownieHost(String sessionId, String hostId) {
-        return hostsRepository.hostBelongsToSession(hostId, sessionId);
+        if (!hostBelongsToSession(sessionId, hostId))
+            return null;
+        return hostsRepository.getSessionHost(hostId, sessionId);
+    }
+
+    /**
+     * Method used to get the hosts to monitor, each host is loaded with only its running services and with the minimal
+     * data required by the monitor, without loading the whole graph of the sessions
+     *
+     * @return the hosts to monitor as {@link List} of {@link BrownieHost}
+     */
+    public List<BrownieHost> getMonitoredHosts() {
+        Map<String, BrownieHost> hosts = new LinkedHashMap<>();
+        for (Object[] row : hostsRepository.getMonitoredHosts()) {
+            String hostId = (String) row[0];
+            BrownieHost host = hosts.get(hostId);
+            if (host == null) {
+                host = new BrownieHost(hostId, (String) row[1], (String) row[2], HostStatus.valueOf((String) row[3]),
+                        (String) row[4], (String) row[5], new BrownieSession((String) row[6], null, null), null, null,
+                        List.of(), new ArrayList<>(), 0);
+                hosts.put(hostId, host);
+            }
+            String serviceId = (String) row[7];
+            if (serviceId != null) {
+                host.getServices().add(new BrownieHostService(serviceId, ServiceStatus.RUNNING, (String) row[8], null,
+                        Long.parseLong(String.valueOf(row[9])), ((Number) row[10]).longValue(), 0, null, List.of()));
+            }
+        }
+        return new ArrayList<>(hosts.values());
     }
 
     /**
@@ -202,8 +383,9 @@ public class HostsService {
      * @throws Exception when an error occurred during the execution
      */
     public void rebootHost(BrownieHost host) throws Exception {
-        ShellCommandsExecutor shellCommandsExecutor = ShellCommandsExecutor.getInstance(host);
-        shellCommandsExecutor.rebootHost(this, host);
+        try (ShellCommandsExecutor shellCommandsExecutor = ShellCommandsExecutor.getInstance(host)) {
+            shellCommandsExecutor.rebootHost(this, host);
+        }
     }
 
     /**
@@ -213,8 +395,9 @@ public class HostsService {
      * @throws Exception when an error occurred during the execution
      */
     public void stopHost(BrownieHost host) throws Exception {
-        ShellCommandsExecutor commandsExecutor = ShellCommandsExecutor.getInstance(host);
-        commandsExecutor.stopHost(this, host);
+        try (ShellCommandsExecutor commandsExecutor = ShellCommandsExecutor.getInstance(host)) {
+            commandsExecutor.stopHost(this, host);
+        }
     }
 
     /**
@@ -225,24 +408,31 @@ public class HostsService {
      */
     public void restartHost(BrownieHost host) throws Exception {
         String hostId = host.getId();
-        hostsRepository.handleHostStatus(hostId, ONLINE.name());
+        statusRegistry.updateHostStatus(hostId, ONLINE);
+        statusStreamBroker.publishHostStatus(host.getSession().getId(), hostId, ONLINE);
         eventsService.registerHostRestartedEvent(hostId);
         handleServicesOnStart(host);
     }
 
     /**
-     * Method used to handle the services of the host has been rebooted or stopped
+     * Method used to handle the services of the host has been rebooted or stopped, the services to automatically run
+     * are started all together with a single script
      *
      * @param host The rebooted/stopped host
      * @throws Exception when an error occurred during the execution
      */
     private void handleServicesOnStart(BrownieHost host) throws Exception {
+        monitorEngine.boostPolling(host.getId());
+        List<String> stoppedServices = new ArrayList<>();
+        List<BrownieHostService> autoRunServices = new ArrayList<>();
         for (BrownieHostService service : host.getServices()) {
             if (service.getConfiguration().autoRunAfterHostReboot())
-                servicesService.startService(host, service, true);
+                autoRunServices.add(service);
             else
-                servicesService.setServiceAsStopped(service.getId());
+                stoppedServices.add(service.getId());
         }
+        servicesService.setServicesAsStopped(host, stoppedServices);
+        servicesService.startServices(host, autoRunServices, true);
     }
 
     /**
@@ -252,41 +442,47 @@ public class HostsService {
      */
     @Wrapper
     public void setOnlineStatus(BrownieHost host) {
-        handleHostStatus(host.getId(), ONLINE);
+        handleHostStatus(host, ONLINE);
     }
 
     /**
-     * Method used to set the {@link HostStatus#REBOOTING} status of a host and all its attached services
+     * Method used to set the {@link HostStatus#REBOOTING} status of a host and all its attached services in a single
+     * transaction
      *
      * @param host The host to set the status
      */
     @Wrapper
     public void setRebootingStatus(BrownieHost host) {
-        handleHostStatus(host.getId(), REBOOTING);
-        for (BrownieHostService service : host.getServices())
-            servicesService.setServiceInRebooting(service.getId());
+        transactionTemplate.executeWithoutResult(transaction -> {
+            handleHostStatus(host, REBOOTING);
+            servicesService.setServicesInRebooting(host, host.listServiceIds());
+        });
     }
 
     /**
-     * Method used to set the {@link HostStatus#OFFLINE} status of a host and all its attached services
+     * Method used to set the {@link HostStatus#OFFLINE} status of a host and all its attached services in a single
+     * transaction
      *
      * @param host The host to set the status
      */
     @Wrapper
     public void setOfflineStatus(BrownieHost host) {
-        handleHostStatus(host.getId(), OFFLINE);
-        for (BrownieHostService service : host.getServices())
-            servicesService.setServiceAsStopped(service.getId());
+        transactionTemplate.executeWithoutResult(transaction -> {
+            handleHostStatus(host, OFFLINE);
+            servicesService.setServicesAsStopped(host, host.listServiceIds());
+        });
     }
 
     /**
      * Method used to set the status of a host
      *
-     * @param hostId The identifier of the host
+     * @param host The host to set the status
      * @param status The status to set
      */
-    private void handleHostStatus(String hostId, HostStatus status) {
-        hostsRepository.handleHostStatus(hostId, status.name());
+    private void handleHostStatus(BrownieHost host, HostStatus status) {
+        String hostId = host.getId();
+        statusRegistry.updateHostStatus(hostId, status);
+        statusStreamBroker.publishHostStatus(host.getSession().getId(), hostId, status);
         eventsService.registerHostStatusChangedEvent(hostId, status);
     }
 
@@ -299,12 +495,15 @@ public class HostsService {
      * @throws Exception when an error occurred during the execution
      */
     public BrownieHostOverview getHostOverview(BrownieHost host) throws Exception {
+        loadHostsLatestEvents(List.of(host));
         try {
-            ShellCommandsExecutor commandsExecutor = ShellCommandsExecutor.getInstance(host);
-            String[] currentHostStats = commandsExecutor.getCurrentHostStats();
-            CPUUsage cpuUsage = new CPUUsage(currentHostStats[0], currentHostStats[1]);
-            BrownieHostStat memoryUsage = new BrownieHostStat(currentHostStats[2]);
-            StorageUsage storageUsage = new StorageUsage(currentHostStats[3], currentHostStats[4]);
+            HostProbeResult probe = overviewsCache.getSnapshot(host);
+            if (!probe.hasStats())
+                return new BrownieHostOverview(host);
+            CPUUsage cpuUsage = new CPUUsage(probe.getCpuUsage(), probe.getCpuClock(), probe.getCoresUsage(),
+                    probe.getServicesCpuUsage(host));
+            BrownieHostStat memoryUsage = new BrownieHostStat(probe.getMemoryUsage());
+            StorageUsage storageUsage = new StorageUsage(probe.getStorageUsage(), probe.getStorageType());
             return new BrownieHostOverview(host, cpuUsage, memoryUsage, storageUsage);
         } catch (JSchException e) {
             if (e.getLocalizedMessage().equals("timeout: socket is not established"))
@@ -313,6 +512,47 @@ public class HostsService {
         }
     }
 
+    /**
+     * Method used to probe a host retrieving with a single execution both its current stats and the pids of its
+     * running services, the result is stored as the latest snapshot of the host to be reused by its overviews and its
+     * stats are recorded in the historical series of the metrics of the host
+     *
+     * @param host The host to probe
+     * @return the result of the probe as {@link HostProbeResult}
+     * @throws Exception when an error occurred during the execution
+     */
+    public HostProbeResult probeHost(BrownieHost host) throws Exception {
+        HostProbeResult probe = overviewsCache.probe(host);
+        metricsService.recordSample(host, probe);
+        return probe;
+    }
+
+    /**
+     * Method used to pin the start times of the processes of the services found running for the first time
+     *
+     * @param host The host owner of the services
+     * @param startTicks The start times, in clock ticks since the boot of the host, keyed by the identifier of the
+     * service
+     */
+    @Wrapper
+    public void pinProcessesStartTicks(BrownieHost host, Map<String, Long> startTicks) {
+        servicesService.pinProcessesStartTicks(host, startTicks);
+    }
+
+    /**
+     * Method used to get the historical series of the metrics of a host
+     *
+     * @param hostId The identifier of the host
+     * @param tier The tier of the samples to retrieve, {@code null} to select it from the requested range
+     * @param fromDate The start of the range
+     * @param toDate The end of the range
+     *
+     * @return the series of the metrics as {@link HostMetricsSeries}
+     */
+    public HostMetricsSeries getMetricsSeries(String hostId, MetricsTier tier, long fromDate, long toDate) {
+        return metricsService.getMetricsSeries(hostId, tier, fromDate, toDate);
+    }
+
     /**
      * Method used to add a service to a host
      *
@@ -357,8 +597,9 @@ public class HostsService {
      */
     private String findServicePath(BrownieHost host, String serviceName) throws Exception {
         String servicePath;
-        ShellCommandsExecutor commandsExecutor = ShellCommandsExecutor.getInstance(host);
-        servicePath = commandsExecutor.findServicePath(serviceName);
+        try (ShellCommandsExecutor commandsExecutor = ShellCommandsExecutor.getInstance(host)) {
+            servicePath = commandsExecutor.findServicePath(serviceName);
+        }
         if (servicePath.isEmpty())
             throw new JSchException("Could not locate the " + serviceName);
         return servicePath;
@@ -367,10 +608,50 @@ public class HostsService {
     /**
      * Method used to unregister a host from the system
      *
-     * @param hostId The identifier of the host to unregister
+     * @param host The host to unregister
+     */
+    public void unregisterHost(BrownieHost host) {
+        hostsRepository.unregisterHost(host.getId());
+        evictHost(host);
+    }
+
+    /**
+     * Method used to get all the hosts of a session with their services
+     *
+     * @param sessionId The identifier of the session
+     * @return the hosts of the session as {@link List} of {@link BrownieHost}
+     */
+    @Wrapper
+    public List<BrownieHost> getSessionHosts(String sessionId) {
+        return hostsRepository.getSessionHosts(sessionId);
+    }
+
+    /**
+     * Method used to evict the in-memory state of more hosts and of their services, it must be invoked when the
+     * session owner of the hosts is deleted
+     *
+     * @param hosts The hosts to evict
      */
-    public void unregisterHost(String hostId) {
-        hostsRepository.unregisterHost(hostId);
+    public void evictHosts(Collection<BrownieHost> hosts) {
+        for (BrownieHost host : hosts)
+            evictHost(host);
+    }
+
+    /**
+     * Method used to evict the in-memory state of a host and of its services, so the removed host is not served or
+     * probed anymore
+     *
+     * @param host The host to evict
+     */
+    private void evictHost(BrownieHost host) {
+        String hostId = host.getId();
+        List<String> serviceIds = host.listServiceIds();
+        eventsService.evictLastUpEvent(hostId);
+        servicesService.evictLastUpEvents(serviceIds);
+        authorizationCache.invalidateHost(hostId);
+        statusRegistry.evictHost(hostId, serviceIds);
+        overviewsCache.evictHost(hostId);
+        metricsService.evictHost(hostId, serviceIds);
     }
 
 }
@@ -1,15 +1,19 @@
 package com.tecknobit.brownie.services.hostservices.controller;
 
 import com.jcraft.jsch.JSchException;
+import com.tecknobit.brownie.helpers.metrics.MetricsTier;
 import com.tecknobit.brownie.services.hosts.entities.BrownieHost;
 import com.tecknobit.brownie.services.hosts.services.HostsService;
+import com.tecknobit.brownie.services.hostservices.dtos.ServiceJob;
 import com.tecknobit.brownie.services.hostservices.entities.BrownieHostService;
 import com.tecknobit.brownie.services.hostservices.services.HostServicesService;
+import com.tecknobit.brownie.services.hostservices.services.ServiceJobsService;
 import com.tecknobit.brownie.services.session.service.BrownieSessionsService;
 import com.tecknobit.brownie.services.shared.controllers.DefaultBrownieController;
 import com.tecknobit.equinoxbackend.environment.services.DefaultEquinoxController;
 import com.tecknobit.equinoxbackend.environment.services.builtin.controller.EquinoxController;
 import com.tecknobit.equinoxcore.annotations.RequestPath;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,12 +22,14 @@ import java.util.Map;
 import java.util.Set;
 
 import static com.tecknobit.browniecore.ConstantsKt.*;
+import static com.tecknobit.browniecore.enums.ServiceOperation.*;
 import static com.tecknobit.browniecore.helpers.BrownieEndpoints.*;
 import static com.tecknobit.browniecore.helpers.BrownieInputsValidator.INSTANCE;
 import static com.tecknobit.equinoxcore.helpers.CommonKeysKt.*;
 import static com.tecknobit.equinoxcore.helpers.InputsValidator.DEFAULT_LANGUAGE;
 import static com.tecknobit.equinoxcore.network.EquinoxBaseEndpointsSet.BASE_EQUINOX_ENDPOINT;
 import static com.tecknobit.equinoxcore.network.RequestMethod.*;
+import static jakarta.servlet.http.HttpServletResponse.SC_ACCEPTED;
 import static com.tecknobit.equinoxcore.pagination.PaginatedResponse.*;
 
 /**
@@ -44,18 +50,25 @@ public class HostServicesController extends DefaultBrownieController {
      */
     private final HostServicesService service;
 
+    /**
+     * {@code jobsService} the support service used to execute the lifecycle operations of the services as jobs
+     */
+    private final ServiceJobsService jobsService;
+
     /**
      * Constructor used to init the controller
      *
      * @param sessionsService The support service used to manage the sessions data
      * @param hostsService    The support service used to manage the hosts data
      * @param service         The support service used to manage the services data
+     * @param jobsService     The support service used to execute the lifecycle operations of the services as jobs
      */
     @Autowired
     public HostServicesController(BrownieSessionsService sessionsService, HostsService hostsService,
-                                  HostServicesService service) {
+                                  HostServicesService service, ServiceJobsService jobsService) {
         super(sessionsService, hostsService);
         this.service = service;
+        this.jobsService = jobsService;
     }
 
     /**
@@ -136,9 +149,131 @@ public class HostServicesController extends DefaultBrownieController {
             hostService = host.getService(serviceId);
         if (hostService == null)
             return (T) failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
+        service.loadLatestEvents(List.of(hostService));
+        service.loadResources(List.of(hostService));
         return (T) successResponse(hostService);
     }
 
+    /**
+     * Endpoint used to retrieve the historical series of the resources used by a service
+     *
+     * @param sessionId The identifier of the session
+     * @param hostId The identifier of the host
+     * @param serviceId The identifier of the service
+     * @param language The language of the user who sent the request
+     * @param fromDate The date from which retrieve the samples, the last hour if not specified
+     * @param toDate The date until which retrieve the samples, the current date if not specified
+     * @param tier The tier of the samples to retrieve, selected from the requested range if not specified
+     *
+     * @return the response as {@link T}
+     *
+     * @param <T> the type of the response
+     */
+    @GetMapping(
+            path = "/{" + SERVICE_IDENTIFIER_KEY + "}" + METRICS_ENDPOINT
+    )
+    @RequestPath(path = "/api/v1/sessions/{session_id}/hosts/{host_id}/services/{service_id}/metrics", method = GET)
+    public <T> T getServiceMetrics(
+            @PathVariable(IDENTIFIER_KEY) String sessionId,
+            @PathVariable(HOST_IDENTIFIER_KEY) String hostId,
+            @PathVariable(SERVICE_IDENTIFIER_KEY) String serviceId,
+            @RequestParam(value = LANGUAGE_KEY, required = false, defaultValue = DEFAULT_LANGUAGE) String language,
+            @RequestParam(name = FROM_DATE_KEY, required = false) Long fromDate,
+            @RequestParam(name = TO_DATE_KEY, required = false) Long toDate,
+            @RequestParam(name = METRICS_TIER_KEY, required = false) String tier
+    ) {
+        setSessionLocale(language);
+        if (!hostsService.serviceBelongsToHost(sessionId, hostId, serviceId))
+            return (T) failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
+        if (toDate == null)
+            toDate = System.currentTimeMillis();
+        if (fromDate == null)
+            fromDate = toDate - MetricsTier.RAW.getRetention();
+        if (fromDate > toDate)
+            return (T) failedResponse(WRONG_PROCEDURE_MESSAGE);
+        try {
+            MetricsTier metricsTier = tier != null ? MetricsTier.valueOf(tier.toUpperCase()) : null;
+            return (T) successResponse(service.getMetricsSeries(serviceId, metricsTier, fromDate, toDate));
+        } catch (IllegalArgumentException e) {
+            return (T) failedResponse(WRONG_PROCEDURE_MESSAGE);
+        }
+    }
+
+    /**
+     * Endpoint used to retrieve a page of the history of the events of a service
+     *
+     * @param sessionId The identifier of the session
+     * @param hostId The identifier of the host
+     * @param serviceId The identifier of the service
+     * @param language The language of the user who sent the request
+     * @param cursor The cursor received with the previous page, empty to get the first page
+     * @param pageSize The max number of events to retrieve
+     * @param eventTypes The types of the events used to filter the results
+     * @param fromDate The date from which retrieve the events
+     * @param toDate The date until which retrieve the events
+     *
+     * @return the response as {@link T}
+     *
+     * @param <T> the type of the response
+     */
+    @GetMapping(
+            path = "/{" + SERVICE_IDENTIFIER_KEY + "}" + EVENTS_ENDPOINT
+    )
+    @RequestPath(path = "/api/v1/sessions/{session_id}/hosts/{host_id}/services/{service_id}/events", method = GET)
+    public <T> T getServiceEvents(
+            @PathVariable(IDENTIFIER_KEY) String sessionId,
+            @PathVariable(HOST_IDENTIFIER_KEY) String hostId,
+            @PathVariable(SERVICE_IDENTIFIER_KEY) String serviceId,
+            @RequestParam(value = LANGUAGE_KEY, required = false, defaultValue = DEFAULT_LANGUAGE) String language,
+            @RequestParam(name = CURSOR_KEY, defaultValue = "", required = false) String cursor,
+            @RequestParam(name = PAGE_SIZE_KEY, defaultValue = DEFAULT_PAGE_SIZE_HEADER_VALUE, required = false) int pageSize,
+            @RequestParam(name = EVENT_TYPES_KEY, defaultValue = "", required = false) List<String> eventTypes,
+            @RequestParam(name = FROM_DATE_KEY, required = false) Long fromDate,
+            @RequestParam(name = TO_DATE_KEY, required = false) Long toDate
+    ) {
+        setSessionLocale(language);
+        if (!hostsService.serviceBelongsToHost(sessionId, hostId, serviceId))
+            return (T) failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
+        try {
+            return (T) successResponse(service.getEventsPage(serviceId, cursor, pageSize, eventTypes, fromDate,
+                    toDate));
+        } catch (IllegalArgumentException e) {
+            return (T) failedResponse(WRONG_PROCEDURE_MESSAGE);
+        }
+    }
+
+    /**
+     * Endpoint used to get the daily aggregates of the events of a service compacted by the retention routine
+     *
+     * @param sessionId The identifier of the session
+     * @param hostId The identifier of the host
+     * @param serviceId The identifier of the service
+     * @param language The language of the user who sent the request
+     * @param fromDate The date from which retrieve the aggregates
+     * @param toDate The date until which retrieve the aggregates
+     *
+     * @return the response as {@link T}
+     *
+     * @param <T> the type of the response
+     */
+    @GetMapping(
+            path = "/{" + SERVICE_IDENTIFIER_KEY + "}" + EVENTS_AGGREGATES_ENDPOINT
+    )
+    @RequestPath(path = "/api/v1/sessions/{session_id}/hosts/{host_id}/services/{service_id}/events/aggregates", method = GET)
+    public <T> T getServiceEventsAggregates(
+            @PathVariable(IDENTIFIER_KEY) String sessionId,
+            @PathVariable(HOST_IDENTIFIER_KEY) String hostId,
+            @PathVariable(SERVICE_IDENTIFIER_KEY) String serviceId,
+            @RequestParam(value = LANGUAGE_KEY, required = false, defaultValue = DEFAULT_LANGUAGE) String language,
+            @RequestParam(name = FROM_DATE_KEY, required = false) Long fromDate,
+            @RequestParam(name = TO_DATE_KEY, required = false) Long toDate
+    ) {
+        setSessionLocale(language);
+        if (!hostsService.serviceBelongsToHost(sessionId, hostId, serviceId))
+            return (T) failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
+        return (T) successResponse(service.getEventsAggregates(serviceId, fromDate, toDate));
+    }
+
     /**
      * Endpoint used to edit an existing service to a host
      *
@@ -235,6 +370,8 @@ public class HostServicesController extends DefaultBrownieController {
      * @param hostId The identifier of the host
      * @param services The services to retrieve their current status
      * @param language The language of the user who sent the request
+     * @param version The version after which retrieve only the changed statuses, if not specified all the statuses are
+     *                retrieved
      *
      * @return the response as {@link T}
      *
@@ -248,130 +385,155 @@ public class HostServicesController extends DefaultBrownieController {
             @PathVariable(IDENTIFIER_KEY) String sessionId,
             @PathVariable(HOST_IDENTIFIER_KEY) String hostId,
             @RequestParam(name = SERVICES_KEY, defaultValue = "") List<String> services,
-            @RequestParam(value = LANGUAGE_KEY, required = false, defaultValue = DEFAULT_LANGUAGE) String language
+            @RequestParam(value = LANGUAGE_KEY, required = false, defaultValue = DEFAULT_LANGUAGE) String language,
+            @RequestParam(name = VERSION_KEY, required = false) Long version
     ) {
         setSessionLocale(language);
-        BrownieHost host = getBrownieHostIfAllowed(sessionId, hostId);
-        if (host == null)
+        if (!hostsService.hostBelongsToSession(sessionId, hostId))
             return (T) failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
+        if (version != null)
+            return (T) successResponse(service.getServicesStatusChanges(services, version));
         return (T) successResponse(service.getServicesStatus(services));
     }
 
     /**
-     * Endpoint used to start a service
+     * Endpoint used to start a service, the operation is submitted as a job and executed asynchronously, so the
+     * response is sent with the {@code 202} status code before the operation is completed
      *
      * @param sessionId The identifier of the session
      * @param hostId The identifier of the host
      * @param serviceId The identifier of the service
      * @param language The language of the user who sent the request
+     * @param response The response used to set the {@code 202} status code
      *
-     * @return the response as {@link String}
+     * @return the response as {@link T}
      */
     @PatchMapping(
             path = "/{" + SERVICE_IDENTIFIER_KEY + "}" + START_ENDPOINT
     )
     @RequestPath(path = "/api/v1/sessions/{session_id}/hosts/{host_id}/services/{service_id}/start", method = PATCH)
-    public String startService(
+    public <T> T startService(
             @PathVariable(IDENTIFIER_KEY) String sessionId,
             @PathVariable(HOST_IDENTIFIER_KEY) String hostId,
             @PathVariable(SERVICE_IDENTIFIER_KEY) String serviceId,
-            @RequestParam(value = LANGUAGE_KEY, required = false, defaultValue = DEFAULT_LANGUAGE) String language
+            @RequestParam(value = LANGUAGE_KEY, required = false, defaultValue = DEFAULT_LANGUAGE) String language,
+            HttpServletResponse response
     ) {
         setSessionLocale(language);
         BrownieHost host = getBrownieHostIfAllowed(sessionId, hostId);
         if (host == null)
-            return failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
+            return (T) failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
         if (!host.isOnline())
-            return failedResponse(WRONG_PROCEDURE_MESSAGE);
+            return (T) failedResponse(WRONG_PROCEDURE_MESSAGE);
         BrownieHostService brownieHostService = host.getService(serviceId);
         if (brownieHostService == null || !brownieHostService.isStopped())
-            return failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
-        try {
-            service.startService(host, brownieHostService);
-        } catch (JSchException e) {
-            return failedResponse(SOMETHING_WENT_WRONG_MESSAGE);
-        } catch (Exception e) {
-            return failedResponse(WRONG_PROCEDURE_MESSAGE);
-        }
-        return successResponse();
+            return (T) failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
+        ServiceJob job = jobsService.submitJob(host, brownieHostService, START);
+        response.setStatus(SC_ACCEPTED);
+        return (T) successResponse(job);
     }
 
     /**
-     * Endpoint used to reboot a service
+     * Endpoint used to reboot a service, the operation is submitted as a job and executed asynchronously, so the
+     * response is sent with the {@code 202} status code before the operation is completed
      *
      * @param sessionId The identifier of the session
      * @param hostId The identifier of the host
      * @param serviceId The identifier of the service
      * @param language The language of the user who sent the request
+     * @param response The response used to set the {@code 202} status code
      *
-     * @return the response as {@link String}
+     * @return the response as {@link T}
      */
     @PatchMapping(
             path = "/{" + SERVICE_IDENTIFIER_KEY + "}" + REBOOT_ENDPOINT
     )
     @RequestPath(path = "/api/v1/sessions/{session_id}/hosts/{host_id}/services/{service_id}/reboot", method = PATCH)
-    public String rebootService(
+    public <T> T rebootService(
             @PathVariable(IDENTIFIER_KEY) String sessionId,
             @PathVariable(HOST_IDENTIFIER_KEY) String hostId,
             @PathVariable(SERVICE_IDENTIFIER_KEY) String serviceId,
-            @RequestParam(value = LANGUAGE_KEY, required = false, defaultValue = DEFAULT_LANGUAGE) String language
+            @RequestParam(value = LANGUAGE_KEY, required = false, defaultValue = DEFAULT_LANGUAGE) String language,
+            HttpServletResponse response
     ) {
         setSessionLocale(language);
         BrownieHost host = getBrownieHostIfAllowed(sessionId, hostId);
         if (host == null)
-            return failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
+            return (T) failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
         if (!host.isOnline())
-            return failedResponse(WRONG_PROCEDURE_MESSAGE);
+            return (T) failedResponse(WRONG_PROCEDURE_MESSAGE);
         BrownieHostService brownieHostService = host.getService(serviceId);
         if (brownieHostService == null || !brownieHostService.isRunning())
-            return failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
-        try {
-            service.rebootService(host, brownieHostService);
-        } catch (JSchException e) {
-            return failedResponse(SOMETHING_WENT_WRONG_MESSAGE);
-        } catch (Exception e) {
-            return failedResponse(WRONG_PROCEDURE_MESSAGE);
-        }
-        return successResponse();
+            return (T) failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
+        ServiceJob job = jobsService.submitJob(host, brownieHostService, REBOOT);
+        response.setStatus(SC_ACCEPTED);
+        return (T) successResponse(job);
     }
 
     /**
-     * Endpoint used to stop a service
+     * Endpoint used to stop a service, the operation is submitted as a job and executed asynchronously, so the
+     * response is sent with the {@code 202} status code before the operation is completed
      *
      * @param sessionId The identifier of the session
      * @param hostId The identifier of the host
      * @param serviceId The identifier of the service
      * @param language The language of the user who sent the request
+     * @param response The response used to set the {@code 202} status code
      *
-     * @return the response as {@link String}
+     * @return the response as {@link T}
      */
     @PatchMapping(
             path = "/{" + SERVICE_IDENTIFIER_KEY + "}" + STOP_ENDPOINT
     )
     @RequestPath(path = "/api/v1/sessions/{session_id}/hosts/{host_id}/services/{service_id}/stop", method = PATCH)
-    public String stopService(
+    public <T> T stopService(
             @PathVariable(IDENTIFIER_KEY) String sessionId,
             @PathVariable(HOST_IDENTIFIER_KEY) String hostId,
             @PathVariable(SERVICE_IDENTIFIER_KEY) String serviceId,
-            @RequestParam(value = LANGUAGE_KEY, required = false, defaultValue = DEFAULT_LANGUAGE) String language
+            @RequestParam(value = LANGUAGE_KEY, required = false, defaultValue = DEFAULT_LANGUAGE) String language,
+            HttpServletResponse response
     ) {
         setSessionLocale(language);
         BrownieHost host = getBrownieHostIfAllowed(sessionId, hostId);
         if (host == null)
-            return failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
+            return (T) failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
         if (!host.isOnline())
-            return failedResponse(WRONG_PROCEDURE_MESSAGE);
+            return (T) failedResponse(WRONG_PROCEDURE_MESSAGE);
         BrownieHostService brownieHostService = host.getService(serviceId);
         if (brownieHostService == null || !brownieHostService.isRunning())
-            return failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
-        try {
-            service.stopService(host, brownieHostService);
-        } catch (JSchException e) {
-            return failedResponse(SOMETHING_WENT_WRONG_MESSAGE);
-        } catch (Exception e) {
-            return failedResponse(WRONG_PROCEDURE_MESSAGE);
-        }
-        return successResponse();
+            return (T) failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
+        ServiceJob job = jobsService.submitJob(host, brownieHostService, STOP);
+        response.setStatus(SC_ACCEPTED);
+        return (T) successResponse(job);
+    }
+
+    /**
+     * Endpoint used to get the progress of a job of a lifecycle operation of a service
+     *
+     * @param sessionId The identifier of the session
+     * @param hostId The identifier of the host
+     * @param jobId The identifier of the job
+     * @param language The language of the user who sent the request
+     *
+     * @return the response as {@link T}
+     */
+    @GetMapping(
+            path = JOBS_ENDPOINT + "/{" + JOB_IDENTIFIER_KEY + "}"
+    )
+    @RequestPath(path = "/api/v1/sessions/{session_id}/hosts/{host_id}/services/jobs/{job_id}", method = GET)
+    public <T> T getJob(
+            @PathVariable(IDENTIFIER_KEY) String sessionId,
+            @PathVariable(HOST_IDENTIFIER_KEY) String hostId,
+            @PathVariable(JOB_IDENTIFIER_KEY) String jobId,
+            @RequestParam(value = LANGUAGE_KEY, required = false, defaultValue = DEFAULT_LANGUAGE) String language
+    ) {
+        setSessionLocale(language);
+        if (!hostsService.hostBelongsToSession(sessionId, hostId))
+            return (T) failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
+        ServiceJob job = jobsService.getJob(jobId);
+        if (job == null || !job.getHostId().equals(hostId))
+            return (T) failedResponse(NOT_AUTHORIZED_OR_WRONG_DETAILS_MESSAGE);
+        return (T) successResponse(job);
     }
 
     /**
@@ -0,0 +1,232 @@
+package com.tecknobit.brownie.services.hostservices.dtos;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.tecknobit.brownie.services.hostservices.entities.BrownieHostService;
+import com.tecknobit.browniecore.enums.JobStatus;
+import com.tecknobit.browniecore.enums.ServiceOperation;
+import com.tecknobit.equinoxcore.annotations.DTO;
+
+import static com.tecknobit.browniecore.ConstantsKt.*;
+import static com.tecknobit.browniecore.enums.JobStatus.*;
+import static com.tecknobit.equinoxcore.helpers.CommonKeysKt.IDENTIFIER_KEY;
+
+/**
+ * The {@code ServiceJob} class is used as {@link DTO} to share the progress of a lifecycle operation of a
+ * {@link BrownieHostService} executed asynchronously
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+@DTO
+public class ServiceJob {
+
+    /**
+     * {@code id} the identifier of the job
+     */
+    private final String id;
+
+    /**
+     * {@code sessionId} the identifier of the session owner of the service
+     */
+    private final String sessionId;
+
+    /**
+     * {@code hostId} the identifier of the host of the service
+     */
+    private final String hostId;
+
+    /**
+     * {@code serviceId} the identifier of the service
+     */
+    private final String serviceId;
+
+    /**
+     * {@code operation} the operation executed by the job
+     */
+    private final ServiceOperation operation;
+
+    /**
+     * {@code submissionDate} the date when the job has been submitted
+     */
+    private final long submissionDate;
+
+    /**
+     * {@code status} the current status of the job
+     */
+    private volatile JobStatus status;
+
+    /**
+     * {@code executionDate} the date when the job has started its execution, -1 if not started yet
+     */
+    private volatile long executionDate;
+
+    /**
+     * {@code completionDate} the date when the job has been terminated, -1 if not terminated yet
+     */
+    private volatile long completionDate;
+
+    /**
+     * {@code failureReason} the reason of the failure of the job, null if the job has not failed
+     */
+    private volatile String failureReason;
+
+    /**
+     * Constructor to instantiate the object
+     *
+     * @param id The identifier of the job
+     * @param sessionId The identifier of the session owner of the service
+     * @param hostId The identifier of the host of the service
+     * @param serviceId The identifier of the service
+     * @param operation The operation executed by the job
+     */
+    public ServiceJob(String id, String sessionId, String hostId, String serviceId, ServiceOperation operation) {
+        this.id = id;
+        this.sessionId = sessionId;
+        this.hostId = hostId;
+        this.serviceId = serviceId;
+        this.operation = operation;
+        this.submissionDate = System.currentTimeMillis();
+        this.status = PENDING;
+        this.executionDate = -1;
+        this.completionDate = -1;
+    }
+
+    /**
+     * Method to get the {@link #id} instance
+     *
+     * @return the {@link #id} instance as {@link String}
+     */
+    @JsonGetter(IDENTIFIER_KEY)
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Method to get the {@link #sessionId} instance
+     *
+     * @return the {@link #sessionId} instance as {@link String}
+     */
+    @JsonIgnore
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Method to get the {@link #hostId} instance
+     *
+     * @return the {@link #hostId} instance as {@link String}
+     */
+    @JsonGetter(HOST_IDENTIFIER_KEY)
+    public String getHostId() {
+        return hostId;
+    }
+
+    /**
+     * Method to get the {@link #serviceId} instance
+     *
+     * @return the {@link #serviceId} instance as {@link String}
+     */
+    @JsonGetter(SERVICE_IDENTIFIER_KEY)
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    /**
+     * Method to get the {@link #operation} instance
+     *
+     * @return the {@link #operation} instance as {@link ServiceOperation}
+     */
+    @JsonGetter(OPERATION_KEY)
+    public ServiceOperation getOperation() {
+        return operation;
+    }
+
+    /**
+     * Method to get the {@link #submissionDate} instance
+     *
+     * @return the {@link #submissionDate} instance as {@code long}
+     */
+    @JsonGetter(SUBMISSION_DATE_KEY)
+    public long getSubmissionDate() {
+        return submissionDate;
+    }
+
+    /**
+     * Method to get the {@link #status} instance
+     *
+     * @return the {@link #status} instance as {@link JobStatus}
+     */
+    @JsonGetter(JOB_STATUS_KEY)
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Method to get the {@link #executionDate} instance
+     *
+     * @return the {@link #executionDate} instance as {@code long}
+     */
+    @JsonGetter(EXECUTION_DATE_KEY)
+    public long getExecutionDate() {
+        return executionDate;
+    }
+
+    /**
+     * Method to get the {@link #completionDate} instance
+     *
+     * @return the {@link #completionDate} instance as {@code long}
+     */
+    @JsonGetter(COMPLETION_DATE_KEY)
+    public long getCompletionDate() {
+        return completionDate;
+    }
+
+    /**
+     * Method to get the {@link #failureReason} instance
+     *
+     * @return the {@link #failureReason} instance as {@link String}
+     */
+    @JsonGetter(FAILURE_REASON_KEY)
+    public String getFailureReason() {
+        return failureReason;
+    }
+
+    /**
+     * Method used to mark the job as {@link JobStatus#RUNNING}
+     */
+    public void markRunning() {
+        executionDate = System.currentTimeMillis();
+        status = RUNNING;
+    }
+
+    /**
+     * Method used to mark the job as {@link JobStatus#COMPLETED}
+     */
+    public void markCompleted() {
+        completionDate = System.currentTimeMillis();
+        status = COMPLETED;
+    }
+
+    /**
+     * Method used to mark the job as {@link JobStatus#FAILED}
+     *
+     * @param failureReason The reason of the failure
+     */
+    public void markFailed(String failureReason) {
+        this.failureReason = failureReason;
+        completionDate = System.currentTimeMillis();
+        status = FAILED;
+    }
+
+    /**
+     * Method used to check whether the job has been terminated before the specified date
+     *
+     * @param date The date to compare
+     *
+     * @return whether the job has been terminated before the specified date as {@code boolean}
+     */
+    public boolean isTerminatedBefore(long date) {
+        return status.isTerminated() && completionDate < date;
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.tecknobit.brownie.services.hostservices.dtos;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.tecknobit.brownie.helpers.metrics.MetricsSample;
+import com.tecknobit.brownie.helpers.metrics.MetricsTier;
+import com.tecknobit.brownie.services.hostservices.entities.BrownieHostService;
+import com.tecknobit.equinoxcore.annotations.DTO;
+
+import java.util.List;
+
+import static com.tecknobit.browniecore.ConstantsKt.*;
+
+/**
+ * The {@code ServiceMetricsSeries} class is used as {@link DTO} to share the historical series of the resources used
+ * by a {@link BrownieHostService}, the series are shared as parallel columns so they can be plotted directly by the
+ * charts
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+@DTO
+public class ServiceMetricsSeries {
+
+    /**
+     * {@code tier} the tier of the samples of the series
+     */
+    private final MetricsTier tier;
+
+    /**
+     * {@code timestamps} the timestamps of the samples
+     */
+    private final long[] timestamps;
+
+    /**
+     * {@code cpuUsage} the usage percents of the {@code CPU} of the host
+     */
+    private final double[] cpuUsage;
+
+    /**
+     * {@code memoryUsage} the resident set sizes, in megabytes, of the service
+     */
+    private final double[] memoryUsage;
+
+    /**
+     * {@code threads} the numbers of the threads of the service
+     */
+    private final double[] threads;
+
+    /**
+     * {@code openFileDescriptors} the numbers of the file descriptors opened by the service
+     */
+    private final double[] openFileDescriptors;
+
+    /**
+     * Constructor to instantiate the object
+     *
+     * @param tier The tier of the samples of the series
+     * @param samples The samples of the series
+     */
+    public ServiceMetricsSeries(MetricsTier tier, List<MetricsSample> samples) {
+        this.tier = tier;
+        int samplesCount = samples.size();
+        timestamps = new long[samplesCount];
+        cpuUsage = new double[samplesCount];
+        memoryUsage = new double[samplesCount];
+        threads = new double[samplesCount];
+        openFileDescriptors = new double[samplesCount];
+        for (int j = 0; j < samplesCount; j++) {
+            MetricsSample sample = samples.get(j);
+            timestamps[j] = sample.timestamp();
+            cpuUsage[j] = sample.values()[0];
+            memoryUsage[j] = sample.values()[1];
+            threads[j] = sample.values()[2];
+            openFileDescriptors[j] = sample.values()[3];
+        }
+    }
+
+    /**
+     * Method to get the {@link #tier} instance
+     *
+     * @return the {@link #tier} instance as {@link MetricsTier}
+     */
+    @JsonGetter(METRICS_TIER_KEY)
+    public MetricsTier getTier() {
+        return tier;
+    }
+
+    /**
+     * Method to get the {@link #timestamps} instance
+     *
+     * @return the {@link #timestamps} instance as array of {@code long}
+     */
+    @JsonGetter(TIMESTAMPS_KEY)
+    public long[] getTimestamps() {
+        return timestamps;
+    }
+
+    /**
+     * Method to get the {@link #cpuUsage} instance
+     *
+     * @return the {@link #cpuUsage} instance as array of {@code double}
+     */
+    @JsonGetter(CPU_USAGE_KEY)
+    public double[] getCpuUsage() {
+        return cpuUsage;
+    }
+
+    /**
+     * Method to get the {@link #memoryUsage} instance
+     *
+     * @return the {@link #memoryUsage} instance as array of {@code double}
+     */
+    @JsonGetter(MEMORY_USAGE_KEY)
+    public double[] getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    /**
+     * Method to get the {@link #threads} instance
+     *
+     * @return the {@link #threads} instance as array of {@code double}
+     */
+    @JsonGetter(THREADS_KEY)
+    public double[] getThreads() {
+        return threads;
+    }
+
+    /**
+     * Method to get the {@link #openFileDescriptors} instance
+     *
+     * @return the {@link #openFileDescriptors} instance as array of {@code double}
+     */
+    @JsonGetter(OPEN_FILE_DESCRIPTORS_KEY)
+    public double[] getOpenFileDescriptors() {
+        return openFileDescriptors;
+    }
+
+}
@@ -0,0 +1,161 @@
+package com.tecknobit.brownie.services.hostservices.dtos;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.tecknobit.brownie.services.hostservices.entities.BrownieHostService;
+import com.tecknobit.equinoxcore.annotations.DTO;
+
+import static com.tecknobit.browniecore.ConstantsKt.*;
+
+/**
+ * The {@code ServiceResources} class is used as {@link DTO} to share the resources used by a running
+ * {@link BrownieHostService} as retrieved by the latest probe of its host
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+@DTO
+public class ServiceResources {
+
+    /**
+     * {@code pid} the pid of the service
+     */
+    private final long pid;
+
+    /**
+     * {@code cpuUsage} the usage percent of the {@code CPU} of the host since the previous probe
+     */
+    private final double cpuUsage;
+
+    /**
+     * {@code cpuTime} the total {@code CPU} time, in milliseconds, consumed by the service
+     */
+    private final long cpuTime;
+
+    /**
+     * {@code memoryUsage} the resident set size, in bytes, of the service
+     */
+    private final long memoryUsage;
+
+    /**
+     * {@code threads} the number of the threads of the service
+     */
+    private final int threads;
+
+    /**
+     * {@code openFileDescriptors} the number of the file descriptors opened by the service
+     */
+    private final int openFileDescriptors;
+
+    /**
+     * {@code startTime} the date when the process of the service has been started
+     */
+    private final long startTime;
+
+    /**
+     * {@code sampleDate} the date when the resources have been retrieved
+     */
+    private final long sampleDate;
+
+    /**
+     * Constructor to instantiate the object
+     *
+     * @param pid The pid of the service
+     * @param cpuUsage The usage percent of the {@code CPU} of the host since the previous probe
+     * @param cpuTime The total {@code CPU} time, in milliseconds, consumed by the service
+     * @param memoryUsage The resident set size, in bytes, of the service
+     * @param threads The number of the threads of the service
+     * @param openFileDescriptors The number of the file descriptors opened by the service
+     * @param startTime The date when the process of the service has been started
+     * @param sampleDate The date when the resources have been retrieved
+     */
+    public ServiceResources(long pid, double cpuUsage, long cpuTime, long memoryUsage, int threads,
+                            int openFileDescriptors, long startTime, long sampleDate) {
+        this.pid = pid;
+        this.cpuUsage = cpuUsage;
+        this.cpuTime = cpuTime;
+        this.memoryUsage = memoryUsage;
+        this.threads = threads;
+        this.openFileDescriptors = openFileDescriptors;
+        this.startTime = startTime;
+        this.sampleDate = sampleDate;
+    }
+
+    /**
+     * Method to get the {@link #pid} instance
+     *
+     * @return the {@link #pid} instance as {@code long}
+     */
+    public long getPid() {
+        return pid;
+    }
+
+    /**
+     * Method to get the {@link #cpuUsage} instance
+     *
+     * @return the {@link #cpuUsage} instance as {@code double}
+     */
+    @JsonGetter(CPU_USAGE_KEY)
+    public double getCpuUsage() {
+        return cpuUsage;
+    }
+
+    /**
+     * Method to get the {@link #cpuTime} instance
+     *
+     * @return the {@link #cpuTime} instance as {@code long}
+     */
+    @JsonGetter(CPU_TIME_KEY)
+    public long getCpuTime() {
+        return cpuTime;
+    }
+
+    /**
+     * Method to get the {@link #memoryUsage} instance
+     *
+     * @return the {@link #memoryUsage} instance as {@code long}
+     */
+    @JsonGetter(MEMORY_USAGE_KEY)
+    public long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    /**
+     * Method to get the {@link #threads} instance
+     *
+     * @return the {@link #threads} instance as {@code int}
+     */
+    @JsonGetter(THREADS_KEY)
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Method to get the {@link #openFileDescriptors} instance
+     *
+     * @return the {@link #openFileDescriptors} instance as {@code int}
+     */
+    @JsonGetter(OPEN_FILE_DESCRIPTORS_KEY)
+    public int getOpenFileDescriptors() {
+        return openFileDescriptors;
+    }
+
+    /**
+     * Method to get the {@link #startTime} instance
+     *
+     * @return the {@link #startTime} instance as {@code long}
+     */
+    @JsonGetter(START_TIME_KEY)
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Method to get the {@link #sampleDate} instance
+     *
+     * @return the {@link #sampleDate} instance as {@code long}
+     */
+    @JsonGetter(SAMPLE_DATE_KEY)
+    public long getSampleDate() {
+        return sampleDate;
+    }
+
+}
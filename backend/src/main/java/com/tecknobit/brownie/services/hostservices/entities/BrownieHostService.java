@@ -3,6 +3,7 @@ package com.tecknobit.brownie.services.hostservices.entities;
 import com.fasterxml.jackson.annotation.JsonGetter;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.tecknobit.brownie.services.hostservices.dtos.ServiceResources;
 import com.tecknobit.brownie.services.hosts.entities.BrownieHost;
 import com.tecknobit.browniecore.enums.ServiceStatus;
 import com.tecknobit.equinoxbackend.annotations.EmptyConstructor;
@@ -58,6 +59,18 @@ public class BrownieHostService extends EquinoxItem {
     )
     private final long pid;
 
+    /**
+     * {@code processStartTicks} the start time, in clock ticks since the boot of the host, of the process of the
+     * service, used to detect whether its pid has been reused by another process. It is pinned by the first probe
+     * which finds the service running and it is {@code -1} until then
+     */
+    @Column(
+            name = PROCESS_START_TICKS_KEY,
+            columnDefinition = "BIGINT DEFAULT -1",
+            insertable = false
+    )
+    private final long processStartTicks;
+
     /**
      * {@code insertionDate} the date when the service has been inserted
      */
@@ -84,6 +97,20 @@ public class BrownieHostService extends EquinoxItem {
     @OrderBy(EVENT_DATE_KEY + " DESC")
     private final List<ServiceEvent> events;
 
+    /**
+     * {@code latestEvents} the latest events related to the lifecycle of the service embedded in its payload, the complete
+     * history is retrieved with the dedicated paginated endpoint
+     */
+    @Transient
+    private List<ServiceEvent> latestEvents;
+
+    /**
+     * {@code resources} the resources used by the service as retrieved by the latest probe of its host, {@code null}
+     * when the service is not running or has not been probed yet
+     */
+    @Transient
+    private ServiceResources resources;
+
     /**
      * {@code host} the host owner of the service
      */
@@ -99,7 +126,7 @@ public class BrownieHostService extends EquinoxItem {
      */
     @EmptyConstructor
     public BrownieHostService() {
-        this(null, null, null, null, -1, 0, null, List.of());
+        this(null, null, null, null, -1, -1, 0, null, List.of());
     }
 
     /**
@@ -110,17 +137,21 @@ public class BrownieHostService extends EquinoxItem {
      * @param name          The name of the service
      * @param servicePath   The path of the service inside the filesystem of the host
      * @param pid           The pid of the service
+     * @param processStartTicks The start time, in clock ticks since the boot of the host, of the process of the
+     *                          service
      * @param insertionDate The date when the service has been inserted
      * @param configuration The configuration of the service
      * @param events        The events related to service lifecycle
      */
     public BrownieHostService(String id, ServiceStatus status, String name, String servicePath, long pid,
-                              long insertionDate, ServiceConfiguration configuration, List<ServiceEvent> events) {
+                              long processStartTicks, long insertionDate, ServiceConfiguration configuration,
+                              List<ServiceEvent> events) {
         super(id);
         this.status = status;
         this.name = name;
         this.servicePath = servicePath;
         this.pid = pid;
+        this.processStartTicks = processStartTicks;
         this.insertionDate = insertionDate;
         this.configuration = configuration;
         this.events = events;
@@ -163,6 +194,26 @@ public class BrownieHostService extends EquinoxItem {
         return pid;
     }
 
+    /**
+     * Method to get the {@link #processStartTicks} instance
+     *
+     * @return the {@link #processStartTicks} instance as {@code long}
+     */
+    @JsonIgnore
+    public long getProcessStartTicks() {
+        return processStartTicks;
+    }
+
+    /**
+     * Method used to check whether the start time of the process of the service has been already pinned
+     *
+     * @return whether the start time of the process of the service has been already pinned as {@code boolean}
+     */
+    @JsonIgnore
+    public boolean isProcessStartPinned() {
+        return processStartTicks >= 0;
+    }
+
     /**
      * Method to get the {@link #insertionDate} instance
      *
@@ -187,11 +238,51 @@ public class BrownieHostService extends EquinoxItem {
      *
      * @return the {@link #events} instance as {@link List} of {@link ServiceEvent}
      */
-    @JsonGetter(SERVICE_EVENTS_KEY)
+    @JsonIgnore
     public List<ServiceEvent> getEvents() {
         return events;
     }
 
+    /**
+     * Method to get the {@link #latestEvents} instance
+     *
+     * @return the {@link #latestEvents} instance as {@link List} of {@link ServiceEvent}
+     */
+    @JsonGetter(SERVICE_EVENTS_KEY)
+    public List<ServiceEvent> getLatestEvents() {
+        if (latestEvents == null)
+            return List.of();
+        return latestEvents;
+    }
+
+    /**
+     * Method to set the {@link #latestEvents} instance
+     *
+     * @param latestEvents The latest events related to the lifecycle of the service
+     */
+    public void setLatestEvents(List<ServiceEvent> latestEvents) {
+        this.latestEvents = latestEvents;
+    }
+
+    /**
+     * Method to get the {@link #resources} instance
+     *
+     * @return the {@link #resources} instance as {@link ServiceResources}
+     */
+    @JsonGetter(RESOURCES_KEY)
+    public ServiceResources getResources() {
+        return resources;
+    }
+
+    /**
+     * Method to set the {@link #resources} instance
+     *
+     * @param resources The resources used by the service as retrieved by the latest probe of its host
+     */
+    public void setResources(ServiceResources resources) {
+        this.resources = resources;
+    }
+
     /**
      * Method to check whether the host is currently {@link ServiceStatus#STOPPED}
      *
@@ -10,7 +10,7 @@ import jakarta.persistence.*;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
-import static com.tecknobit.browniecore.ConstantsKt.SERVICE_EVENTS_KEY;
+import static com.tecknobit.browniecore.ConstantsKt.*;
 
 /**
  * The {@code ServiceEvent} class is useful to represent an event related to a {@link HostsService}
@@ -20,7 +20,13 @@ import static com.tecknobit.browniecore.ConstantsKt.SERVICE_EVENTS_KEY;
  * @see BrownieEvent
  */
 @Entity
-@Table(name = SERVICE_EVENTS_KEY)
+@Table(
+        name = SERVICE_EVENTS_KEY,
+        indexes = {
+                @Index(name = "service_events_up_idx", columnList = SERVICE_IDENTIFIER_KEY + "," + TYPE_KEY + "," + EVENT_DATE_KEY),
+                @Index(name = "service_events_date_idx", columnList = SERVICE_IDENTIFIER_KEY + "," + EVENT_DATE_KEY)
+        }
+)
 public class ServiceEvent extends BrownieEvent {
 
     /**
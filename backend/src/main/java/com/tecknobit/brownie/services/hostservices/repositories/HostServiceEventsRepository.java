@@ -10,6 +10,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import static com.tecknobit.browniecore.ConstantsKt.*;
 import static com.tecknobit.equinoxbackend.environment.services.builtin.service.EquinoxItemsHelper._WHERE_;
 import static com.tecknobit.equinoxcore.helpers.CommonKeysKt.IDENTIFIER_KEY;
@@ -42,6 +45,24 @@ public interface HostServiceEventsRepository extends BrownieEventsRepository<Ser
             @Param(SERVICE_IDENTIFIER_KEY) String serviceId
     );
 
+    /**
+     * Query used to get the last {@link ServiceStatus#RUNNING} event of more services at once
+     *
+     * @param serviceIds The identifiers of the services
+     * @return the pairs made up of the identifier of the owner and the timestamp of its last {@link ServiceStatus#RUNNING} event
+     * as {@link List} of array of {@link Object}
+     */
+    @Query(
+            value = "SELECT " + SERVICE_IDENTIFIER_KEY + ", MAX(" + EVENT_DATE_KEY + ") FROM " + SERVICE_EVENTS_KEY +
+                    _WHERE_ + TYPE_KEY + " IN ('RUNNING', 'RESTARTED') AND " +
+                    SERVICE_IDENTIFIER_KEY + " IN (:" + SERVICES_KEY + ") GROUP BY " + SERVICE_IDENTIFIER_KEY,
+            nativeQuery = true
+    )
+    @Override
+    List<Object[]> getLastUpEvents(
+            @Param(SERVICES_KEY) Collection<String> serviceIds
+    );
+
     /**
      * Query used to register a new event
      *
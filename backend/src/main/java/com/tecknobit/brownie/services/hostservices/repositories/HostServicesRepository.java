@@ -11,6 +11,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import static com.tecknobit.browniecore.ConstantsKt.*;
@@ -168,7 +169,8 @@ public interface HostServicesRepository extends JpaRepository<BrownieHostService
     @Query(
             value = "UPDATE " + SERVICES_KEY + " SET " +
                     STATUS_KEY + "=:" + STATUS_KEY + "," +
-                    PID_KEY + "=:" + PID_KEY +
+                    PID_KEY + "=:" + PID_KEY + "," +
+                    PROCESS_START_TICKS_KEY + "=-1" +
                     _WHERE_ + IDENTIFIER_KEY + "=:" + IDENTIFIER_KEY,
             nativeQuery = true
     )
@@ -179,24 +181,89 @@ public interface HostServicesRepository extends JpaRepository<BrownieHostService
     );
 
     /**
-     * Query used to mark a service as {@link ServiceStatus#STOPPED}
+     * Query used to update the status and the pid of more services at once
      *
-     * @param hostId The identifier of the host owner of the service
-     * @param pid    The pid of the service to mark
+     * @param services The identifiers of the services
+     * @param status The status to set
+     * @param pid The pid to set
      */
     @Transactional
     @Modifying(clearAutomatically = true)
     @Query(
             value = "UPDATE " + SERVICES_KEY + " SET " +
-                    STATUS_KEY + "='STOPPED'," +
-                    PID_KEY + "='-1'" +
+                    STATUS_KEY + "=:" + STATUS_KEY + "," +
+                    PID_KEY + "=:" + PID_KEY + "," +
+                    PROCESS_START_TICKS_KEY + "=-1" +
+                    _WHERE_ + IDENTIFIER_KEY + " IN (:" + SERVICES_KEY + ")",
+            nativeQuery = true
+    )
+    void updateServicesStatus(
+            @Param(SERVICES_KEY) Collection<String> services,
+            @Param(STATUS_KEY) String status,
+            @Param(PID_KEY) long pid
+    );
+
+    /**
+     * Query used to pin the start time of the process of a service, the start time is pinned only if the service is
+     * still running with the same pid and it has not been pinned yet
+     *
+     * @param serviceId The identifier of the service
+     * @param pid The pid of the process of the service
+     * @param startTicks The start time, in clock ticks since the boot of the host, of the process
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(
+            value = "UPDATE " + SERVICES_KEY + " SET " +
+                    PROCESS_START_TICKS_KEY + "=:" + PROCESS_START_TICKS_KEY +
+                    _WHERE_ + IDENTIFIER_KEY + "=:" + IDENTIFIER_KEY +
+                    " AND " + PID_KEY + "=:" + PID_KEY +
+                    " AND " + PROCESS_START_TICKS_KEY + "=-1",
+            nativeQuery = true
+    )
+    void pinProcessStartTicks(
+            @Param(IDENTIFIER_KEY) String serviceId,
+            @Param(PID_KEY) long pid,
+            @Param(PROCESS_START_TICKS_KEY) long startTicks
+    );
+
+    /**
+     * Query used to lock the services of a host which are currently stored with one of the specified pids, the rows
+     * stay locked until the end of the current transaction so their pids cannot change in the meanwhile
+     *
+     * @param hostId The identifier of the host owner of the services
+     * @param pids   The pids of the services to lock
+     *
+     * @return the identifiers of the locked services as {@link List} of {@link String}
+     */
+    @Query(
+            value = "SELECT " + IDENTIFIER_KEY + " FROM " + SERVICES_KEY +
                     _WHERE_ + HOST_IDENTIFIER_KEY + "=:" + HOST_IDENTIFIER_KEY +
-                    " AND " + PID_KEY + "=:" + PID_KEY,
+                    " AND " + PID_KEY + " IN (:" + PID_KEY + ") FOR UPDATE",
             nativeQuery = true
     )
-    void markServiceAsStopped(
+    List<String> lockServicesByPids(
             @Param(HOST_IDENTIFIER_KEY) String hostId,
-            @Param(PID_KEY) long pid
+            @Param(PID_KEY) Collection<Long> pids
+    );
+
+    /**
+     * Query used to mark more services as {@link ServiceStatus#STOPPED} at once
+     *
+     * @param services The identifiers of the services to mark
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(
+            value = "UPDATE " + SERVICES_KEY + " SET " +
+                    STATUS_KEY + "='STOPPED'," +
+                    PID_KEY + "='-1'," +
+                    PROCESS_START_TICKS_KEY + "=-1" +
+                    _WHERE_ + IDENTIFIER_KEY + " IN (:" + SERVICES_KEY + ")",
+            nativeQuery = true
+    )
+    void markServicesAsStopped(
+            @Param(SERVICES_KEY) Collection<String> services
     );
 
     /**
@@ -0,0 +1,113 @@
+package com.tecknobit.brownie.services.hostservices.repositories;
+
+import com.tecknobit.brownie.services.hostservices.entities.ServiceMetricsChunk;
+import com.tecknobit.brownie.services.shared.repositories.BrownieMetricsRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+import static com.tecknobit.browniecore.ConstantsKt.*;
+import static com.tecknobit.equinoxbackend.environment.services.builtin.service.EquinoxItemsHelper._WHERE_;
+import static com.tecknobit.equinoxcore.helpers.CommonKeysKt.IDENTIFIER_KEY;
+
+/**
+ * The {@code ServiceMetricsRepository} interface is useful to manage the queries of the {@link ServiceMetricsChunk}
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see JpaRepository
+ * @see BrownieMetricsRepository
+ */
+@Repository
+public interface ServiceMetricsRepository extends BrownieMetricsRepository<ServiceMetricsChunk> {
+
+    /**
+     * Query used to store a sealed chunk of samples
+     *
+     * @param chunkId The identifier of the chunk
+     * @param tier The tier of the samples of the chunk
+     * @param chunkStart The start of the time span covered by the chunk
+     * @param chunkEnd The timestamp of the last sample of the chunk
+     * @param samples The encoded samples of the chunk
+     * @param serviceId The identifier of the service owner of the chunk
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(
+            value = "INSERT INTO " + SERVICE_METRICS_CHUNKS_KEY + " (" +
+                    IDENTIFIER_KEY + "," +
+                    METRICS_TIER_KEY + "," +
+                    CHUNK_START_KEY + "," +
+                    CHUNK_END_KEY + "," +
+                    SAMPLES_KEY + "," +
+                    SERVICE_IDENTIFIER_KEY + ") VALUES (" +
+                    ":" + IDENTIFIER_KEY + "," +
+                    ":" + METRICS_TIER_KEY + "," +
+                    ":" + CHUNK_START_KEY + "," +
+                    ":" + CHUNK_END_KEY + "," +
+                    ":" + SAMPLES_KEY + "," +
+                    ":" + SERVICE_IDENTIFIER_KEY + ")",
+            nativeQuery = true
+    )
+    @Override
+    void storeChunk(
+            @Param(IDENTIFIER_KEY) String chunkId,
+            @Param(METRICS_TIER_KEY) String tier,
+            @Param(CHUNK_START_KEY) long chunkStart,
+            @Param(CHUNK_END_KEY) long chunkEnd,
+            @Param(SAMPLES_KEY) byte[] samples,
+            @Param(SERVICE_IDENTIFIER_KEY) String serviceId
+    );
+
+    /**
+     * Query used to get the sealed chunks of a tier which overlap the specified range
+     *
+     * @param serviceId The identifier of the service
+     * @param tier The tier of the chunks
+     * @param fromDate The start of the range
+     * @param toDate The end of the range
+     *
+     * @return the chunks ordered by their start as {@link List} of {@link ServiceMetricsChunk}
+     */
+    @Query(
+            value = "SELECT * FROM " + SERVICE_METRICS_CHUNKS_KEY + _WHERE_ +
+                    SERVICE_IDENTIFIER_KEY + "=:" + SERVICE_IDENTIFIER_KEY +
+                    " AND " + METRICS_TIER_KEY + "=:" + METRICS_TIER_KEY +
+                    " AND " + CHUNK_START_KEY + "<=:" + TO_DATE_KEY +
+                    " AND " + CHUNK_END_KEY + ">=:" + FROM_DATE_KEY +
+                    " ORDER BY " + CHUNK_START_KEY,
+            nativeQuery = true
+    )
+    @Override
+    List<ServiceMetricsChunk> getChunks(
+            @Param(SERVICE_IDENTIFIER_KEY) String serviceId,
+            @Param(METRICS_TIER_KEY) String tier,
+            @Param(FROM_DATE_KEY) long fromDate,
+            @Param(TO_DATE_KEY) long toDate
+    );
+
+    /**
+     * Query used to delete the chunks of a tier whose samples are all older than the retention date
+     *
+     * @param tier The tier of the chunks
+     * @param retentionDate The date before which the samples are expired
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(
+            value = "DELETE FROM " + SERVICE_METRICS_CHUNKS_KEY + _WHERE_ +
+                    METRICS_TIER_KEY + "=:" + METRICS_TIER_KEY +
+                    " AND " + CHUNK_END_KEY + "<:" + TO_DATE_KEY,
+            nativeQuery = true
+    )
+    @Override
+    void deleteExpiredChunks(
+            @Param(METRICS_TIER_KEY) String tier,
+            @Param(TO_DATE_KEY) long retentionDate
+    );
+
+}
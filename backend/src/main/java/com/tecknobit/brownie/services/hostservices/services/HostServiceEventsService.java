@@ -2,6 +2,10 @@ package com.tecknobit.brownie.services.hostservices.services;
 
 import com.tecknobit.brownie.services.hostservices.entities.ServiceEvent;
 import com.tecknobit.brownie.services.hostservices.repositories.HostServiceEventsRepository;
+import com.tecknobit.brownie.services.shared.dtos.BrownieEventEntry;
+import com.tecknobit.brownie.services.shared.repositories.BrownieEventsBatchRepository;
+import com.tecknobit.brownie.services.shared.repositories.BrownieEventsHistoryRepository;
+import com.tecknobit.brownie.services.shared.repositories.EventsDailyAggregatesRepository;
 import com.tecknobit.brownie.services.shared.services.BrownieEventsRecorder;
 import com.tecknobit.browniecore.ConstantsKt;
 import com.tecknobit.browniecore.enums.ServiceEventType;
@@ -9,6 +13,10 @@ import com.tecknobit.equinoxcore.annotations.Wrapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+
+import static com.tecknobit.browniecore.ConstantsKt.SERVICE_EVENTS_KEY;
+import static com.tecknobit.browniecore.ConstantsKt.SERVICE_IDENTIFIER_KEY;
 import static com.tecknobit.browniecore.enums.ServiceEventType.*;
 
 /**
@@ -25,10 +33,49 @@ public class HostServiceEventsService extends BrownieEventsRecorder<ServiceEvent
      * Constructor to instantiate the service
      *
      * @param eventsRepository The instance used to register the events in the {@link ConstantsKt#SERVICE_EVENTS_KEY} table
+     * @param batchRepository The instance used to register more events with a single statement
+     * @param historyRepository The instance used to read the history of the events
+     * @param aggregatesRepository The instance used to read the daily aggregates of the compacted events
      */
     @Autowired
-    public HostServiceEventsService(HostServiceEventsRepository eventsRepository) {
-        super(eventsRepository);
+    public HostServiceEventsService(HostServiceEventsRepository eventsRepository,
+                                    BrownieEventsBatchRepository batchRepository,
+                                    BrownieEventsHistoryRepository historyRepository,
+                                    EventsDailyAggregatesRepository aggregatesRepository) {
+        super(eventsRepository, batchRepository, historyRepository, aggregatesRepository, SERVICE_EVENTS_KEY,
+                SERVICE_IDENTIFIER_KEY);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isUpEvent(ServiceEventType type) {
+        return type == RUNNING || type == RESTARTED;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isDownEvent(ServiceEventType type) {
+        return type == STOPPED || type == REBOOTING;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected ServiceEventType getEventType(String type) {
+        return ServiceEventType.valueOf(type);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected ServiceEvent buildEvent(BrownieEventEntry event) {
+        return new ServiceEvent(event.eventId(), event.eventDate(), event.extra(), getEventType(event.type()));
     }
 
     /**
@@ -52,6 +99,16 @@ public class HostServiceEventsService extends BrownieEventsRecorder<ServiceEvent
         registerEvent(STOPPED, serviceId, calculateUpDays(serviceId));
     }
 
+    /**
+     * Method used to register the {@link ServiceEventType#STOPPED} event for more services at once
+     *
+     * @param serviceIds The identifiers of the services
+     */
+    @Wrapper
+    public void registerServicesStopped(Collection<String> serviceIds) {
+        registerEvents(STOPPED, calculateUpDays(serviceIds));
+    }
+
     /**
      * Method used to register the {@link ServiceEventType#REBOOTING} event
      *
@@ -62,6 +119,16 @@ public class HostServiceEventsService extends BrownieEventsRecorder<ServiceEvent
         registerEvent(REBOOTING, serviceId, calculateUpDays(serviceId));
     }
 
+    /**
+     * Method used to register the {@link ServiceEventType#REBOOTING} event for more services at once
+     *
+     * @param serviceIds The identifiers of the services
+     */
+    @Wrapper
+    public void registerServicesRebooted(Collection<String> serviceIds) {
+        registerEvents(REBOOTING, calculateUpDays(serviceIds));
+    }
+
     /**
      * Method used to register the {@link ServiceEventType#RESTARTED} event
      *
@@ -3,12 +3,24 @@ package com.tecknobit.brownie.services.hostservices.services;
 import com.jcraft.jsch.JSchException;
 import com.tecknobit.brownie.events.BrownieApplicationEvent;
 import com.tecknobit.brownie.events.BrownieEventsCollector;
+import com.tecknobit.brownie.helpers.metrics.MetricsTier;
+import com.tecknobit.brownie.helpers.monitor.HostsMonitorEngine;
 import com.tecknobit.brownie.helpers.shell.ShellCommandsExecutor;
 import com.tecknobit.brownie.services.hosts.entities.BrownieHost;
 import com.tecknobit.brownie.services.hosts.services.HostEventsService;
+import com.tecknobit.brownie.services.hosts.services.HostMetricsService;
 import com.tecknobit.brownie.services.hostservices.dtos.CurrentServiceStatus;
+import com.tecknobit.brownie.services.hostservices.dtos.ServiceMetricsSeries;
 import com.tecknobit.brownie.services.hostservices.entities.BrownieHostService;
+import com.tecknobit.brownie.services.hostservices.entities.ServiceEvent;
 import com.tecknobit.brownie.services.hostservices.repositories.HostServicesRepository;
+import com.tecknobit.brownie.services.session.service.SessionStatusStreamBroker;
+import com.tecknobit.brownie.services.session.service.SessionsAuthorizationCache;
+import com.tecknobit.brownie.services.shared.dtos.BrownieEventsPage;
+import com.tecknobit.brownie.services.shared.entities.EventsDailyAggregate;
+import com.tecknobit.brownie.services.shared.dtos.StatusChanges;
+import com.tecknobit.brownie.services.shared.services.BrownieStatusRegistry;
+import com.tecknobit.browniecore.enums.ServiceOperation;
 import com.tecknobit.browniecore.enums.ServiceStatus;
 import com.tecknobit.equinoxbackend.events.EquinoxEventsCollector;
 import com.tecknobit.equinoxcore.annotations.CustomParametersOrder;
@@ -18,14 +30,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 import static com.tecknobit.brownie.events.BrownieApplicationEventType.SYNC_SERVICES;
 import static com.tecknobit.browniecore.ConstantsKt.HOST_KEY;
 import static com.tecknobit.browniecore.ConstantsKt.SERVICES_KEY;
+import static com.tecknobit.browniecore.enums.ServiceOperation.*;
 import static com.tecknobit.browniecore.enums.ServiceStatus.*;
 import static com.tecknobit.equinoxbackend.configuration.IndexesCreator.formatFullTextKeywords;
 import static com.tecknobit.equinoxbackend.environment.services.builtin.controller.EquinoxController.generateIdentifier;
@@ -41,6 +51,18 @@ import static com.tecknobit.equinoxbackend.environment.services.builtin.controll
 @Service
 public class HostServicesService implements BrownieEventsCollector {
 
+    /**
+     * {@code SERVICE_NOT_STOPPED} the reason of the failure of a service which has not been stopped because its process
+     * was not running anymore
+     */
+    private static final String SERVICE_NOT_STOPPED = "The process of the service is not running anymore";
+
+    /**
+     * {@code SERVICE_NOT_STARTED} the reason of the failure of a service whose process has not been started by the
+     * starter script
+     */
+    private static final String SERVICE_NOT_STARTED = "The process of the service has not been started";
+
     /**
      * {@code eventsRepository} instance used to access to the {@link SERVICES_KEY} table
      */
@@ -61,6 +83,32 @@ public class HostServicesService implements BrownieEventsCollector {
      */
     private final HostServiceEventsService serviceEvents;
 
+    /**
+     * {@code monitorEngine} the engine used to perform the monitor-and-sync routine
+     */
+    private final HostsMonitorEngine monitorEngine;
+
+    /**
+     * {@code authorizationCache} the cache used to authorize the hosts and the services of the sessions
+     */
+    private final SessionsAuthorizationCache authorizationCache;
+
+    /**
+     * {@code statusStreamBroker} the broker used to push the changes of the statuses of the services to the clients
+     */
+    private final SessionStatusStreamBroker statusStreamBroker;
+
+    /**
+     * {@code statusRegistry} the registry used to store the statuses of the services
+     */
+    private final BrownieStatusRegistry statusRegistry;
+
+    /**
+     * {@code metricsService} the support service used to store the historical series of the resources used by the
+     * services
+     */
+    private final HostMetricsService metricsService;
+
     /**
      * Constructor used to init the service
      *
@@ -68,14 +116,28 @@ public class HostServicesService implements BrownieEventsCollector {
      * @param hostEventsService     The support service used to manage the host events data
      * @param configurationsService The support service used to manage the service configurations data
      * @param serviceEvents         The support service used to manage the service events data
+     * @param monitorEngine         The engine used to perform the monitor-and-sync routine
+     * @param authorizationCache    The cache used to authorize the hosts and the services of the sessions
+     * @param statusStreamBroker    The broker used to push the changes of the statuses of the services to the clients
+     * @param statusRegistry        The registry used to store the statuses of the services
+     * @param metricsService        The support service used to store the historical series of the resources used by
+     *                              the services
      */
     @Autowired
     public HostServicesService(HostServicesRepository servicesRepository, HostEventsService hostEventsService,
-                               ServicesConfigurationsService configurationsService, HostServiceEventsService serviceEvents) {
+                               ServicesConfigurationsService configurationsService, HostServiceEventsService serviceEvents,
+                               HostsMonitorEngine monitorEngine, SessionsAuthorizationCache authorizationCache,
+                               SessionStatusStreamBroker statusStreamBroker, BrownieStatusRegistry statusRegistry,
+                               HostMetricsService metricsService) {
         this.servicesRepository = servicesRepository;
         this.hostEventsService = hostEventsService;
         this.configurationsService = configurationsService;
         this.serviceEvents = serviceEvents;
+        this.monitorEngine = monitorEngine;
+        this.authorizationCache = authorizationCache;
+        this.statusStreamBroker = statusStreamBroker;
+        this.statusRegistry = statusRegistry;
+        this.metricsService = metricsService;
     }
 
     /**
@@ -97,6 +159,7 @@ public class HostServicesService implements BrownieEventsCollector {
                 servicePath);
         configurationsService.storeConfiguration(serviceId, programArguments, purgeNohupOutAfterReboot, autoRunAfterHostReboot);
         hostEventsService.registerServiceAddedEvent(hostId, serviceName);
+        authorizationCache.invalidateHost(hostId);
     }
 
     /**
@@ -134,9 +197,83 @@ public class HostServicesService implements BrownieEventsCollector {
         long totalServices = servicesRepository.countServices(hostId, fullTextKeywords, statuses);
         List<BrownieHostService> services = servicesRepository.getServices(hostId, fullTextKeywords, statuses,
                 PageRequest.of(page, pageSize));
+        loadLatestEvents(services);
+        loadResources(services);
         return new PaginatedResponse<>(services, page, pageSize, totalServices);
     }
 
+    /**
+     * Method used to load the latest events of the services to embed in their payloads
+     *
+     * @param services The services whose latest events have to be loaded
+     */
+    public void loadLatestEvents(Collection<BrownieHostService> services) {
+        List<String> serviceIds = new ArrayList<>(services.size());
+        for (BrownieHostService service : services)
+            serviceIds.add(service.getId());
+        Map<String, List<ServiceEvent>> latestEvents = serviceEvents.getLatestEvents(serviceIds);
+        for (BrownieHostService service : services)
+            service.setLatestEvents(latestEvents.getOrDefault(service.getId(), List.of()));
+    }
+
+    /**
+     * Method used to load the resources used by the services, as retrieved by the latest probe of their host, to
+     * embed in their payloads
+     *
+     * @param services The services whose resources have to be loaded
+     */
+    public void loadResources(Collection<BrownieHostService> services) {
+        for (BrownieHostService service : services)
+            service.setResources(metricsService.getLatestResources(service.getId()));
+    }
+
+    /**
+     * Method used to get the historical series of the resources used by a service
+     *
+     * @param serviceId The identifier of the service
+     * @param tier The tier of the samples to retrieve, {@code null} to use the finest tier which still keeps the
+     * samples since the {@code fromDate}
+     * @param fromDate The start of the range
+     * @param toDate The end of the range
+     *
+     * @return the series of the resources as {@link ServiceMetricsSeries}
+     */
+    public ServiceMetricsSeries getMetricsSeries(String serviceId, MetricsTier tier, long fromDate, long toDate) {
+        return metricsService.getServiceMetricsSeries(serviceId, tier, fromDate, toDate);
+    }
+
+    /**
+     * Method used to get a page of the history of the events of a service
+     *
+     * @param serviceId The identifier of the service
+     * @param cursor The cursor received with the previous page, null to get the first page
+     * @param pageSize The max number of events to retrieve
+     * @param types The types of the events to retrieve, if empty all the types are retrieved
+     * @param fromDate The date from which retrieve the events, can be null
+     * @param toDate The date until which retrieve the events, can be null
+     *
+     * @return the page of the events as {@link BrownieEventsPage} of {@link ServiceEvent}
+     */
+    @Wrapper
+    public BrownieEventsPage<ServiceEvent> getEventsPage(String serviceId, String cursor, int pageSize,
+                                                         List<String> types, Long fromDate, Long toDate) {
+        return serviceEvents.getEventsPage(serviceId, cursor, pageSize, types, fromDate, toDate);
+    }
+
+    /**
+     * Method used to get the daily aggregates of the events of a service compacted by the retention routine
+     *
+     * @param serviceId The identifier of the service
+     * @param fromDate The date from which retrieve the aggregates, can be null
+     * @param toDate The date until which retrieve the aggregates, can be null
+     *
+     * @return the daily aggregates as {@link List} of {@link EventsDailyAggregate}
+     */
+    @Wrapper
+    public List<EventsDailyAggregate> getEventsAggregates(String serviceId, Long fromDate, Long toDate) {
+        return serviceEvents.getDailyAggregates(serviceId, fromDate, toDate);
+    }
+
     /**
      * Method used to get the current status of the specified services
      *
@@ -146,7 +283,19 @@ public class HostServicesService implements BrownieEventsCollector {
     public List<CurrentServiceStatus> getServicesStatus(List<String> services) {
         if (services.isEmpty())
             return Collections.EMPTY_LIST;
-        return servicesRepository.getServicesStatus(services);
+        return statusRegistry.getServicesStatus(services);
+    }
+
+    /**
+     * Method used to get the statuses of the specified services changed after a version
+     *
+     * @param services The services used to retrieve the changed statuses
+     * @param version The version after which retrieve the changes
+     * @return the changed statuses as {@link StatusChanges} of {@link CurrentServiceStatus}
+     */
+    @Wrapper
+    public StatusChanges<CurrentServiceStatus> getServicesStatusChanges(List<String> services, long version) {
+        return statusRegistry.getServicesStatusChanges(services, version);
     }
 
     /**
@@ -172,13 +321,80 @@ public class HostServicesService implements BrownieEventsCollector {
      * @throws Exception when an exception occurred during the process
      */
     public void startService(BrownieHost host, BrownieHostService service, boolean hostRebooted) throws Exception {
-        ShellCommandsExecutor commandsExecutor = ShellCommandsExecutor.getInstance(host);
-        long pid = commandsExecutor.startService(service);
+        long pid;
+        try (ShellCommandsExecutor commandsExecutor = ShellCommandsExecutor.getInstance(host)) {
+            pid = commandsExecutor.startService(service);
+        }
         if (pid == -1)
             throw new JSchException();
-        String serviceId = service.getId();
-        servicesRepository.updateServiceStatus(serviceId, RUNNING.name(), pid);
-        if (hostRebooted)
+        setServiceAsStarted(host, service.getId(), pid, hostRebooted);
+        monitorEngine.boostPolling(host.getId());
+    }
+
+    /**
+     * Method used to start more services of a host with a single script, the services which cannot be started are
+     * set as {@link ServiceStatus#STOPPED}
+     *
+     * @param host The host owner of the services
+     * @param services The services to start
+     * @param hostRebooted Whether this method has been invoked after the host rebooted
+     *
+     * @throws Exception when an exception occurred during the process
+     */
+    public void startServices(BrownieHost host, List<BrownieHostService> services,
+                              boolean hostRebooted) throws Exception {
+        if (services.isEmpty())
+            return;
+        List<String> notStartedServices = new ArrayList<>();
+        try (ShellCommandsExecutor commandsExecutor = ShellCommandsExecutor.getInstance(host)) {
+            startServices(commandsExecutor, host, services, hostRebooted, (service, failure) -> {
+                if (failure != null)
+                    notStartedServices.add(service.getId());
+            });
+        } finally {
+            monitorEngine.boostPolling(host.getId());
+        }
+        setServicesAsStopped(host, notStartedServices);
+    }
+
+    /**
+     * Method used to start more services of a host with a single script executed by the specified executor
+     *
+     * @param commandsExecutor The executor used to start the services
+     * @param host The host owner of the services
+     * @param services The services to start
+     * @param restarted Whether the services are restarted, after the reboot of the host or of the services themselves
+     * @param onServiceOperated The callback invoked when the start of a service has been terminated
+     *
+     * @throws Exception when an exception occurred during the process
+     */
+    private void startServices(ShellCommandsExecutor commandsExecutor, BrownieHost host,
+                               List<BrownieHostService> services, boolean restarted,
+                               OnServiceOperated onServiceOperated) throws Exception {
+        Map<String, Long> servicePids = commandsExecutor.startServices(services, false);
+        for (BrownieHostService service : services) {
+            long pid = servicePids.getOrDefault(service.getId(), -1L);
+            if (pid == -1) {
+                onServiceOperated.onServiceOperated(service, new IllegalStateException(SERVICE_NOT_STARTED));
+                continue;
+            }
+            setServiceAsStarted(host, service.getId(), pid, restarted);
+            onServiceOperated.onServiceOperated(service, null);
+        }
+    }
+
+    /**
+     * Method used to set the {@link ServiceStatus#RUNNING} status to a started service
+     *
+     * @param host The host owner of the service
+     * @param serviceId The identifier of the service
+     * @param pid The pid of the started process
+     * @param restarted Whether the service has been restarted, after the reboot of the host or of the service itself
+     */
+    private void setServiceAsStarted(BrownieHost host, String serviceId, long pid, boolean restarted) {
+        statusRegistry.updateServiceStatus(serviceId, RUNNING, pid);
+        publishServicesStatus(host, List.of(serviceId), RUNNING, pid);
+        if (restarted)
             serviceEvents.registerServiceRestarted(serviceId, pid);
         else
             serviceEvents.registerServiceStarted(serviceId, pid);
@@ -194,25 +410,44 @@ public class HostServicesService implements BrownieEventsCollector {
      */
     public void rebootService(BrownieHost host, BrownieHostService service) throws Exception {
         String serviceId = service.getId();
-        setServiceInRebooting(serviceId);
-        ShellCommandsExecutor commandsExecutor = ShellCommandsExecutor.getInstance(host);
-        commandsExecutor.rebootService(service, extra -> {
-            long pid = (long) extra[0];
-            servicesRepository.updateServiceStatus(serviceId, RUNNING.name(), pid);
-            serviceEvents.registerServiceRestarted(serviceId, pid);
-        });
+        setServiceInRebooting(host, serviceId);
+        try (ShellCommandsExecutor commandsExecutor = ShellCommandsExecutor.getInstance(host)) {
+            commandsExecutor.rebootService(service, extra -> {
+                long pid = (long) extra[0];
+                statusRegistry.updateServiceStatus(serviceId, RUNNING, pid);
+                publishServicesStatus(host, List.of(serviceId), RUNNING, pid);
+                serviceEvents.registerServiceRestarted(serviceId, pid);
+            });
+        }
+        monitorEngine.boostPolling(host.getId());
     }
 
     /**
      * Method used to set the {@link ServiceStatus#REBOOTING} status to the specified service
      *
+     * @param host The host owner of the service
      * @param serviceId The identifier of the service
      */
-    public void setServiceInRebooting(String serviceId) {
-        servicesRepository.updateServiceStatus(serviceId, REBOOTING.name(), -1);
+    public void setServiceInRebooting(BrownieHost host, String serviceId) {
+        statusRegistry.updateServiceStatus(serviceId, REBOOTING, -1);
+        publishServicesStatus(host, List.of(serviceId), REBOOTING, -1);
         serviceEvents.registerServiceRebooted(serviceId);
     }
 
+    /**
+     * Method used to set the {@link ServiceStatus#REBOOTING} status to more services at once
+     *
+     * @param host The host owner of the services
+     * @param serviceIds The identifiers of the services
+     */
+    public void setServicesInRebooting(BrownieHost host, Collection<String> serviceIds) {
+        if (serviceIds.isEmpty())
+            return;
+        statusRegistry.updateServicesStatus(serviceIds, REBOOTING, -1);
+        publishServicesStatus(host, serviceIds, REBOOTING, -1);
+        serviceEvents.registerServicesRebooted(serviceIds);
+    }
+
     /**
      * Method used to stop a service
      *
@@ -222,22 +457,94 @@ public class HostServicesService implements BrownieEventsCollector {
      * @throws Exception when an exception occurred during the process
      */
     public void stopService(BrownieHost host, BrownieHostService service) throws Exception {
-        ShellCommandsExecutor commandsExecutor = ShellCommandsExecutor.getInstance(host);
-        commandsExecutor.stopService(service);
+        try (ShellCommandsExecutor commandsExecutor = ShellCommandsExecutor.getInstance(host)) {
+            commandsExecutor.stopService(service);
+        }
         String serviceId = service.getId();
-        setServiceAsStopped(serviceId);
+        setServiceAsStopped(host, serviceId);
+    }
+
+    /**
+     * Method used to execute a lifecycle operation on more services of the same host sharing a single bash session,
+     * the running services are stopped with a single command and then, when required, started with a single script on
+     * the same session
+     *
+     * @param host The host owner of the services
+     * @param services The services on which execute the operation
+     * @param operation The operation to execute
+     * @param onServiceOperated The callback invoked when the operation on a service has been terminated
+     *
+     * @throws JSchException when the session with the host cannot be opened
+     */
+    public void operateServices(BrownieHost host, List<BrownieHostService> services, ServiceOperation operation,
+                                OnServiceOperated onServiceOperated) throws JSchException {
+        try (ShellCommandsExecutor commandsExecutor = ShellCommandsExecutor.getInstance(host)) {
+            List<BrownieHostService> servicesToStart = services;
+            if (operation != START) {
+                Set<Long> stoppedPids;
+                try {
+                    stoppedPids = commandsExecutor.stopServices(services, false);
+                } catch (Exception e) {
+                    for (BrownieHostService service : services)
+                        onServiceOperated.onServiceOperated(service, e);
+                    return;
+                }
+                servicesToStart = new ArrayList<>();
+                List<String> stoppedServices = new ArrayList<>();
+                for (BrownieHostService service : services) {
+                    if (stoppedPids.contains(service.getPid())) {
+                        servicesToStart.add(service);
+                        stoppedServices.add(service.getId());
+                    } else
+                        onServiceOperated.onServiceOperated(service, new IllegalStateException(SERVICE_NOT_STOPPED));
+                }
+                if (operation == STOP) {
+                    setServicesAsStopped(host, stoppedServices);
+                    for (BrownieHostService service : servicesToStart)
+                        onServiceOperated.onServiceOperated(service, null);
+                    return;
+                }
+                setServicesInRebooting(host, stoppedServices);
+            }
+            try {
+                startServices(commandsExecutor, host, servicesToStart, operation == REBOOT, onServiceOperated);
+            } catch (Exception e) {
+                for (BrownieHostService service : servicesToStart)
+                    onServiceOperated.onServiceOperated(service, e);
+            }
+        } finally {
+            monitorEngine.boostPolling(host.getId());
+        }
     }
 
     /**
      * Method used to set the {@link ServiceStatus#STOPPED} status to the specified service
      *
+     * @param host The host owner of the service
      * @param serviceId The identifier of the service
      */
-    public void setServiceAsStopped(String serviceId) {
-        servicesRepository.updateServiceStatus(serviceId, STOPPED.name(), -1);
+    public void setServiceAsStopped(BrownieHost host, String serviceId) {
+        statusRegistry.updateServiceStatus(serviceId, STOPPED, -1);
+        metricsService.evictLatestResources(List.of(serviceId));
+        publishServicesStatus(host, List.of(serviceId), STOPPED, -1);
         serviceEvents.registerServiceStopped(serviceId);
     }
 
+    /**
+     * Method used to set the {@link ServiceStatus#STOPPED} status to more services at once
+     *
+     * @param host The host owner of the services
+     * @param serviceIds The identifiers of the services
+     */
+    public void setServicesAsStopped(BrownieHost host, Collection<String> serviceIds) {
+        if (serviceIds.isEmpty())
+            return;
+        statusRegistry.updateServicesStatus(serviceIds, STOPPED, -1);
+        metricsService.evictLatestResources(serviceIds);
+        publishServicesStatus(host, serviceIds, STOPPED, -1);
+        serviceEvents.registerServicesStopped(serviceIds);
+    }
+
     /**
      * Method used to remove a service
      *
@@ -249,13 +556,29 @@ public class HostServicesService implements BrownieEventsCollector {
      */
     public void removeService(BrownieHost host, BrownieHostService service, boolean removeFromTheHost) throws Exception {
         if (removeFromTheHost) {
-            ShellCommandsExecutor commandsExecutor = ShellCommandsExecutor.getInstance(host);
-            commandsExecutor.removeService(service.getServicePath(), true);
+            try (ShellCommandsExecutor commandsExecutor = ShellCommandsExecutor.getInstance(host)) {
+                commandsExecutor.removeService(service.getServicePath(), true);
+            }
         }
         servicesRepository.removeService(service.getId());
+        statusRegistry.evictServices(List.of(service.getId()));
+        serviceEvents.evictLastUpEvent(service.getId());
+        metricsService.evictService(service.getId());
+        authorizationCache.invalidateHost(host.getId());
         hostEventsService.registerServiceRemovedEvent(host.getId(), service.getName(), removeFromTheHost);
     }
 
+    /**
+     * Method used to evict the cached last up events of more services, it must be invoked when their host is
+     * unregistered
+     *
+     * @param serviceIds The identifiers of the services
+     */
+    public void evictLastUpEvents(Collection<String> serviceIds) {
+        for (String serviceId : serviceIds)
+            serviceEvents.evictLastUpEvent(serviceId);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -266,19 +589,73 @@ public class HostServicesService implements BrownieEventsCollector {
             Object[] extra = event.getExtra();
             BrownieHost host = (BrownieHost) extra[0];
             Collection<Long> stoppedServices = (Collection<Long>) extra[1];
-            for (Long servicePid : stoppedServices)
-                markServiceAsStopped(host, servicePid);
+            markServicesAsStopped(host, stoppedServices);
         }
     }
 
     /**
-     * Method used to mark a service as {@link ServiceStatus#STOPPED}
+     * Method used to mark the services of a host detected as stopped as {@link ServiceStatus#STOPPED}, only the
+     * services still stored with a detected pid are marked and published
      *
-     * @param host       The host owner of the service
-     * @param servicePid The pid of the service to mark
+     * @param host        The host owner of the services
+     * @param servicePids The pids of the services to mark
      */
-    private void markServiceAsStopped(BrownieHost host, long servicePid) {
-        servicesRepository.markServiceAsStopped(host.getId(), servicePid);
+    private void markServicesAsStopped(BrownieHost host, Collection<Long> servicePids) {
+        if (servicePids.isEmpty())
+            return;
+        List<String> stoppedServices = statusRegistry.markServicesAsStopped(host.getId(), servicePids);
+        if (stoppedServices.isEmpty())
+            return;
+        metricsService.evictLatestResources(stoppedServices);
+        publishServicesStatus(host, stoppedServices, STOPPED, -1);
+    }
+
+    /**
+     * Method used to pin the start times of the processes of the services found running for the first time, so the
+     * next probes can detect whether their pids have been reused by other processes
+     *
+     * @param host The host owner of the services
+     * @param startTicks The start times, in clock ticks since the boot of the host, keyed by the identifier of the
+     * service
+     */
+    public void pinProcessesStartTicks(BrownieHost host, Map<String, Long> startTicks) {
+        startTicks.forEach((serviceId, processStartTicks) -> {
+            BrownieHostService service = host.getService(serviceId);
+            if (service != null)
+                servicesRepository.pinProcessStartTicks(serviceId, service.getPid(), processStartTicks);
+        });
+    }
+
+    /**
+     * Method used to push to the clients the change of the status of more services of a host
+     *
+     * @param host The host owner of the services
+     * @param serviceIds The identifiers of the services
+     * @param status The new status of the services
+     * @param pid The new pid of the services
+     */
+    private void publishServicesStatus(BrownieHost host, Collection<String> serviceIds, ServiceStatus status,
+                                       long pid) {
+        statusStreamBroker.publishServicesStatus(host.getSession().getId(), serviceIds, status, pid);
+    }
+
+    /**
+     * The {@code OnServiceOperated} interface used as callback to notify the result of a lifecycle operation executed
+     * on a service
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    @FunctionalInterface
+    public interface OnServiceOperated {
+
+        /**
+         * Callback method invoked when the operation on a service has been terminated
+         *
+         * @param service The service on which the operation has been executed
+         * @param failure The failure of the operation, null if it has been completed
+         */
+        void onServiceOperated(BrownieHostService service, Exception failure);
+
     }
 
 }
@@ -0,0 +1,576 @@
+package com.tecknobit.brownie.services.hostservices.services;
+
+import com.tecknobit.brownie.services.hosts.entities.BrownieHost;
+import com.tecknobit.brownie.services.hostservices.dtos.ServiceJob;
+import com.tecknobit.brownie.services.hostservices.entities.BrownieHostService;
+import com.tecknobit.brownie.services.session.service.SessionStatusStreamBroker;
+import com.tecknobit.browniecore.enums.BulkOperationMode;
+import com.tecknobit.browniecore.enums.ServiceOperation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.tecknobit.browniecore.ConstantsKt.BULK_OPERATION_COMPLETED_KEY;
+import static com.tecknobit.browniecore.ConstantsKt.JOB_KEY;
+import static com.tecknobit.browniecore.enums.BulkOperationMode.ROLLING;
+import static com.tecknobit.browniecore.enums.ServiceOperation.START;
+import static com.tecknobit.equinoxbackend.environment.services.builtin.controller.EquinoxController.generateIdentifier;
+
+/**
+ * The {@code ServiceJobsService} class is useful to execute the lifecycle operations of the
+ * {@link BrownieHostService} as asynchronous jobs, so the request threads are not held while the hosts respond. Each
+ * job is tracked until its retention expires and its termination is published on the status stream of the session.
+ * The operations can be also executed in bulk on the services of more hosts, grouping the services of each host to
+ * share a single bash session, and streaming the result of each service as soon as it is available
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+@Service
+public class ServiceJobsService {
+
+    /**
+     * {@code OPERATION_NOT_ALLOWED} the reason of the failure of a job whose operation is not allowed by the current
+     * status of the service or of its host
+     */
+    private static final String OPERATION_NOT_ALLOWED = "The operation is not allowed by the current status of the "
+            + "service or of its host";
+
+    /**
+     * {@code OPERATION_IN_PROGRESS} the reason of the failure of a job whose service has already an operation in
+     * progress
+     */
+    private static final String OPERATION_IN_PROGRESS = "Another operation is already in progress on the service";
+
+    /**
+     * {@code ROLLING_OPERATION_ABORTED} the reason of the failure of the jobs not executed because a previous wave of
+     * a rolling operation has failed
+     */
+    private static final String ROLLING_OPERATION_ABORTED = "The rolling operation has been aborted due to the "
+            + "failures of a previous wave";
+
+    /**
+     * {@code servicesService} the support service used to manage the services data
+     */
+    private final HostServicesService servicesService;
+
+    /**
+     * {@code statusStreamBroker} the broker used to push the terminations of the jobs to the clients
+     */
+    private final SessionStatusStreamBroker statusStreamBroker;
+
+    /**
+     * {@code retention} the time, in milliseconds, a terminated job is kept available
+     */
+    private final long retention;
+
+    /**
+     * {@code bulkOperationTimeout} the time, in milliseconds, after which the stream of the results of a bulk
+     * operation is closed
+     */
+    private final long bulkOperationTimeout;
+
+    /**
+     * {@code jobs} the tracked jobs
+     */
+    private final ConcurrentHashMap<String, ServiceJob> jobs;
+
+    /**
+     * {@code inFlightJobs} the jobs not terminated yet, one for each service
+     */
+    private final ConcurrentHashMap<String, ServiceJob> inFlightJobs;
+
+    /**
+     * {@code jobsExecutor} the executor used to execute the jobs
+     */
+    private final ExecutorService jobsExecutor;
+
+    /**
+     * {@code purgeScheduler} the scheduler used to purge the expired jobs
+     */
+    private final ScheduledExecutorService purgeScheduler;
+
+    /**
+     * Constructor used to init the service
+     *
+     * @param servicesService The support service used to manage the services data
+     * @param statusStreamBroker The broker used to push the terminations of the jobs to the clients
+     * @param jobsThreads The number of the threads used to execute the jobs
+     * @param retention The time, in minutes, a terminated job is kept available
+     * @param bulkOperationTimeout The time, in minutes, after which the stream of the results of a bulk operation is
+     *                             closed
+     */
+    @Autowired
+    public ServiceJobsService(HostServicesService servicesService, SessionStatusStreamBroker statusStreamBroker,
+                              @Value("${brownie.services.jobs.threads:8}") int jobsThreads,
+                              @Value("${brownie.services.jobs.retention-minutes:10}") long retention,
+                              @Value("${brownie.services.bulk.timeout-minutes:30}") long bulkOperationTimeout) {
+        this.servicesService = servicesService;
+        this.statusStreamBroker = statusStreamBroker;
+        this.retention = TimeUnit.MINUTES.toMillis(retention);
+        this.bulkOperationTimeout = TimeUnit.MINUTES.toMillis(bulkOperationTimeout);
+        this.jobs = new ConcurrentHashMap<>();
+        this.inFlightJobs = new ConcurrentHashMap<>();
+        this.jobsExecutor = Executors.newFixedThreadPool(jobsThreads, runnable -> {
+            Thread thread = new Thread(runnable, "service-jobs-executor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.purgeScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "service-jobs-purge-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Method automatically invoked after dependency injection by Spring used to schedule the purge of the expired
+     * jobs
+     */
+    @PostConstruct
+    private void schedulePurge() {
+        purgeScheduler.scheduleWithFixedDelay(this::purgeExpiredJobs, retention, retention, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Method used to submit a lifecycle operation of a service, if the service has already a job not terminated yet
+     * that job is returned instead of submitting a new one
+     *
+     * @param host The host owner of the service
+     * @param service The service on which execute the operation
+     * @param operation The operation to execute
+     *
+     * @return the job of the operation as {@link ServiceJob}
+     */
+    public ServiceJob submitJob(BrownieHost host, BrownieHostService service, ServiceOperation operation) {
+        String serviceId = service.getId();
+        ServiceJob job = new ServiceJob(generateIdentifier(), host.getSession().getId(), host.getId(), serviceId,
+                operation);
+        ServiceJob inFlightJob = inFlightJobs.putIfAbsent(serviceId, job);
+        if (inFlightJob != null)
+            return inFlightJob;
+        jobs.put(job.getId(), job);
+        try {
+            jobsExecutor.execute(() -> executeJob(host, service, job));
+        } catch (RejectedExecutionException e) {
+            terminateJob(job, e);
+        }
+        return job;
+    }
+
+    /**
+     * Method used to submit a lifecycle operation on the services of more hosts at once, the services of each host are
+     * handled together sharing a single bash session and the result of each service is streamed, as soon as it is
+     * available, as a {@link ServiceJob} event. The services whose status does not allow the operation, or which have
+     * already an operation in progress, are reported as failed without being handled
+     *
+     * @param targets The services on which execute the operation grouped by their hosts
+     * @param operation The operation to execute
+     * @param mode The mode used to handle the hosts
+     * @param concurrency The max number of the hosts handled at the same time, in the {@link BulkOperationMode#ROLLING}
+     *                    mode it is the size of each wave
+     *
+     * @return the emitter of the stream of the results as {@link SseEmitter}
+     */
+    public SseEmitter submitBulkOperation(Map<BrownieHost, List<BrownieHostService>> targets,
+                                          ServiceOperation operation, BulkOperationMode mode, int concurrency) {
+        SseEmitter emitter = new SseEmitter(bulkOperationTimeout);
+        BulkOperation bulkOperation = new BulkOperation(emitter, operation, mode, concurrency);
+        targets.forEach((host, services) -> {
+            HostJobs hostJobs = new HostJobs(host);
+            for (BrownieHostService service : services) {
+                ServiceJob job = new ServiceJob(generateIdentifier(), host.getSession().getId(), host.getId(),
+                        service.getId(), operation);
+                jobs.put(job.getId(), job);
+                if (!isOperationAllowed(host, service, operation))
+                    bulkOperation.rejectJob(job, OPERATION_NOT_ALLOWED);
+                else if (inFlightJobs.putIfAbsent(service.getId(), job) != null)
+                    bulkOperation.rejectJob(job, OPERATION_IN_PROGRESS);
+                else
+                    hostJobs.add(service, job);
+            }
+            if (!hostJobs.isEmpty())
+                bulkOperation.pendingHosts.add(hostJobs);
+        });
+        bulkOperation.start();
+        return emitter;
+    }
+
+    /**
+     * Method used to check whether the current status of a service and of its host allows an operation
+     *
+     * @param host The host owner of the service
+     * @param service The service on which execute the operation
+     * @param operation The operation to execute
+     *
+     * @return whether the operation is allowed as {@code boolean}
+     */
+    private boolean isOperationAllowed(BrownieHost host, BrownieHostService service, ServiceOperation operation) {
+        if (!host.isOnline())
+            return false;
+        if (operation == START)
+            return service.isStopped();
+        return service.isRunning();
+    }
+
+    /**
+     * Method used to execute a job
+     *
+     * @param host The host owner of the service
+     * @param service The service on which execute the operation
+     * @param job The job to execute
+     */
+    private void executeJob(BrownieHost host, BrownieHostService service, ServiceJob job) {
+        job.markRunning();
+        try {
+            switch (job.getOperation()) {
+                case START -> servicesService.startService(host, service);
+                case REBOOT -> servicesService.rebootService(host, service);
+                case STOP -> servicesService.stopService(host, service);
+            }
+            terminateJob(job, null);
+        } catch (Exception e) {
+            terminateJob(job, e);
+        }
+    }
+
+    /**
+     * Method used to terminate a job and to publish its termination
+     *
+     * @param job The job to terminate
+     * @param failure The failure of the job, null if it has been completed
+     */
+    private void terminateJob(ServiceJob job, Exception failure) {
+        if (failure == null)
+            job.markCompleted();
+        else {
+            String failureReason = failure.getMessage();
+            job.markFailed(failureReason != null ? failureReason : failure.getClass().getSimpleName());
+        }
+        inFlightJobs.remove(job.getServiceId(), job);
+        statusStreamBroker.publishJob(job.getSessionId(), job);
+    }
+
+    /**
+     * Method used to get a tracked job
+     *
+     * @param jobId The identifier of the job
+     *
+     * @return the job as {@link ServiceJob}, null if not tracked
+     */
+    public ServiceJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    /**
+     * Method used to purge the terminated jobs whose retention is expired
+     */
+    private void purgeExpiredJobs() {
+        long expirationDate = System.currentTimeMillis() - retention;
+        jobs.values().removeIf(job -> job.isTerminatedBefore(expirationDate));
+    }
+
+    /**
+     * Method automatically invoked by Spring before termination used to stop the executors of the jobs
+     */
+    @PreDestroy
+    private void shutdown() {
+        purgeScheduler.shutdownNow();
+        jobsExecutor.shutdownNow();
+    }
+
+    /**
+     * The {@code HostJobs} class represents the jobs of a bulk operation related to the services of the same host
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private static final class HostJobs {
+
+        /**
+         * {@code host} the host owner of the services
+         */
+        private final BrownieHost host;
+
+        /**
+         * {@code services} the services on which execute the operation
+         */
+        private final List<BrownieHostService> services;
+
+        /**
+         * {@code jobs} the jobs of the services keyed by the identifier of the service
+         */
+        private final Map<String, ServiceJob> jobs;
+
+        /**
+         * Constructor to instantiate the object
+         *
+         * @param host The host owner of the services
+         */
+        private HostJobs(BrownieHost host) {
+            this.host = host;
+            this.services = new ArrayList<>();
+            this.jobs = new HashMap<>();
+        }
+
+        /**
+         * Method used to add the job of a service
+         *
+         * @param service The service on which execute the operation
+         * @param job The job of the service
+         */
+        private void add(BrownieHostService service, ServiceJob job) {
+            services.add(service);
+            jobs.put(service.getId(), job);
+        }
+
+        /**
+         * Method used to check whether there are no jobs to execute
+         *
+         * @return whether there are no jobs to execute as {@code boolean}
+         */
+        private boolean isEmpty() {
+            return services.isEmpty();
+        }
+
+    }
+
+    /**
+     * The {@code BulkOperation} class represents a lifecycle operation executed in bulk on the services of more hosts,
+     * the hosts are executed without blocking the threads of the {@link #jobsExecutor} waiting for the others: each
+     * host terminated triggers the next one, or the next wave in the {@link BulkOperationMode#ROLLING} mode
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private final class BulkOperation {
+
+        /**
+         * {@code emitter} the emitter used to stream the results of the jobs
+         */
+        private final SseEmitter emitter;
+
+        /**
+         * {@code operation} the operation to execute
+         */
+        private final ServiceOperation operation;
+
+        /**
+         * {@code mode} the mode used to handle the hosts
+         */
+        private final BulkOperationMode mode;
+
+        /**
+         * {@code concurrency} the max number of the hosts handled at the same time
+         */
+        private final int concurrency;
+
+        /**
+         * {@code pendingHosts} the hosts not handled yet
+         */
+        private final Queue<HostJobs> pendingHosts;
+
+        /**
+         * {@code runningHosts} the number of the hosts currently handled
+         */
+        private final AtomicInteger runningHosts;
+
+        /**
+         * {@code failed} whether at least a job of the operation has failed
+         */
+        private final AtomicBoolean failed;
+
+        /**
+         * Constructor to instantiate the object
+         *
+         * @param emitter The emitter used to stream the results of the jobs
+         * @param operation The operation to execute
+         * @param mode The mode used to handle the hosts
+         * @param concurrency The max number of the hosts handled at the same time
+         */
+        private BulkOperation(SseEmitter emitter, ServiceOperation operation, BulkOperationMode mode,
+                              int concurrency) {
+            this.emitter = emitter;
+            this.operation = operation;
+            this.mode = mode;
+            this.concurrency = concurrency;
+            this.pendingHosts = new ConcurrentLinkedQueue<>();
+            this.runningHosts = new AtomicInteger();
+            this.failed = new AtomicBoolean();
+        }
+
+        /**
+         * Method used to start the execution of the operation
+         */
+        private void start() {
+            if (mode == ROLLING) {
+                executeNextWave();
+                return;
+            }
+            int lanes = Math.min(concurrency, pendingHosts.size());
+            if (lanes == 0) {
+                complete();
+                return;
+            }
+            runningHosts.set(lanes);
+            for (int j = 0; j < lanes; j++)
+                executeNextHost();
+        }
+
+        /**
+         * Method used to execute the next pending host in the {@link BulkOperationMode#PARALLEL} mode, when there are no
+         * more pending hosts the lane is closed and the operation is completed with the last lane
+         */
+        private void executeNextHost() {
+            HostJobs hostJobs = pendingHosts.poll();
+            if (hostJobs == null) {
+                if (runningHosts.decrementAndGet() == 0)
+                    complete();
+                return;
+            }
+            executeHost(hostJobs, this::executeNextHost);
+        }
+
+        /**
+         * Method used to execute the next wave of hosts in the {@link BulkOperationMode#ROLLING} mode, when a wave has
+         * failed the pending hosts are not executed anymore
+         */
+        private void executeNextWave() {
+            List<HostJobs> wave = new ArrayList<>();
+            HostJobs hostJobs;
+            while (wave.size() < concurrency && (hostJobs = pendingHosts.poll()) != null)
+                wave.add(hostJobs);
+            if (wave.isEmpty()) {
+                complete();
+                return;
+            }
+            runningHosts.set(wave.size());
+            for (HostJobs waveHost : wave) {
+                executeHost(waveHost, () -> {
+                    if (runningHosts.decrementAndGet() > 0)
+                        return;
+                    if (failed.get())
+                        abortPendingHosts();
+                    else
+                        executeNextWave();
+                });
+            }
+        }
+
+        /**
+         * Method used to execute the jobs of a host on the {@link #jobsExecutor}
+         *
+         * @param hostJobs The jobs of the host
+         * @param onHostExecuted The callback invoked when all the jobs of the host have been terminated
+         */
+        private void executeHost(HostJobs hostJobs, Runnable onHostExecuted) {
+            try {
+                jobsExecutor.execute(() -> {
+                    executeHostJobs(hostJobs);
+                    onHostExecuted.run();
+                });
+            } catch (RejectedExecutionException e) {
+                for (ServiceJob job : hostJobs.jobs.values())
+                    terminateJob(job, e);
+                onHostExecuted.run();
+            }
+        }
+
+        /**
+         * Method used to execute the jobs of a host sharing a single bash session
+         *
+         * @param hostJobs The jobs of the host
+         */
+        private void executeHostJobs(HostJobs hostJobs) {
+            for (ServiceJob job : hostJobs.jobs.values())
+                job.markRunning();
+            try {
+                servicesService.operateServices(hostJobs.host, hostJobs.services, operation,
+                        (service, failure) -> terminateJob(hostJobs.jobs.get(service.getId()), failure));
+            } catch (Exception e) {
+                for (ServiceJob job : hostJobs.jobs.values())
+                    if (!job.getStatus().isTerminated())
+                        terminateJob(job, e);
+            }
+        }
+
+        /**
+         * Method used to fail the jobs of the hosts not executed because a wave of the rolling operation has failed
+         */
+        private void abortPendingHosts() {
+            HostJobs hostJobs;
+            while ((hostJobs = pendingHosts.poll()) != null)
+                for (ServiceJob job : hostJobs.jobs.values())
+                    rejectJob(job, ROLLING_OPERATION_ABORTED);
+            complete();
+        }
+
+        /**
+         * Method used to terminate a job of the operation and to stream its result
+         *
+         * @param job The job to terminate
+         * @param failure The failure of the job, null if it has been completed
+         */
+        private void terminateJob(ServiceJob job, Exception failure) {
+            if (failure != null)
+                failed.set(true);
+            ServiceJobsService.this.terminateJob(job, failure);
+            sendJob(job);
+        }
+
+        /**
+         * Method used to fail a job without executing it and to stream its result, the rejected jobs do not abort the
+         * waves of the {@link BulkOperationMode#ROLLING} mode
+         *
+         * @param job The job to reject
+         * @param reason The reason of the rejection
+         */
+        private void rejectJob(ServiceJob job, String reason) {
+            ServiceJobsService.this.terminateJob(job, new IllegalStateException(reason));
+            sendJob(job);
+        }
+
+        /**
+         * Method used to stream the result of a job
+         *
+         * @param job The terminated job
+         */
+        private void sendJob(ServiceJob job) {
+            send(SseEmitter.event()
+                    .name(JOB_KEY)
+                    .data(job, MediaType.APPLICATION_JSON));
+        }
+
+        /**
+         * Method used to complete the stream of the results once all the jobs have been terminated
+         */
+        private void complete() {
+            send(SseEmitter.event()
+                    .name(BULK_OPERATION_COMPLETED_KEY)
+                    .data(BULK_OPERATION_COMPLETED_KEY));
+            emitter.complete();
+        }
+
+        /**
+         * Method used to send an event to the client, when the client is gone the operation keeps being executed and
+         * its jobs can be still retrieved one by one
+         *
+         * @param event The event to send
+         */
+        private void send(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException ignored) {
+            }
+        }
+
+    }
+
+}
@@ -9,15 +9,18 @@ import com.tecknobit.equinoxbackend.environment.services.DefaultEquinoxControlle
 import com.tecknobit.equinoxbackend.environment.services.builtin.controller.EquinoxController;
 import com.tecknobit.equinoxcore.annotations.RequestPath;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.security.NoSuchAlgorithmException;
 import java.util.Map;
 
 import static com.tecknobit.apimanager.apis.ServerProtector.SERVER_SECRET_KEY;
-import static com.tecknobit.browniecore.ConstantsKt.JOIN_CODE_KEY;
-import static com.tecknobit.browniecore.ConstantsKt.SESSIONS_KEY;
+import static com.tecknobit.browniecore.ConstantsKt.*;
 import static com.tecknobit.browniecore.helpers.BrownieEndpoints.CONNECT_ENDPOINT;
+import static com.tecknobit.browniecore.helpers.BrownieEndpoints.STATUS_STREAM_ENDPOINT;
 import static com.tecknobit.equinoxcore.helpers.CommonKeysKt.*;
 import static com.tecknobit.equinoxcore.helpers.InputsValidator.Companion;
 import static com.tecknobit.equinoxcore.helpers.InputsValidator.DEFAULT_LANGUAGE;
@@ -42,6 +45,11 @@ public class BrownieSessionController extends DefaultBrownieController {
      */
     public static ServerProtector brownieServerProtector;
 
+    /**
+     * {@code LAST_EVENT_ID_HEADER} the header sent by the clients which reconnect to a stream of server-sent events
+     */
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
     /**
      * Constructor used to init the controller
      *
@@ -156,4 +164,38 @@ public class BrownieSessionController extends DefaultBrownieController {
         return successResponse();
     }
 
+    /**
+     * Endpoint used to subscribe to the stream of the changes of the statuses of the hosts and of the services of a
+     * session, the changes are pushed as server-sent events
+     *
+     * @param sessionId The identifier of the session
+     * @param language The language of the user who sent the request
+     * @param lastEventIdHeader The identifier of the last change received, automatically sent by the clients when they
+     *                          reconnect
+     * @param lastEventId The identifier of the last change received, alternative to the header for the clients which
+     *                    cannot set it
+     *
+     * @return the stream of the changes as {@link ResponseEntity} of {@link SseEmitter}, declared with this type so the
+     * emitter is handled by Spring as a stream, the request is rejected with {@link HttpStatus#UNAUTHORIZED} when the
+     * session does not exist
+     */
+    @GetMapping(
+            path = "/{" + IDENTIFIER_KEY + "}" + STATUS_STREAM_ENDPOINT
+    )
+    @RequestPath(path = "/api/v1/sessions/{session_id}/status/stream", method = GET)
+    public ResponseEntity<SseEmitter> streamStatuses(
+            @PathVariable(IDENTIFIER_KEY) String sessionId,
+            @RequestParam(value = LANGUAGE_KEY, required = false, defaultValue = DEFAULT_LANGUAGE) String language,
+            @RequestHeader(name = LAST_EVENT_ID_HEADER, required = false) String lastEventIdHeader,
+            @RequestParam(name = LAST_EVENT_IDENTIFIER_KEY, required = false) String lastEventId
+    ) {
+        setSessionLocale(language);
+        if (!sessionExists(sessionId))
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        if (lastEventIdHeader != null)
+            lastEventId = lastEventIdHeader;
+        SseEmitter emitter = sessionsService.subscribeToStatusStream(sessionId, lastEventId);
+        return ResponseEntity.ok(emitter);
+    }
+
 }
@@ -44,7 +44,6 @@ public class BrownieSession extends EquinoxItem {
      */
     @OneToMany(
             mappedBy = SESSION_KEY,
-            fetch = FetchType.EAGER,
             cascade = CascadeType.ALL
     )
     @JsonIgnoreProperties(SESSION_KEY)
@@ -3,27 +3,28 @@ package com.tecknobit.brownie.services.session.service;
 import com.tecknobit.apimanager.apis.APIRequest;
 import com.tecknobit.brownie.events.BrownieApplicationEvent;
 import com.tecknobit.brownie.events.BrownieEventsEmitter;
-import com.tecknobit.brownie.helpers.shell.ShellCommandsExecutor;
+import com.tecknobit.brownie.helpers.monitor.HostsMonitorEngine;
+import com.tecknobit.brownie.helpers.shell.SSHSessionsPool;
+import com.tecknobit.brownie.helpers.shell.HostProbeResult;
+import com.tecknobit.brownie.helpers.shell.agent.BrownieAgentsSupervisor;
 import com.tecknobit.brownie.services.hosts.entities.BrownieHost;
+import com.tecknobit.brownie.services.hosts.services.HostsService;
 import com.tecknobit.brownie.services.session.entity.BrownieSession;
 import com.tecknobit.brownie.services.session.repository.BrownieSessionsRepository;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.security.NoSuchAlgorithmException;
 import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 
 import static com.tecknobit.apimanager.apis.APIRequest.SHA256_ALGORITHM;
 import static com.tecknobit.brownie.events.BrownieApplicationEventType.SYNC_SERVICES;
-import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * The {@code BrownieSessionsService} class is useful to manage all the {@link BrownieSession} database operations
@@ -36,68 +37,85 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 public class BrownieSessionsService extends BrownieEventsEmitter {
 
     /**
-     * {@code LOGGER} is the instance used to log about the events of the monitor-and-sync routine
+     * {@code sessionsRepository} instance used to access to the {@link SESSIONS_KEY} table
      */
-    private static final Logger LOGGER = LoggerFactory.getLogger(BrownieSessionsService.class);
+    private final BrownieSessionsRepository sessionsRepository;
 
     /**
-     * {@code MONITOR_AND_SYNC_DELAY} constant value for the delay between each monitor-and-sync check
+     * {@code monitorEngine} the engine used to perform the monitor-and-sync routine
      */
-    private static final int MONITOR_AND_SYNC_DELAY = 5;
+    private final HostsMonitorEngine monitorEngine;
 
     /**
-     * {@code sessionsRepository} instance used to access to the {@link SESSIONS_KEY} table
+     * {@code hostsService} the support service used to load the hosts to monitor
      */
-    private final BrownieSessionsRepository sessionsRepository;
+    private final HostsService hostsService;
+
+    /**
+     * {@code authorizationCache} the cache used to authorize the sessions without querying the database
+     */
+    private final SessionsAuthorizationCache authorizationCache;
 
     /**
-     * {@code servicesMonitor} pool used to perform the monitor-and-sync routine
+     * {@code statusStreamBroker} the broker used to push the changes of the statuses to the clients
      */
-    private final ScheduledExecutorService servicesMonitor;
+    private final SessionStatusStreamBroker statusStreamBroker;
 
     /**
      * Constructor used to init the service
      *
      * @param publisher The publisher used to emit the events
      * @param sessionsRepository the dedicated repository to manage the {@link BrownieSession} entity
+     * @param monitorEngine The engine used to perform the monitor-and-sync routine
+     * @param hostsService The support service used to load the hosts to monitor
+     * @param authorizationCache The cache used to authorize the sessions without querying the database
+     * @param statusStreamBroker The broker used to push the changes of the statuses to the clients
+     * @param agentsEnabled Whether the agents are launched on the remote hosts to serve the operations on the services
      */
     @Autowired
-    public BrownieSessionsService(ApplicationEventPublisher publisher, BrownieSessionsRepository sessionsRepository) {
+    public BrownieSessionsService(ApplicationEventPublisher publisher, BrownieSessionsRepository sessionsRepository,
+                                  HostsMonitorEngine monitorEngine, HostsService hostsService,
+                                  SessionsAuthorizationCache authorizationCache,
+                                  SessionStatusStreamBroker statusStreamBroker,
+                                  @Value("${brownie.agents.enabled:false}") boolean agentsEnabled) {
         super(publisher);
         this.sessionsRepository = sessionsRepository;
-        servicesMonitor = Executors.newScheduledThreadPool((int) sessionsRepository.count());
+        this.monitorEngine = monitorEngine;
+        this.hostsService = hostsService;
+        this.authorizationCache = authorizationCache;
+        this.statusStreamBroker = statusStreamBroker;
+        BrownieAgentsSupervisor.getInstance().setEnabled(agentsEnabled);
     }
 
     /**
      * Method automatically invoked after dependency injection by Spring used to perform the monitor-and-sync routine.
-     * Each {@link #MONITOR_AND_SYNC_DELAY} for all the session stored will be checked for each host the real status
-     * of its services and synced consequentially
+     * For all the session stored will be checked in parallel for each host the real status of its services and synced
+     * consequentially, each host is checked with its own polling interval
      */
     @PostConstruct
     private void monitorAndSyncServiceStatuses() {
-        servicesMonitor.scheduleWithFixedDelay(() -> {
-            LOGGER.info("Executing the monitor-and-sync routine for all the services");
-            List<BrownieSession> sessions = sessionsRepository.findAll();
-            for (BrownieSession session : sessions)
-                for (BrownieHost host : session.getHosts())
-                    monitorServices(host);
-        }, 0, MONITOR_AND_SYNC_DELAY, SECONDS);
+        monitorEngine.start(this::loadMonitoredHosts, this::monitorServices);
+    }
+
+    /**
+     * Method used to load the hosts of all the sessions to monitor
+     *
+     * @return the hosts to monitor as {@link List} of {@link BrownieHost}
+     */
+    private List<BrownieHost> loadMonitoredHosts() {
+        return hostsService.getMonitoredHosts();
     }
 
     /**
      * Method used to perform the monitoring of the services of a host
      *
      * @param host The host to check its services
+     * @throws Exception when an error occurred during the monitoring
      */
-    private void monitorServices(BrownieHost host) {
-        try {
-            ShellCommandsExecutor executor = ShellCommandsExecutor.getInstance(host);
-            Collection<Long> stoppedServices = executor.detectStoppedServices(host);
-            syncServiceStatuses(host, stoppedServices);
-        } catch (Exception e) {
-            LOGGER.error("Executing the monitor-and-sync routine for the {} host occurred an error",
-                    host.getName(), e);
-        }
+    private void monitorServices(BrownieHost host) throws Exception {
+        HostProbeResult probe = hostsService.probeHost(host);
+        syncServiceStatuses(host, probe.detectStoppedServices(host));
+        hostsService.pinProcessesStartTicks(host, probe.detectUnpinnedServices(host));
     }
 
     /**
@@ -114,11 +132,13 @@ public class BrownieSessionsService extends BrownieEventsEmitter {
     }
 
     /**
-     * Method automatically invoked by Spring before termination used to shut down the {@link #servicesMonitor} pool
+     * Method automatically invoked by Spring before termination used to close the agents and the SSH sessions still
+     * opened
      */
     @PreDestroy
-    private void shutdownServicesMonitor() {
-        servicesMonitor.shutdownNow();
+    private void closeSSHSessions() {
+        BrownieAgentsSupervisor.getInstance().closeAllAgents();
+        SSHSessionsPool.getInstance().closeAllSessions();
     }
 
     /**
@@ -133,6 +153,7 @@ public class BrownieSessionsService extends BrownieEventsEmitter {
         password = hash(password);
         BrownieSession session = new BrownieSession(sessionId, joinCode, password);
         sessionsRepository.save(session);
+        authorizationCache.invalidateSession(sessionId);
         return session;
     }
 
@@ -149,6 +170,17 @@ public class BrownieSessionsService extends BrownieEventsEmitter {
         return sessionsRepository.validateSessionConnectionAttempt(joinCode, password);
     }
 
+    /**
+     * Method to check whether a Brownie's session exists using the authorization cache
+     *
+     * @param sessionId The identifier of the session to check
+     *
+     * @return whether the session exists as {@code boolean}
+     */
+    public boolean sessionExists(String sessionId) {
+        return authorizationCache.sessionExists(sessionId);
+    }
+
     /**
      * Method to get an existing Brownie's session
      *
@@ -179,12 +211,30 @@ public class BrownieSessionsService extends BrownieEventsEmitter {
     }
 
     /**
-     * Method used to delete an existing session
+     * Method used to delete an existing session, the in-memory state of its hosts and of their services is evicted as
+     * when the hosts are unregistered
      *
      * @param sessionId The identifier of the session to delete
      */
     public void deleteSession(String sessionId) {
+        List<BrownieHost> hosts = hostsService.getSessionHosts(sessionId);
         sessionsRepository.deleteById(sessionId);
+        authorizationCache.invalidateSession(sessionId);
+        hostsService.evictHosts(hosts);
+        statusStreamBroker.closeStream(sessionId);
+    }
+
+    /**
+     * Method used to subscribe to the stream of the changes of the statuses of the hosts and of the services of a
+     * session
+     *
+     * @param sessionId The identifier of the session
+     * @param lastEventId The identifier of the last change received by the client, null if it is a new subscription
+     *
+     * @return the emitter of the stream as {@link SseEmitter}
+     */
+    public SseEmitter subscribeToStatusStream(String sessionId, String lastEventId) {
+        return statusStreamBroker.subscribe(sessionId, lastEventId);
     }
 
     /**
@@ -0,0 +1,452 @@
+package com.tecknobit.brownie.services.session.service;
+
+import com.tecknobit.brownie.services.hosts.dtos.CurrentHostStatus;
+import com.tecknobit.brownie.services.hostservices.dtos.CurrentServiceStatus;
+import com.tecknobit.brownie.services.hostservices.dtos.ServiceJob;
+import com.tecknobit.browniecore.enums.HostStatus;
+import com.tecknobit.browniecore.enums.ServiceStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.tecknobit.browniecore.ConstantsKt.*;
+
+/**
+ * The {@code SessionStatusStreamBroker} class is used to push to the clients, as server-sent events, the changes of
+ * the statuses of the hosts and of the services of a session and the terminations of the jobs of the operations of its
+ * services, so the clients do not need to poll them anymore. Each change is identified by a sequence number and the
+ * latest changes of each session are kept in a bounded backlog, so a client which reconnects with its last received
+ * identifier receives the changes it missed, or a {@code resync} event when they are no longer available and it must
+ * reload the statuses. The changes are sent to the subscribers of each session in order by a serial queue executed on
+ * a shared pool, so the slow clients never block the publishers
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+@Service
+public class SessionStatusStreamBroker {
+
+    /**
+     * {@code KEEP_ALIVE_INTERVAL} the interval, in seconds, between the keep-alive comments sent to the clients
+     */
+    private static final long KEEP_ALIVE_INTERVAL = 25;
+
+    /**
+     * {@code KEEP_ALIVE_COMMENT} the comment sent to the clients to keep alive the connections
+     */
+    private static final String KEEP_ALIVE_COMMENT = "keep-alive";
+
+    /**
+     * {@code sequence} the generator of the sequence numbers of the changes, it starts from the current timestamp so
+     * the identifiers received before a restart are always detected as not resumable
+     */
+    private final AtomicLong sequence;
+
+    /**
+     * {@code backlogSize} the max number of the changes kept for each session to resume the streams
+     */
+    private final int backlogSize;
+
+    /**
+     * {@code streamTimeout} the time, in milliseconds, after which a stream is closed and the client must reconnect
+     */
+    private final long streamTimeout;
+
+    /**
+     * {@code streams} the streams of the sessions
+     */
+    private final ConcurrentHashMap<String, SessionStream> streams;
+
+    /**
+     * {@code keepAliveScheduler} the scheduler used to send the keep-alive comments
+     */
+    private final ScheduledExecutorService keepAliveScheduler;
+
+    /**
+     * {@code sendersExecutor} the executor used to send the changes to the subscribers
+     */
+    private final ExecutorService sendersExecutor;
+
+    /**
+     * Constructor used to init the broker
+     *
+     * @param backlogSize The max number of the changes kept for each session to resume the streams
+     * @param streamTimeout The time, in minutes, after which a stream is closed and the client must reconnect
+     */
+    @Autowired
+    public SessionStatusStreamBroker(@Value("${brownie.sessions.status-stream.backlog-size:256}") int backlogSize,
+                                     @Value("${brownie.sessions.status-stream.timeout-minutes:30}") long streamTimeout) {
+        this.sequence = new AtomicLong(System.currentTimeMillis());
+        this.backlogSize = backlogSize;
+        this.streamTimeout = TimeUnit.MINUTES.toMillis(streamTimeout);
+        this.streams = new ConcurrentHashMap<>();
+        this.keepAliveScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "status-stream-keep-alive");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sendersExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "status-stream-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Method automatically invoked after dependency injection by Spring used to schedule the keep-alive comments, so
+     * the connections closed by the clients are detected and released
+     */
+    @PostConstruct
+    private void scheduleKeepAlive() {
+        keepAliveScheduler.scheduleWithFixedDelay(this::sendKeepAlive, KEEP_ALIVE_INTERVAL, KEEP_ALIVE_INTERVAL,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * Method used to subscribe to the stream of the changes of a session
+     *
+     * @param sessionId The identifier of the session
+     * @param lastEventId The identifier of the last change received by the client, null if it is a new subscription
+     *
+     * @return the emitter of the stream as {@link SseEmitter}
+     */
+    public SseEmitter subscribe(String sessionId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(streamTimeout);
+        SessionStream stream = streams.computeIfAbsent(sessionId, id -> new SessionStream());
+        emitter.onCompletion(() -> stream.emitters.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> stream.emitters.remove(emitter));
+        synchronized (stream) {
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                List<StatusChange> missedChanges = collectMissedChanges(stream, lastEventId);
+                long resyncId = sequence.get();
+                stream.enqueue(() -> replayMissedChanges(stream, emitter, missedChanges, resyncId));
+            }
+            stream.emitters.add(emitter);
+        }
+        return emitter;
+    }
+
+    /**
+     * Method used to collect the changes missed by a resuming client
+     *
+     * @param stream The stream of the session
+     * @param lastEventId The identifier of the last change received by the client
+     *
+     * @return the missed changes as {@link List} of {@link StatusChange}, null if they are no longer available
+     */
+    private List<StatusChange> collectMissedChanges(SessionStream stream, String lastEventId) {
+        long lastSequence;
+        try {
+            lastSequence = Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            lastSequence = -1;
+        }
+        if (lastSequence < stream.evictedUpTo || lastSequence > sequence.get())
+            return null;
+        List<StatusChange> missedChanges = new ArrayList<>();
+        for (StatusChange change : stream.backlog)
+            if (change.id() > lastSequence)
+                missedChanges.add(change);
+        return missedChanges;
+    }
+
+    /**
+     * Method used to send to a resuming client the changes it missed, or the {@code resync} event when they are no
+     * longer available
+     *
+     * @param stream The stream of the session
+     * @param emitter The emitter of the client
+     * @param missedChanges The changes missed by the client, null if they are no longer available
+     * @param resyncId The identifier of the {@code resync} event
+     */
+    private void replayMissedChanges(SessionStream stream, SseEmitter emitter, List<StatusChange> missedChanges,
+                                     long resyncId) {
+        try {
+            if (missedChanges == null) {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(resyncId))
+                        .name(RESYNC_KEY)
+                        .data(RESYNC_KEY));
+                return;
+            }
+            for (StatusChange change : missedChanges)
+                send(emitter, change);
+        } catch (IOException | IllegalStateException e) {
+            stream.emitters.remove(emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * Method used to publish the change of the status of a host
+     *
+     * @param sessionId The identifier of the session owner of the host
+     * @param hostId The identifier of the host
+     * @param status The new status of the host
+     */
+    public void publishHostStatus(String sessionId, String hostId, HostStatus status) {
+        publish(sessionId, List.of(new CurrentHostStatus(hostId, status)), HOST_STATUS_KEY);
+    }
+
+    /**
+     * Method used to publish the change of the status of more services at once
+     *
+     * @param sessionId The identifier of the session owner of the services
+     * @param serviceIds The identifiers of the services
+     * @param status The new status of the services
+     * @param pid The new pid of the services
+     */
+    public void publishServicesStatus(String sessionId, Collection<String> serviceIds, ServiceStatus status, long pid) {
+        List<Object> payloads = new ArrayList<>();
+        for (String serviceId : serviceIds)
+            payloads.add(new CurrentServiceStatus(serviceId, status, pid));
+        publish(sessionId, payloads, SERVICE_STATUS_KEY);
+    }
+
+    /**
+     * Method used to publish the termination of a job of a lifecycle operation of a service
+     *
+     * @param sessionId The identifier of the session owner of the service
+     * @param job The terminated job
+     */
+    public void publishJob(String sessionId, ServiceJob job) {
+        publish(sessionId, List.of(job), JOB_KEY);
+    }
+
+    /**
+     * Method used to publish the changes to the subscribers of a session, if a transaction is active the changes are
+     * published only after its commit, so the clients never receive a status which has been rolled back
+     *
+     * @param sessionId The identifier of the session
+     * @param payloads The payloads of the changes
+     * @param eventName The name of the event of the changes
+     */
+    private void publish(String sessionId, List<?> payloads, String eventName) {
+        if (sessionId == null || payloads.isEmpty())
+            return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(sessionId, payloads, eventName);
+                }
+            });
+        } else
+            dispatch(sessionId, payloads, eventName);
+    }
+
+    /**
+     * Method used to append the changes to the backlog of a session and to queue them to its subscribers, the changes
+     * of the sessions without a stream are discarded
+     *
+     * @param sessionId The identifier of the session
+     * @param payloads The payloads of the changes
+     * @param eventName The name of the event of the changes
+     */
+    private void dispatch(String sessionId, List<?> payloads, String eventName) {
+        streams.computeIfPresent(sessionId, (id, stream) -> {
+            synchronized (stream) {
+                List<StatusChange> changes = new ArrayList<>(payloads.size());
+                for (Object payload : payloads) {
+                    StatusChange change = new StatusChange(sequence.incrementAndGet(), eventName, payload);
+                    stream.backlog.addLast(change);
+                    changes.add(change);
+                }
+                while (stream.backlog.size() > backlogSize)
+                    stream.evictedUpTo = stream.backlog.pollFirst().id();
+                List<SseEmitter> subscribers = List.copyOf(stream.emitters);
+                if (!subscribers.isEmpty())
+                    stream.enqueue(() -> sendChanges(stream, subscribers, changes));
+            }
+            return stream;
+        });
+    }
+
+    /**
+     * Method used to send the changes to the subscribers of a session, the subscribers which cannot receive them are
+     * removed
+     *
+     * @param stream The stream of the session
+     * @param subscribers The subscribers of the session when the changes have been published
+     * @param changes The changes to send
+     */
+    private void sendChanges(SessionStream stream, List<SseEmitter> subscribers, List<StatusChange> changes) {
+        for (SseEmitter emitter : subscribers) {
+            try {
+                for (StatusChange change : changes)
+                    send(emitter, change);
+            } catch (IOException | IllegalStateException e) {
+                stream.emitters.remove(emitter);
+            }
+        }
+    }
+
+    /**
+     * Method used to send a change to a subscriber
+     *
+     * @param emitter The emitter of the subscriber
+     * @param change The change to send
+     * @throws IOException when the change cannot be sent
+     */
+    private void send(SseEmitter emitter, StatusChange change) throws IOException {
+        emitter.send(SseEmitter.event()
+                .id(String.valueOf(change.id()))
+                .name(change.eventName())
+                .data(change.payload(), MediaType.APPLICATION_JSON));
+    }
+
+    /**
+     * Method used to send the keep-alive comment to all the subscribers
+     */
+    private void sendKeepAlive() {
+        streams.forEach((sessionId, stream) -> stream.enqueue(() -> {
+            for (SseEmitter emitter : stream.emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment(KEEP_ALIVE_COMMENT));
+                } catch (IOException | IllegalStateException e) {
+                    stream.emitters.remove(emitter);
+                }
+            }
+        }));
+    }
+
+    /**
+     * Method used to close the stream of a session, it must be invoked when the session is deleted
+     *
+     * @param sessionId The identifier of the session
+     */
+    public void closeStream(String sessionId) {
+        SessionStream stream = streams.remove(sessionId);
+        if (stream == null)
+            return;
+        for (SseEmitter emitter : stream.emitters)
+            emitter.complete();
+    }
+
+    /**
+     * Method automatically invoked by Spring before termination used to close all the streams
+     */
+    @PreDestroy
+    private void closeStreams() {
+        keepAliveScheduler.shutdownNow();
+        for (String sessionId : streams.keySet())
+            closeStream(sessionId);
+        sendersExecutor.shutdownNow();
+    }
+
+    /**
+     * The {@code StatusChange} record represents a change of status published to the subscribers
+     *
+     * @param id The sequence number of the change
+     * @param eventName The name of the event of the change
+     * @param payload The payload of the change
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private record StatusChange(long id, String eventName, Object payload) {
+    }
+
+    /**
+     * The {@code SessionStream} class represents the stream of the changes of a session
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private final class SessionStream {
+
+        /**
+         * {@code evictedUpTo} the sequence number of the newest change no longer available in the backlog, the clients
+         * whose last received change is older cannot be resumed
+         */
+        private long evictedUpTo;
+
+        /**
+         * {@code backlog} the latest changes of the session
+         */
+        private final ArrayDeque<StatusChange> backlog;
+
+        /**
+         * {@code emitters} the emitters of the subscribers of the session
+         */
+        private final CopyOnWriteArrayList<SseEmitter> emitters;
+
+        /**
+         * {@code pendingSends} the sends queued to the subscribers of the session
+         */
+        private final ConcurrentLinkedQueue<Runnable> pendingSends;
+
+        /**
+         * {@code draining} whether the {@link #pendingSends} are currently executed
+         */
+        private final AtomicBoolean draining;
+
+        /**
+         * Constructor to instantiate the stream
+         */
+        private SessionStream() {
+            evictedUpTo = sequence.get();
+            backlog = new ArrayDeque<>();
+            emitters = new CopyOnWriteArrayList<>();
+            pendingSends = new ConcurrentLinkedQueue<>();
+            draining = new AtomicBoolean(false);
+        }
+
+        /**
+         * Method used to queue a send to the subscribers of the session, the sends are executed in the same order they
+         * have been queued
+         *
+         * @param send The send to queue
+         */
+        private void enqueue(Runnable send) {
+            pendingSends.add(send);
+            scheduleDrain();
+        }
+
+        /**
+         * Method used to schedule the execution of the {@link #pendingSends} if not already scheduled
+         */
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true))
+                return;
+            try {
+                sendersExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                pendingSends.clear();
+                draining.set(false);
+            }
+        }
+
+        /**
+         * Method used to execute the {@link #pendingSends}
+         */
+        private void drain() {
+            Runnable send;
+            while ((send = pendingSends.poll()) != null) {
+                try {
+                    send.run();
+                } catch (RuntimeException ignored) {
+                    // a failed send must not block the next ones
+                }
+            }
+            draining.set(false);
+            if (!pendingSends.isEmpty())
+                scheduleDrain();
+        }
+
+    }
+
+}
@@ -0,0 +1,228 @@
+package com.tecknobit.brownie.services.session.service;
+
+import com.tecknobit.brownie.services.hosts.repositories.HostsRepository;
+import com.tecknobit.brownie.services.session.entity.BrownieSession;
+import com.tecknobit.brownie.services.session.repository.BrownieSessionsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code SessionsAuthorizationCache} class is used to authorize the identifiers of the sessions, of the hosts and of
+ * the services received with the requests without querying the database each time. For each session is cached the
+ * set of its hosts and for each host the set of its services, the entries expire after a time-to-live and the number
+ * of the cached sessions is bounded, so the cache cannot grow indefinitely
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+@Service
+public class SessionsAuthorizationCache {
+
+    /**
+     * {@code sessionsRepository} instance used to check whether a session exists
+     */
+    private final BrownieSessionsRepository sessionsRepository;
+
+    /**
+     * {@code hostsRepository} instance used to load the hosts and the services of a session
+     */
+    private final HostsRepository hostsRepository;
+
+    /**
+     * {@code timeToLive} the time, in milliseconds, after which a cached session expires
+     */
+    private final long timeToLive;
+
+    /**
+     * {@code maxSessions} the max number of the sessions cached at the same time
+     */
+    private final int maxSessions;
+
+    /**
+     * {@code sessions} the cached authorizations of the sessions
+     */
+    private final ConcurrentHashMap<String, SessionAuthorization> sessions;
+
+    /**
+     * {@code invalidations} the counter of the invalidations performed, used to discard the authorizations loaded
+     * concurrently with an invalidation
+     */
+    private final AtomicLong invalidations;
+
+    /**
+     * Constructor used to init the cache
+     *
+     * @param sessionsRepository The instance used to check whether a session exists
+     * @param hostsRepository The instance used to load the hosts and the services of a session
+     * @param timeToLive The time, in seconds, after which a cached session expires
+     * @param maxSessions The max number of the sessions cached at the same time
+     */
+    @Autowired
+    public SessionsAuthorizationCache(BrownieSessionsRepository sessionsRepository, HostsRepository hostsRepository,
+                                      @Value("${brownie.sessions.authorization.ttl-seconds:300}") long timeToLive,
+                                      @Value("${brownie.sessions.authorization.max-sessions:1000}") int maxSessions) {
+        this.sessionsRepository = sessionsRepository;
+        this.hostsRepository = hostsRepository;
+        this.timeToLive = TimeUnit.SECONDS.toMillis(timeToLive);
+        this.maxSessions = maxSessions;
+        this.sessions = new ConcurrentHashMap<>();
+        this.invalidations = new AtomicLong();
+    }
+
+    /**
+     * Method used to check whether a session exists
+     *
+     * @param sessionId The identifier of the session to check
+     *
+     * @return whether the session exists as {@code boolean}
+     */
+    public boolean sessionExists(String sessionId) {
+        return getAuthorization(sessionId) != null;
+    }
+
+    /**
+     * Method used to check whether a host belongs to the specified session
+     *
+     * @param sessionId The identifier of the session
+     * @param hostId The identifier of the host
+     *
+     * @return whether the host belongs to the session as {@code boolean}
+     */
+    public boolean hostBelongsToSession(String sessionId, String hostId) {
+        SessionAuthorization authorization = getAuthorization(sessionId);
+        return authorization != null && authorization.hosts.containsKey(hostId);
+    }
+
+    /**
+     * Method used to check whether a service belongs to the specified host of the session
+     *
+     * @param sessionId The identifier of the session
+     * @param hostId The identifier of the host
+     * @param serviceId The identifier of the service
+     *
+     * @return whether the service belongs to the host as {@code boolean}
+     */
+    public boolean serviceBelongsToHost(String sessionId, String hostId, String serviceId) {
+        SessionAuthorization authorization = getAuthorization(sessionId);
+        if (authorization == null)
+            return false;
+        Set<String> services = authorization.hosts.get(hostId);
+        return services != null && services.contains(serviceId);
+    }
+
+    /**
+     * Method used to invalidate the cached authorization of a session, it must be invoked when the session is deleted
+     * or when its hosts or the services of its hosts change
+     *
+     * @param sessionId The identifier of the session to invalidate
+     */
+    public void invalidateSession(String sessionId) {
+        invalidations.incrementAndGet();
+        sessions.remove(sessionId);
+    }
+
+    /**
+     * Method used to invalidate the cached authorization of the session owner of a host, it must be invoked when the
+     * host is unregistered and its session is not known
+     *
+     * @param hostId The identifier of the host
+     */
+    public void invalidateHost(String hostId) {
+        invalidations.incrementAndGet();
+        sessions.values().removeIf(authorization -> authorization.hosts.containsKey(hostId));
+    }
+
+    /**
+     * Method used to get the authorization of a session, loading it from the database if not cached or expired
+     *
+     * @param sessionId The identifier of the session
+     *
+     * @return the authorization of the session as {@link SessionAuthorization}, null if the session does not exist
+     */
+    private SessionAuthorization getAuthorization(String sessionId) {
+        if (sessionId == null)
+            return null;
+        long now = System.currentTimeMillis();
+        SessionAuthorization authorization = sessions.get(sessionId);
+        if (authorization != null && !authorization.isExpired(now))
+            return authorization;
+        long invalidationsSnapshot = invalidations.get();
+        authorization = loadAuthorization(sessionId, now);
+        if (authorization == null) {
+            sessions.remove(sessionId);
+            return null;
+        }
+        if (invalidations.get() == invalidationsSnapshot) {
+            sessions.put(sessionId, authorization);
+            evictExceedingSessions(now);
+        }
+        return authorization;
+    }
+
+    /**
+     * Method used to load the authorization of a session from the database
+     *
+     * @param sessionId The identifier of the session
+     * @param now The current timestamp
+     *
+     * @return the authorization of the session as {@link SessionAuthorization}, null if the session does not exist
+     */
+    private SessionAuthorization loadAuthorization(String sessionId, long now) {
+        if (!sessionsRepository.existsById(sessionId))
+            return null;
+        Map<String, Set<String>> hosts = new HashMap<>();
+        for (Object[] row : hostsRepository.getSessionTopology(sessionId)) {
+            Set<String> services = hosts.computeIfAbsent((String) row[0], hostId -> new HashSet<>());
+            if (row[1] != null)
+                services.add((String) row[1]);
+        }
+        return new SessionAuthorization(hosts, now + timeToLive);
+    }
+
+    /**
+     * Method used to keep the number of the cached sessions under {@link #maxSessions}, removing first the expired
+     * sessions and then the sessions closest to the expiration
+     *
+     * @param now The current timestamp
+     */
+    private void evictExceedingSessions(long now) {
+        if (sessions.size() <= maxSessions)
+            return;
+        sessions.values().removeIf(authorization -> authorization.isExpired(now));
+        while (sessions.size() > maxSessions) {
+            Optional<Map.Entry<String, SessionAuthorization>> eldest = sessions.entrySet().stream()
+                    .min(Comparator.comparingLong(entry -> entry.getValue().expiration));
+            if (eldest.isEmpty())
+                return;
+            sessions.remove(eldest.get().getKey(), eldest.get().getValue());
+        }
+    }
+
+    /**
+     * The {@code SessionAuthorization} record represents the cached authorization of a {@link BrownieSession}
+     *
+     * @param hosts The identifiers of the hosts of the session mapped to the identifiers of their services
+     * @param expiration The timestamp when the authorization expires
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private record SessionAuthorization(Map<String, Set<String>> hosts, long expiration) {
+
+        /**
+         * Method used to check whether the authorization is expired
+         *
+         * @param now The current timestamp
+         * @return whether the authorization is expired as {@code boolean}
+         */
+        private boolean isExpired(long now) {
+            return now >= expiration;
+        }
+
+    }
+
+}
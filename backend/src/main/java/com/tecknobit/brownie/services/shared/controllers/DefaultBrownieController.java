@@ -2,7 +2,6 @@ package com.tecknobit.brownie.services.shared.controllers;
 
 import com.tecknobit.brownie.services.hosts.entities.BrownieHost;
 import com.tecknobit.brownie.services.hosts.services.HostsService;
-import com.tecknobit.brownie.services.session.entity.BrownieSession;
 import com.tecknobit.brownie.services.session.service.BrownieSessionsService;
 import com.tecknobit.equinoxbackend.environment.services.DefaultEquinoxController;
 import com.tecknobit.equinoxbackend.environment.services.builtin.controller.EquinoxController;
@@ -34,11 +33,6 @@ public class DefaultBrownieController extends DefaultEquinoxController {
      */
     protected final HostsService hostsService;
 
-    /**
-     * {@code currentBrownieSession} the current Brownie's session used in the request
-     */
-    protected BrownieSession currentBrownieSession;
-
     /**
      * Constructor used to init the controller
      *
@@ -58,8 +52,7 @@ public class DefaultBrownieController extends DefaultEquinoxController {
      * @return whether the session exists as {@code boolean}
      */
     protected boolean sessionExists(String sessionId) {
-        currentBrownieSession = sessionsService.getBrownieSession(sessionId);
-        return currentBrownieSession != null;
+        return sessionsService.sessionExists(sessionId);
     }
 
     /**
@@ -0,0 +1,19 @@
+package com.tecknobit.brownie.services.shared.dtos;
+
+import com.tecknobit.brownie.services.shared.entities.BrownieEvent;
+import com.tecknobit.equinoxcore.annotations.DTO;
+
+/**
+ * The {@code BrownieEventEntry} record class is used as {@link DTO} to carry the data of a {@link BrownieEvent} to
+ * register in a batch of events
+ *
+ * @param eventId      The identifier of the event
+ * @param type         The type of the event
+ * @param eventDate    The date when the event occurred
+ * @param extra        The extra information related to the event, can be null
+ * @param eventOwnerId The identifier of the owner of the event
+ * @author N7ghtm4r3 - Tecknobit
+ */
+@DTO
+public record BrownieEventEntry(String eventId, String type, long eventDate, String extra, String eventOwnerId) {
+}
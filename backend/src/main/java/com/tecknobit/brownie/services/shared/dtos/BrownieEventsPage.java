@@ -0,0 +1,64 @@
+package com.tecknobit.brownie.services.shared.dtos;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.tecknobit.brownie.services.shared.entities.BrownieEvent;
+import com.tecknobit.equinoxcore.annotations.DTO;
+
+import java.util.List;
+
+import static com.tecknobit.browniecore.ConstantsKt.EVENTS_KEY;
+import static com.tecknobit.browniecore.ConstantsKt.NEXT_CURSOR_KEY;
+
+/**
+ * The {@code BrownieEventsPage} class is used as {@link DTO} to share a page of the history of the {@link BrownieEvent}
+ * of an owner, the next page can be requested with the {@link #nextCursor}
+ *
+ * @param <E> the type of the events in the page
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+@DTO
+public class BrownieEventsPage<E extends BrownieEvent> {
+
+    /**
+     * {@code events} the events in the page sorted from the newest to the oldest
+     */
+    private final List<E> events;
+
+    /**
+     * {@code nextCursor} the cursor to request the next page, null when there are no more events
+     */
+    private final String nextCursor;
+
+    /**
+     * Constructor to instantiate the object
+     *
+     * @param events     The events in the page sorted from the newest to the oldest
+     * @param nextCursor The cursor to request the next page, null when there are no more events
+     */
+    public BrownieEventsPage(List<E> events, String nextCursor) {
+        this.events = events;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Method to get the {@link #events} instance
+     *
+     * @return the {@link #events} instance as {@link List} of {@link E}
+     */
+    @JsonGetter(EVENTS_KEY)
+    public List<E> getEvents() {
+        return events;
+    }
+
+    /**
+     * Method to get the {@link #nextCursor} instance
+     *
+     * @return the {@link #nextCursor} instance as {@link String}
+     */
+    @JsonGetter(NEXT_CURSOR_KEY)
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.tecknobit.brownie.services.shared.dtos;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.tecknobit.equinoxcore.annotations.DTO;
+
+import java.util.List;
+
+import static com.tecknobit.browniecore.ConstantsKt.STATUSES_KEY;
+import static com.tecknobit.browniecore.ConstantsKt.VERSION_KEY;
+
+/**
+ * The {@code StatusChanges} class is used as {@link DTO} to share the statuses changed after a version, the next changes
+ * can be requested with the {@link #version}
+ *
+ * @param <S> the type of the statuses
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+@DTO
+public class StatusChanges<S> {
+
+    /**
+     * {@code statuses} the statuses changed after the requested version
+     */
+    private final List<S> statuses;
+
+    /**
+     * {@code version} the current version of the statuses, to use to request the next changes
+     */
+    private final long version;
+
+    /**
+     * Constructor to instantiate the object
+     *
+     * @param statuses The statuses changed after the requested version
+     * @param version  The current version of the statuses, to use to request the next changes
+     */
+    public StatusChanges(List<S> statuses, long version) {
+        this.statuses = statuses;
+        this.version = version;
+    }
+
+    /**
+     * Method to get the {@link #statuses} instance
+     *
+     * @return the {@link #statuses} instance as {@link List} of {@link S}
+     */
+    @JsonGetter(STATUSES_KEY)
+    public List<S> getStatuses() {
+        return statuses;
+    }
+
+    /**
+     * Method to get the {@link #version} instance
+     *
+     * @return the {@link #version} instance as {@code long}
+     */
+    @JsonGetter(VERSION_KEY)
+    public long getVersion() {
+        return version;
+    }
+
+}
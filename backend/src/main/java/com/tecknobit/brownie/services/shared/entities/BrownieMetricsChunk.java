@@ -0,0 +1,116 @@
+package com.tecknobit.brownie.services.shared.entities;
+
+import com.tecknobit.brownie.helpers.metrics.MetricsChunk;
+import com.tecknobit.brownie.helpers.metrics.MetricsSample;
+import com.tecknobit.brownie.helpers.metrics.MetricsTier;
+import com.tecknobit.equinoxbackend.environment.services.builtin.entity.EquinoxItem;
+import com.tecknobit.equinoxcore.annotations.Structure;
+import jakarta.persistence.*;
+
+import java.util.List;
+
+import static com.tecknobit.browniecore.ConstantsKt.*;
+
+/**
+ * The {@code BrownieMetricsChunk} class is useful to represent a sealed chunk of the samples of the metrics of a
+ * Brownie's item, the samples are stored encoded as {@link MetricsChunk}
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see EquinoxItem
+ */
+@Structure
+@MappedSuperclass
+public abstract class BrownieMetricsChunk extends EquinoxItem {
+
+    /**
+     * {@code tier} the tier of the samples of the chunk
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = METRICS_TIER_KEY)
+    protected final MetricsTier tier;
+
+    /**
+     * {@code chunkStart} the start of the time span covered by the chunk
+     */
+    @Column(name = CHUNK_START_KEY)
+    protected final long chunkStart;
+
+    /**
+     * {@code chunkEnd} the timestamp of the last sample of the chunk
+     */
+    @Column(name = CHUNK_END_KEY)
+    protected final long chunkEnd;
+
+    /**
+     * {@code samples} the encoded samples of the chunk
+     */
+    @Lob
+    @Column(
+            name = SAMPLES_KEY,
+            columnDefinition = "MEDIUMBLOB"
+    )
+    protected final byte[] samples;
+
+    /**
+     * Constructor to instantiate the object
+     *
+     * @apiNote empty constructor required
+     */
+    public BrownieMetricsChunk() {
+        this(null, null, 0, 0, null);
+    }
+
+    /**
+     * Constructor to instantiate the object
+     *
+     * @param id The identifier of the chunk
+     * @param tier The tier of the samples of the chunk
+     * @param chunkStart The start of the time span covered by the chunk
+     * @param chunkEnd The timestamp of the last sample of the chunk
+     * @param samples The encoded samples of the chunk
+     */
+    public BrownieMetricsChunk(String id, MetricsTier tier, long chunkStart, long chunkEnd, byte[] samples) {
+        super(id);
+        this.tier = tier;
+        this.chunkStart = chunkStart;
+        this.chunkEnd = chunkEnd;
+        this.samples = samples;
+    }
+
+    /**
+     * Method to get the {@link #tier} instance
+     *
+     * @return the {@link #tier} instance as {@link MetricsTier}
+     */
+    public MetricsTier getTier() {
+        return tier;
+    }
+
+    /**
+     * Method to get the {@link #chunkStart} instance
+     *
+     * @return the {@link #chunkStart} instance as {@code long}
+     */
+    public long getChunkStart() {
+        return chunkStart;
+    }
+
+    /**
+     * Method to get the {@link #chunkEnd} instance
+     *
+     * @return the {@link #chunkEnd} instance as {@code long}
+     */
+    public long getChunkEnd() {
+        return chunkEnd;
+    }
+
+    /**
+     * Method used to decode the samples of the chunk
+     *
+     * @return the samples as {@link List} of {@link MetricsSample}
+     */
+    public List<MetricsSample> decodeSamples() {
+        return MetricsChunk.decode(chunkStart, samples);
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.tecknobit.brownie.services.shared.entities;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.tecknobit.equinoxbackend.annotations.EmptyConstructor;
+import com.tecknobit.equinoxbackend.environment.services.builtin.entity.EquinoxItem;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import static com.tecknobit.browniecore.ConstantsKt.*;
+
+/**
+ * The {@code EventsDailyAggregate} class is useful to represent the daily roll-up of the {@link BrownieEvent} of the
+ * same type and owner which have been compacted by the retention routine
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see EquinoxItem
+ */
+@Entity
+@Table(
+        name = EVENTS_DAILY_AGGREGATES_KEY,
+        indexes = @Index(name = "events_daily_aggregates_owner_idx", columnList = EVENT_OWNER_KEY + "," + AGGREGATE_DAY_KEY)
+)
+public class EventsDailyAggregate extends EquinoxItem {
+
+    /**
+     * {@code eventsSource} the name of the table where the aggregated events were stored
+     */
+    @Column(name = EVENTS_SOURCE_KEY)
+    private final String eventsSource;
+
+    /**
+     * {@code eventOwner} the identifier of the owner of the aggregated events
+     */
+    @Column(name = EVENT_OWNER_KEY)
+    private final String eventOwner;
+
+    /**
+     * {@code aggregateDay} the timestamp of the start of the day of the aggregated events
+     */
+    @Column(name = AGGREGATE_DAY_KEY)
+    private final long aggregateDay;
+
+    /**
+     * {@code type} the type of the aggregated events
+     */
+    @Column(name = TYPE_KEY)
+    private final String type;
+
+    /**
+     * {@code eventsCount} the number of the aggregated events
+     */
+    @Column(name = EVENTS_COUNT_KEY)
+    private final long eventsCount;
+
+    /**
+     * {@code downtime} the total time, in milliseconds, the owner has been down after the aggregated events
+     */
+    @Column(name = DOWNTIME_KEY)
+    private final long downtime;
+
+    /**
+     * Constructor to instantiate the object
+     *
+     * @apiNote empty constructor required
+     */
+    @EmptyConstructor
+    public EventsDailyAggregate() {
+        this(null, null, null, 0, null, 0, 0);
+    }
+
+    /**
+     * Constructor to instantiate the object
+     *
+     * @param id           The identifier of the aggregate
+     * @param eventsSource The name of the table where the aggregated events were stored
+     * @param eventOwner   The identifier of the owner of the aggregated events
+     * @param aggregateDay The timestamp of the start of the day of the aggregated events
+     * @param type         The type of the aggregated events
+     * @param eventsCount  The number of the aggregated events
+     * @param downtime     The total time, in milliseconds, the owner has been down after the aggregated events
+     */
+    public EventsDailyAggregate(String id, String eventsSource, String eventOwner, long aggregateDay, String type,
+                                long eventsCount, long downtime) {
+        super(id);
+        this.eventsSource = eventsSource;
+        this.eventOwner = eventOwner;
+        this.aggregateDay = aggregateDay;
+        this.type = type;
+        this.eventsCount = eventsCount;
+        this.downtime = downtime;
+    }
+
+    /**
+     * Method to get the {@link #eventsSource} instance
+     *
+     * @return the {@link #eventsSource} instance as {@link String}
+     */
+    @JsonGetter(EVENTS_SOURCE_KEY)
+    public String getEventsSource() {
+        return eventsSource;
+    }
+
+    /**
+     * Method to get the {@link #eventOwner} instance
+     *
+     * @return the {@link #eventOwner} instance as {@link String}
+     */
+    @JsonGetter(EVENT_OWNER_KEY)
+    public String getEventOwner() {
+        return eventOwner;
+    }
+
+    /**
+     * Method to get the {@link #aggregateDay} instance
+     *
+     * @return the {@link #aggregateDay} instance as {@code long}
+     */
+    @JsonGetter(AGGREGATE_DAY_KEY)
+    public long getAggregateDay() {
+        return aggregateDay;
+    }
+
+    /**
+     * Method to get the {@link #type} instance
+     *
+     * @return the {@link #type} instance as {@link String}
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Method to get the {@link #eventsCount} instance
+     *
+     * @return the {@link #eventsCount} instance as {@code long}
+     */
+    @JsonGetter(EVENTS_COUNT_KEY)
+    public long getEventsCount() {
+        return eventsCount;
+    }
+
+    /**
+     * Method to get the {@link #downtime} instance
+     *
+     * @return the {@link #downtime} instance as {@code long}
+     */
+    public long getDowntime() {
+        return downtime;
+    }
+
+}
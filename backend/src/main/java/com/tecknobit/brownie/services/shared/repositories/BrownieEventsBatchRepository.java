@@ -0,0 +1,84 @@
+package com.tecknobit.brownie.services.shared.repositories;
+
+import com.tecknobit.brownie.services.shared.dtos.BrownieEventEntry;
+import com.tecknobit.brownie.services.shared.entities.BrownieEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.tecknobit.browniecore.ConstantsKt.*;
+import static com.tecknobit.equinoxcore.helpers.CommonKeysKt.IDENTIFIER_KEY;
+
+/**
+ * The {@code BrownieEventsBatchRepository} class is useful to register more {@link BrownieEvent} with a single
+ * multi-row {@code INSERT} instead of one statement for each event
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see BrownieEventsRepository
+ */
+@Repository
+public class BrownieEventsBatchRepository {
+
+    /**
+     * {@code MAX_ROWS_PER_STATEMENT} the max number of events inserted with a single statement
+     */
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    /**
+     * {@code EVENT_ROW_PLACEHOLDERS} the placeholders of a single event row
+     */
+    private static final String EVENT_ROW_PLACEHOLDERS = "(?,?,?,?,?)";
+
+    /**
+     * {@code jdbcTemplate} the template used to execute the statements
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor to instantiate the repository
+     *
+     * @param jdbcTemplate The template used to execute the statements
+     */
+    @Autowired
+    public BrownieEventsBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Method used to register a batch of events
+     *
+     * @param eventsTable The table where register the events
+     * @param eventOwnerColumn The column of the identifier of the owner of the events
+     * @param events The events to register
+     */
+    public void registerEvents(String eventsTable, String eventOwnerColumn, List<BrownieEventEntry> events) {
+        for (int offset = 0; offset < events.size(); offset += MAX_ROWS_PER_STATEMENT) {
+            List<BrownieEventEntry> chunk = events.subList(offset, Math.min(offset + MAX_ROWS_PER_STATEMENT,
+                    events.size()));
+            StringBuilder query = new StringBuilder("INSERT INTO ")
+                    .append(eventsTable).append(" (")
+                    .append(IDENTIFIER_KEY).append(",")
+                    .append(TYPE_KEY).append(",")
+                    .append(EVENT_DATE_KEY).append(",")
+                    .append(EXTRA_KEY).append(",")
+                    .append(eventOwnerColumn).append(") VALUES ");
+            List<Object> arguments = new ArrayList<>(chunk.size() * 5);
+            for (int j = 0; j < chunk.size(); j++) {
+                if (j > 0)
+                    query.append(",");
+                query.append(EVENT_ROW_PLACEHOLDERS);
+                BrownieEventEntry event = chunk.get(j);
+                arguments.add(event.eventId());
+                arguments.add(event.type());
+                arguments.add(event.eventDate());
+                arguments.add(event.extra());
+                arguments.add(event.eventOwnerId());
+            }
+            jdbcTemplate.update(query.toString(), arguments.toArray());
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.tecknobit.brownie.services.shared.repositories;
+
+import com.tecknobit.brownie.services.shared.dtos.BrownieEventEntry;
+import com.tecknobit.brownie.services.shared.entities.BrownieEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static com.tecknobit.browniecore.ConstantsKt.*;
+import static com.tecknobit.equinoxbackend.environment.services.builtin.service.EquinoxItemsHelper._WHERE_;
+import static com.tecknobit.equinoxcore.helpers.CommonKeysKt.IDENTIFIER_KEY;
+
+/**
+ * The {@code BrownieEventsHistoryRepository} class is useful to read the history of the {@link BrownieEvent} of any
+ * events table with a keyset pagination, so each page is retrieved seeking the {@code (owner, event_date)} index
+ * instead of scanning and skipping the previous pages
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see BrownieEventsRepository
+ */
+@Repository
+public class BrownieEventsHistoryRepository {
+
+    /**
+     * {@code RANK_COLUMN} the column of the rank of the event in the history of its owner
+     */
+    private static final String RANK_COLUMN = "event_rank";
+
+    /**
+     * {@code jdbcTemplate} the template used to execute the statements
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor to instantiate the repository
+     *
+     * @param jdbcTemplate The template used to execute the statements
+     */
+    @Autowired
+    public BrownieEventsHistoryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Method used to get a page of the history of the events of an owner sorted from the newest to the oldest
+     *
+     * @param eventsTable The table of the events
+     * @param eventOwnerColumn The column of the identifier of the owner of the events
+     * @param eventOwnerId The identifier of the owner of the events
+     * @param types The types of the events to retrieve, if empty all the types are retrieved
+     * @param fromDate The date from which retrieve the events, can be null
+     * @param toDate The date until which retrieve the events, can be null
+     * @param cursorDate The date of the last event of the previous page, can be null for the first page
+     * @param cursorId The identifier of the last event of the previous page, can be null for the first page
+     * @param limit The max number of events to retrieve
+     *
+     * @return the events as {@link List} of {@link BrownieEventEntry}
+     */
+    public List<BrownieEventEntry> getEvents(String eventsTable, String eventOwnerColumn, String eventOwnerId,
+                                             Collection<String> types, Long fromDate, Long toDate, Long cursorDate,
+                                             String cursorId, int limit) {
+        StringBuilder query = new StringBuilder("SELECT ")
+                .append(IDENTIFIER_KEY).append(",")
+                .append(TYPE_KEY).append(",")
+                .append(EVENT_DATE_KEY).append(",")
+                .append(EXTRA_KEY).append(",")
+                .append(eventOwnerColumn)
+                .append(" FROM ").append(eventsTable)
+                .append(_WHERE_).append(eventOwnerColumn).append("=?");
+        List<Object> arguments = new ArrayList<>();
+        arguments.add(eventOwnerId);
+        if (!types.isEmpty()) {
+            query.append(" AND ").append(TYPE_KEY).append(" IN (")
+                    .append(String.join(",", Collections.nCopies(types.size(), "?"))).append(")");
+            arguments.addAll(types);
+        }
+        if (fromDate != null) {
+            query.append(" AND ").append(EVENT_DATE_KEY).append(">=?");
+            arguments.add(fromDate);
+        }
+        if (toDate != null) {
+            query.append(" AND ").append(EVENT_DATE_KEY).append("<=?");
+            arguments.add(toDate);
+        }
+        if (cursorDate != null && cursorId != null) {
+            query.append(" AND (").append(EVENT_DATE_KEY).append("<? OR (")
+                    .append(EVENT_DATE_KEY).append("=? AND ").append(IDENTIFIER_KEY).append("<?))");
+            arguments.add(cursorDate);
+            arguments.add(cursorDate);
+            arguments.add(cursorId);
+        }
+        query.append(" ORDER BY ").append(EVENT_DATE_KEY).append(" DESC,")
+                .append(IDENTIFIER_KEY).append(" DESC LIMIT ?");
+        arguments.add(limit);
+        return jdbcTemplate.query(query.toString(), eventEntryMapper(eventOwnerColumn), arguments.toArray());
+    }
+
+    /**
+     * Method used to get the latest events of more owners with a single query
+     *
+     * @param eventsTable The table of the events
+     * @param eventOwnerColumn The column of the identifier of the owner of the events
+     * @param eventOwnerIds The identifiers of the owners of the events
+     * @param limit The max number of events to retrieve for each owner
+     *
+     * @return the events sorted from the newest to the oldest as {@link List} of {@link BrownieEventEntry}
+     */
+    public List<BrownieEventEntry> getLatestEvents(String eventsTable, String eventOwnerColumn,
+                                                   Collection<String> eventOwnerIds, int limit) {
+        if (eventOwnerIds.isEmpty())
+            return List.of();
+        String columns = IDENTIFIER_KEY + "," + TYPE_KEY + "," + EVENT_DATE_KEY + "," + EXTRA_KEY + "," +
+                eventOwnerColumn;
+        String query = "SELECT " + columns + " FROM (SELECT " + columns + ", ROW_NUMBER() OVER (PARTITION BY " +
+                eventOwnerColumn + " ORDER BY " + EVENT_DATE_KEY + " DESC," + IDENTIFIER_KEY + " DESC) AS " +
+                RANK_COLUMN + " FROM " + eventsTable + _WHERE_ + eventOwnerColumn + " IN (" +
+                String.join(",", Collections.nCopies(eventOwnerIds.size(), "?")) + ")) ranked_events" +
+                _WHERE_ + RANK_COLUMN + "<=? ORDER BY " + EVENT_DATE_KEY + " DESC," + IDENTIFIER_KEY + " DESC";
+        List<Object> arguments = new ArrayList<>(eventOwnerIds);
+        arguments.add(limit);
+        return jdbcTemplate.query(query, eventEntryMapper(eventOwnerColumn), arguments.toArray());
+    }
+
+    /**
+     * Method used to create the mapper of the rows of an events table
+     *
+     * @param eventOwnerColumn The column of the identifier of the owner of the events
+     * @return the mapper as {@link RowMapper} of {@link BrownieEventEntry}
+     */
+    private RowMapper<BrownieEventEntry> eventEntryMapper(String eventOwnerColumn) {
+        return (resultSet, rowNum) -> new BrownieEventEntry(
+                resultSet.getString(IDENTIFIER_KEY),
+                resultSet.getString(TYPE_KEY),
+                resultSet.getLong(EVENT_DATE_KEY),
+                resultSet.getString(EXTRA_KEY),
+                resultSet.getString(eventOwnerColumn)
+        );
+    }
+
+}
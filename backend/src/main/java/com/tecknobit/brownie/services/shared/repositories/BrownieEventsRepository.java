@@ -5,6 +5,9 @@ import com.tecknobit.equinoxcore.annotations.Structure;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.NoRepositoryBean;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * The {@code BrownieEventsRepository} provides the methods to manage any {@link BrownieEvent} in the dedicated tables
  *
@@ -26,6 +29,16 @@ public interface BrownieEventsRepository<E extends BrownieEvent> extends JpaRepo
      */
     Long getLastUpEvent(String eventOwnerId);
 
+    /**
+     * Query used to get the last up event of more owners at once
+     *
+     * @param eventOwnerIds The identifiers of the owners of the events
+     *
+     * @return the pairs made up of the identifier of the owner and the timestamp of its last up event as {@link List}
+     * of array of {@link Object}
+     */
+    List<Object[]> getLastUpEvents(Collection<String> eventOwnerIds);
+
     /**
      * Query used to register a new event
      *
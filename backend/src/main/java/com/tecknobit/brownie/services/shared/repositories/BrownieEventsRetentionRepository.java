@@ -0,0 +1,124 @@
+package com.tecknobit.brownie.services.shared.repositories;
+
+import com.tecknobit.brownie.services.shared.dtos.BrownieEventEntry;
+import com.tecknobit.brownie.services.shared.entities.BrownieEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.tecknobit.browniecore.ConstantsKt.*;
+import static com.tecknobit.equinoxbackend.environment.services.builtin.service.EquinoxItemsHelper._WHERE_;
+import static com.tecknobit.equinoxcore.helpers.CommonKeysKt.IDENTIFIER_KEY;
+
+/**
+ * The {@code BrownieEventsRetentionRepository} class is useful to read and to delete the {@link BrownieEvent} which
+ * exceed the retention windows of any events table
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see BrownieEventsRepository
+ */
+@Repository
+public class BrownieEventsRetentionRepository {
+
+    /**
+     * {@code MAX_IDS_PER_STATEMENT} the max number of events deleted with a single statement
+     */
+    private static final int MAX_IDS_PER_STATEMENT = 500;
+
+    /**
+     * {@code jdbcTemplate} the template used to execute the statements
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor to instantiate the repository
+     *
+     * @param jdbcTemplate The template used to execute the statements
+     */
+    @Autowired
+    public BrownieEventsRetentionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Method used to get the owners which have at least one event older than the threshold or more events than the
+     * max allowed
+     *
+     * @param eventsTable The table of the events
+     * @param eventOwnerColumn The column of the identifier of the owner of the events
+     * @param threshold The timestamp before which the events exceed the time window
+     * @param maxEvents The max number of events allowed for each owner
+     *
+     * @return the identifiers of the owners as {@link List} of {@link String}
+     */
+    public List<String> getEventOwnersToCompact(String eventsTable, String eventOwnerColumn, long threshold,
+                                                int maxEvents) {
+        return jdbcTemplate.queryForList("SELECT " + eventOwnerColumn + " FROM " + eventsTable +
+                " GROUP BY " + eventOwnerColumn + " HAVING MIN(" + EVENT_DATE_KEY + ")<? OR COUNT(*)>?",
+                String.class, threshold, maxEvents);
+    }
+
+    /**
+     * Method used to get the date of the oldest event which still falls into the count window of an owner
+     *
+     * @param eventsTable The table of the events
+     * @param eventOwnerColumn The column of the identifier of the owner of the events
+     * @param eventOwnerId The identifier of the owner of the events
+     * @param maxEvents The max number of events allowed for the owner
+     *
+     * @return the date of the oldest event in the count window as {@link Long}, null if the owner does not exceed
+     * the window
+     */
+    public Long getCountWindowBoundary(String eventsTable, String eventOwnerColumn, String eventOwnerId,
+                                       int maxEvents) {
+        List<Long> boundary = jdbcTemplate.queryForList("SELECT " + EVENT_DATE_KEY + " FROM " + eventsTable +
+                _WHERE_ + eventOwnerColumn + "=? ORDER BY " + EVENT_DATE_KEY + " DESC LIMIT 1 OFFSET ?",
+                Long.class, eventOwnerId, maxEvents - 1);
+        if (boundary.isEmpty())
+            return null;
+        return boundary.get(0);
+    }
+
+    /**
+     * Method used to get the events of an owner occurred before the threshold sorted by date
+     *
+     * @param eventsTable The table of the events
+     * @param eventOwnerColumn The column of the identifier of the owner of the events
+     * @param eventOwnerId The identifier of the owner of the events
+     * @param threshold The timestamp before which the events are retrieved
+     *
+     * @return the events as {@link List} of {@link BrownieEventEntry}
+     */
+    public List<BrownieEventEntry> getEventsBefore(String eventsTable, String eventOwnerColumn, String eventOwnerId,
+                                                   long threshold) {
+        return jdbcTemplate.query("SELECT " + IDENTIFIER_KEY + "," + TYPE_KEY + "," + EVENT_DATE_KEY + "," +
+                        EXTRA_KEY + " FROM " + eventsTable + _WHERE_ + eventOwnerColumn + "=? AND " +
+                        EVENT_DATE_KEY + "<? ORDER BY " + EVENT_DATE_KEY + "," + IDENTIFIER_KEY,
+                (resultSet, rowNum) -> new BrownieEventEntry(
+                        resultSet.getString(IDENTIFIER_KEY),
+                        resultSet.getString(TYPE_KEY),
+                        resultSet.getLong(EVENT_DATE_KEY),
+                        resultSet.getString(EXTRA_KEY),
+                        eventOwnerId
+                ), eventOwnerId, threshold);
+    }
+
+    /**
+     * Method used to delete a set of events
+     *
+     * @param eventsTable The table of the events
+     * @param eventIds The identifiers of the events to delete
+     */
+    public void deleteEvents(String eventsTable, List<String> eventIds) {
+        for (int offset = 0; offset < eventIds.size(); offset += MAX_IDS_PER_STATEMENT) {
+            List<String> chunk = eventIds.subList(offset, Math.min(offset + MAX_IDS_PER_STATEMENT, eventIds.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.update("DELETE FROM " + eventsTable + _WHERE_ + IDENTIFIER_KEY + " IN (" + placeholders + ")",
+                    chunk.toArray());
+        }
+    }
+
+}
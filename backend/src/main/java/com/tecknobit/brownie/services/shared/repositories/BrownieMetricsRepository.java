@@ -0,0 +1,54 @@
+package com.tecknobit.brownie.services.shared.repositories;
+
+import com.tecknobit.brownie.services.shared.entities.BrownieMetricsChunk;
+import com.tecknobit.equinoxcore.annotations.Structure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+import java.util.List;
+
+/**
+ * The {@code BrownieMetricsRepository} provides the methods to manage any {@link BrownieMetricsChunk} in the dedicated
+ * tables
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see JpaRepository
+ * @see BrownieMetricsChunk
+ */
+@Structure
+@NoRepositoryBean
+public interface BrownieMetricsRepository<C extends BrownieMetricsChunk> extends JpaRepository<C, String> {
+
+    /**
+     * Query used to store a sealed chunk of samples
+     *
+     * @param chunkId The identifier of the chunk
+     * @param tier The tier of the samples of the chunk
+     * @param chunkStart The start of the time span covered by the chunk
+     * @param chunkEnd The timestamp of the last sample of the chunk
+     * @param samples The encoded samples of the chunk
+     * @param ownerId The identifier of the owner of the chunk
+     */
+    void storeChunk(String chunkId, String tier, long chunkStart, long chunkEnd, byte[] samples, String ownerId);
+
+    /**
+     * Query used to get the sealed chunks of a tier which overlap the specified range
+     *
+     * @param ownerId The identifier of the owner of the chunks
+     * @param tier The tier of the chunks
+     * @param fromDate The start of the range
+     * @param toDate The end of the range
+     *
+     * @return the chunks ordered by their start as {@link List} of {@link C}
+     */
+    List<C> getChunks(String ownerId, String tier, long fromDate, long toDate);
+
+    /**
+     * Query used to delete the chunks of a tier whose samples are all older than the retention date
+     *
+     * @param tier The tier of the chunks
+     * @param retentionDate The date before which the samples are expired
+     */
+    void deleteExpiredChunks(String tier, long retentionDate);
+
+}
@@ -0,0 +1,94 @@
+package com.tecknobit.brownie.services.shared.repositories;
+
+import com.tecknobit.brownie.services.shared.entities.EventsDailyAggregate;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+import static com.tecknobit.browniecore.ConstantsKt.*;
+import static com.tecknobit.equinoxcore.helpers.CommonKeysKt.IDENTIFIER_KEY;
+
+/**
+ * The {@code EventsDailyAggregatesRepository} interface is useful to manage the queries of the
+ * {@link EventsDailyAggregate}
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see JpaRepository
+ */
+@Repository
+public interface EventsDailyAggregatesRepository extends JpaRepository<EventsDailyAggregate, String> {
+
+    /**
+     * Query used to register a daily aggregate, if the aggregate already exists its counters are incremented
+     *
+     * @param aggregateId  The identifier of the aggregate
+     * @param eventsSource The name of the table where the aggregated events were stored
+     * @param eventOwner   The identifier of the owner of the aggregated events
+     * @param aggregateDay The timestamp of the start of the day of the aggregated events
+     * @param type         The type of the aggregated events
+     * @param eventsCount  The number of the aggregated events
+     * @param downtime     The total time, in milliseconds, the owner has been down after the aggregated events
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(
+            value = "INSERT INTO " + EVENTS_DAILY_AGGREGATES_KEY + " (" +
+                    IDENTIFIER_KEY + "," +
+                    EVENTS_SOURCE_KEY + "," +
+                    EVENT_OWNER_KEY + "," +
+                    AGGREGATE_DAY_KEY + "," +
+                    TYPE_KEY + "," +
+                    EVENTS_COUNT_KEY + "," +
+                    DOWNTIME_KEY + ") VALUES (" +
+                    ":" + IDENTIFIER_KEY + "," +
+                    ":" + EVENTS_SOURCE_KEY + "," +
+                    ":" + EVENT_OWNER_KEY + "," +
+                    ":" + AGGREGATE_DAY_KEY + "," +
+                    ":" + TYPE_KEY + "," +
+                    ":" + EVENTS_COUNT_KEY + "," +
+                    ":" + DOWNTIME_KEY + ") ON DUPLICATE KEY UPDATE " +
+                    EVENTS_COUNT_KEY + "=" + EVENTS_COUNT_KEY + "+:" + EVENTS_COUNT_KEY + "," +
+                    DOWNTIME_KEY + "=" + DOWNTIME_KEY + "+:" + DOWNTIME_KEY,
+            nativeQuery = true
+    )
+    void registerAggregate(
+            @Param(IDENTIFIER_KEY) String aggregateId,
+            @Param(EVENTS_SOURCE_KEY) String eventsSource,
+            @Param(EVENT_OWNER_KEY) String eventOwner,
+            @Param(AGGREGATE_DAY_KEY) long aggregateDay,
+            @Param(TYPE_KEY) String type,
+            @Param(EVENTS_COUNT_KEY) long eventsCount,
+            @Param(DOWNTIME_KEY) long downtime
+    );
+
+    /**
+     * Query used to get the daily aggregates of an owner in a range of days, sorted from the newest to the oldest
+     *
+     * @param eventsSource The name of the table where the aggregated events were stored
+     * @param eventOwner   The identifier of the owner of the aggregated events
+     * @param fromDay      The timestamp from which retrieve the aggregates
+     * @param toDay        The timestamp until which retrieve the aggregates
+     *
+     * @return the daily aggregates as {@link List} of {@link EventsDailyAggregate}
+     */
+    @Query(
+            value = "SELECT * FROM " + EVENTS_DAILY_AGGREGATES_KEY + " WHERE " +
+                    EVENTS_SOURCE_KEY + "=:" + EVENTS_SOURCE_KEY + " AND " +
+                    EVENT_OWNER_KEY + "=:" + EVENT_OWNER_KEY + " AND " +
+                    AGGREGATE_DAY_KEY + " BETWEEN :" + FROM_DATE_KEY + " AND :" + TO_DATE_KEY +
+                    " ORDER BY " + AGGREGATE_DAY_KEY + " DESC, " + TYPE_KEY,
+            nativeQuery = true
+    )
+    List<EventsDailyAggregate> getDailyAggregates(
+            @Param(EVENTS_SOURCE_KEY) String eventsSource,
+            @Param(EVENT_OWNER_KEY) String eventOwner,
+            @Param(FROM_DATE_KEY) long fromDay,
+            @Param(TO_DATE_KEY) long toDay
+    );
+
+}
\ No newline at end of file
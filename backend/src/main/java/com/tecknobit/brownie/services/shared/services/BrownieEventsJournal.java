@@ -0,0 +1,249 @@
+package com.tecknobit.brownie.services.shared.services;
+
+import com.tecknobit.brownie.services.shared.dtos.BrownieEventEntry;
+import com.tecknobit.brownie.services.shared.entities.BrownieEvent;
+import com.tecknobit.brownie.services.shared.repositories.BrownieEventsBatchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * The {@code BrownieEventsJournal} class is used to register the {@link BrownieEvent} with a write-behind strategy: the
+ * events are appended to a bounded in-memory buffer and then flushed in batches when the buffer reaches the
+ * {@link #FLUSH_THRESHOLD} or each {@link #FLUSH_INTERVAL}. When the buffer is full the thread which is appending the
+ * event performs the flush by itself, slowing down the producers until the buffer has room again. When a batch cannot
+ * be registered, for example because the database is temporarily unreachable, it is kept and retried with a bounded
+ * backoff before the next events, only the events rejected by a constraint of the table are discarded
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see BrownieEventsRecorder
+ */
+public class BrownieEventsJournal {
+
+    /**
+     * {@code LOGGER} is the instance used to log about the flushes of the journal
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(BrownieEventsJournal.class);
+
+    /**
+     * {@code JOURNAL_CAPACITY} the max number of events which can be buffered
+     */
+    private static final int JOURNAL_CAPACITY = 4096;
+
+    /**
+     * {@code FLUSH_THRESHOLD} the number of buffered events which triggers a flush
+     */
+    private static final int FLUSH_THRESHOLD = 128;
+
+    /**
+     * {@code FLUSH_INTERVAL} the interval, in milliseconds, between the periodic flushes
+     */
+    private static final long FLUSH_INTERVAL = 1000;
+
+    /**
+     * {@code MAX_RETRY_DELAY} the max delay, in milliseconds, between the retries of a batch which cannot be registered
+     */
+    private static final long MAX_RETRY_DELAY = 60000;
+
+    /**
+     * {@code batchRepository} instance used to register the buffered events with a single statement
+     */
+    private final BrownieEventsBatchRepository batchRepository;
+
+    /**
+     * {@code eventsTable} the name of the table where the events are registered
+     */
+    private final String eventsTable;
+
+    /**
+     * {@code eventOwnerColumn} the name of the column of the identifier of the owner of the events
+     */
+    private final String eventOwnerColumn;
+
+    /**
+     * {@code buffer} the bounded buffer of the events waiting to be flushed
+     */
+    private final ArrayBlockingQueue<BrownieEventEntry> buffer;
+
+    /**
+     * {@code pendingEvents} the batch of events drained from the {@link #buffer} and not registered yet, it is retried
+     * before draining the next events
+     */
+    private final List<BrownieEventEntry> pendingEvents;
+
+    /**
+     * {@code retryDelay} the current delay, in milliseconds, before retrying the {@link #pendingEvents}
+     */
+    private long retryDelay;
+
+    /**
+     * {@code nextRetryDate} the date from which the {@link #pendingEvents} can be retried
+     */
+    private volatile long nextRetryDate;
+
+    /**
+     * {@code flushLock} the lock used to serialize the flushes, so the events are registered in the same order they
+     * have been appended
+     */
+    private final ReentrantLock flushLock;
+
+    /**
+     * {@code flusher} the scheduler used to perform the flushes in background
+     */
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * Constructor to instantiate the journal
+     *
+     * @param batchRepository The instance used to register the buffered events with a single statement
+     * @param eventsTable The name of the table where the events are registered
+     * @param eventOwnerColumn The name of the column of the identifier of the owner of the events
+     */
+    public BrownieEventsJournal(BrownieEventsBatchRepository batchRepository, String eventsTable,
+                                String eventOwnerColumn) {
+        this.batchRepository = batchRepository;
+        this.eventsTable = eventsTable;
+        this.eventOwnerColumn = eventOwnerColumn;
+        buffer = new ArrayBlockingQueue<>(JOURNAL_CAPACITY);
+        pendingEvents = new ArrayList<>();
+        retryDelay = FLUSH_INTERVAL;
+        flushLock = new ReentrantLock();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, eventsTable + "-journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL, FLUSH_INTERVAL, MILLISECONDS);
+    }
+
+    /**
+     * Method used to append an event to the journal, when the buffer is full the event waits until the buffer has room
+     * again
+     *
+     * @param event The event to append
+     */
+    public void append(BrownieEventEntry event) {
+        try {
+            while (!buffer.offer(event)) {
+                flush();
+                if (buffer.offer(event, FLUSH_INTERVAL, MILLISECONDS))
+                    break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.error("Unable to append the {} event of the {} owner", event.type(), event.eventOwnerId(), e);
+            return;
+        }
+        if (buffer.size() >= FLUSH_THRESHOLD)
+            requestFlush();
+    }
+
+    /**
+     * Method used to append more events to the journal
+     *
+     * @param events The events to append
+     */
+    public void appendAll(Collection<BrownieEventEntry> events) {
+        for (BrownieEventEntry event : events)
+            append(event);
+    }
+
+    /**
+     * Method used to request a background flush of the journal
+     */
+    private void requestFlush() {
+        try {
+            flusher.execute(this::flush);
+        } catch (RejectedExecutionException e) {
+            flush();
+        }
+    }
+
+    /**
+     * Method used to flush all the buffered events, the flush is skipped while the retry of the {@link #pendingEvents}
+     * is delayed
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            if (!pendingEvents.isEmpty() && (System.currentTimeMillis() < nextRetryDate || !registerPendingEvents()))
+                return;
+            while (buffer.drainTo(pendingEvents, JOURNAL_CAPACITY) > 0)
+                if (!registerPendingEvents())
+                    return;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Method used to register the {@link #pendingEvents}. If the batch is rejected by a constraint of the table, for
+     * example because the owner of an event has been deleted in the meantime, the events are registered one by one
+     * discarding only the rejected ones, while on any other failure the remaining events are kept to be retried
+     *
+     * @return whether all the pending events have been registered or discarded as {@code boolean}
+     */
+    private boolean registerPendingEvents() {
+        try {
+            batchRepository.registerEvents(eventsTable, eventOwnerColumn, pendingEvents);
+            pendingEvents.clear();
+        } catch (DataIntegrityViolationException batchException) {
+            Iterator<BrownieEventEntry> events = pendingEvents.iterator();
+            while (events.hasNext()) {
+                BrownieEventEntry event = events.next();
+                try {
+                    batchRepository.registerEvents(eventsTable, eventOwnerColumn, List.of(event));
+                } catch (DataIntegrityViolationException e) {
+                    LOGGER.error("Unable to register the {} event of the {} owner", event.type(),
+                            event.eventOwnerId(), e);
+                } catch (Exception e) {
+                    delayRetry(e);
+                    return false;
+                }
+                events.remove();
+            }
+        } catch (Exception e) {
+            delayRetry(e);
+            return false;
+        }
+        retryDelay = FLUSH_INTERVAL;
+        nextRetryDate = 0;
+        return true;
+    }
+
+    /**
+     * Method used to delay the next retry of the {@link #pendingEvents}, doubling the delay up to the
+     * {@link #MAX_RETRY_DELAY}
+     *
+     * @param failure The failure which prevented the registration of the events
+     */
+    private void delayRetry(Exception failure) {
+        LOGGER.warn("Unable to register {} events in the {} table, retrying in {} ms", pendingEvents.size(),
+                eventsTable, retryDelay, failure);
+        nextRetryDate = System.currentTimeMillis() + retryDelay;
+        retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY);
+    }
+
+    /**
+     * Method used to stop the background flushes and to flush the events still buffered
+     */
+    public void close() {
+        flusher.shutdown();
+        nextRetryDate = 0;
+        flush();
+        int lostEvents = pendingEvents.size() + buffer.size();
+        if (lostEvents > 0)
+            LOGGER.error("Unable to register {} events in the {} table before the termination", lostEvents,
+                    eventsTable);
+    }
+
+}
@@ -1,16 +1,29 @@
 package com.tecknobit.brownie.services.shared.services;
 
+import com.tecknobit.brownie.services.shared.dtos.BrownieEventEntry;
+import com.tecknobit.brownie.services.shared.dtos.BrownieEventsPage;
 import com.tecknobit.brownie.services.shared.entities.BrownieEvent;
+import com.tecknobit.brownie.services.shared.entities.EventsDailyAggregate;
+import com.tecknobit.brownie.services.shared.repositories.BrownieEventsBatchRepository;
+import com.tecknobit.brownie.services.shared.repositories.BrownieEventsHistoryRepository;
 import com.tecknobit.brownie.services.shared.repositories.BrownieEventsRepository;
+import com.tecknobit.brownie.services.shared.repositories.EventsDailyAggregatesRepository;
 import com.tecknobit.equinoxcore.annotations.Structure;
 import com.tecknobit.equinoxcore.annotations.Wrapper;
 import com.tecknobit.equinoxcore.time.TimeFormatter;
+import jakarta.annotation.PreDestroy;
 import org.springframework.stereotype.Service;
 
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
 import static com.tecknobit.equinoxbackend.environment.services.builtin.controller.EquinoxController.generateIdentifier;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
- * The {@code BrownieEventsRecorder} provides the methods to register all the {@link BrownieEvent} properly
+ * The {@code BrownieEventsRecorder} provides the methods to register all the {@link BrownieEvent} properly. The events
+ * are registered asynchronously through a {@link BrownieEventsJournal}, while the timestamp of the last up event of each
+ * owner is kept in a write-through cache, so the up days can be calculated without scanning the events tables
  *
  * @author N7ghtm4r3 - Tecknobit
  * @see BrownieEventsRecorder
@@ -20,18 +33,161 @@ import static com.tecknobit.equinoxbackend.environment.services.builtin.controll
 @Structure
 public abstract class BrownieEventsRecorder<T extends Enum<T>, E extends BrownieEvent> {
 
+    /**
+     * {@code LATEST_EVENTS_LIMIT} the max number of the latest events embedded in the payload of an owner
+     */
+    public static final int LATEST_EVENTS_LIMIT = 10;
+
+    /**
+     * {@code MAX_EVENTS_PAGE_SIZE} the max number of events which can be retrieved in a single page of the history
+     */
+    private static final int MAX_EVENTS_PAGE_SIZE = 100;
+
+    /**
+     * {@code CURSOR_SEPARATOR} the separator between the date and the identifier of the event in a cursor
+     */
+    private static final String CURSOR_SEPARATOR = ":";
+
     /**
      * {@code repository} instance used to register the events in the dedicated tables
      */
     private final BrownieEventsRepository<E> repository;
 
+    /**
+     * {@code historyRepository} instance used to read the history of the events
+     */
+    private final BrownieEventsHistoryRepository historyRepository;
+
+    /**
+     * {@code aggregatesRepository} instance used to read the daily aggregates of the events compacted by the retention
+     * routine
+     */
+    private final EventsDailyAggregatesRepository aggregatesRepository;
+
+    /**
+     * {@code eventsTable} the name of the table where the events are registered
+     */
+    private final String eventsTable;
+
+    /**
+     * {@code eventOwnerColumn} the name of the column of the identifier of the owner of the events
+     */
+    private final String eventOwnerColumn;
+
+    /**
+     * {@code journal} the journal used to register the events with a write-behind strategy
+     */
+    private final BrownieEventsJournal journal;
+
+    /**
+     * {@code lastUpEvents} the cache of the timestamps of the last up event of each owner
+     */
+    private final Map<String, Long> lastUpEvents;
+
     /**
      * Constructor to instantiate the recorder
      *
      * @param repository The instance used to register the events in the dedicated tables
+     * @param batchRepository The instance used to register more events with a single statement
+     * @param historyRepository The instance used to read the history of the events
+     * @param aggregatesRepository The instance used to read the daily aggregates of the compacted events
+     * @param eventsTable The name of the table where the events are registered
+     * @param eventOwnerColumn The name of the column of the identifier of the owner of the events
      */
-    protected BrownieEventsRecorder(BrownieEventsRepository<E> repository) {
+    protected BrownieEventsRecorder(BrownieEventsRepository<E> repository, BrownieEventsBatchRepository batchRepository,
+                                    BrownieEventsHistoryRepository historyRepository,
+                                    EventsDailyAggregatesRepository aggregatesRepository, String eventsTable,
+                                    String eventOwnerColumn) {
         this.repository = repository;
+        this.historyRepository = historyRepository;
+        this.aggregatesRepository = aggregatesRepository;
+        this.eventsTable = eventsTable;
+        this.eventOwnerColumn = eventOwnerColumn;
+        journal = new BrownieEventsJournal(batchRepository, eventsTable, eventOwnerColumn);
+        lastUpEvents = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Method used to check whether the type of event marks the owner as up
+     *
+     * @param type The type of the event to check
+     * @return whether the type of event marks the owner as up as {@code boolean}
+     */
+    protected abstract boolean isUpEvent(T type);
+
+    /**
+     * Method used to check whether the type of event marks the owner as down
+     *
+     * @param type The type of the event to check
+     * @return whether the type of event marks the owner as down as {@code boolean}
+     */
+    protected abstract boolean isDownEvent(T type);
+
+    /**
+     * Method used to get the type of event from its name
+     *
+     * @param type The name of the type of the event
+     * @return the type of the event as {@link T}
+     */
+    protected abstract T getEventType(String type);
+
+    /**
+     * Method used to build an event from the data read from the events table
+     *
+     * @param event The data of the event
+     * @return the event as {@link E}
+     */
+    protected abstract E buildEvent(BrownieEventEntry event);
+
+    /**
+     * Method used to check whether the type of event, stored with its name, marks the owner as up
+     *
+     * @param type The name of the type of the event to check
+     * @return whether the type of event marks the owner as up as {@code boolean}
+     */
+    @Wrapper
+    boolean isUpEvent(String type) {
+        return isUpEvent(getEventType(type));
+    }
+
+    /**
+     * Method used to check whether the type of event, stored with its name, marks the owner as down
+     *
+     * @param type The name of the type of the event to check
+     * @return whether the type of event marks the owner as down as {@code boolean}
+     */
+    @Wrapper
+    boolean isDownEvent(String type) {
+        return isDownEvent(getEventType(type));
+    }
+
+    /**
+     * Method used to get the timestamp of the last up event registered in the database
+     *
+     * @param eventOwnerId The identifier of the owner of the event
+     * @return the timestamp of the last up event as {@link Long}, null if the owner has never been up
+     */
+    @Wrapper
+    Long getLastStoredUpEvent(String eventOwnerId) {
+        return repository.getLastUpEvent(eventOwnerId);
+    }
+
+    /**
+     * Method to get the {@link #eventsTable} instance
+     *
+     * @return the {@link #eventsTable} instance as {@link String}
+     */
+    String getEventsTable() {
+        return eventsTable;
+    }
+
+    /**
+     * Method to get the {@link #eventOwnerColumn} instance
+     *
+     * @return the {@link #eventOwnerColumn} instance as {@link String}
+     */
+    String getEventOwnerColumn() {
+        return eventOwnerColumn;
     }
 
     /**
@@ -41,12 +197,53 @@ public abstract class BrownieEventsRecorder<T extends Enum<T>, E extends Brownie
      * @return the running days since the last up event as {@code int}
      */
     protected int calculateUpDays(String eventOwnerId) {
-        Long lastRunningEvent = repository.getLastUpEvent(eventOwnerId);
-        if (lastRunningEvent == null)
-            lastRunningEvent = 0L;
+        Long lastRunningEvent = lastUpEvents.get(eventOwnerId);
+        if (lastRunningEvent == null) {
+            lastRunningEvent = repository.getLastUpEvent(eventOwnerId);
+            if (lastRunningEvent == null)
+                lastRunningEvent = 0L;
+            lastRunningEvent = lastUpEvents.merge(eventOwnerId, lastRunningEvent, Math::max);
+        }
         return TimeFormatter.INSTANCE.daysUntilNow(lastRunningEvent);
     }
 
+    /**
+     * Method used to calculate the up days since the last up event of more owners, the owners not cached yet are
+     * loaded with a single query
+     *
+     * @param eventOwnerIds The identifiers of the owners of the events
+     * @return the running days since the last up event of each owner as {@link Map} of {@link String} and
+     * {@link Integer}
+     */
+    protected Map<String, Integer> calculateUpDays(Collection<String> eventOwnerIds) {
+        List<String> missingOwners = new ArrayList<>();
+        for (String eventOwnerId : eventOwnerIds)
+            if (!lastUpEvents.containsKey(eventOwnerId))
+                missingOwners.add(eventOwnerId);
+        if (!missingOwners.isEmpty()) {
+            Map<String, Long> loadedUpEvents = new HashMap<>();
+            for (String eventOwnerId : missingOwners)
+                loadedUpEvents.put(eventOwnerId, 0L);
+            for (Object[] lastUpEvent : repository.getLastUpEvents(missingOwners))
+                loadedUpEvents.put(lastUpEvent[0].toString(), ((Number) lastUpEvent[1]).longValue());
+            loadedUpEvents.forEach((eventOwnerId, lastRunningEvent) ->
+                    lastUpEvents.merge(eventOwnerId, lastRunningEvent, Math::max));
+        }
+        Map<String, Integer> upDays = new HashMap<>();
+        for (String eventOwnerId : eventOwnerIds)
+            upDays.put(eventOwnerId, TimeFormatter.INSTANCE.daysUntilNow(lastUpEvents.getOrDefault(eventOwnerId, 0L)));
+        return upDays;
+    }
+
+    /**
+     * Method used to remove an owner from the cache of the last up events, for example when it has been deleted
+     *
+     * @param eventOwnerId The identifier of the owner to remove
+     */
+    public void evictLastUpEvent(String eventOwnerId) {
+        lastUpEvents.remove(eventOwnerId);
+    }
+
     /**
      * Method used to register any {@link T} event
      *
@@ -66,11 +263,132 @@ public abstract class BrownieEventsRecorder<T extends Enum<T>, E extends Brownie
      * @param extra  The extra information related to the event
      */
     protected void registerEvent(T type, String eventOwnerId, Object extra) {
-        String eventId = generateIdentifier();
-        if (extra == null)
-            repository.registerEvent(eventId, type.name(), System.currentTimeMillis(), eventOwnerId);
-        else
-            repository.registerEvent(eventId, type.name(), System.currentTimeMillis(), extra.toString(), eventOwnerId);
+        long eventDate = System.currentTimeMillis();
+        cacheUpEvent(type, eventOwnerId, eventDate);
+        journal.append(new BrownieEventEntry(generateIdentifier(), type.name(), eventDate,
+                extra != null ? extra.toString() : null, eventOwnerId));
+    }
+
+    /**
+     * Method used to update the cache of the last up events when the registered event marks the owner as up
+     *
+     * @param type The type of the registered event
+     * @param eventOwnerId The identifier of the owner of the event
+     * @param eventDate The date when the event occurred
+     */
+    private void cacheUpEvent(T type, String eventOwnerId, long eventDate) {
+        if (isUpEvent(type))
+            lastUpEvents.merge(eventOwnerId, eventDate, Math::max);
+    }
+
+    /**
+     * Method used to register the same {@link T} event for more owners at once
+     *
+     * @param type The type of the events to register
+     * @param extras The extra information related to each owner of the events, the values can be null
+     */
+    protected void registerEvents(T type, Map<String, ?> extras) {
+        if (extras.isEmpty())
+            return;
+        long eventDate = System.currentTimeMillis();
+        List<BrownieEventEntry> events = new ArrayList<>(extras.size());
+        extras.forEach((eventOwnerId, extra) -> {
+            cacheUpEvent(type, eventOwnerId, eventDate);
+            events.add(new BrownieEventEntry(generateIdentifier(), type.name(), eventDate,
+                    extra != null ? extra.toString() : null, eventOwnerId));
+        });
+        journal.appendAll(events);
+    }
+
+    /**
+     * Method used to get a page of the history of the events of an owner sorted from the newest to the oldest
+     *
+     * @param eventOwnerId The identifier of the owner of the events
+     * @param cursor The cursor received with the previous page, null to get the first page
+     * @param pageSize The max number of events to retrieve
+     * @param types The types of the events to retrieve, if empty all the types are retrieved
+     * @param fromDate The date from which retrieve the events, can be null
+     * @param toDate The date until which retrieve the events, can be null
+     *
+     * @return the page of the events as {@link BrownieEventsPage} of {@link E}
+     * @throws IllegalArgumentException when the cursor or a type of event are not valid
+     */
+    public BrownieEventsPage<E> getEventsPage(String eventOwnerId, String cursor, int pageSize,
+                                              Collection<String> types, Long fromDate, Long toDate) {
+        List<String> eventTypes = new ArrayList<>();
+        for (String type : types) {
+            if (type == null || type.isBlank())
+                continue;
+            eventTypes.add(getEventType(type.trim()).name());
+        }
+        Long cursorDate = null;
+        String cursorId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String decodedCursor = new String(Base64.getUrlDecoder().decode(cursor), UTF_8);
+            int separator = decodedCursor.indexOf(CURSOR_SEPARATOR);
+            if (separator <= 0)
+                throw new IllegalArgumentException("Invalid cursor");
+            cursorDate = Long.parseLong(decodedCursor.substring(0, separator));
+            cursorId = decodedCursor.substring(separator + 1);
+        }
+        pageSize = Math.max(1, Math.min(pageSize, MAX_EVENTS_PAGE_SIZE));
+        journal.flush();
+        List<BrownieEventEntry> entries = historyRepository.getEvents(eventsTable, eventOwnerColumn, eventOwnerId,
+                eventTypes, fromDate, toDate, cursorDate, cursorId, pageSize + 1);
+        String nextCursor = null;
+        if (entries.size() > pageSize) {
+            entries = entries.subList(0, pageSize);
+            BrownieEventEntry lastEvent = entries.get(pageSize - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString((lastEvent.eventDate() +
+                    CURSOR_SEPARATOR + lastEvent.eventId()).getBytes(UTF_8));
+        }
+        List<E> events = new ArrayList<>(entries.size());
+        for (BrownieEventEntry entry : entries)
+            events.add(buildEvent(entry));
+        return new BrownieEventsPage<>(events, nextCursor);
+    }
+
+    /**
+     * Method used to get the daily aggregates of the events of an owner compacted by the retention routine, sorted
+     * from the newest to the oldest day
+     *
+     * @param eventOwnerId The identifier of the owner of the events
+     * @param fromDate The date from which retrieve the aggregates, can be null
+     * @param toDate The date until which retrieve the aggregates, can be null
+     *
+     * @return the daily aggregates as {@link List} of {@link EventsDailyAggregate}
+     */
+    public List<EventsDailyAggregate> getDailyAggregates(String eventOwnerId, Long fromDate, Long toDate) {
+        return aggregatesRepository.getDailyAggregates(eventsTable, eventOwnerId, fromDate != null ? fromDate : 0,
+                toDate != null ? toDate : Long.MAX_VALUE);
+    }
+
+    /**
+     * Method used to get the {@link #LATEST_EVENTS_LIMIT} latest events of more owners with a single query
+     *
+     * @param eventOwnerIds The identifiers of the owners of the events
+     * @return the latest events sorted from the newest to the oldest of each owner as {@link Map} of {@link String}
+     * and {@link List} of {@link E}
+     */
+    public Map<String, List<E>> getLatestEvents(Collection<String> eventOwnerIds) {
+        Map<String, List<E>> latestEvents = new HashMap<>();
+        if (eventOwnerIds.isEmpty())
+            return latestEvents;
+        journal.flush();
+        for (BrownieEventEntry entry : historyRepository.getLatestEvents(eventsTable, eventOwnerColumn,
+                eventOwnerIds, LATEST_EVENTS_LIMIT)) {
+            latestEvents.computeIfAbsent(entry.eventOwnerId(), ownerId -> new ArrayList<>()).add(buildEvent(entry));
+        }
+        return latestEvents;
+    }
+
+    /**
+     * Method automatically invoked by Spring before termination used to flush the events still buffered in the
+     * {@link #journal}
+     */
+    @PreDestroy
+    private void closeJournal() {
+        journal.close();
     }
 
 }
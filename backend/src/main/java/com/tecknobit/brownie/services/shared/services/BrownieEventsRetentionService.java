@@ -0,0 +1,366 @@
+package com.tecknobit.brownie.services.shared.services;
+
+import com.tecknobit.brownie.services.shared.dtos.BrownieEventEntry;
+import com.tecknobit.brownie.services.shared.entities.BrownieEvent;
+import com.tecknobit.brownie.services.shared.entities.EventsDailyAggregate;
+import com.tecknobit.brownie.services.shared.repositories.BrownieEventsRetentionRepository;
+import com.tecknobit.brownie.services.shared.repositories.EventsDailyAggregatesRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static com.tecknobit.browniecore.ConstantsKt.*;
+import static com.tecknobit.equinoxcore.helpers.CommonKeysKt.IDENTIFIER_KEY;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * The {@code BrownieEventsRetentionService} class is used to keep the events tables small. Periodically the events of
+ * each owner which exceed the time window or the count window are rolled up into {@link EventsDailyAggregate}, archived
+ * into compressed {@code JSONL} files and then removed from the events tables. The last up event of each owner and the
+ * events after its last down event not followed by an up event are always kept, so the up days and the downtime can be
+ * still calculated correctly
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see BrownieEventsRecorder
+ */
+@Service
+public class BrownieEventsRetentionService {
+
+    /**
+     * {@code LOGGER} is the instance used to log about the retention routines
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(BrownieEventsRetentionService.class);
+
+    /**
+     * {@code RETENTION_ROUTINE_INITIAL_DELAY} the delay, in minutes, before the first retention routine
+     */
+    private static final long RETENTION_ROUTINE_INITIAL_DELAY = 5;
+
+    /**
+     * {@code ARCHIVE_FILE_DATE_PATTERN} the pattern used to format the date in the name of the archive files
+     */
+    private static final String ARCHIVE_FILE_DATE_PATTERN = "yyyy-MM-dd_HH-mm-ss";
+
+    /**
+     * {@code ARCHIVE_FILE_EXTENSION} the extension of the archive files
+     */
+    private static final String ARCHIVE_FILE_EXTENSION = ".jsonl.gz";
+
+    /**
+     * {@code PARTIAL_ARCHIVE_SUFFIX} the suffix of the archive files not completely written yet
+     */
+    private static final String PARTIAL_ARCHIVE_SUFFIX = ".partial";
+
+    /**
+     * {@code recorders} the recorders of the events tables to compact
+     */
+    private final List<BrownieEventsRecorder<?, ?>> recorders;
+
+    /**
+     * {@code retentionRepository} instance used to read and delete the events which exceed the retention windows
+     */
+    private final BrownieEventsRetentionRepository retentionRepository;
+
+    /**
+     * {@code aggregatesRepository} instance used to register the daily aggregates of the compacted events
+     */
+    private final EventsDailyAggregatesRepository aggregatesRepository;
+
+    /**
+     * {@code transactionTemplate} the template used to register the aggregates and to delete the compacted events
+     * atomically
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * {@code maxAgeDays} the max age, in days, of the events kept in the events tables
+     */
+    private final int maxAgeDays;
+
+    /**
+     * {@code maxEventsPerOwner} the max number of events of each owner kept in the events tables
+     */
+    private final int maxEventsPerOwner;
+
+    /**
+     * {@code archiveDirectory} the directory where the compacted events are archived
+     */
+    private final Path archiveDirectory;
+
+    /**
+     * {@code retentionInterval} the interval, in hours, between the retention routines
+     */
+    private final long retentionInterval;
+
+    /**
+     * {@code retentionScheduler} the scheduler used to execute the retention routines
+     */
+    private final ScheduledExecutorService retentionScheduler;
+
+    /**
+     * Constructor to instantiate the service
+     *
+     * @param recorders The recorders of the events tables to compact
+     * @param retentionRepository The instance used to read and delete the events which exceed the retention windows
+     * @param aggregatesRepository The instance used to register the daily aggregates of the compacted events
+     * @param transactionTemplate The template used to register the aggregates and to delete the compacted events
+     * @param maxAgeDays The max age, in days, of the events kept in the events tables
+     * @param maxEventsPerOwner The max number of events of each owner kept in the events tables
+     * @param archiveDirectory The directory where the compacted events are archived
+     * @param retentionInterval The interval, in hours, between the retention routines
+     */
+    @Autowired
+    public BrownieEventsRetentionService(List<BrownieEventsRecorder<?, ?>> recorders,
+                                         BrownieEventsRetentionRepository retentionRepository,
+                                         EventsDailyAggregatesRepository aggregatesRepository,
+                                         TransactionTemplate transactionTemplate,
+                                         @Value("${brownie.events.retention.max-age-days:90}") int maxAgeDays,
+                                         @Value("${brownie.events.retention.max-events-per-owner:1000}") int maxEventsPerOwner,
+                                         @Value("${brownie.events.retention.archive-directory:archives/events}") String archiveDirectory,
+                                         @Value("${brownie.events.retention.interval-hours:24}") long retentionInterval) {
+        this.recorders = recorders;
+        this.retentionRepository = retentionRepository;
+        this.aggregatesRepository = aggregatesRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.maxAgeDays = maxAgeDays;
+        this.maxEventsPerOwner = Math.max(maxEventsPerOwner, 1);
+        this.archiveDirectory = Paths.get(archiveDirectory);
+        this.retentionInterval = Math.max(retentionInterval, 1);
+        retentionScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "events-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Method automatically invoked by Spring after the creation of the service used to schedule the retention routines
+     */
+    @PostConstruct
+    private void scheduleRetentionRoutine() {
+        retentionScheduler.scheduleWithFixedDelay(this::applyRetention,
+                TimeUnit.MINUTES.toMillis(RETENTION_ROUTINE_INITIAL_DELAY), TimeUnit.HOURS.toMillis(retentionInterval),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Method used to apply the retention windows on all the events tables
+     */
+    public void applyRetention() {
+        long now = System.currentTimeMillis();
+        long timeThreshold = now - TimeUnit.DAYS.toMillis(maxAgeDays);
+        for (BrownieEventsRecorder<?, ?> recorder : recorders) {
+            try {
+                compactEvents(recorder, timeThreshold, now);
+            } catch (Exception e) {
+                LOGGER.error("Unable to apply the retention on the {} table", recorder.getEventsTable(), e);
+            }
+        }
+    }
+
+    /**
+     * Method used to compact the events of a single events table
+     *
+     * @param recorder The recorder of the events table
+     * @param timeThreshold The timestamp before which the events exceed the time window
+     * @param now The timestamp of the current routine
+     * @throws IOException when an error occurred during the archiving of the events
+     */
+    private void compactEvents(BrownieEventsRecorder<?, ?> recorder, long timeThreshold, long now) throws IOException {
+        String eventsTable = recorder.getEventsTable();
+        String eventOwnerColumn = recorder.getEventOwnerColumn();
+        List<String> owners = retentionRepository.getEventOwnersToCompact(eventsTable, eventOwnerColumn,
+                timeThreshold, maxEventsPerOwner);
+        if (owners.isEmpty())
+            return;
+        int compactedEvents = 0;
+        for (String eventOwnerId : owners) {
+            long threshold = timeThreshold;
+            Long countWindowBoundary = retentionRepository.getCountWindowBoundary(eventsTable, eventOwnerColumn,
+                    eventOwnerId, maxEventsPerOwner);
+            if (countWindowBoundary != null)
+                threshold = Math.max(threshold, countWindowBoundary);
+            List<BrownieEventEntry> events = retentionRepository.getEventsBefore(eventsTable, eventOwnerColumn,
+                    eventOwnerId, threshold);
+            compactedEvents += compactOwnerEvents(recorder, eventOwnerId, events, now);
+        }
+        LOGGER.info("Retention applied on the {} table: {} events compacted of {} owners", eventsTable,
+                compactedEvents, owners.size());
+    }
+
+    /**
+     * Method used to compact the events of a single owner, the events are deleted only after their archive has been
+     * completely written and synced to the disk, while the archive is removed if the events cannot be deleted, so the
+     * next routine does not archive them twice
+     *
+     * @param recorder The recorder of the events table
+     * @param eventOwnerId The identifier of the owner of the events
+     * @param events The events which exceed the retention windows sorted by date
+     * @param now The timestamp of the current routine
+     *
+     * @return the number of the events compacted as {@code int}
+     * @throws IOException when an error occurred during the archiving of the events
+     */
+    private int compactOwnerEvents(BrownieEventsRecorder<?, ?> recorder, String eventOwnerId,
+                                   List<BrownieEventEntry> events, long now) throws IOException {
+        int compactableEvents = events.size();
+        for (int j = events.size() - 1; j >= 0; j--) {
+            String type = events.get(j).type();
+            if (recorder.isUpEvent(type))
+                break;
+            if (recorder.isDownEvent(type))
+                compactableEvents = j;
+        }
+        Long lastStoredUpEvent = recorder.getLastStoredUpEvent(eventOwnerId);
+        String eventsTable = recorder.getEventsTable();
+        Map<String, long[]> aggregates = new LinkedHashMap<>();
+        List<BrownieEventEntry> compactedEvents = new ArrayList<>();
+        Long downSince = null;
+        String downAggregateKey = null;
+        for (int j = 0; j < compactableEvents; j++) {
+            BrownieEventEntry event = events.get(j);
+            String type = event.type();
+            boolean upEvent = recorder.isUpEvent(type);
+            String aggregateKey = startOfDay(event.eventDate()) + ":" + type;
+            if (upEvent && downSince != null) {
+                aggregates.computeIfAbsent(downAggregateKey, key -> new long[2])[1] += event.eventDate() - downSince;
+                downSince = null;
+            } else if (recorder.isDownEvent(type) && downSince == null) {
+                downSince = event.eventDate();
+                downAggregateKey = aggregateKey;
+            }
+            if (upEvent && lastStoredUpEvent != null && event.eventDate() == lastStoredUpEvent)
+                continue;
+            aggregates.computeIfAbsent(aggregateKey, key -> new long[2])[0]++;
+            compactedEvents.add(event);
+        }
+        if (compactedEvents.isEmpty())
+            return 0;
+        Path archive = archiveEvents(eventsTable, eventOwnerId, now, compactedEvents);
+        List<String> compactedEventIds = new ArrayList<>(compactedEvents.size());
+        for (BrownieEventEntry event : compactedEvents)
+            compactedEventIds.add(event.eventId());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                aggregates.forEach((aggregateKey, counters) -> {
+                    int separator = aggregateKey.indexOf(':');
+                    long aggregateDay = Long.parseLong(aggregateKey.substring(0, separator));
+                    String type = aggregateKey.substring(separator + 1);
+                    String aggregateId = UUID.nameUUIDFromBytes((eventsTable + eventOwnerId + aggregateKey)
+                            .getBytes(UTF_8)).toString();
+                    aggregatesRepository.registerAggregate(aggregateId, eventsTable, eventOwnerId, aggregateDay,
+                            type, counters[0], counters[1]);
+                });
+                retentionRepository.deleteEvents(eventsTable, compactedEventIds);
+            });
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(archive);
+            throw e;
+        }
+        return compactedEventIds.size();
+    }
+
+    /**
+     * Method used to archive the compacted events of an owner into a dedicated archive, the archive is written to a
+     * partial file which is finished, synced to the disk and then atomically renamed, so an archive is either complete
+     * or absent
+     *
+     * @param eventsTable The table of the events to archive
+     * @param eventOwnerId The identifier of the owner of the events
+     * @param now The timestamp of the current routine
+     * @param events The events to archive
+     *
+     * @return the path of the archive as {@link Path}
+     * @throws IOException when an error occurred during the archiving of the events
+     */
+    private Path archiveEvents(String eventsTable, String eventOwnerId, long now,
+                               List<BrownieEventEntry> events) throws IOException {
+        Path tableDirectory = archiveDirectory.resolve(eventsTable);
+        Files.createDirectories(tableDirectory);
+        String archiveName = eventsTable + "_" + new SimpleDateFormat(ARCHIVE_FILE_DATE_PATTERN).format(now) + "_" +
+                eventOwnerId + ARCHIVE_FILE_EXTENSION;
+        Path archive = tableDirectory.resolve(archiveName);
+        Path partialArchive = tableDirectory.resolve(archiveName + PARTIAL_ARCHIVE_SUFFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(partialArchive, CREATE, WRITE, TRUNCATE_EXISTING)) {
+                GZIPOutputStream compressedArchive = new GZIPOutputStream(Channels.newOutputStream(channel));
+                BufferedWriter archiveWriter = new BufferedWriter(new OutputStreamWriter(compressedArchive, UTF_8));
+                for (BrownieEventEntry event : events)
+                    archiveEvent(archiveWriter, event);
+                archiveWriter.flush();
+                compressedArchive.finish();
+                channel.force(true);
+            }
+            Files.move(partialArchive, archive, ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(partialArchive);
+            throw e;
+        }
+        return archive;
+    }
+
+    /**
+     * Method used to archive a single {@link BrownieEvent} as a {@code JSONL} line
+     *
+     * @param archive The archive where the event is written
+     * @param event The event to archive
+     * @throws IOException when an error occurred during the writing of the event
+     */
+    private void archiveEvent(BufferedWriter archive, BrownieEventEntry event) throws IOException {
+        JSONObject archivedEvent = new JSONObject();
+        archivedEvent.put(IDENTIFIER_KEY, event.eventId());
+        archivedEvent.put(EVENT_OWNER_KEY, event.eventOwnerId());
+        archivedEvent.put(TYPE_KEY, event.type());
+        archivedEvent.put(EVENT_DATE_KEY, event.eventDate());
+        archivedEvent.put(EXTRA_KEY, event.extra() != null ? event.extra() : JSONObject.NULL);
+        archive.write(archivedEvent.toString());
+        archive.newLine();
+    }
+
+    /**
+     * Method used to get the timestamp of the start of the day of a date
+     *
+     * @param date The date from which get the start of the day
+     * @return the timestamp of the start of the day as {@code long}
+     */
+    private long startOfDay(long date) {
+        ZoneId zone = ZoneId.systemDefault();
+        return Instant.ofEpochMilli(date).atZone(zone).toLocalDate().atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Method automatically invoked by Spring before termination used to stop the retention routines
+     */
+    @PreDestroy
+    private void stopRetentionRoutine() {
+        retentionScheduler.shutdownNow();
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,360 @@
+package com.tecknobit.brownie.services.shared.services;
+
+import com.tecknobit.brownie.services.hosts.dtos.CurrentHostStatus;
+import com.tecknobit.brownie.services.hosts.repositories.HostsRepository;
+import com.tecknobit.brownie.services.hostservices.dtos.CurrentServiceStatus;
+import com.tecknobit.brownie.services.hostservices.repositories.HostServicesRepository;
+import com.tecknobit.brownie.services.shared.dtos.StatusChanges;
+import com.tecknobit.browniecore.enums.HostStatus;
+import com.tecknobit.browniecore.enums.ServiceStatus;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import static com.tecknobit.browniecore.enums.ServiceStatus.STOPPED;
+
+/**
+ * The {@code BrownieStatusRegistry} class is the in-memory authoritative store of the statuses of the hosts and of the
+ * services. Each change is written through to the database and then stored in memory with a monotonically increasing
+ * version, so the statuses and the changes after a version are read from memory without querying the database. The
+ * statuses not yet stored are loaded from the database the first time they are requested
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+@Service
+public class BrownieStatusRegistry {
+
+    /**
+     * {@code hostsRepository} instance used to write through the statuses of the hosts
+     */
+    private final HostsRepository hostsRepository;
+
+    /**
+     * {@code servicesRepository} instance used to write through the statuses of the services
+     */
+    private final HostServicesRepository servicesRepository;
+
+    /**
+     * {@code versions} the generator of the versions, it starts from the current timestamp so the versions received
+     * before a restart are always older than the current ones
+     */
+    private final AtomicLong versions;
+
+    /**
+     * {@code hostStatuses} the statuses of the hosts
+     */
+    private final ConcurrentHashMap<String, VersionedStatus<CurrentHostStatus>> hostStatuses;
+
+    /**
+     * {@code serviceStatuses} the statuses of the services
+     */
+    private final ConcurrentHashMap<String, VersionedStatus<CurrentServiceStatus>> serviceStatuses;
+
+    /**
+     * {@code versionLock} the lock used to take a consistent snapshot of the current version: the stores hold the
+     * shared lock, so they can run concurrently, while the snapshot is taken holding the exclusive lock, so every
+     * version lower or equal to the snapshot is already visible in the registry
+     */
+    private final ReentrantReadWriteLock versionLock;
+
+    /**
+     * Constructor used to init the registry
+     *
+     * @param hostsRepository The instance used to write through the statuses of the hosts
+     * @param servicesRepository The instance used to write through the statuses of the services
+     */
+    @Autowired
+    public BrownieStatusRegistry(HostsRepository hostsRepository, HostServicesRepository servicesRepository) {
+        this.hostsRepository = hostsRepository;
+        this.servicesRepository = servicesRepository;
+        this.versions = new AtomicLong(System.currentTimeMillis());
+        this.hostStatuses = new ConcurrentHashMap<>();
+        this.serviceStatuses = new ConcurrentHashMap<>();
+        this.versionLock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Method used to update the status of a host
+     *
+     * @param hostId The identifier of the host
+     * @param status The new status of the host
+     */
+    public void updateHostStatus(String hostId, HostStatus status) {
+        hostsRepository.handleHostStatus(hostId, status.name());
+        afterCommit(() -> storeHostStatus(new CurrentHostStatus(hostId, status)));
+    }
+
+    /**
+     * Method used to update the status of a service
+     *
+     * @param serviceId The identifier of the service
+     * @param status The new status of the service
+     * @param pid The new pid of the service
+     */
+    public void updateServiceStatus(String serviceId, ServiceStatus status, long pid) {
+        servicesRepository.updateServiceStatus(serviceId, status.name(), pid);
+        afterCommit(() -> storeServiceStatus(new CurrentServiceStatus(serviceId, status, pid)));
+    }
+
+    /**
+     * Method used to update the status of more services at once
+     *
+     * @param serviceIds The identifiers of the services
+     * @param status The new status of the services
+     * @param pid The new pid of the services
+     */
+    public void updateServicesStatus(Collection<String> serviceIds, ServiceStatus status, long pid) {
+        if (serviceIds.isEmpty())
+            return;
+        servicesRepository.updateServicesStatus(serviceIds, status.name(), pid);
+        List<String> updatedServices = List.copyOf(serviceIds);
+        afterCommit(() -> {
+            for (String serviceId : updatedServices)
+                storeServiceStatus(new CurrentServiceStatus(serviceId, status, pid));
+        });
+    }
+
+    /**
+     * Method used to mark as {@link ServiceStatus#STOPPED} the services of a host detected as stopped by their pid. The
+     * services are matched by the pid currently stored in the database and locked until the end of the transaction,
+     * so only the services still stored with a detected pid are marked, while the ones restarted after the probe with
+     * a new pid are left untouched
+     *
+     * @param hostId The identifier of the host
+     * @param servicePids The pids of the stopped services
+     *
+     * @return the identifiers of the services marked as stopped as {@link List} of {@link String}
+     */
+    @Transactional
+    public List<String> markServicesAsStopped(String hostId, Collection<Long> servicePids) {
+        if (servicePids.isEmpty())
+            return List.of();
+        List<String> stoppedServices = List.copyOf(servicesRepository.lockServicesByPids(hostId, servicePids));
+        if (stoppedServices.isEmpty())
+            return stoppedServices;
+        servicesRepository.markServicesAsStopped(stoppedServices);
+        afterCommit(() -> {
+            for (String serviceId : stoppedServices)
+                storeServiceStatus(new CurrentServiceStatus(serviceId, STOPPED, -1));
+        });
+        return stoppedServices;
+    }
+
+    /**
+     * Method used to remove from the registry a host and its services
+     *
+     * @param hostId The identifier of the host
+     * @param serviceIds The identifiers of the services of the host
+     */
+    public void evictHost(String hostId, Collection<String> serviceIds) {
+        hostStatuses.remove(hostId);
+        evictServices(serviceIds);
+    }
+
+    /**
+     * Method used to remove from the registry more services at once
+     *
+     * @param serviceIds The identifiers of the services
+     */
+    public void evictServices(Collection<String> serviceIds) {
+        for (String serviceId : serviceIds)
+            serviceStatuses.remove(serviceId);
+    }
+
+    /**
+     * Method used to get the current statuses of the specified hosts
+     *
+     * @param hostIds The identifiers of the hosts
+     * @return the current statuses as {@link List} of {@link CurrentHostStatus}
+     */
+    public List<CurrentHostStatus> getHostsStatus(List<String> hostIds) {
+        return getStatusChanges(hostStatuses, hostIds, 0, this::loadHostsStatus).getStatuses();
+    }
+
+    /**
+     * Method used to get the statuses of the specified hosts changed after a version
+     *
+     * @param hostIds The identifiers of the hosts
+     * @param version The version after which retrieve the changes
+     * @return the changed statuses as {@link StatusChanges} of {@link CurrentHostStatus}
+     */
+    public StatusChanges<CurrentHostStatus> getHostsStatusChanges(List<String> hostIds, long version) {
+        return getStatusChanges(hostStatuses, hostIds, version, this::loadHostsStatus);
+    }
+
+    /**
+     * Method used to get the current statuses of the specified services
+     *
+     * @param serviceIds The identifiers of the services
+     * @return the current statuses as {@link List} of {@link CurrentServiceStatus}
+     */
+    public List<CurrentServiceStatus> getServicesStatus(List<String> serviceIds) {
+        return getStatusChanges(serviceStatuses, serviceIds, 0, this::loadServicesStatus).getStatuses();
+    }
+
+    /**
+     * Method used to get the statuses of the specified services changed after a version
+     *
+     * @param serviceIds The identifiers of the services
+     * @param version The version after which retrieve the changes
+     * @return the changed statuses as {@link StatusChanges} of {@link CurrentServiceStatus}
+     */
+    public StatusChanges<CurrentServiceStatus> getServicesStatusChanges(List<String> serviceIds, long version) {
+        return getStatusChanges(serviceStatuses, serviceIds, version, this::loadServicesStatus);
+    }
+
+    /**
+     * Method used to get the statuses changed after a version, the statuses not yet stored are loaded from the database
+     * with a single query
+     *
+     * @param statuses The stored statuses
+     * @param ids The identifiers of the statuses to retrieve
+     * @param version The version after which retrieve the changes
+     * @param loader The function used to load the statuses not yet stored
+     *
+     * @return the changed statuses as {@link StatusChanges} of {@link S}
+     *
+     * @param <S> the type of the statuses
+     */
+    private <S> StatusChanges<S> getStatusChanges(ConcurrentHashMap<String, VersionedStatus<S>> statuses,
+                                                  List<String> ids, long version, Function<List<String>, List<S>> loader) {
+        long currentVersion = getCurrentVersion();
+        if (ids.isEmpty())
+            return new StatusChanges<>(List.of(), currentVersion);
+        List<String> missingIds = new ArrayList<>();
+        for (String id : ids)
+            if (!statuses.containsKey(id))
+                missingIds.add(id);
+        if (!missingIds.isEmpty())
+            loader.apply(missingIds);
+        List<S> changes = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(ids)) {
+            VersionedStatus<S> status = statuses.get(id);
+            if (status != null && status.version() > version)
+                changes.add(status.status());
+        }
+        return new StatusChanges<>(changes, currentVersion);
+    }
+
+    /**
+     * Method used to take a snapshot of the current version, waiting for the stores in progress
+     *
+     * @return the current version as {@code long}
+     */
+    private long getCurrentVersion() {
+        versionLock.writeLock().lock();
+        try {
+            return versions.get();
+        } finally {
+            versionLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Method used to load from the database the statuses of the hosts not yet stored
+     *
+     * @param hostIds The identifiers of the hosts
+     * @return the loaded statuses as {@link List} of {@link CurrentHostStatus}
+     */
+    private List<CurrentHostStatus> loadHostsStatus(List<String> hostIds) {
+        List<CurrentHostStatus> loadedStatuses = hostsRepository.getHostsStatus(hostIds);
+        for (CurrentHostStatus status : loadedStatuses)
+            storeStatus(hostStatuses, status.id(), status, false);
+        return loadedStatuses;
+    }
+
+    /**
+     * Method used to load from the database the statuses of the services not yet stored
+     *
+     * @param serviceIds The identifiers of the services
+     * @return the loaded statuses as {@link List} of {@link CurrentServiceStatus}
+     */
+    private List<CurrentServiceStatus> loadServicesStatus(List<String> serviceIds) {
+        List<CurrentServiceStatus> loadedStatuses = servicesRepository.getServicesStatus(serviceIds);
+        for (CurrentServiceStatus status : loadedStatuses)
+            storeStatus(serviceStatuses, status.id(), status, false);
+        return loadedStatuses;
+    }
+
+    /**
+     * Method used to store the status of a host with a new version
+     *
+     * @param status The status to store
+     */
+    private void storeHostStatus(CurrentHostStatus status) {
+        storeStatus(hostStatuses, status.id(), status, true);
+    }
+
+    /**
+     * Method used to store the status of a service with a new version
+     *
+     * @param status The status to store
+     */
+    private void storeServiceStatus(CurrentServiceStatus status) {
+        storeStatus(serviceStatuses, status.id(), status, true);
+    }
+
+    /**
+     * Method used to store a status with a new version
+     *
+     * @param statuses The stored statuses
+     * @param id The identifier of the status
+     * @param status The status to store
+     * @param overwrite Whether to overwrite the status already stored, false when the status has been loaded from the
+     *                  database and a newer change could be already stored
+     *
+     * @param <S> the type of the status
+     */
+    private <S> void storeStatus(ConcurrentHashMap<String, VersionedStatus<S>> statuses, String id, S status,
+                                 boolean overwrite) {
+        versionLock.readLock().lock();
+        try {
+            statuses.compute(id, (key, storedStatus) -> {
+                if (storedStatus != null && !overwrite)
+                    return storedStatus;
+                return new VersionedStatus<>(status, versions.incrementAndGet());
+            });
+        } finally {
+            versionLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Method used to apply a change to the registry only after the commit of the current transaction, if any, so the
+     * registry never stores a status which has been rolled back
+     *
+     * @param change The change to apply
+     */
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else
+            change.run();
+    }
+
+    /**
+     * The {@code VersionedStatus} record represents a status stored in the registry
+     *
+     * @param status The status
+     * @param version The version of the status
+     * @param <S> the type of the status
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private record VersionedStatus<S>(S status, long version) {
+    }
+
+}
@@ -1,14 +1,13 @@
 #!/bin/bash
 
-file="%s"
+file="$1"
+
+args_string="$2"
 
 dir=$(dirname "$file")
 
 cd "$dir" || exit 1
 
-shift
-
-args_string="%s"
 set -- $args_string
 args=("$@")
 
@@ -0,0 +1,99 @@
+package com.tecknobit.brownie.helpers.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code MetricsChunkTest} class is used to test the encoding and the decoding of the {@link MetricsChunk}
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+class MetricsChunkTest {
+
+    /**
+     * {@code CHUNK_START} the start of the time span covered by the chunks of the tests
+     */
+    private static final long CHUNK_START = 1_700_000_000_000L;
+
+    /**
+     * Method used to test that the samples appended to a chunk are restored by its encoded payload
+     */
+    @Test
+    void samplesRoundTrip() {
+        MetricsChunk chunk = new MetricsChunk(CHUNK_START, 3);
+        List<MetricsSample> samples = List.of(
+                new MetricsSample(CHUNK_START + 1_000, 12.5, 40.25, 0),
+                new MetricsSample(CHUNK_START + 6_000, 13.75, 40.25, 100),
+                new MetricsSample(CHUNK_START + 11_000, 2, 39.5, 99.99),
+                new MetricsSample(CHUNK_START + 16_500, 0, 41, 50)
+        );
+        for (MetricsSample sample : samples)
+            chunk.append(sample);
+        List<MetricsSample> decodedSamples = MetricsChunk.decode(CHUNK_START, chunk.encode());
+        assertEquals(samples.size(), decodedSamples.size());
+        for (int i = 0; i < samples.size(); i++) {
+            assertEquals(samples.get(i).timestamp(), decodedSamples.get(i).timestamp());
+            assertArrayEquals(samples.get(i).values(), decodedSamples.get(i).values(), 0.001);
+        }
+        assertEquals(CHUNK_START + 16_500, chunk.getChunkEnd());
+    }
+
+    /**
+     * Method used to test that the values are stored rounded to the hundredths
+     */
+    @Test
+    void valuesAreRoundedToTheHundredths() {
+        MetricsChunk chunk = new MetricsChunk(CHUNK_START, 2);
+        chunk.append(new MetricsSample(CHUNK_START, 1.234, 5.678));
+        chunk.append(new MetricsSample(CHUNK_START + 5_000, -1.005, 1e6));
+        List<MetricsSample> samples = chunk.getSamples();
+        assertArrayEquals(new double[]{1.23, 5.68}, samples.get(0).values(), 1e-9);
+        assertEquals(-1.0, samples.get(1).values()[0], 0.011);
+        assertEquals(1e6, samples.get(1).values()[1], 1e-9);
+    }
+
+    /**
+     * Method used to test that irregular intervals and large jumps of the values survive the delta encoding
+     */
+    @Test
+    void irregularSamplesRoundTrip() {
+        MetricsChunk chunk = new MetricsChunk(CHUNK_START, 1);
+        long[] timestamps = {CHUNK_START + 3, CHUNK_START + 4, CHUNK_START + 90_000, CHUNK_START + 90_001,
+                CHUNK_START + 3_600_000};
+        double[] values = {0, 1_000_000, -1_000_000, 0.01, 42};
+        for (int i = 0; i < timestamps.length; i++)
+            chunk.append(new MetricsSample(timestamps[i], values[i]));
+        List<MetricsSample> samples = MetricsChunk.decode(CHUNK_START, chunk.encode());
+        for (int i = 0; i < timestamps.length; i++) {
+            assertEquals(timestamps[i], samples.get(i).timestamp());
+            assertEquals(values[i], samples.get(i).values()[0], 1e-9);
+        }
+    }
+
+    /**
+     * Method used to test that stable samples collected with a regular interval take about a byte per column
+     */
+    @Test
+    void regularSamplesAreCompact() {
+        MetricsChunk chunk = new MetricsChunk(CHUNK_START, 2);
+        for (int i = 0; i < 100; i++)
+            chunk.append(new MetricsSample(CHUNK_START + i * 5_000L, 25, 60));
+        assertTrue(chunk.encode().length < 100 * 3 + 20);
+    }
+
+    /**
+     * Method used to test the encoding of a chunk without samples
+     */
+    @Test
+    void emptyChunk() {
+        MetricsChunk chunk = new MetricsChunk(CHUNK_START, 4);
+        assertTrue(chunk.isEmpty());
+        assertTrue(MetricsChunk.decode(CHUNK_START, chunk.encode()).isEmpty());
+        chunk.append(new MetricsSample(CHUNK_START, 1, 2, 3, 4));
+        assertFalse(chunk.isEmpty());
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.tecknobit.brownie.helpers.shell;
+
+import com.tecknobit.brownie.helpers.shell.HostProbeResult.CpuCounters;
+import com.tecknobit.brownie.helpers.shell.HostProbeResult.ProcessResources;
+import com.tecknobit.brownie.services.hosts.entities.BrownieHost;
+import com.tecknobit.brownie.services.hostservices.entities.BrownieHostService;
+import com.tecknobit.brownie.services.session.entity.BrownieSession;
+import com.tecknobit.browniecore.enums.HostStatus;
+import com.tecknobit.browniecore.enums.ServiceStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.tecknobit.browniecore.ConstantsKt.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code HostProbeResultTest} class is used to test the parsing of the payload of the probes and the detection of
+ * the stopped services made by the {@link HostProbeResult}
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+class HostProbeResultTest {
+
+    /**
+     * {@code PAYLOAD} the payload of a probe with its lines joined by the executor
+     */
+    private static final String PAYLOAD = "cpu_clock=2400.00 MHz; " + MEMORY_USAGE_KEY + "=3.20/7.80 GB;" +
+            STORAGE_USAGE_KEY + "=120/480 GB;" + STORAGE_TYPE_KEY + "=SSD;\n" +
+            "cpu_times=cpu,100,0,50,800,50,0,0,0|cpu0,60,0,20,400,20,0,0,0|cpu1,40,0,30,400,30,0,0,0;\n" +
+            "services_resources=1200:350:2048:12:5000:31,1300:10:512:1:7000:4,bad:entry;\n" +
+            "clock_ticks=100; page_size=4096;boot_time=1700000000;";
+
+    /**
+     * Method used to test the parsing of the records of the payload
+     */
+    @Test
+    void parseRecords() {
+        HostProbeResult probe = HostProbeResult.parse(PAYLOAD, List.of());
+        assertEquals("2400.00MHz", probe.getCpuClock());
+        assertEquals("3.20/7.80GB", probe.getMemoryUsage());
+        assertEquals("120/480GB", probe.getStorageUsage());
+        assertEquals("SSD", probe.getStorageType());
+        assertTrue(probe.isFresh(60_000));
+        assertFalse(probe.hasStats());
+    }
+
+    /**
+     * Method used to test the parsing of the counters of the cpu lines, the idle ticks are made up of the
+     * {@code idle} and {@code iowait} counters
+     */
+    @Test
+    void parseCpuTimes() {
+        Map<String, CpuCounters> cpuTimes = HostProbeResult.parse(PAYLOAD, List.of()).getCpuTimes();
+        assertEquals(3, cpuTimes.size());
+        assertEquals(new CpuCounters(150, 1000), cpuTimes.get("cpu"));
+        assertEquals(new CpuCounters(80, 500), cpuTimes.get("cpu0"));
+        assertEquals(new CpuCounters(70, 500), cpuTimes.get("cpu1"));
+        assertTrue(HostProbeResult.parse("cpu_times=cpu,1,x,1,1,1,1,1,1;", List.of()).getCpuTimes().isEmpty());
+    }
+
+    /**
+     * Method used to test the parsing of the resources of the services processes, skipping the malformed entries
+     */
+    @Test
+    void parseServicesProcesses() {
+        Map<Long, ProcessResources> processes = HostProbeResult.parse(PAYLOAD, List.of()).getServicesProcesses();
+        assertEquals(2, processes.size());
+        assertEquals(new ProcessResources(1200, 350, 2048, 12, 5000, 31), processes.get(1200L));
+        assertEquals(new ProcessResources(1300, 10, 512, 1, 7000, 4), processes.get(1300L));
+        assertEquals(Map.of(1200L, 350L, 1300L, 10L), HostProbeResult.parse(PAYLOAD, List.of())
+                .getServicesCpuTimes());
+    }
+
+    /**
+     * Method used to test that the services whose process is missing or has been replaced are detected as stopped
+     */
+    @Test
+    void detectStoppedServices() {
+        BrownieHost host = host(
+                service("alive", 1200, 5000),
+                service("unpinned", 1300, -1),
+                service("missing", 1400, 8000),
+                service("reused", 1300, 6500)
+        );
+        HostProbeResult probe = HostProbeResult.parse(PAYLOAD, host.listRunningServicePids());
+        assertEquals(Set.of(1400L, 1300L), new HashSet<>(probe.detectStoppedServices(host)));
+        assertEquals(Map.of("unpinned", 7000L), probe.detectUnpinnedServices(host));
+    }
+
+    /**
+     * Method used to test that the services whose pid has not been probed are never detected as stopped
+     */
+    @Test
+    void ignoreNotProbedServices() {
+        BrownieHost host = host(service("alive", 1200, 5000), service("started-later", 1400, 8000));
+        HostProbeResult probe = HostProbeResult.parse(PAYLOAD, List.of(1200L));
+        assertTrue(probe.detectStoppedServices(host).isEmpty());
+    }
+
+    /**
+     * Method used to test that no service is detected as stopped when the payload does not contain the resources of
+     * the services
+     */
+    @Test
+    void ignoreIncompletePayload() {
+        BrownieHost host = host(service("missing", 1400, 8000));
+        HostProbeResult probe = HostProbeResult.parse("cpu_clock=2400.00 MHz;", List.of(1400L));
+        assertTrue(probe.detectStoppedServices(host).isEmpty());
+    }
+
+    /**
+     * Method used to create a host with its services
+     *
+     * @param services The services of the host
+     * @return the host as {@link BrownieHost}
+     */
+    private static BrownieHost host(BrownieHostService... services) {
+        return new BrownieHost("host", "host", "127.0.0.1", HostStatus.ONLINE, null, null,
+                new BrownieSession("session", null, null), null, null, List.of(), List.of(services), 0);
+    }
+
+    /**
+     * Method used to create a running service
+     *
+     * @param id The identifier of the service
+     * @param pid The pid of the service
+     * @param processStartTicks The start time of the process of the service, -1 when not pinned
+     * @return the service as {@link BrownieHostService}
+     */
+    private static BrownieHostService service(String id, long pid, long processStartTicks) {
+        return new BrownieHostService(id, ServiceStatus.RUNNING, id, null, pid, processStartTicks, 0, null,
+                List.of());
+    }
+
+}
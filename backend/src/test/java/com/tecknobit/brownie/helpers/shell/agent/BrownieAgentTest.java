@@ -0,0 +1,232 @@
+package com.tecknobit.brownie.helpers.shell.agent;
+
+import com.tecknobit.brownie.helpers.shell.HostProbeResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.tecknobit.brownie.helpers.shell.agent.BrownieAgent.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The {@code BrownieAgentTest} class is used to test the frame protocol of the {@link BrownieAgent}, which is executed
+ * in a dedicated process as it is executed on the hosts
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+class BrownieAgentTest {
+
+    /**
+     * {@code agent} the process of the agent
+     */
+    private Process agent;
+
+    /**
+     * {@code requests} the stream where the requests are written
+     */
+    private DataOutputStream requests;
+
+    /**
+     * {@code responses} the stream where the responses are read
+     */
+    private DataInputStream responses;
+
+    /**
+     * Method used to start the agent with a starter script which is not staged
+     *
+     * @throws IOException when the agent cannot be started
+     */
+    @BeforeEach
+    void startAgent() throws IOException {
+        Path javaExecutable = Path.of(System.getProperty("java.home"), "bin", "java");
+        agent = new ProcessBuilder(javaExecutable.toString(), "-cp", System.getProperty("java.class.path"),
+                BrownieAgent.class.getName(), "/nonexistent/brownie-starter.sh")
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        requests = new DataOutputStream(new BufferedOutputStream(agent.getOutputStream()));
+        responses = new DataInputStream(new BufferedInputStream(agent.getInputStream()));
+    }
+
+    /**
+     * Method used to stop the agent
+     *
+     * @throws InterruptedException when the wait of the termination is interrupted
+     */
+    @AfterEach
+    void stopAgent() throws InterruptedException {
+        agent.destroy();
+        agent.waitFor(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Method used to test that the agent announces itself with the handshake and the version of the protocol
+     *
+     * @throws IOException when the stream of the agent cannot be read
+     */
+    @Test
+    void handshake() throws IOException {
+        assertHandshake();
+    }
+
+    /**
+     * Method used to test the ping and the operations which are not executed
+     *
+     * @throws IOException when the streams of the agent cannot be used
+     */
+    @Test
+    void pingAndNotExecutedOperations() throws IOException {
+        assertHandshake();
+        sendRequest(1, PING, new byte[0]);
+        sendRequest(2, START, new byte[0]);
+        sendRequest(3, (byte) 42, new byte[0]);
+        Map<Integer, Response> responses = readResponses(3);
+        assertEquals(STATUS_OK, responses.get(1).status());
+        assertEquals(0, responses.get(1).payload().length);
+        assertEquals(STATUS_NOT_EXECUTED, responses.get(2).status());
+        assertTrue(responses.get(2).text().contains("/nonexistent/brownie-starter.sh"));
+        assertEquals(STATUS_NOT_EXECUTED, responses.get(3).status());
+    }
+
+    /**
+     * Method used to test that stopping a process which does not exist replies with an empty list of pids
+     *
+     * @throws IOException when the streams of the agent cannot be used
+     */
+    @Test
+    void stopMissingProcess() throws IOException {
+        assertHandshake();
+        sendRequest(7, STOP, pids(Long.MAX_VALUE));
+        Response response = readResponses(1).get(7);
+        assertEquals(STATUS_OK, response.status());
+        DataInputStream stoppedPids = new DataInputStream(new ByteArrayInputStream(response.payload()));
+        assertEquals(0, stoppedPids.readInt());
+        assertEquals(0, stoppedPids.available());
+    }
+
+    /**
+     * Method used to test that the probe replies with a payload which can be parsed by the {@link HostProbeResult}
+     *
+     * @throws IOException when the streams of the agent cannot be used
+     */
+    @Test
+    void probe() throws IOException {
+        assumeTrue(Files.isReadable(Path.of("/proc/stat")));
+        assertHandshake();
+        long pid = agent.pid();
+        sendRequest(9, PROBE, pids(pid));
+        Response response = readResponses(1).get(9);
+        assertEquals(STATUS_OK, response.status());
+        HostProbeResult probe = HostProbeResult.parse(response.text(), List.of(pid));
+        assertFalse(probe.getCpuTimes().isEmpty());
+        assertTrue(probe.getServicesProcesses().containsKey(pid));
+    }
+
+    /**
+     * Method used to test that a malformed frame terminates the agent
+     *
+     * @throws Exception when the streams of the agent cannot be used
+     */
+    @Test
+    void malformedFrame() throws Exception {
+        assertHandshake();
+        requests.writeInt(1);
+        requests.writeByte(PING);
+        requests.writeInt(-1);
+        requests.flush();
+        assertTrue(agent.waitFor(10, TimeUnit.SECONDS));
+        assertNotEquals(0, agent.exitValue());
+    }
+
+    /**
+     * Method used to assert the handshake of the agent
+     *
+     * @throws IOException when the stream of the agent cannot be read
+     */
+    private void assertHandshake() throws IOException {
+        assertEquals(HANDSHAKE, responses.readInt());
+        assertEquals(PROTOCOL_VERSION, responses.readByte());
+    }
+
+    /**
+     * Method used to send a request to the agent
+     *
+     * @param requestId The identifier of the request
+     * @param operation The operation to execute
+     * @param payload The payload of the request
+     * @throws IOException when the request cannot be written
+     */
+    private void sendRequest(int requestId, byte operation, byte[] payload) throws IOException {
+        requests.writeInt(requestId);
+        requests.writeByte(operation);
+        requests.writeInt(payload.length);
+        requests.write(payload);
+        requests.flush();
+    }
+
+    /**
+     * Method used to read the responses of the agent, which can be written in a different order than the requests
+     *
+     * @param count The number of the responses to read
+     * @return the responses keyed by the identifier of their request as {@link Map} of {@link Response}
+     * @throws IOException when the responses cannot be read
+     */
+    private Map<Integer, Response> readResponses(int count) throws IOException {
+        Map<Integer, Response> readResponses = new HashMap<>();
+        for (int j = 0; j < count; j++) {
+            int requestId = responses.readInt();
+            byte status = responses.readByte();
+            byte[] payload = new byte[responses.readInt()];
+            responses.readFully(payload);
+            readResponses.put(requestId, new Response(status, payload));
+        }
+        return readResponses;
+    }
+
+    /**
+     * Method used to encode a list of pids as payload of a request
+     *
+     * @param pids The pids to encode
+     * @return the payload as array of {@code byte}
+     * @throws IOException when the payload cannot be written
+     */
+    private static byte[] pids(long... pids) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream stream = new DataOutputStream(payload);
+        stream.writeInt(pids.length);
+        for (long pid : pids)
+            stream.writeLong(pid);
+        return payload.toByteArray();
+    }
+
+    /**
+     * The {@code Response} record represents a response of the agent
+     *
+     * @param status The status of the response
+     * @param payload The payload of the response
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private record Response(byte status, byte[] payload) {
+
+        /**
+         * Method used to get the payload as text
+         *
+         * @return the payload as {@link String}
+         */
+        private String text() {
+            return new String(payload, StandardCharsets.UTF_8);
+        }
+
+    }
+
+}
@@ -0,0 +1,202 @@
+package com.tecknobit.brownie.services.hosts.services;
+
+import com.tecknobit.brownie.services.hosts.entities.HostHistoryEvent;
+import com.tecknobit.brownie.services.shared.dtos.BrownieEventEntry;
+import com.tecknobit.brownie.services.shared.dtos.BrownieEventsPage;
+import com.tecknobit.brownie.services.shared.repositories.BrownieEventsHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.tecknobit.browniecore.enums.HostEventType.ONLINE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code HostEventsServiceTest} class is used to test the keyset pagination of the history of the events made by
+ * the {@link HostEventsService}
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+class HostEventsServiceTest {
+
+    /**
+     * {@code HOST_ID} the identifier of the owner of the events
+     */
+    private static final String HOST_ID = "host";
+
+    /**
+     * {@code historyRepository} the in-memory history of the events
+     */
+    private InMemoryHistoryRepository historyRepository;
+
+    /**
+     * {@code eventsService} the service to test
+     */
+    private HostEventsService eventsService;
+
+    /**
+     * Method used to init the history with events sharing the same date, so the pages are split by their identifier
+     */
+    @BeforeEach
+    void setUp() {
+        List<BrownieEventEntry> events = new ArrayList<>();
+        for (int i = 0; i < 7; i++)
+            events.add(new BrownieEventEntry("event-" + i, ONLINE.name(), 1000 + (i / 2) * 10, null, HOST_ID));
+        historyRepository = new InMemoryHistoryRepository(events);
+        eventsService = new HostEventsService(null, null, historyRepository, null);
+    }
+
+    /**
+     * Method used to test that the cursor of a page points to its last event and that walking the cursors retrieves
+     * every event exactly once
+     */
+    @Test
+    void walkPages() {
+        BrownieEventsPage<HostHistoryEvent> page = eventsService.getEventsPage(HOST_ID, null, 3, List.of(), null,
+                null);
+        assertNull(historyRepository.lastCursorDate);
+        assertEquals(4, historyRepository.lastLimit);
+        List<String> retrievedIds = new ArrayList<>();
+        int pages = 1;
+        while (true) {
+            page.getEvents().forEach(event -> retrievedIds.add(event.getId()));
+            if (page.getNextCursor() == null)
+                break;
+            HostHistoryEvent lastEvent = page.getEvents().get(page.getEvents().size() - 1);
+            String decodedCursor = new String(Base64.getUrlDecoder().decode(page.getNextCursor()), UTF_8);
+            assertEquals(lastEvent.getEventDate() + ":" + lastEvent.getId(), decodedCursor);
+            assertFalse(page.getNextCursor().contains("="));
+            page = eventsService.getEventsPage(HOST_ID, page.getNextCursor(), 3, List.of(), null, null);
+            assertEquals(lastEvent.getEventDate(), historyRepository.lastCursorDate);
+            assertEquals(lastEvent.getId(), historyRepository.lastCursorId);
+            pages++;
+        }
+        assertEquals(3, pages);
+        assertEquals(List.of("event-6", "event-5", "event-4", "event-3", "event-2", "event-1", "event-0"),
+                retrievedIds);
+    }
+
+    /**
+     * Method used to test that the last page has no cursor
+     */
+    @Test
+    void lastPageHasNoCursor() {
+        BrownieEventsPage<HostHistoryEvent> page = eventsService.getEventsPage(HOST_ID, null, 7, List.of(), null,
+                null);
+        assertEquals(7, page.getEvents().size());
+        assertNull(page.getNextCursor());
+    }
+
+    /**
+     * Method used to test that the identifiers containing the separator of the cursor are preserved
+     */
+    @Test
+    void cursorWithSeparatorInTheIdentifier() {
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString("1010:event:2".getBytes(UTF_8));
+        eventsService.getEventsPage(HOST_ID, cursor, 3, List.of(), null, null);
+        assertEquals(1010L, historyRepository.lastCursorDate);
+        assertEquals("event:2", historyRepository.lastCursorId);
+    }
+
+    /**
+     * Method used to test that the malformed cursors are rejected
+     */
+    @Test
+    void rejectInvalidCursors() {
+        for (String cursor : List.of("not base64!", encode("1010"), encode(":event-2"), encode("date:event-2")))
+            assertThrows(IllegalArgumentException.class, () -> eventsService.getEventsPage(HOST_ID, cursor, 3,
+                    List.of(), null, null));
+    }
+
+    /**
+     * Method used to test that the types of event are validated and the page size is bounded
+     */
+    @Test
+    void validateTypesAndPageSize() {
+        assertThrows(IllegalArgumentException.class, () -> eventsService.getEventsPage(HOST_ID, null, 3,
+                List.of("UNKNOWN"), null, null));
+        eventsService.getEventsPage(HOST_ID, null, 0, List.of(" ONLINE ", ""), null, null);
+        assertEquals(2, historyRepository.lastLimit);
+        assertEquals(List.of(ONLINE.name()), historyRepository.lastTypes);
+        eventsService.getEventsPage(HOST_ID, null, 1000, List.of(), null, null);
+        assertEquals(101, historyRepository.lastLimit);
+    }
+
+    /**
+     * Method used to encode a raw cursor
+     *
+     * @param rawCursor The raw cursor to encode
+     * @return the encoded cursor as {@link String}
+     */
+    private static String encode(String rawCursor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(rawCursor.getBytes(UTF_8));
+    }
+
+    /**
+     * The {@code InMemoryHistoryRepository} class is used to serve the history of the events from memory, applying
+     * the same keyset filter and ordering of the queries, and to capture the arguments of the last request
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private static final class InMemoryHistoryRepository extends BrownieEventsHistoryRepository {
+
+        /**
+         * {@code events} the events of the history
+         */
+        private final List<BrownieEventEntry> events;
+
+        /**
+         * {@code lastTypes} the types of the events of the last request
+         */
+        private Collection<String> lastTypes;
+
+        /**
+         * {@code lastCursorDate} the date of the cursor of the last request
+         */
+        private Long lastCursorDate;
+
+        /**
+         * {@code lastCursorId} the identifier of the cursor of the last request
+         */
+        private String lastCursorId;
+
+        /**
+         * {@code lastLimit} the limit of the last request
+         */
+        private int lastLimit;
+
+        /**
+         * Constructor to instantiate the repository
+         *
+         * @param events The events of the history
+         */
+        private InMemoryHistoryRepository(List<BrownieEventEntry> events) {
+            super(null);
+            this.events = events;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<BrownieEventEntry> getEvents(String eventsTable, String eventOwnerColumn, String eventOwnerId,
+                                                 Collection<String> types, Long fromDate, Long toDate,
+                                                 Long cursorDate, String cursorId, int limit) {
+            lastTypes = types;
+            lastCursorDate = cursorDate;
+            lastCursorId = cursorId;
+            lastLimit = limit;
+            return events.stream()
+                    .filter(event -> cursorDate == null || event.eventDate() < cursorDate ||
+                            (event.eventDate() == cursorDate && event.eventId().compareTo(cursorId) < 0))
+                    .sorted(Comparator.comparingLong(BrownieEventEntry::eventDate)
+                            .thenComparing(BrownieEventEntry::eventId).reversed())
+                    .limit(limit)
+                    .toList();
+        }
+
+    }
+
+}
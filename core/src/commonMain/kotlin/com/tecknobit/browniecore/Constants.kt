@@ -179,3 +179,228 @@ const val SERVICE_EVENTS_KEY = "service_events"
  * `REMOVE_FROM_THE_HOST_KEY` the key for the **"remove_from_the_host"** field
  */
 const val REMOVE_FROM_THE_HOST_KEY = "remove_from_the_host"
+
+/**
+ * `EVENTS_DAILY_AGGREGATES_KEY` the key for the **"events_daily_aggregates"** field
+ */
+const val EVENTS_DAILY_AGGREGATES_KEY = "events_daily_aggregates"
+
+/**
+ * `EVENTS_SOURCE_KEY` the key for the **"events_source"** field
+ */
+const val EVENTS_SOURCE_KEY = "events_source"
+
+/**
+ * `EVENT_OWNER_KEY` the key for the **"event_owner"** field
+ */
+const val EVENT_OWNER_KEY = "event_owner"
+
+/**
+ * `AGGREGATE_DAY_KEY` the key for the **"aggregate_day"** field
+ */
+const val AGGREGATE_DAY_KEY = "aggregate_day"
+
+/**
+ * `EVENTS_COUNT_KEY` the key for the **"events_count"** field
+ */
+const val EVENTS_COUNT_KEY = "events_count"
+
+/**
+ * `DOWNTIME_KEY` the key for the **"downtime"** field
+ */
+const val DOWNTIME_KEY = "downtime"
+
+/**
+ * `EVENTS_KEY` the key for the **"events"** field
+ */
+const val EVENTS_KEY = "events"
+
+/**
+ * `CURSOR_KEY` the key for the **"cursor"** field
+ */
+const val CURSOR_KEY = "cursor"
+
+/**
+ * `NEXT_CURSOR_KEY` the key for the **"next_cursor"** field
+ */
+const val NEXT_CURSOR_KEY = "next_cursor"
+
+/**
+ * `EVENT_TYPES_KEY` the key for the **"event_types"** field
+ */
+const val EVENT_TYPES_KEY = "event_types"
+
+/**
+ * `FROM_DATE_KEY` the key for the **"from_date"** field
+ */
+const val FROM_DATE_KEY = "from_date"
+
+/**
+ * `TO_DATE_KEY` the key for the **"to_date"** field
+ */
+const val TO_DATE_KEY = "to_date"
+
+/**
+ * `HOST_STATUS_KEY` the key for the **"host_status"** field
+ */
+const val HOST_STATUS_KEY = "host_status"
+
+/**
+ * `SERVICE_STATUS_KEY` the key for the **"service_status"** field
+ */
+const val SERVICE_STATUS_KEY = "service_status"
+
+/**
+ * `RESYNC_KEY` the key for the **"resync"** field
+ */
+const val RESYNC_KEY = "resync"
+
+/**
+ * `LAST_EVENT_IDENTIFIER_KEY` the key for the **"last_event_id"** field
+ */
+const val LAST_EVENT_IDENTIFIER_KEY = "last_event_id"
+
+/**
+ * `VERSION_KEY` the key for the **"version"** field
+ */
+const val VERSION_KEY = "version"
+
+/**
+ * `HOST_METRICS_CHUNKS_KEY` the key for the **"host_metrics_chunks"** field
+ */
+const val HOST_METRICS_CHUNKS_KEY = "host_metrics_chunks"
+
+/**
+ * `METRICS_TIER_KEY` the key for the **"metrics_tier"** field
+ */
+const val METRICS_TIER_KEY = "metrics_tier"
+
+/**
+ * `CHUNK_START_KEY` the key for the **"chunk_start"** field
+ */
+const val CHUNK_START_KEY = "chunk_start"
+
+/**
+ * `CHUNK_END_KEY` the key for the **"chunk_end"** field
+ */
+const val CHUNK_END_KEY = "chunk_end"
+
+/**
+ * `SAMPLES_KEY` the key for the **"samples"** field
+ */
+const val SAMPLES_KEY = "samples"
+
+/**
+ * `TIMESTAMPS_KEY` the key for the **"timestamps"** field
+ */
+const val TIMESTAMPS_KEY = "timestamps"
+
+/**
+ * `CORES_USAGE_KEY` the key for the **"cores_usage"** field
+ */
+const val CORES_USAGE_KEY = "cores_usage"
+
+/**
+ * `SERVICES_USAGE_KEY` the key for the **"services_usage"** field
+ */
+const val SERVICES_USAGE_KEY = "services_usage"
+
+/**
+ * `SERVICE_METRICS_CHUNKS_KEY` the key for the **"service_metrics_chunks"** field
+ */
+const val SERVICE_METRICS_CHUNKS_KEY = "service_metrics_chunks"
+
+/**
+ * `RESOURCES_KEY` the key for the **"resources"** field
+ */
+const val RESOURCES_KEY = "resources"
+
+/**
+ * `CPU_TIME_KEY` the key for the **"cpu_time"** field
+ */
+const val CPU_TIME_KEY = "cpu_time"
+
+/**
+ * `THREADS_KEY` the key for the **"threads"** field
+ */
+const val THREADS_KEY = "threads"
+
+/**
+ * `OPEN_FILE_DESCRIPTORS_KEY` the key for the **"open_file_descriptors"** field
+ */
+const val OPEN_FILE_DESCRIPTORS_KEY = "open_file_descriptors"
+
+/**
+ * `START_TIME_KEY` the key for the **"start_time"** field
+ */
+const val START_TIME_KEY = "start_time"
+
+/**
+ * `SAMPLE_DATE_KEY` the key for the **"sample_date"** field
+ */
+const val SAMPLE_DATE_KEY = "sample_date"
+
+/**
+ * `PROCESS_START_TICKS_KEY` the key for the **"process_start_ticks"** field
+ */
+const val PROCESS_START_TICKS_KEY = "process_start_ticks"
+
+/**
+ * `JOB_KEY` the key for the **"job"** field
+ */
+const val JOB_KEY = "job"
+
+/**
+ * `JOB_IDENTIFIER_KEY` the key for the **"job_id"** field
+ */
+const val JOB_IDENTIFIER_KEY = "job_id"
+
+/**
+ * `JOB_STATUS_KEY` the key for the **"job_status"** field
+ */
+const val JOB_STATUS_KEY = "job_status"
+
+/**
+ * `OPERATION_KEY` the key for the **"operation"** field
+ */
+const val OPERATION_KEY = "operation"
+
+/**
+ * `SUBMISSION_DATE_KEY` the key for the **"submission_date"** field
+ */
+const val SUBMISSION_DATE_KEY = "submission_date"
+
+/**
+ * `EXECUTION_DATE_KEY` the key for the **"execution_date"** field
+ */
+const val EXECUTION_DATE_KEY = "execution_date"
+
+/**
+ * `COMPLETION_DATE_KEY` the key for the **"completion_date"** field
+ */
+const val COMPLETION_DATE_KEY = "completion_date"
+
+/**
+ * `FAILURE_REASON_KEY` the key for the **"failure_reason"** field
+ */
+const val FAILURE_REASON_KEY = "failure_reason"
+
+/**
+ * `TARGETS_KEY` the key for the **"targets"** field
+ */
+const val TARGETS_KEY = "targets"
+
+/**
+ * `BULK_OPERATION_MODE_KEY` the key for the **"mode"** field
+ */
+const val BULK_OPERATION_MODE_KEY = "mode"
+
+/**
+ * `CONCURRENCY_KEY` the key for the **"concurrency"** field
+ */
+const val CONCURRENCY_KEY = "concurrency"
+
+/**
+ * `BULK_OPERATION_COMPLETED_KEY` the key for the **"bulk_operation_completed"** field
+ */
+const val BULK_OPERATION_COMPLETED_KEY = "bulk_operation_completed"
@@ -0,0 +1,22 @@
+package com.tecknobit.browniecore.enums
+
+import kotlinx.serialization.Serializable
+
+/**
+ * `BulkOperationMode` list of the available modes to execute a lifecycle operation on more hosts at once
+ */
+@Serializable
+enum class BulkOperationMode {
+
+    /**
+     * `ROLLING` the hosts are handled in consecutive waves, a wave is started only when the previous one has been
+     * completed without failures
+     */
+    ROLLING,
+
+    /**
+     * `PARALLEL` the hosts are handled concurrently and independently of the failures of the others
+     */
+    PARALLEL
+
+}
@@ -0,0 +1,40 @@
+package com.tecknobit.browniecore.enums
+
+import kotlinx.serialization.Serializable
+
+/**
+ * `JobStatus` list of the available status related to a job of a lifecycle operation of a service
+ */
+@Serializable
+enum class JobStatus {
+
+    /**
+     * `PENDING` the job has been submitted and it is waiting to be executed
+     */
+    PENDING,
+
+    /**
+     * `RUNNING` the job is currently executing the operation on the host
+     */
+    RUNNING,
+
+    /**
+     * `COMPLETED` the operation of the job has been successfully completed
+     */
+    COMPLETED,
+
+    /**
+     * `FAILED` the operation of the job has failed
+     */
+    FAILED;
+
+    /**
+     * Method used to check whether the job has been terminated, either [COMPLETED] or [FAILED]
+     *
+     * @return whether the job has been terminated as [Boolean]
+     */
+    fun isTerminated(): Boolean {
+        return this == COMPLETED || this == FAILED
+    }
+
+}
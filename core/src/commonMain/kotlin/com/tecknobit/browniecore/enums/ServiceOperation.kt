@@ -0,0 +1,26 @@
+package com.tecknobit.browniecore.enums
+
+import kotlinx.serialization.Serializable
+
+/**
+ * `ServiceOperation` list of the available lifecycle operations which can be executed on a service
+ */
+@Serializable
+enum class ServiceOperation {
+
+    /**
+     * `START` the operation used to start a service
+     */
+    START,
+
+    /**
+     * `REBOOT` the operation used to reboot a service
+     */
+    REBOOT,
+
+    /**
+     * `STOP` the operation used to stop a service
+     */
+    STOP
+
+}
@@ -34,4 +34,36 @@ object BrownieEndpoints : EquinoxBaseEndpointsSet() {
      */
     const val OVERVIEW_ENDPOINT = "/overview"
 
-}
\ No newline at end of file
+    /**
+     * `EVENTS_ENDPOINT` endpoint used to retrieve the history of the events of a host or a service
+     */
+    const val EVENTS_ENDPOINT = "/events"
+
+    /**
+     * `EVENTS_AGGREGATES_ENDPOINT` endpoint used to retrieve the daily aggregates of the events of a host or a service
+     * compacted by the retention routine
+     */
+    const val EVENTS_AGGREGATES_ENDPOINT = "/events/aggregates"
+
+    /**
+     * `METRICS_ENDPOINT` endpoint used to retrieve the historical series of the metrics of a host
+     */
+    const val METRICS_ENDPOINT = "/metrics"
+
+    /**
+     * `STATUS_STREAM_ENDPOINT` endpoint used to receive the changes of the statuses of the hosts and of the services
+     * of a session as server-sent events
+     */
+    const val STATUS_STREAM_ENDPOINT = "/status/stream"
+
+    /**
+     * `JOBS_ENDPOINT` endpoint used to retrieve the status of the jobs of the lifecycle operations of the services
+     */
+    const val JOBS_ENDPOINT = "/jobs"
+
+    /**
+     * `BULK_OPERATIONS_ENDPOINT` endpoint used to execute a lifecycle operation on the services of more hosts at once
+     */
+    const val BULK_OPERATIONS_ENDPOINT = "/bulk"
+
+}